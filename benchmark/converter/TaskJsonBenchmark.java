@@ -0,0 +1,103 @@
+package converter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import service.server.HttpTaskServer;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сравнение потоковых адаптеров из HttpTaskServer.getGson() с рефлективным Gson.
+// Запуск с GCProfiler показывает и аллокации на операцию (gc.alloc.rate.norm)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskJsonBenchmark {
+    private static final Type SUBTASK_LIST_TYPE = new TypeToken<List<Subtask>>() {
+    }.getType();
+
+    @Param({"REFLECTIVE", "STREAMING"})
+    private String codec;
+
+    @Param({"1", "100"})
+    private int size;
+
+    private Gson gson;
+    private List<Task> tasks;
+    private String subtasksJson;
+    private String taskJson;
+    private String epicJson;
+
+    @Setup
+    public void setUp() {
+        gson = "STREAMING".equals(codec)
+                ? HttpTaskServer.getGson()
+                : new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .create();
+
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Subtask> subtasks = new ArrayList<>();
+        tasks = new ArrayList<>();
+        Epic epic = new Epic(0, TaskStatus.IN_PROGRESS, "epic", "epic description", start, Duration.ofHours(size));
+        epic.setEndTime(start.plusHours(size));
+
+        for (int i = 1; i <= size; i++) {
+            Subtask subtask = new Subtask(i, TaskStatus.NEW, "subtask " + i, "subtask description", 0, start.plusHours(i), Duration.ofMinutes(45));
+            epic.addSubtask(i);
+            subtasks.add(subtask);
+            tasks.add(subtask);
+            tasks.add(new Task(size + i, TaskStatus.DONE, "task " + i, "task description", start.minusHours(i), Duration.ofMinutes(30)));
+        }
+
+        tasks.add(epic);
+        subtasksJson = gson.toJson(subtasks);
+        taskJson = gson.toJson(tasks.get(1));
+        epicJson = gson.toJson(epic);
+    }
+
+    @Benchmark
+    public String encodeTaskList() {
+        return gson.toJson(tasks);
+    }
+
+    @Benchmark
+    public List<Subtask> decodeSubtaskList() {
+        return gson.fromJson(subtasksJson, SUBTASK_LIST_TYPE);
+    }
+
+    @Benchmark
+    public Task decodeTask() {
+        return gson.fromJson(taskJson, Task.class);
+    }
+
+    @Benchmark
+    public Epic decodeEpic() {
+        return gson.fromJson(epicJson, Epic.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TaskJsonBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
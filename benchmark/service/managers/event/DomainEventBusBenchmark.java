@@ -0,0 +1,68 @@
+package service.managers.event;
+
+import model.Task;
+import model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import service.managers.Managers;
+import service.managers.task.InMemoryTaskManager;
+
+import java.util.concurrent.TimeUnit;
+
+// Цена слушателя для пути записи: создание и удаление задачи без слушателей, со слушателем ленты изменений,
+// который вызывается в потоке записи, и с тем же слушателем, подписанным на шину доменных событий.
+// Запуск без сети: java -cp <классы и jar из lib> service.managers.event.DomainEventBusBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class DomainEventBusBenchmark {
+    // Условная работа слушателя на одно событие, например запись в журнал
+    private static final long LISTENER_TOKENS = 500;
+
+    @Param({"NONE", "FEED_LISTENER", "BUS_LISTENER"})
+    private String listener;
+
+    private InMemoryTaskManager taskManager;
+    private DomainEventBus.Subscription subscription;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskManager = new InMemoryTaskManager(Managers.getDefaultHistory());
+
+        switch (listener) {
+            case "NONE" -> {
+            }
+            case "FEED_LISTENER" -> taskManager.getChangeFeed().addListener(event -> Blackhole.consumeCPU(LISTENER_TOKENS));
+            case "BUS_LISTENER" -> subscription = taskManager.getEventBus().subscribe("benchmark",
+                    events -> Blackhole.consumeCPU(LISTENER_TOKENS * events.size()));
+            default -> throw new IllegalArgumentException("Unknown listener: " + listener);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    @Benchmark
+    public Task createAndRemoveTask() {
+        Task task = taskManager.createTask(new Task(TaskStatus.NEW, "task", "description"));
+        taskManager.removeTask(task.getId());
+
+        return task;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DomainEventBusBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
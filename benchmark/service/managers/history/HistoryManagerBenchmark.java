@@ -0,0 +1,129 @@
+package service.managers.history;
+
+import model.Task;
+import model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Доступ к истории просмотров при заполненной истории из size задач. Чтобы размер истории не менялся между вызовами,
+// добавление новой задачи измеряется вместе с вытеснением самой старой, а удаление - вместе с повторным добавлением.
+// Многопоточные варианты обращаются к истории под общей блокировкой, как это делает SynchronizedTaskManager.
+// Новая реализация HistoryManager сравнивается добавлением ее имени в implementation и в createHistoryManager
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class HistoryManagerBenchmark {
+    private static final int CONTENDED_THREADS = 4;
+
+    @Param({"IN_MEMORY"})
+    private String implementation;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int size;
+
+    private HistoryManager historyManager;
+    // Задачи с идентификаторами 0..2 * size - 1, в истории всегда size из них, начиная с oldest по модулю 2 * size
+    private Task[] tasks;
+    private int oldest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        historyManager = createHistoryManager(implementation);
+        tasks = new Task[size * 2];
+
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task(TaskStatus.NEW, "task " + i, "description");
+            tasks[i].setId(i);
+        }
+
+        for (int i = 0; i < size; i++) {
+            historyManager.add(tasks[i]);
+        }
+    }
+
+    @Benchmark
+    public void addNewEvictingOldest() {
+        historyManager.add(tasks[(oldest + size) % tasks.length]);
+        historyManager.remove(oldest);
+        oldest = (oldest + 1) % tasks.length;
+    }
+
+    @Benchmark
+    public void addPresent() {
+        historyManager.add(randomPresentTask());
+    }
+
+    @Benchmark
+    public void removeAndAddBack() {
+        Task task = randomPresentTask();
+        historyManager.remove(task.getId());
+        historyManager.add(task);
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public void addPresentContended() {
+        Task task = randomPresentTask();
+
+        synchronized (historyManager) {
+            historyManager.add(task);
+        }
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public List<Task> getHistoryContended() {
+        synchronized (historyManager) {
+            return historyManager.getHistory();
+        }
+    }
+
+    // Смешанная нагрузка: на каждые 9 просмотров задач приходится одно чтение всей истории
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public Object mixedContended() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (random.nextInt(10) == 0) {
+            return getHistoryContended();
+        }
+
+        addPresentContended();
+
+        return null;
+    }
+
+    // В многопоточных вариантах oldest не меняется, поэтому окно задач в истории остается прежним
+    private Task randomPresentTask() {
+        return tasks[(oldest + ThreadLocalRandom.current().nextInt(size)) % tasks.length];
+    }
+
+    private static HistoryManager createHistoryManager(String implementation) {
+        return switch (implementation) {
+            case "IN_MEMORY" -> new InMemoryHistoryManager();
+            default -> throw new IllegalArgumentException("Unknown history manager: " + implementation);
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HistoryManagerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package service.managers.task;
+
+import model.Task;
+import model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import service.managers.Managers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Каждое изменение переписывает CSV-файл целиком, поэтому размеры доски меньше, чем в InMemoryTaskManagerBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileBackedTaskManagerBenchmark {
+    private static final LocalDateTime BOARD_START = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final Duration SLOT_DURATION = Duration.ofMinutes(30);
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private Path storage;
+    private FileBackedTaskManager taskManager;
+    private int[] taskIds;
+    private long nextFreeSlot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        storage = Files.createTempFile("kanban-benchmark", ".csv");
+        taskManager = new FileBackedTaskManager(Managers.getDefaultHistory(), storage.toString());
+        taskIds = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            taskIds[i] = taskManager.createTask(new Task(TaskStatus.NEW, "task " + i, "description", slot(nextFreeSlot++), SLOT_DURATION)).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(storage);
+    }
+
+    @Benchmark
+    public Task createAndRemoveTask() {
+        Task task = taskManager.createTask(new Task(TaskStatus.NEW, "new task", "description", slot(nextFreeSlot++), SLOT_DURATION));
+        taskManager.removeTask(task.getId());
+
+        return task;
+    }
+
+    @Benchmark
+    public Task updateTask() {
+        Task task = taskManager.tasks.get(taskIds[ThreadLocalRandom.current().nextInt(taskIds.length)]);
+
+        return taskManager.updateTask(new Task(task.getId(), TaskStatus.IN_PROGRESS, task.getName(), task.getDescription(), task.getStartTime(), task.getDuration()));
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile() {
+        return FileBackedTaskManager.loadFromFile(Managers.getDefaultHistory(), storage.toString());
+    }
+
+    private static LocalDateTime slot(long index) {
+        return BOARD_START.plusHours(index);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FileBackedTaskManagerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
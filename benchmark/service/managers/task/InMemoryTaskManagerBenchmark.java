@@ -0,0 +1,137 @@
+package service.managers.task;
+
+import exception.OverlappingException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import service.managers.Managers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Основные операции менеджера на доске из size задач, каждая в своем часовом интервале, и одном большом эпике
+// с size / 10 подзадачами. Создаваемые в замерах задачи сразу удаляются, чтобы размер доски не рос.
+// Запуск без сети: java -cp <классы и jar из lib> service.managers.task.InMemoryTaskManagerBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class InMemoryTaskManagerBenchmark {
+    private static final LocalDateTime BOARD_START = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final Duration SLOT_DURATION = Duration.ofMinutes(30);
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private InMemoryTaskManager taskManager;
+    private int[] taskIds;
+    private int[] subtaskIds;
+    private int bigEpicId;
+    private long nextFreeSlot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskManager = new InMemoryTaskManager(Managers.getDefaultHistory());
+        taskIds = new int[size];
+        subtaskIds = new int[Math.max(1, size / 10)];
+        bigEpicId = taskManager.createEpic(new Epic("big epic", "epic with many subtasks")).getId();
+
+        for (int i = 0; i < size; i++) {
+            taskIds[i] = taskManager.createTask(new Task(TaskStatus.NEW, "task " + i, "description", slot(nextFreeSlot++), SLOT_DURATION)).getId();
+        }
+
+        for (int i = 0; i < subtaskIds.length; i++) {
+            TaskStatus status = i % 2 == 0 ? TaskStatus.NEW : TaskStatus.DONE;
+            subtaskIds[i] = taskManager.createSubtask(new Subtask(status, "subtask " + i, "description", bigEpicId, slot(nextFreeSlot++), SLOT_DURATION)).getId();
+        }
+    }
+
+    @Benchmark
+    public Task createAndRemoveTask() {
+        Task task = taskManager.createTask(new Task(TaskStatus.NEW, "new task", "description", slot(nextFreeSlot++), SLOT_DURATION));
+        taskManager.removeTask(task.getId());
+
+        return task;
+    }
+
+    @Benchmark
+    public Task updateTask() {
+        Task task = taskManager.tasks.get(randomId(taskIds));
+
+        return taskManager.updateTask(new Task(task.getId(), TaskStatus.IN_PROGRESS, task.getName(), task.getDescription(), task.getStartTime(), task.getDuration()));
+    }
+
+    // Пересчет состояния эпика проходит по всем его подзадачам
+    @Benchmark
+    public Subtask createAndRemoveSubtaskOfBigEpic() {
+        Subtask subtask = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "new subtask", "description", bigEpicId, slot(nextFreeSlot++), SLOT_DURATION));
+        taskManager.removeSubtask(subtask.getId());
+
+        return subtask;
+    }
+
+    @Benchmark
+    public Subtask updateSubtaskOfBigEpic() {
+        Subtask subtask = taskManager.subtasks.get(randomId(subtaskIds));
+        TaskStatus status = subtask.getStatus() == TaskStatus.DONE ? TaskStatus.NEW : TaskStatus.DONE;
+
+        return taskManager.updateSubtask(new Subtask(subtask.getId(), status, subtask.getName(), subtask.getDescription(),
+                bigEpicId, subtask.getStartTime(), subtask.getDuration()));
+    }
+
+    @Benchmark
+    public Epic createAndRemoveEpic() {
+        Epic epic = taskManager.createEpic(new Epic("new epic", "description"));
+        taskManager.removeEpic(epic.getId());
+
+        return epic;
+    }
+
+    // Попытка занять уже занятый интервал: проверка пересечения отклоняет задачу
+    @Benchmark
+    public OverlappingException rejectOverlappingTask() {
+        Task existing = taskManager.tasks.get(randomId(taskIds));
+
+        try {
+            taskManager.createTask(new Task(TaskStatus.NEW, "overlapping", "description", existing.getStartTime().plusMinutes(10), SLOT_DURATION));
+        } catch (OverlappingException e) {
+            return e;
+        }
+
+        throw new IllegalStateException("Overlapping task was accepted");
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks() {
+        return taskManager.getPrioritizedTasks();
+    }
+
+    @Benchmark
+    public List<Subtask> getEpicSubtasksOfBigEpic() {
+        return taskManager.getEpicSubtasks(bigEpicId);
+    }
+
+    private static LocalDateTime slot(long index) {
+        return BOARD_START.plusHours(index);
+    }
+
+    private static int randomId(int[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InMemoryTaskManagerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
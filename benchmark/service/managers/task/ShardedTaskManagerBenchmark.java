@@ -0,0 +1,117 @@
+package service.managers.task;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import service.managers.Managers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Пропускная способность записи из нескольких потоков: один менеджер под общей блокировкой против шардированного.
+// На доске size задач в своих часовых интервалах и size / 10 эпиков по 10 подзадач. Изменения без времени начала
+// шарды выполняют независимо, а задачи со временем дополнительно занимают его в общем расписании.
+// Запуск без сети: java -cp <классы и jar из lib> service.managers.task.ShardedTaskManagerBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@Threads(8)
+@State(Scope.Benchmark)
+public class ShardedTaskManagerBenchmark {
+    private static final LocalDateTime BOARD_START = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final Duration SLOT_DURATION = Duration.ofMinutes(30);
+
+    @Param({"SYNCHRONIZED", "SHARDED"})
+    private String implementation;
+
+    @Param({"10000"})
+    private int size;
+
+    private TaskManager taskManager;
+    private int[] taskIds;
+    private int[] epicIds;
+    private final AtomicLong nextFreeSlot = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskManager = createTaskManager();
+        taskIds = new int[size];
+        epicIds = new int[Math.max(1, size / 10)];
+
+        for (int i = 0; i < size; i++) {
+            taskIds[i] = taskManager.createTask(new Task(TaskStatus.NEW, "task " + i, "description", nextSlot(), SLOT_DURATION)).getId();
+        }
+
+        for (int i = 0; i < epicIds.length; i++) {
+            epicIds[i] = taskManager.createEpic(new Epic("epic " + i, "description")).getId();
+
+            for (int j = 0; j < 10; j++) {
+                taskManager.createSubtask(new Subtask(TaskStatus.NEW, "subtask " + j, "description", epicIds[i]));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (taskManager instanceof ShardedTaskManager shardedTaskManager) {
+            shardedTaskManager.close();
+        }
+    }
+
+    // Время задачи не меняется, поэтому общее расписание не затрагивается
+    @Benchmark
+    public Task updateTaskStatus() {
+        int id = randomId(taskIds);
+        TaskStatus status = ThreadLocalRandom.current().nextBoolean() ? TaskStatus.NEW : TaskStatus.DONE;
+
+        return taskManager.updateTask(new Task(id, status, "task", "description", BOARD_START.plusHours(id), SLOT_DURATION));
+    }
+
+    @Benchmark
+    public Subtask createAndRemoveSubtask() {
+        Subtask subtask = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "new subtask", "description", randomId(epicIds)));
+        taskManager.removeSubtask(subtask.getId());
+
+        return subtask;
+    }
+
+    @Benchmark
+    public Task createAndRemoveScheduledTask() {
+        Task task = taskManager.createTask(new Task(TaskStatus.NEW, "new task", "description", nextSlot(), SLOT_DURATION));
+        taskManager.removeTask(task.getId());
+
+        return task;
+    }
+
+    private TaskManager createTaskManager() {
+        return switch (implementation) {
+            case "SYNCHRONIZED" -> new SynchronizedTaskManager(new InMemoryTaskManager(Managers.getDefaultHistory()));
+            case "SHARDED" -> new ShardedTaskManager(Managers.getDefaultHistory());
+            default -> throw new IllegalArgumentException("Unknown task manager: " + implementation);
+        };
+    }
+
+    private LocalDateTime nextSlot() {
+        return BOARD_START.plusHours(nextFreeSlot.getAndIncrement());
+    }
+
+    private static int randomId(int[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ShardedTaskManagerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
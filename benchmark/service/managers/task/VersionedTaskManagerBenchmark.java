@@ -0,0 +1,63 @@
+package service.managers.task;
+
+import model.Task;
+import model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import service.managers.Managers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Цена версий для записи: изменение задачи в менеджере под общей блокировкой и в менеджере с версиями,
+// который после каждого изменения копирует задачу в новую версию доски. Снимок версии берется за O(1).
+// Запуск без сети: java -cp <классы и jar из lib> service.managers.task.VersionedTaskManagerBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class VersionedTaskManagerBenchmark {
+    private static final LocalDateTime BOARD_START = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final Duration SLOT_DURATION = Duration.ofMinutes(30);
+
+    @Param({"SYNCHRONIZED", "VERSIONED"})
+    private String implementation;
+
+    @Param({"10000"})
+    private int size;
+
+    private TaskManager taskManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskManager = switch (implementation) {
+            case "SYNCHRONIZED" -> new SynchronizedTaskManager(new InMemoryTaskManager(Managers.getDefaultHistory()));
+            case "VERSIONED" -> new VersionedTaskManager(Managers.getDefaultHistory());
+            default -> throw new IllegalArgumentException("Unknown task manager: " + implementation);
+        };
+
+        for (int i = 0; i < size; i++) {
+            taskManager.createTask(new Task(TaskStatus.NEW, "task " + i, "description", BOARD_START.plusHours(i), SLOT_DURATION));
+        }
+    }
+
+    @Benchmark
+    public Task updateTaskStatus() {
+        int id = ThreadLocalRandom.current().nextInt(size);
+        TaskStatus status = ThreadLocalRandom.current().nextBoolean() ? TaskStatus.NEW : TaskStatus.DONE;
+
+        return taskManager.updateTask(new Task(id, status, "task", "description", BOARD_START.plusHours(id), SLOT_DURATION));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(VersionedTaskManagerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
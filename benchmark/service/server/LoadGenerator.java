@@ -0,0 +1,310 @@
+package service.server;
+
+import com.google.gson.Gson;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import service.managers.Managers;
+import service.managers.task.InMemoryTaskManager;
+import service.metrics.LatencyHistogram;
+import service.server.transport.TransportType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Генератор нагрузки с открытым циклом: запросы отправляются по расписанию с заданной частотой, не дожидаясь ответов.
+// Время ответа отсчитывается от запланированного момента отправки, поэтому задержки сервера не прячутся
+// за замедлившимся генератором (coordinated omission). Время обслуживания отсчитывается от фактической отправки.
+//
+// Параметры в виде --имя=значение:
+//   --uri=http://localhost:8080  адрес сервера
+//   --rate=200                   запросов в секунду
+//   --duration=30                длительность в секундах
+//   --mix=get=80,post=15,delete=5 доли запросов
+//   --seed=50                    сколько эпиков, подзадач и задач создать перед запуском
+//   --max-in-flight=10000        предел одновременных запросов, сверх него запросы ждут освобождения места,
+//                                и ожидание входит во время ответа
+//   --server=NIO                 запустить сервер в этом же процессе на указанном движке (JDK или NIO), без ограничения частоты
+public class LoadGenerator {
+    private static final List<String> LIST_PATHS = List.of("/tasks", "/subtasks", "/epics", "/history", "/prioritized");
+    private final Gson gson = HttpTaskServer.getGson();
+    private final HttpClient client;
+    private final URI baseUri;
+    private final double rate;
+    private final long durationNanos;
+    private final int getWeight;
+    private final int postWeight;
+    private final int deleteWeight;
+    private final int seedSize;
+    private final int maxInFlight;
+    private final List<Integer> epicIds = new ArrayList<>();
+    private final List<Integer> taskIds = new ArrayList<>();
+    private final ConcurrentLinkedQueue<String> createdPaths = new ConcurrentLinkedQueue<>();
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final Semaphore inFlight;
+
+    public LoadGenerator(URI baseUri, double rate, long durationSeconds, String mix, int seedSize, int maxInFlight) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.baseUri = baseUri;
+        this.rate = rate;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.seedSize = seedSize;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+
+        Map<String, Integer> weights = parseMix(mix);
+        this.getWeight = weights.getOrDefault("get", 0);
+        this.postWeight = weights.getOrDefault("post", 0);
+        this.deleteWeight = weights.getOrDefault("delete", 0);
+
+        if (getWeight + postWeight + deleteWeight <= 0) {
+            throw new IllegalArgumentException("Request mix should contain at least one positive weight: " + mix);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        URI uri = URI.create(options.getOrDefault("uri", "http://localhost:8080"));
+        HttpTaskServer server = null;
+
+        if (options.containsKey("server")) {
+            ServerConfig config = new ServerConfig();
+            config.setPort(uri.getPort());
+            config.setTransport(TransportType.valueOf(options.get("server")));
+            config.setReadRateLimit(0);
+            config.setWriteRateLimit(0);
+            server = new HttpTaskServer(new InMemoryTaskManager(Managers.getDefaultHistory()), config);
+            server.start();
+        }
+
+        LoadGenerator generator = new LoadGenerator(uri,
+                Double.parseDouble(options.getOrDefault("rate", "200")),
+                Long.parseLong(options.getOrDefault("duration", "30")),
+                options.getOrDefault("mix", "get=80,post=15,delete=5"),
+                Integer.parseInt(options.getOrDefault("seed", "50")),
+                Integer.parseInt(options.getOrDefault("max-in-flight", "10000")));
+
+        try {
+            generator.seed();
+            long elapsedNanos = generator.run();
+            generator.printReport(elapsedNanos);
+        } finally {
+            generator.client.close();
+
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    public void seed() throws IOException, InterruptedException {
+        for (int i = 0; i < seedSize; i++) {
+            epicIds.add(create("/epics", new Epic("epic " + i, "seeded epic")));
+        }
+
+        for (int i = 0; i < seedSize; i++) {
+            create("/subtasks", new Subtask(TaskStatus.NEW, "subtask " + i, "seeded subtask", epicIds.get(i % epicIds.size())));
+            taskIds.add(create("/tasks", new Task(TaskStatus.NEW, "task " + i, "seeded task")));
+        }
+    }
+
+    // Возвращает фактическую длительность от первого запланированного запроса до последнего ответа
+    public long run() throws InterruptedException {
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intendedStart = start + i * periodNanos;
+
+                if (intendedStart - start >= durationNanos) {
+                    break;
+                }
+
+                long delay = intendedStart - System.nanoTime();
+
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+
+                // Запрос сверх предела не выбрасывается, а ждет места: время ответа все равно отсчитывается от
+                // запланированного момента, и следующие запросы по расписанию уходят сразу, как только место появится
+                if (!inFlight.tryAcquire()) {
+                    queued.increment();
+                    inFlight.acquire();
+                }
+
+                executor.execute(() -> {
+                    try {
+                        execute(intendedStart);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    public void printReport(long elapsedNanos) {
+        double elapsedSeconds = elapsedNanos / 1e9;
+        long completed = responseTime.getCount();
+        Map<Integer, Long> statuses = new TreeMap<>();
+        statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+
+        System.out.printf("Target rate: %.1f req/s, achieved: %.1f req/s over %.1f s%n", rate, completed / elapsedSeconds, elapsedSeconds);
+        System.out.printf("Requests: %d completed, %d failed, %d queued (in-flight limit %d)%n", completed, failed.sum(), queued.sum(), maxInFlight);
+        System.out.println("Status codes: " + statuses);
+        System.out.printf("%-16s %9s %9s %9s %9s %9s%n", "Latency (ms)", "p50", "p90", "p99", "p99.9", "max");
+        printLatencies("response time", responseTime);
+        printLatencies("service time", serviceTime);
+    }
+
+    private void execute(long intendedStart) {
+        HttpRequest request = nextRequest();
+        long sendStart = System.nanoTime();
+
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            long end = System.nanoTime();
+            responseTime.record(end - intendedStart);
+            serviceTime.record(end - sendStart);
+            statusCounts.computeIfAbsent(response.statusCode(), status -> new LongAdder()).increment();
+            response.headers().firstValue("X-Task-Id")
+                    .ifPresent(id -> createdPaths.add(request.uri().getPath() + "/" + id));
+        } catch (IOException e) {
+            failed.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpRequest nextRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int choice = random.nextInt(getWeight + postWeight + deleteWeight);
+
+        if (choice < postWeight) {
+            return nextPost(random);
+        }
+
+        if (choice < postWeight + deleteWeight) {
+            String path = createdPaths.poll();
+
+            if (path != null) {
+                return HttpRequest.newBuilder(baseUri.resolve(path)).DELETE().build();
+            }
+        }
+
+        return nextGet(random);
+    }
+
+    private HttpRequest nextGet(ThreadLocalRandom random) {
+        String path;
+
+        // Одиночная задача нужна, чтобы история не была пустой
+        if (random.nextInt(LIST_PATHS.size() + 1) == 0 && !taskIds.isEmpty()) {
+            path = "/tasks/" + taskIds.get(random.nextInt(taskIds.size()));
+        } else {
+            path = LIST_PATHS.get(random.nextInt(LIST_PATHS.size()));
+        }
+
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+
+    // Созданные задачи запоминаются по X-Task-Id и становятся кандидатами на удаление
+    private HttpRequest nextPost(ThreadLocalRandom random) {
+        String listPath;
+        Task task;
+
+        switch (epicIds.isEmpty() ? random.nextInt(2) : random.nextInt(3)) {
+            case 0 -> {
+                listPath = "/tasks";
+                task = new Task(TaskStatus.NEW, "load task", "created by load generator");
+            }
+            case 1 -> {
+                listPath = "/epics";
+                task = new Epic("load epic", "created by load generator");
+            }
+            default -> {
+                listPath = "/subtasks";
+                task = new Subtask(TaskStatus.NEW, "load subtask", "created by load generator", epicIds.get(random.nextInt(epicIds.size())));
+            }
+        }
+
+        return HttpRequest.newBuilder(baseUri.resolve(listPath))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                .build();
+    }
+
+    private int create(String listPath, Task task) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(listPath))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+
+        return Integer.parseInt(response.headers().firstValue("X-Task-Id")
+                .orElseThrow(() -> new IOException("Server did not return X-Task-Id for " + listPath + ": " + response.statusCode())));
+    }
+
+    private void printLatencies(String name, LatencyHistogram histogram) {
+        System.out.printf("%-16s %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                histogram.getValueAtPercentile(50) / 1e6,
+                histogram.getValueAtPercentile(90) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6,
+                histogram.getValueAtPercentile(100) / 1e6);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new HashMap<>();
+
+        for (String part : mix.split(",")) {
+            String[] weight = part.split("=");
+            weights.put(weight[0].trim().toLowerCase(), Integer.parseInt(weight[1].trim()));
+        }
+
+        return weights;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+
+            int delimiterIndex = arg.indexOf('=');
+            options.put(arg.substring(2, delimiterIndex), arg.substring(delimiterIndex + 1));
+        }
+
+        return options;
+    }
+}
@@ -0,0 +1,89 @@
+package service.server;
+
+import model.Epic;
+import model.Subtask;
+import model.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import service.managers.Managers;
+import service.managers.task.InMemoryTaskManager;
+import service.managers.task.TaskManager;
+import service.server.transport.TransportType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// Запросов в секунду на JDK- и NIO-движке при одинаковых обработчиках. Каждый поток держит свое keep-alive соединение.
+// Запрос подзадач эпика не кэшируется и не меняет историю, поэтому в основном измеряется сетевой движок
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class TransportBenchmark {
+    private static final int PORT = 8090;
+
+    @State(Scope.Benchmark)
+    public static class ServerState {
+        @Param({"JDK", "NIO"})
+        private TransportType transport;
+
+        private HttpTaskServer server;
+
+        @Setup
+        public void setUp() {
+            TaskManager taskManager = new InMemoryTaskManager(Managers.getDefaultHistory());
+            taskManager.createEpic(new Epic("epic", "epic"));
+
+            for (int i = 0; i < 10; i++) {
+                taskManager.createSubtask(new Subtask(TaskStatus.NEW, "subtask " + i, "subtask", 0));
+            }
+
+            ServerConfig config = new ServerConfig();
+            config.setPort(PORT);
+            config.setTransport(transport);
+            server = new HttpTaskServer(taskManager, config);
+            server.start();
+        }
+
+        @TearDown
+        public void tearDown() {
+            server.stop();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ClientState {
+        private HttpClient client;
+        private HttpRequest request;
+
+        @Setup
+        public void setUp() {
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            request = HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + "/epics/0/subtasks")).GET().build();
+        }
+
+        @TearDown
+        public void tearDown() {
+            client.close();
+        }
+    }
+
+    @Benchmark
+    public int getEpicSubtasks(ServerState server, ClientState client) throws IOException, InterruptedException {
+        return client.client.send(client.request, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TransportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
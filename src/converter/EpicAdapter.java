@@ -0,0 +1,22 @@
+package converter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import model.Epic;
+
+import java.io.IOException;
+
+public class EpicAdapter extends TypeAdapter<Epic> {
+    @Override
+    public void write(JsonWriter jsonWriter, Epic task) throws IOException {
+        TaskJson.write(jsonWriter, task);
+    }
+
+    @Override
+    public Epic read(JsonReader jsonReader) throws IOException {
+        TaskJson.Fields fields = TaskJson.read(jsonReader);
+
+        return fields == null ? null : fields.toEpic();
+    }
+}
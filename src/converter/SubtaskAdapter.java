@@ -0,0 +1,22 @@
+package converter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import model.Subtask;
+
+import java.io.IOException;
+
+public class SubtaskAdapter extends TypeAdapter<Subtask> {
+    @Override
+    public void write(JsonWriter jsonWriter, Subtask task) throws IOException {
+        TaskJson.write(jsonWriter, task);
+    }
+
+    @Override
+    public Subtask read(JsonReader jsonReader) throws IOException {
+        TaskJson.Fields fields = TaskJson.read(jsonReader);
+
+        return fields == null ? null : fields.toSubtask();
+    }
+}
@@ -0,0 +1,23 @@
+package converter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import model.Task;
+
+import java.io.IOException;
+
+public class TaskAdapter extends TypeAdapter<Task> {
+    // Списки типа List<Task> содержат и подзадачи, поэтому запись идет по фактическому типу задачи
+    @Override
+    public void write(JsonWriter jsonWriter, Task task) throws IOException {
+        TaskJson.write(jsonWriter, task);
+    }
+
+    @Override
+    public Task read(JsonReader jsonReader) throws IOException {
+        TaskJson.Fields fields = TaskJson.read(jsonReader);
+
+        return fields == null ? null : fields.toTask();
+    }
+}
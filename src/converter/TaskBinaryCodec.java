@@ -0,0 +1,326 @@
+package converter;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Компактный двоичный формат задач для внутренних сервисов.
+// Запись: тип задачи, битовая маска заполненных полей, затем сами поля. Целые числа - varint (со знаком - zigzag),
+// строки - длина и UTF-8, дата и время - секунды от эпохи по UTC и наносекунды. Список - количество и записи подряд
+public final class TaskBinaryCodec {
+    public static final String MEDIA_TYPE = "application/x-kanban-task";
+    private static final int ID = 1;
+    private static final int STATUS = 1 << 1;
+    private static final int NAME = 1 << 2;
+    private static final int DESCRIPTION = 1 << 3;
+    private static final int START_TIME = 1 << 4;
+    private static final int DURATION = 1 << 5;
+    private static final int EPIC_ID = 1 << 6;
+    private static final int END_TIME = 1 << 7;
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+    private static final TaskStatus[] TASK_STATUSES = TaskStatus.values();
+
+    private TaskBinaryCodec() {
+    }
+
+    public static byte[] encode(Task task) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        writeTask(out, task);
+
+        return out.toByteArray();
+    }
+
+    public static byte[] encodeList(Collection<? extends Task> tasks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + tasks.size() * 64);
+        writeVarLong(out, tasks.size());
+
+        for (Task task : tasks) {
+            writeTask(out, task);
+        }
+
+        return out.toByteArray();
+    }
+
+    public static <T extends Task> T decode(byte[] bytes, Class<T> taskType) {
+        Reader in = new Reader(bytes);
+        Task task = readTask(in);
+        in.requireEnd();
+
+        if (!taskType.isInstance(task) || (taskType == Task.class && task.getType() != TaskType.TASK)) {
+            throw new IllegalArgumentException("Expected " + taskType.getSimpleName() + " but got " + task.getType());
+        }
+
+        return taskType.cast(task);
+    }
+
+    public static List<Task> decodeList(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        int size = in.readCount();
+        List<Task> tasks = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            tasks.add(readTask(in));
+        }
+
+        in.requireEnd();
+
+        return tasks;
+    }
+
+    // Клиентская часть для java.net.http: тело запроса и разбор ответа без промежуточной строки
+    public static HttpRequest.BodyPublisher bodyPublisher(Task task) {
+        return HttpRequest.BodyPublishers.ofByteArray(encode(task));
+    }
+
+    public static HttpResponse.BodyHandler<List<Task>> listBodyHandler() {
+        return responseInfo -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), TaskBinaryCodec::decodeList);
+    }
+
+    public static <T extends Task> HttpResponse.BodyHandler<T> bodyHandler(Class<T> taskType) {
+        return responseInfo -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> decode(bytes, taskType));
+    }
+
+    private static void writeTask(ByteArrayOutputStream out, Task task) {
+        int mask = (task.getId() != null ? ID : 0)
+                | (task.getStatus() != null ? STATUS : 0)
+                | (task.getName() != null ? NAME : 0)
+                | (task.getDescription() != null ? DESCRIPTION : 0)
+                | (task.getStartTime() != null ? START_TIME : 0)
+                | (task.getDuration() != null ? DURATION : 0);
+
+        if (task instanceof Subtask subtask && subtask.getEpicId() != null) {
+            mask |= EPIC_ID;
+        }
+
+        if (task instanceof Epic epic && epic.getEndTime() != null) {
+            mask |= END_TIME;
+        }
+
+        out.write(task.getType().ordinal());
+        out.write(mask);
+
+        if ((mask & ID) != 0) {
+            writeVarLong(out, task.getId());
+        }
+
+        if ((mask & STATUS) != 0) {
+            out.write(task.getStatus().ordinal());
+        }
+
+        if ((mask & NAME) != 0) {
+            writeString(out, task.getName());
+        }
+
+        if ((mask & DESCRIPTION) != 0) {
+            writeString(out, task.getDescription());
+        }
+
+        if ((mask & START_TIME) != 0) {
+            writeDateTime(out, task.getStartTime());
+        }
+
+        if ((mask & DURATION) != 0) {
+            writeVarLong(out, zigzag(task.getDuration().getSeconds()));
+        }
+
+        if ((mask & EPIC_ID) != 0) {
+            writeVarLong(out, ((Subtask) task).getEpicId());
+        }
+
+        if (task instanceof Epic epic) {
+            if ((mask & END_TIME) != 0) {
+                writeDateTime(out, epic.getEndTime());
+            }
+
+            writeVarLong(out, epic.getSubtasksIds().size());
+
+            for (Integer subtaskId : epic.getSubtasksIds()) {
+                writeVarLong(out, subtaskId);
+            }
+        }
+    }
+
+    private static Task readTask(Reader in) {
+        int typeOrdinal = in.readByte();
+
+        if (typeOrdinal >= TASK_TYPES.length) {
+            throw new IllegalArgumentException("Unknown task type " + typeOrdinal);
+        }
+
+        TaskType type = TASK_TYPES[typeOrdinal];
+        int mask = in.readByte();
+        Integer id = (mask & ID) != 0 ? in.readId() : null;
+        TaskStatus status = null;
+
+        if ((mask & STATUS) != 0) {
+            int statusOrdinal = in.readByte();
+
+            if (statusOrdinal >= TASK_STATUSES.length) {
+                throw new IllegalArgumentException("Unknown task status " + statusOrdinal);
+            }
+
+            status = TASK_STATUSES[statusOrdinal];
+        }
+
+        String name = (mask & NAME) != 0 ? in.readString() : null;
+        String description = (mask & DESCRIPTION) != 0 ? in.readString() : null;
+        LocalDateTime startTime = (mask & START_TIME) != 0 ? in.readDateTime() : null;
+        Duration duration = (mask & DURATION) != 0 ? Duration.ofSeconds(unzigzag(in.readVarLong())) : null;
+        Integer epicId = (mask & EPIC_ID) != 0 ? in.readId() : null;
+
+        return switch (type) {
+            case TASK -> new Task(id, status, name, description, startTime, duration);
+            case SUBTASK -> new Subtask(id, status, name, description, epicId, startTime, duration);
+            case EPIC -> {
+                Epic epic = new Epic(id, status, name, description, startTime, duration);
+
+                if ((mask & END_TIME) != 0) {
+                    epic.setEndTime(in.readDateTime());
+                }
+
+                int subtasksCount = in.readCount();
+
+                for (int i = 0; i < subtasksCount; i++) {
+                    epic.addSubtask(in.readId());
+                }
+
+                yield epic;
+            }
+        };
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeDateTime(ByteArrayOutputStream out, LocalDateTime value) {
+        writeVarLong(out, zigzag(value.toEpochSecond(ZoneOffset.UTC)));
+        writeVarLong(out, value.getNano());
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readByte() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Unexpected end of binary task data");
+            }
+
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw new IllegalArgumentException("Malformed varint in binary task data");
+        }
+
+        int readInt() {
+            long value = readVarLong();
+
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Integer value out of range: " + value);
+            }
+
+            return (int) value;
+        }
+
+        int readId() {
+            int id = readInt();
+
+            if (id < 0) {
+                throw new IllegalArgumentException("Task id " + id + " is negative");
+            }
+
+            return id;
+        }
+
+        // Количество элементов не может превышать число оставшихся байтов - защита от огромных аллокаций.
+        // Varint из десяти байтов дает отрицательный long, который readInt пропускает как отрицательный int
+        int readCount() {
+            int count = readInt();
+
+            if (count < 0) {
+                throw new IllegalArgumentException("Element count " + count + " is negative");
+            }
+
+            if (count > bytes.length - position) {
+                throw new IllegalArgumentException("Element count " + count + " exceeds remaining data");
+            }
+
+            return count;
+        }
+
+        String readString() {
+            int length = readCount();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+
+            return value;
+        }
+
+        LocalDateTime readDateTime() {
+            long epochSecond = unzigzag(readVarLong());
+            int nano = readInt();
+
+            try {
+                return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Malformed date in binary task data", e);
+            }
+        }
+
+        void requireEnd() {
+            if (position != bytes.length) {
+                throw new IllegalArgumentException("Trailing bytes after binary task data");
+            }
+        }
+    }
+}
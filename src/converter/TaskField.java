@@ -0,0 +1,54 @@
+package converter;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Поля задачи в Json-представлении. Используются для выборочной сериализации (параметр fields=)
+public enum TaskField {
+    ID("id"),
+    STATUS("status"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    START_TIME("startTime"),
+    DURATION("duration"),
+    EPIC_ID("epicId"),
+    SUBTASKS_IDS("subtasksIds"),
+    END_TIME("endTime");
+
+    public static final Set<TaskField> ALL = Collections.unmodifiableSet(EnumSet.allOf(TaskField.class));
+    private final String jsonName;
+
+    TaskField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    // Список имен через запятую, например "id,status,epicId"
+    public static Set<TaskField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+
+        Set<TaskField> result = EnumSet.noneOf(TaskField.class);
+
+        for (String name : fields.split(",")) {
+            result.add(fromJsonName(name.trim()));
+        }
+
+        return result;
+    }
+
+    private static TaskField fromJsonName(String jsonName) {
+        for (TaskField field : values()) {
+            if (field.jsonName.equals(jsonName)) {
+                return field;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown task field: " + jsonName);
+    }
+}
@@ -0,0 +1,188 @@
+package converter;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Общая потоковая (де)сериализация задач без рефлексии. Порядок и имена полей совпадают с тем,
+// что выдавал рефлективный Gson: сначала поля подкласса, затем поля Task, null-поля пропускаются
+class TaskJson {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+
+    private TaskJson() {
+    }
+
+    static void write(JsonWriter out, Task task) throws IOException {
+        write(out, task, TaskField.ALL);
+    }
+
+    static void write(JsonWriter out, Task task, Set<TaskField> fields) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+
+        switch (task) {
+            case Epic epic -> {
+                if (fields.contains(TaskField.SUBTASKS_IDS)) {
+                    out.name("subtasksIds").beginArray();
+
+                    for (Integer subtaskId : epic.getSubtasksIds()) {
+                        out.value(subtaskId);
+                    }
+
+                    out.endArray();
+                }
+
+                if (fields.contains(TaskField.END_TIME)) {
+                    writeDateTime(out, "endTime", epic.getEndTime());
+                }
+            }
+            case Subtask subtask -> {
+                if (fields.contains(TaskField.EPIC_ID) && subtask.getEpicId() != null) {
+                    out.name("epicId").value(subtask.getEpicId());
+                }
+            }
+            default -> {
+            }
+        }
+
+        if (fields.contains(TaskField.ID) && task.getId() != null) {
+            out.name("id").value(task.getId());
+        }
+
+        if (fields.contains(TaskField.STATUS) && task.getStatus() != null) {
+            out.name("status").value(task.getStatus().name());
+        }
+
+        if (fields.contains(TaskField.NAME)) {
+            writeString(out, "name", task.getName());
+        }
+
+        if (fields.contains(TaskField.DESCRIPTION)) {
+            writeString(out, "description", task.getDescription());
+        }
+
+        if (fields.contains(TaskField.START_TIME)) {
+            writeDateTime(out, "startTime", task.getStartTime());
+        }
+
+        if (fields.contains(TaskField.DURATION) && task.getDuration() != null) {
+            out.name("duration").value(task.getDuration().toMinutes());
+        }
+
+        out.endObject();
+    }
+
+    // Неизвестный статус и число вне диапазона int - ошибка в данных, как и нарушенный синтаксис
+    static Fields read(JsonReader in) throws IOException {
+        try {
+            return readFields(in);
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException(e.getMessage(), e);
+        }
+    }
+
+    private static Fields readFields(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Fields fields = new Fields();
+        in.beginObject();
+
+        while (in.hasNext()) {
+            String name = in.nextName();
+
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+
+            switch (name) {
+                case "id" -> fields.id = in.nextInt();
+                case "status" -> fields.status = TaskStatus.valueOf(in.nextString());
+                case "name" -> fields.name = in.nextString();
+                case "description" -> fields.description = in.nextString();
+                case "startTime" -> fields.startTime = LocalDateTime.parse(in.nextString(), FORMATTER);
+                case "duration" -> fields.duration = Duration.ofMinutes(in.nextLong());
+                case "epicId" -> fields.epicId = in.nextInt();
+                case "endTime" -> fields.endTime = LocalDateTime.parse(in.nextString(), FORMATTER);
+                case "subtasksIds" -> {
+                    fields.subtasksIds = new ArrayList<>();
+                    in.beginArray();
+
+                    while (in.hasNext()) {
+                        fields.subtasksIds.add(in.nextInt());
+                    }
+
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+
+        in.endObject();
+
+        return fields;
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void writeDateTime(JsonWriter out, String name, LocalDateTime value) throws IOException {
+        if (value != null) {
+            out.name(name).value(FORMATTER.format(value));
+        }
+    }
+
+    static class Fields {
+        Integer id;
+        TaskStatus status;
+        String name;
+        String description;
+        LocalDateTime startTime;
+        Duration duration;
+        Integer epicId;
+        LocalDateTime endTime;
+        List<Integer> subtasksIds;
+
+        Task toTask() {
+            return new Task(id, status, name, description, startTime, duration);
+        }
+
+        Subtask toSubtask() {
+            return new Subtask(id, status, name, description, epicId, startTime, duration);
+        }
+
+        Epic toEpic() {
+            Epic epic = new Epic(id, status, name, description, startTime, duration);
+            epic.setEndTime(endTime);
+
+            if (subtasksIds != null) {
+                subtasksIds.forEach(epic::addSubtask);
+            }
+
+            return epic;
+        }
+    }
+}
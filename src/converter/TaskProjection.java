@@ -0,0 +1,46 @@
+package converter;
+
+import com.google.gson.stream.JsonWriter;
+import model.Task;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Set;
+
+// Json только с выбранными полями задач. Невыбранные поля не читаются из задачи и не записываются
+public class TaskProjection {
+    private TaskProjection() {
+    }
+
+    public static String toJson(Task task, Set<TaskField> fields) {
+        StringWriter json = new StringWriter(64);
+
+        try (JsonWriter out = new JsonWriter(json)) {
+            TaskJson.write(out, task, fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return json.toString();
+    }
+
+    public static String toJson(Collection<? extends Task> tasks, Set<TaskField> fields) {
+        StringWriter json = new StringWriter(16 + tasks.size() * 32);
+
+        try (JsonWriter out = new JsonWriter(json)) {
+            out.beginArray();
+
+            for (Task task : tasks) {
+                TaskJson.write(out, task, fields);
+            }
+
+            out.endArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return json.toString();
+    }
+}
@@ -0,0 +1,9 @@
+package exception;
+
+// Некорректные данные запроса: параметры, путь или тело. Только эта ошибка и ошибки разбора Json отвечают 400,
+// остальные IllegalArgumentException - нарушенные предусловия внутри сервера, то есть 500
+public class BadRequestException extends DomainException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package exception;
+
+import java.util.List;
+
+// Ошибка в строке NDJSON. Строки до нее уже сохранены, поэтому ответ несет их id и номер строки с ошибкой,
+// а код ответа определяется исходной ошибкой
+public class BulkRequestException extends DomainException {
+    private final int line;
+    private final List<Integer> savedIds;
+
+    public BulkRequestException(int line, List<Integer> savedIds, RuntimeException failure) {
+        super("NDJSON line " + line + ": " + failure.getMessage(), failure);
+        this.line = line;
+        this.savedIds = List.copyOf(savedIds);
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public List<Integer> getSavedIds() {
+        return savedIds;
+    }
+
+    public RuntimeException getFailure() {
+        return (RuntimeException) getCause();
+    }
+}
@@ -0,0 +1,7 @@
+package exception;
+
+public class DependencyCycleException extends DomainException {
+    public DependencyCycleException(int taskId, int blockerId) {
+        super(String.format("Task with id %d cannot be blocked by task with id %d: dependencies would form a cycle", taskId, blockerId));
+    }
+}
@@ -0,0 +1,30 @@
+package exception;
+
+// Доменные ошибки - ожидаемый результат операции (например, запрос несуществующей задачи), а не сбой,
+// поэтому стек вызовов собирается только в отладочном режиме: во всем процессе при свойстве kanban.debug
+// или в потоке, который включил сбор сам, например пока отладочный сервер обрабатывает запрос
+public abstract class DomainException extends RuntimeException {
+    public static final String DEBUG_PROPERTY = "kanban.debug";
+    private static final boolean CAPTURE_STACK_TRACE = Boolean.getBoolean(DEBUG_PROPERTY);
+    private static final ThreadLocal<Boolean> CAPTURE_STACK_TRACE_IN_THREAD = ThreadLocal.withInitial(() -> false);
+
+    protected DomainException(String message) {
+        this(message, null);
+    }
+
+    protected DomainException(String message, Throwable cause) {
+        super(message, cause, false, CAPTURE_STACK_TRACE || CAPTURE_STACK_TRACE_IN_THREAD.get());
+    }
+
+    public static boolean isCaptureStackTraceInThread() {
+        return CAPTURE_STACK_TRACE_IN_THREAD.get();
+    }
+
+    // Возвращает прежнее значение, чтобы вызывающий мог его восстановить
+    public static boolean setCaptureStackTraceInThread(boolean capture) {
+        boolean previous = CAPTURE_STACK_TRACE_IN_THREAD.get();
+        CAPTURE_STACK_TRACE_IN_THREAD.set(capture);
+
+        return previous;
+    }
+}
@@ -1,7 +1,21 @@
 package exception;
 
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends DomainException {
+    private final Integer id;
+
     public NotFoundException(String message) {
         super(message);
+        this.id = null;
+    }
+
+    // Сообщение собирается только если его действительно запросят
+    public NotFoundException(int id) {
+        super(null);
+        this.id = id;
+    }
+
+    @Override
+    public String getMessage() {
+        return id == null ? super.getMessage() : "Task with id " + id + " not found";
     }
 }
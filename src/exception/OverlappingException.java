@@ -1,6 +1,6 @@
 package exception;
 
-public class OverlappingException extends RuntimeException {
+public class OverlappingException extends DomainException {
     public OverlappingException(String message) {
         super(message);
     }
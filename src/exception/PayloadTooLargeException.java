@@ -0,0 +1,7 @@
+package exception;
+
+public class PayloadTooLargeException extends DomainException {
+    public PayloadTooLargeException(long maxSize) {
+        super("Request body exceeds " + maxSize + " bytes");
+    }
+}
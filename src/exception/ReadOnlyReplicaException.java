@@ -0,0 +1,7 @@
+package exception;
+
+public class ReadOnlyReplicaException extends DomainException {
+    public ReadOnlyReplicaException() {
+        super("This server is a read-only replica, send changes to the leader");
+    }
+}
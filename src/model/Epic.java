@@ -43,6 +43,15 @@ public class Epic extends Task {
         return TaskType.EPIC;
     }
 
+    @Override
+    public Epic copy() {
+        Epic epic = new Epic(id, status, name, description, startTime, duration);
+        epic.setEndTime(endTime);
+        epic.getSubtasksIds().addAll(subtasksIds);
+
+        return epic;
+    }
+
     @Override
     public String toString() {
         return super.toString().replaceFirst("}$", ", endTime=" + endTime + ", subtasks=" + subtasksIds + "}");
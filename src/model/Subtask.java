@@ -37,6 +37,11 @@ public class Subtask extends Task {
         this.epicId = epicId;
     }
 
+    @Override
+    public Subtask copy() {
+        return new Subtask(id, status, name, description, epicId, startTime, duration);
+    }
+
     @Override
     public String toString() {
         return super.toString().replaceFirst("}$", ", epic=" + epicId + "}");
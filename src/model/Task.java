@@ -69,6 +69,10 @@ public class Task {
         return TaskType.TASK;
     }
 
+    public Task copy() {
+        return new Task(id, status, name, description, startTime, duration);
+    }
+
     public LocalDateTime getEndTime() {
         return startTime.plus(duration);
     }
@@ -0,0 +1,36 @@
+package service.managers.event;
+
+import model.TaskType;
+
+// Событие предметной области, id - задача, которой оно касается. Номер присваивает DomainEventBus при публикации
+public abstract class DomainEvent {
+    private final TaskType type;
+    private final int id;
+    private long sequence;
+
+    protected DomainEvent(TaskType type, int id) {
+        this.type = type;
+        this.id = id;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{sequence=" + sequence + ", type=" + type + ", id=" + id + "}";
+    }
+}
@@ -0,0 +1,173 @@
+package service.managers.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Асинхронная доставка доменных событий. Менеджер кладет событие в заранее выделенный кольцевой буфер и сразу
+// возвращается, а каждый слушатель читает буфер в своем потоке пачками до maxBatchSize событий. Писатель никогда
+// не ждет слушателей: отставший больше чем на capacity событий слушатель пропускает вытесненные и видит их в getDropped
+public class DomainEventBus {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicReferenceArray<DomainEvent> buffer;
+    private final int mask;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile long published;
+
+    public DomainEventBus(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity should be a positive power of two");
+        }
+
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public DomainEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Писатель обычно один - менеджер под блокировкой записи, и монитор захватывается без конкуренции.
+    // Нужен он шардам, которые публикуют в общий буфер из своих потоков
+    public void publish(DomainEvent event) {
+        synchronized (this) {
+            long sequence = published + 1;
+            event.setSequence(sequence);
+            buffer.setRelease((int) (sequence & mask), event);
+            published = sequence;
+        }
+
+        for (Subscription subscription : subscriptions) {
+            subscription.wakeUp();
+        }
+    }
+
+    public long getPublished() {
+        return published;
+    }
+
+    // Слушатель получает события, опубликованные после подписки
+    public Subscription subscribe(String name, DomainEventListener listener, int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size should be positive");
+        }
+
+        Subscription subscription = new Subscription(name, listener, maxBatchSize);
+        subscriptions.add(subscription);
+        subscription.thread.start();
+
+        return subscription;
+    }
+
+    public Subscription subscribe(String name, DomainEventListener listener) {
+        return subscribe(name, listener, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public class Subscription implements AutoCloseable {
+        private final DomainEventListener listener;
+        private final int maxBatchSize;
+        private final Thread thread;
+        private volatile long cursor = published;
+        private volatile long dropped;
+        private volatile long failedBatches;
+        private volatile boolean waiting;
+        private volatile boolean closed;
+
+        private Subscription(String name, DomainEventListener listener, int maxBatchSize) {
+            this.listener = listener;
+            this.maxBatchSize = maxBatchSize;
+            this.thread = Thread.ofPlatform().daemon().name("domain-events-" + name).unstarted(this::run);
+        }
+
+        // Номер последнего переданного слушателю события
+        public long getCursor() {
+            return cursor;
+        }
+
+        public long getLag() {
+            return published - cursor;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public long getFailedBatches() {
+            return failedBatches;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+            LockSupport.unpark(thread);
+        }
+
+        private void run() {
+            List<DomainEvent> batch = new ArrayList<>(maxBatchSize);
+
+            while (!closed) {
+                long available = published;
+
+                if (available == cursor) {
+                    park();
+                    continue;
+                }
+
+                if (available - cursor > buffer.length()) {
+                    dropped += available - buffer.length() - cursor;
+                    cursor = available - buffer.length();
+                }
+
+                long end = Math.min(available, cursor + maxBatchSize);
+
+                for (long sequence = cursor + 1; sequence <= end; sequence++) {
+                    DomainEvent event = buffer.getAcquire((int) (sequence & mask));
+
+                    // Писатель обогнал слушателя на круг, вытесненные события пропустим на следующем шаге
+                    if (event.getSequence() != sequence) {
+                        break;
+                    }
+
+                    batch.add(event);
+                }
+
+                if (batch.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    listener.onEvents(batch);
+                } catch (RuntimeException e) {
+                    failedBatches++;
+                }
+
+                cursor = batch.getLast().getSequence();
+                batch.clear();
+            }
+        }
+
+        // Писатель будит только ждущих слушателей, порядок записи waiting и чтения published исключает потерю сигнала
+        private void park() {
+            waiting = true;
+
+            if (published == cursor && !closed) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+
+            waiting = false;
+        }
+
+        private void wakeUp() {
+            if (waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package service.managers.event;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface DomainEventListener {
+    // Список переиспользуется для следующей пачки, сохранять его нужно копией
+    void onEvents(List<DomainEvent> events);
+}
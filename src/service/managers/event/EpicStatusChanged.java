@@ -0,0 +1,23 @@
+package service.managers.event;
+
+import model.TaskStatus;
+import model.TaskType;
+
+public class EpicStatusChanged extends DomainEvent {
+    private final TaskStatus oldStatus;
+    private final TaskStatus newStatus;
+
+    public EpicStatusChanged(int epicId, TaskStatus oldStatus, TaskStatus newStatus) {
+        super(TaskType.EPIC, epicId);
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+    }
+
+    public TaskStatus getOldStatus() {
+        return oldStatus;
+    }
+
+    public TaskStatus getNewStatus() {
+        return newStatus;
+    }
+}
@@ -0,0 +1,22 @@
+package service.managers.event;
+
+import model.TaskType;
+
+public class SubtaskMoved extends DomainEvent {
+    private final int fromEpicId;
+    private final int toEpicId;
+
+    public SubtaskMoved(int subtaskId, int fromEpicId, int toEpicId) {
+        super(TaskType.SUBTASK, subtaskId);
+        this.fromEpicId = fromEpicId;
+        this.toEpicId = toEpicId;
+    }
+
+    public int getFromEpicId() {
+        return fromEpicId;
+    }
+
+    public int getToEpicId() {
+        return toEpicId;
+    }
+}
@@ -0,0 +1,9 @@
+package service.managers.event;
+
+import model.TaskType;
+
+public class TaskCreated extends DomainEvent {
+    public TaskCreated(TaskType type, int id) {
+        super(type, id);
+    }
+}
@@ -0,0 +1,9 @@
+package service.managers.event;
+
+import model.TaskType;
+
+public class TaskDeleted extends DomainEvent {
+    public TaskDeleted(TaskType type, int id) {
+        super(type, id);
+    }
+}
@@ -0,0 +1,9 @@
+package service.managers.event;
+
+import model.TaskType;
+
+public class TaskUpdated extends DomainEvent {
+    public TaskUpdated(TaskType type, int id) {
+        super(type, id);
+    }
+}
@@ -0,0 +1,38 @@
+package service.managers.feed;
+
+import model.TaskType;
+
+public class ChangeEvent {
+    private final long version;
+    private final ChangeKind kind;
+    private final TaskType type;
+    private final int id;
+
+    public ChangeEvent(long version, ChangeKind kind, TaskType type, int id) {
+        this.version = version;
+        this.kind = kind;
+        this.type = type;
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public ChangeKind getKind() {
+        return kind;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{version=" + version + ", kind=" + kind + ", type=" + type + ", id=" + id + "}";
+    }
+}
@@ -0,0 +1,97 @@
+package service.managers.feed;
+
+import exception.SlowConsumerException;
+import model.TaskType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Кольцевой буфер последних изменений. Событие с версией v хранится в ячейке v % capacity,
+// поэтому подписчик, отставший больше чем на capacity событий, уже не может их дочитать и отключается
+public class ChangeFeed {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private final ChangeEvent[] buffer;
+    private final List<Consumer<ChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+    private long version;
+
+    public ChangeFeed(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity should be positive");
+        }
+
+        this.buffer = new ChangeEvent[capacity];
+    }
+
+    public ChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ChangeEvent publish(ChangeKind kind, TaskType type, int id) {
+        ChangeEvent event;
+
+        synchronized (this) {
+            event = new ChangeEvent(++version, kind, type, id);
+            buffer[(int) (event.getVersion() % buffer.length)] = event;
+            notifyAll();
+        }
+
+        listeners.forEach(listener -> listener.accept(event));
+
+        return event;
+    }
+
+    // Слушатели вызываются синхронно в потоке, изменившем задачу, поэтому должны быть быстрыми
+    public void addListener(Consumer<ChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public Subscription subscribe() {
+        return new Subscription(getVersion());
+    }
+
+    public Subscription subscribe(long lastSeenVersion) {
+        return new Subscription(lastSeenVersion);
+    }
+
+    public class Subscription {
+        private long cursor;
+
+        private Subscription(long cursor) {
+            this.cursor = cursor;
+        }
+
+        public long getCursor() {
+            return cursor;
+        }
+
+        public List<ChangeEvent> poll(long timeoutMillis) throws InterruptedException {
+            synchronized (ChangeFeed.this) {
+                long deadline = System.currentTimeMillis() + timeoutMillis;
+                long remaining = timeoutMillis;
+
+                while (version == cursor && remaining > 0) {
+                    ChangeFeed.this.wait(remaining);
+                    remaining = deadline - System.currentTimeMillis();
+                }
+
+                if (version - cursor > buffer.length || cursor > version) {
+                    throw new SlowConsumerException(String.format("Subscriber cursor %d is outside of the retained feed up to version %d", cursor, version));
+                }
+
+                List<ChangeEvent> events = new ArrayList<>((int) (version - cursor));
+
+                while (cursor < version) {
+                    events.add(buffer[(int) (++cursor % buffer.length)]);
+                }
+
+                return events;
+            }
+        }
+    }
+}
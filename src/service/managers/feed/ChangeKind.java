@@ -0,0 +1,7 @@
+package service.managers.feed;
+
+public enum ChangeKind {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,177 @@
+package service.managers.task;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Неизменяемое состояние доски в одной версии VersionedTaskManager. Следующая версия делит с ней все поддеревья,
+// которых изменение не коснулось, поэтому хранить последние версии дешево, а снимок берется за O(1).
+// Наружу задачи отдаются копиями, чтобы снимок нельзя было изменить, и читать его можно без блокировок
+public class BoardSnapshot {
+    private static final Comparator<Task> BY_START_TIME = Comparator.comparing(Task::getStartTime).thenComparing(Task::getId);
+
+    private final long version;
+    private final PersistentTreeMap<Integer, Task> tasks;
+    private final PersistentTreeMap<Integer, Subtask> subtasks;
+    private final PersistentTreeMap<Integer, Epic> epics;
+    private final PersistentTreeMap<Task, Task> timeline;
+    private final PersistentTreeMap<Integer, List<Integer>> blockedBy;
+    private final PersistentTreeMap<Integer, List<Integer>> blocks;
+
+    private BoardSnapshot(long version, PersistentTreeMap<Integer, Task> tasks, PersistentTreeMap<Integer, Subtask> subtasks,
+                          PersistentTreeMap<Integer, Epic> epics, PersistentTreeMap<Task, Task> timeline,
+                          PersistentTreeMap<Integer, List<Integer>> blockedBy, PersistentTreeMap<Integer, List<Integer>> blocks) {
+        this.version = version;
+        this.tasks = tasks;
+        this.subtasks = subtasks;
+        this.epics = epics;
+        this.timeline = timeline;
+        this.blockedBy = blockedBy;
+        this.blocks = blocks;
+    }
+
+    static BoardSnapshot empty() {
+        return new BoardSnapshot(0, PersistentTreeMap.empty(Comparator.naturalOrder()), PersistentTreeMap.empty(Comparator.naturalOrder()),
+                PersistentTreeMap.empty(Comparator.naturalOrder()), PersistentTreeMap.empty(BY_START_TIME),
+                PersistentTreeMap.empty(Comparator.naturalOrder()), PersistentTreeMap.empty(Comparator.naturalOrder()));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Task> getAllTasks() {
+        return copies(tasks.values());
+    }
+
+    public List<Subtask> getAllSubTasks() {
+        return copies(subtasks.values());
+    }
+
+    public List<Epic> getAllEpics() {
+        return copies(epics.values());
+    }
+
+    // null, если задачи в этой версии нет
+    public Task getTask(TaskType type, int id) {
+        Task task = find(type, id);
+
+        return task == null ? null : task.copy();
+    }
+
+    // null, если эпика в этой версии нет
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        Epic epic = epics.get(epicId);
+
+        return epic == null ? null : copies(epic.getSubtasksIds().stream().map(subtasks::get).toList());
+    }
+
+    public List<Task> getPrioritizedTasks() {
+        return copies(timeline.values());
+    }
+
+    public List<Integer> getBlockedBy(int id) {
+        List<Integer> blockers = blockedBy.get(id);
+
+        return blockers == null ? List.of() : blockers;
+    }
+
+    List<Integer> getBlocks(int id) {
+        List<Integer> dependents = blocks.get(id);
+
+        return dependents == null ? List.of() : dependents;
+    }
+
+    // Сама задача версии, без копирования
+    Task find(TaskType type, int id) {
+        return switch (type) {
+            case TASK -> tasks.get(id);
+            case SUBTASK -> subtasks.get(id);
+            case EPIC -> epics.get(id);
+        };
+    }
+
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Task> List<T> copies(List<T> tasks) {
+        List<T> copies = new ArrayList<>(tasks.size());
+
+        for (T task : tasks) {
+            copies.add((T) task.copy());
+        }
+
+        return copies;
+    }
+
+    // Собирает следующую версию из текущей. Задачи передаются уже скопированными и дальше не меняются
+    static class Builder {
+        private PersistentTreeMap<Integer, Task> tasks;
+        private PersistentTreeMap<Integer, Subtask> subtasks;
+        private PersistentTreeMap<Integer, Epic> epics;
+        private PersistentTreeMap<Task, Task> timeline;
+        private PersistentTreeMap<Integer, List<Integer>> blockedBy;
+        private PersistentTreeMap<Integer, List<Integer>> blocks;
+
+        private Builder(BoardSnapshot snapshot) {
+            tasks = snapshot.tasks;
+            subtasks = snapshot.subtasks;
+            epics = snapshot.epics;
+            timeline = snapshot.timeline;
+            blockedBy = snapshot.blockedBy;
+            blocks = snapshot.blocks;
+        }
+
+        void put(Task task) {
+            remove(task.getType(), task.getId());
+
+            switch (task.getType()) {
+                case TASK -> tasks = tasks.put(task.getId(), task);
+                case SUBTASK -> subtasks = subtasks.put(task.getId(), (Subtask) task);
+                case EPIC -> epics = epics.put(task.getId(), (Epic) task);
+            }
+
+            if (task.getType() != TaskType.EPIC) {
+                timeline = timeline.put(task, task);
+            }
+        }
+
+        void remove(TaskType type, int id) {
+            Task oldTask = switch (type) {
+                case TASK -> tasks.get(id);
+                case SUBTASK -> subtasks.get(id);
+                case EPIC -> epics.get(id);
+            };
+
+            if (oldTask == null) {
+                return;
+            }
+
+            switch (type) {
+                case TASK -> tasks = tasks.remove(id);
+                case SUBTASK -> subtasks = subtasks.remove(id);
+                case EPIC -> epics = epics.remove(id);
+            }
+
+            if (type != TaskType.EPIC) {
+                timeline = timeline.remove(oldTask);
+            }
+        }
+
+        void putDependencies(int id, List<Integer> taskBlockedBy, List<Integer> taskBlocks) {
+            blockedBy = taskBlockedBy.isEmpty() ? blockedBy.remove(id) : blockedBy.put(id, List.copyOf(taskBlockedBy));
+            blocks = taskBlocks.isEmpty() ? blocks.remove(id) : blocks.put(id, List.copyOf(taskBlocks));
+        }
+
+        BoardSnapshot build(long version) {
+            return new BoardSnapshot(version, tasks, subtasks, epics, timeline, blockedBy, blocks);
+        }
+    }
+}
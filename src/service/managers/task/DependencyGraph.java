@@ -0,0 +1,274 @@
+package service.managers.task;
+
+import exception.DependencyCycleException;
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Граф блокирующих зависимостей между задачами и подзадачами. В графе есть только задачи, у которых есть зависимости.
+// Для каждой задачи поддерживаются самое раннее начало (не раньше собственного времени начала и окончания всех блокирующих),
+// самое раннее окончание и самая длинная по суммарной длительности цепочка блокирующих задач - критический путь.
+// Значения зависят только от задач выше по графу, поэтому после изменения пересчитывается лишь конус задач ниже измененной,
+// и распространение останавливается там, где значения не изменились
+class DependencyGraph {
+    private final Map<Integer, Node> nodes = new HashMap<>();
+
+    void addDependency(Task task, Task blocker) {
+        if (task.getId().equals(blocker.getId())) {
+            throw new DependencyCycleException(task.getId(), blocker.getId());
+        }
+
+        Node node = nodes.computeIfAbsent(task.getId(), id -> new Node(task));
+        Node blockerNode = nodes.computeIfAbsent(blocker.getId(), id -> new Node(blocker));
+
+        if (node.blockers.contains(blocker.getId())) {
+            return;
+        }
+
+        if (isReachable(node, blockerNode)) {
+            removeIfIsolated(node);
+            removeIfIsolated(blockerNode);
+
+            throw new DependencyCycleException(task.getId(), blocker.getId());
+        }
+
+        node.blockers.add(blocker.getId());
+        blockerNode.dependents.add(task.getId());
+        propagateFrom(node);
+    }
+
+    void removeDependency(int taskId, int blockerId) {
+        Node node = nodes.get(taskId);
+        Node blockerNode = nodes.get(blockerId);
+
+        if (node == null || blockerNode == null || !node.blockers.remove(blockerId)) {
+            return;
+        }
+
+        blockerNode.dependents.remove(taskId);
+        removeIfIsolated(blockerNode);
+
+        if (!removeIfIsolated(node)) {
+            propagateFrom(node);
+        }
+    }
+
+    // Вызывается после изменения времени начала или длительности задачи
+    void refresh(Task task) {
+        Node node = nodes.get(task.getId());
+
+        if (node == null) {
+            return;
+        }
+
+        node.plannedStart = getPlannedStart(task);
+        node.duration = task.getDuration();
+        propagateFrom(node);
+    }
+
+    void remove(int taskId) {
+        Node node = nodes.remove(taskId);
+
+        if (node == null) {
+            return;
+        }
+
+        for (int blockerId : node.blockers) {
+            Node blockerNode = nodes.get(blockerId);
+            blockerNode.dependents.remove(taskId);
+            removeIfIsolated(blockerNode);
+        }
+
+        // Сначала задача убирается из всех зависимых, чтобы пересчет одной из них не наткнулся на удаленную
+        List<Node> dependents = node.dependents.stream().map(nodes::get).toList();
+        dependents.forEach(dependent -> dependent.blockers.remove(taskId));
+
+        for (Node dependent : dependents) {
+            if (!removeIfIsolated(dependent)) {
+                propagateFrom(dependent);
+            }
+        }
+    }
+
+    void clear() {
+        nodes.clear();
+    }
+
+    Map<Integer, Set<Integer>> getBlockers() {
+        Map<Integer, Set<Integer>> blockers = new HashMap<>();
+
+        nodes.forEach((id, node) -> {
+            if (!node.blockers.isEmpty()) {
+                blockers.put(id, Collections.unmodifiableSet(node.blockers));
+            }
+        });
+
+        return blockers;
+    }
+
+    TaskDependencies describe(Task task) {
+        Node node = nodes.get(task.getId());
+
+        if (node == null) {
+            node = new Node(task);
+        }
+
+        List<Integer> criticalPath = new ArrayList<>();
+
+        for (Node current = node; current != null; current = current.criticalBlocker == null ? null : nodes.get(current.criticalBlocker)) {
+            criticalPath.add(current.id);
+        }
+
+        return new TaskDependencies(node.id, List.copyOf(node.blockers), List.copyOf(node.dependents),
+                node.earliestStart, node.earliestFinish, criticalPath.reversed(), node.criticalPathDuration);
+    }
+
+    // Есть ли путь from -> ... -> to по направлению "блокирует"
+    private boolean isReachable(Node from, Node to) {
+        Deque<Node> stack = new ArrayDeque<>();
+        Set<Integer> visited = new HashSet<>();
+        stack.push(from);
+
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+
+            if (current == to) {
+                return true;
+            }
+
+            if (visited.add(current.id)) {
+                current.dependents.forEach(id -> stack.push(nodes.get(id)));
+            }
+        }
+
+        return false;
+    }
+
+    // Пересчет идет в топологическом порядке конуса ниже source. Задача пересчитывается,
+    // только если изменилась она сама или одна из ее блокирующих
+    private void propagateFrom(Node source) {
+        Set<Integer> changed = new HashSet<>();
+
+        for (Node node : getTopologicalCone(source)) {
+            boolean affected = node == source || node.blockers.stream().anyMatch(changed::contains);
+
+            if (affected && node.recompute()) {
+                changed.add(node.id);
+            }
+        }
+    }
+
+    private List<Node> getTopologicalCone(Node source) {
+        List<Node> postOrder = new ArrayList<>();
+        Set<Integer> visited = new HashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        stack.push(source);
+        expanded.push(false);
+
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+
+            if (expanded.pop()) {
+                postOrder.add(node);
+                continue;
+            }
+
+            if (!visited.add(node.id)) {
+                continue;
+            }
+
+            stack.push(node);
+            expanded.push(true);
+
+            for (int dependentId : node.dependents) {
+                if (!visited.contains(dependentId)) {
+                    stack.push(nodes.get(dependentId));
+                    expanded.push(false);
+                }
+            }
+        }
+
+        return postOrder.reversed();
+    }
+
+    private boolean removeIfIsolated(Node node) {
+        if (node.blockers.isEmpty() && node.dependents.isEmpty()) {
+            nodes.remove(node.id);
+            return true;
+        }
+
+        return false;
+    }
+
+    private static LocalDateTime getPlannedStart(Task task) {
+        LocalDateTime startTime = task.getStartTime();
+
+        return startTime.equals(InMemoryTaskManager.EMPTY_START_TIME_INDICATOR) ? null : startTime;
+    }
+
+    private class Node {
+        private final int id;
+        private final Set<Integer> blockers = new LinkedHashSet<>();
+        private final Set<Integer> dependents = new LinkedHashSet<>();
+        private LocalDateTime plannedStart;
+        private Duration duration;
+        private LocalDateTime earliestStart;
+        private LocalDateTime earliestFinish;
+        private Duration criticalPathDuration;
+        private Integer criticalBlocker;
+
+        Node(Task task) {
+            this.id = task.getId();
+            this.plannedStart = getPlannedStart(task);
+            this.duration = task.getDuration();
+            recompute();
+        }
+
+        // Возвращает true, если значения изменились. Задачи без времени начала в расчете раннего начала не участвуют
+        boolean recompute() {
+            LocalDateTime newEarliestStart = plannedStart;
+            Duration longestChain = Duration.ZERO;
+            Integer newCriticalBlocker = null;
+
+            for (int blockerId : blockers) {
+                Node blocker = nodes.get(blockerId);
+
+                if (blocker.earliestFinish != null && (newEarliestStart == null || blocker.earliestFinish.isAfter(newEarliestStart))) {
+                    newEarliestStart = blocker.earliestFinish;
+                }
+
+                if (newCriticalBlocker == null || blocker.criticalPathDuration.compareTo(longestChain) > 0) {
+                    longestChain = blocker.criticalPathDuration;
+                    newCriticalBlocker = blockerId;
+                }
+            }
+
+            LocalDateTime newEarliestFinish = newEarliestStart == null ? null : newEarliestStart.plus(duration);
+            Duration newCriticalPathDuration = longestChain.plus(duration);
+            boolean changed = !Objects.equals(newEarliestStart, earliestStart)
+                    || !Objects.equals(newEarliestFinish, earliestFinish)
+                    || !newCriticalPathDuration.equals(criticalPathDuration)
+                    || !Objects.equals(newCriticalBlocker, criticalBlocker);
+
+            earliestStart = newEarliestStart;
+            earliestFinish = newEarliestFinish;
+            criticalPathDuration = newCriticalPathDuration;
+            criticalBlocker = newCriticalBlocker;
+
+            return changed;
+        }
+    }
+}
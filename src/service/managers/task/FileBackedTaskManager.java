@@ -7,13 +7,19 @@ import model.Epic;
 import model.Subtask;
 import model.Task;
 import service.managers.history.HistoryManager;
+import service.metrics.event.StorageLoadEvent;
+import service.metrics.event.StorageSaveEvent;
 
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class FileBackedTaskManager extends InMemoryTaskManager {
     private Path storageCSV;
@@ -36,8 +42,13 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     private void loadFromFile() {
+        StorageLoadEvent event = new StorageLoadEvent(storageCSV.toString());
+        event.begin();
+
         try {
-            List<String> taskStrings = Files.readAllLines(storageCSV);
+            List<String> lines = Files.readAllLines(storageCSV);
+            int dependenciesStart = lines.indexOf("");
+            List<String> taskStrings = dependenciesStart < 0 ? lines : lines.subList(0, dependenciesStart);
 
             taskStrings.stream()
                     .skip(1)
@@ -47,12 +58,12 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                         switch (loadedTask) {
                             case Subtask subtask -> {
                                 subtasks.put(subtask.getId(), subtask);
-                                prioritizedTasks.add(subtask);
+                                addToSchedule(subtask);
                             }
                             case Epic epic -> epics.put(epic.getId(), epic);
                             case Task task -> {
                                 tasks.put(task.getId(), task);
-                                prioritizedTasks.add(task);
+                                addToSchedule(task);
                             }
                         }
 
@@ -61,12 +72,29 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
             subtasks.forEach((subtaskId, subtask) -> epics.get(subtask.getEpicId()).addSubtask(subtaskId));
             epics.forEach((epicId, epic) -> calculateEpicState(epic)); // Оказалось, что у меня не восстанавливалось время окончания эпика. И это все ради восстановления времени окончания эпика. Наверное стоит просто хранить его в csv
+
+            if (dependenciesStart >= 0) {
+                lines.stream()
+                        .skip(dependenciesStart + 2)
+                        .map(line -> line.split(","))
+                        .forEach(dependency -> super.addDependency(Integer.parseInt(dependency[0]), Integer.parseInt(dependency[1])));
+            }
+
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.setBytesRead(Files.size(storageCSV));
+                event.setCounts(tasks.size(), subtasks.size(), epics.size());
+                event.commit();
+            }
         } catch (IOException e) {
             throw new ManagerLoadException(e.getMessage());
         }
     }
 
     private void save() {
+        StorageSaveEvent event = new StorageSaveEvent(storageCSV.toString());
+        event.begin();
         Path parentPathToStorage = storageCSV.getParent();
 
         if (parentPathToStorage != null) {
@@ -83,12 +111,36 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             getAllSubTasks().forEach(subtask -> printer.println(TaskConverter.toString(subtask)));
             getAllEpics().forEach(epic -> printer.println(TaskConverter.toString(epic)));
 
+            // Зависимости идут после пустой строки отдельной таблицей, файлы без них читаются как раньше
+            Map<Integer, Set<Integer>> dependencyBlockers = getDependencyBlockers();
+
+            if (!dependencyBlockers.isEmpty()) {
+                printer.println();
+                printer.println("task,blockedBy");
+                dependencyBlockers.forEach((taskId, blockerIds) ->
+                        blockerIds.forEach(blockerId -> printer.println(taskId + "," + blockerId)));
+            }
+
             if (printer.checkError()) {
                 System.err.println("An error occurred during writing tasks in storage.");
             }
         } catch (IOException e) {
             throw new ManagerSaveException(e.getMessage());
         }
+
+        event.end();
+
+        // Размер файла запрашивается только для записываемого события
+        if (event.shouldCommit()) {
+            try {
+                event.setBytesWritten(Files.size(storageCSV));
+            } catch (IOException e) {
+                // Событие записывается без размера
+            }
+
+            event.setCounts(tasks.size(), subtasks.size(), epics.size());
+            event.commit();
+        }
     }
 
     @Override
@@ -174,4 +226,44 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         super.removeEpic(id);
         save();
     }
+
+    @Override
+    public TaskDependencies addDependency(int taskId, int blockerId) {
+        TaskDependencies dependencies = super.addDependency(taskId, blockerId);
+        save();
+
+        return dependencies;
+    }
+
+    @Override
+    public TaskDependencies removeDependency(int taskId, int blockerId) {
+        TaskDependencies dependencies = super.removeDependency(taskId, blockerId);
+        save();
+
+        return dependencies;
+    }
+
+    @Override
+    public List<Task> scheduleUnscheduledTasks(LocalDateTime after, Duration duration) {
+        List<Task> scheduled = super.scheduleUnscheduledTasks(after, duration);
+        save();
+
+        return scheduled;
+    }
+
+    @Override
+    public List<Subtask> shiftEpic(int epicId, Duration offset) {
+        List<Subtask> shifted = super.shiftEpic(epicId, offset);
+        save();
+
+        return shifted;
+    }
+
+    @Override
+    public List<Task> shiftTasks(TaskQuery query, Duration offset) {
+        List<Task> shifted = super.shiftTasks(query, offset);
+        save();
+
+        return shifted;
+    }
 }
@@ -0,0 +1,277 @@
+package service.managers.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Индекс свободных промежутков между занятыми интервалами [начало, окончание). Промежутки хранятся в декартовом дереве
+// по времени начала, каждый узел помнит длину самого длинного промежутка в своем поддереве. Поэтому самый ранний
+// промежуток нужной длины находится за O(log n) без перебора коротких. Интервал нулевой длительности, как и при проверке
+// пересечений в менеджере, занимает точку: промежуток может начинаться или заканчиваться в ней, но не проходить через нее.
+// Пересекающиеся интервалы (например, на время отмены изменения) тоже учитываются: промежуток - это время,
+// не покрытое ни одним интервалом
+class GapIndex {
+    // Изменение числа покрывающих интервалов в момент времени: +1 в начале интервала, -1 в конце
+    private final TreeMap<LocalDateTime, Integer> coverageChanges = new TreeMap<>();
+    // Число интервалов нулевой длительности в момент времени
+    private final TreeMap<LocalDateTime, Integer> points = new TreeMap<>();
+    private Node root = new Node(LocalDateTime.MIN, LocalDateTime.MAX);
+
+    void occupy(LocalDateTime start, LocalDateTime end) {
+        change(start, end, 1);
+    }
+
+    void release(LocalDateTime start, LocalDateTime end) {
+        change(start, end, -1);
+    }
+
+    void clear() {
+        coverageChanges.clear();
+        points.clear();
+        root = new Node(LocalDateTime.MIN, LocalDateTime.MAX);
+    }
+
+    // Самое раннее время не раньше after, с которого свободно не меньше duration, или null, если до конца шкалы места нет
+    LocalDateTime findEarliest(LocalDateTime after, Duration duration) {
+        Node containing = floor(root, after);
+
+        if (containing != null && after.isBefore(containing.end)
+                && Duration.between(after, containing.end).compareTo(duration) >= 0) {
+            return after;
+        }
+
+        Node next = findFirstFitting(root, after, duration);
+
+        return next == null ? null : next.start;
+    }
+
+    // Промежутки пересобираются только между последним промежутком, начинающимся раньше start, и концом первого
+    // промежутка, начинающегося позже end. На границах этого участка ничего не покрыто, а за ними ничего не меняется
+    private void change(LocalDateTime start, LocalDateTime end, int delta) {
+        if (end.isBefore(start)) {
+            return;
+        }
+
+        Node lower = lower(root, start);
+        Node higher = higher(root, end);
+        LocalDateTime from = lower == null ? LocalDateTime.MIN : lower.start;
+        LocalDateTime to = higher == null ? LocalDateTime.MAX : higher.end;
+
+        if (start.equals(end)) {
+            addCount(points, start, delta);
+        } else {
+            addCount(coverageChanges, start, delta);
+            addCount(coverageChanges, end, -delta);
+        }
+
+        Node[] beforeAndRest = split(root, from);
+        Node[] changedAndAfter = higher == null ? new Node[]{beforeAndRest[1], null} : split(beforeAndRest[1], higher.start);
+        Node after = higher == null ? null : remove(changedAndAfter[1], higher.start);
+        root = merge(merge(beforeAndRest[0], buildGaps(from, to, lower == null)), after);
+    }
+
+    // Обходит моменты изменения покрытия и точки участка по порядку. Перед from ничего не покрыто
+    private Node buildGaps(LocalDateTime from, LocalDateTime to, boolean includeFrom) {
+        TreeSet<LocalDateTime> moments = new TreeSet<>(coverageChanges.subMap(from, includeFrom, to, false).keySet());
+        moments.addAll(points.subMap(from, includeFrom, to, false).keySet());
+        Node gaps = null;
+        LocalDateTime gapStart = from;
+        int coverage = 0;
+
+        for (LocalDateTime moment : moments) {
+            int newCoverage = coverage + coverageChanges.getOrDefault(moment, 0);
+
+            if (gapStart != null && (newCoverage > 0 || points.containsKey(moment))) {
+                gaps = merge(gaps, newGap(gapStart, moment));
+                gapStart = null;
+            }
+
+            if (newCoverage == 0 && gapStart == null) {
+                gapStart = moment;
+            }
+
+            coverage = newCoverage;
+        }
+
+        if (gapStart != null) {
+            gaps = merge(gaps, newGap(gapStart, to));
+        }
+
+        return gaps;
+    }
+
+    private static Node newGap(LocalDateTime start, LocalDateTime end) {
+        return start.isBefore(end) ? new Node(start, end) : null;
+    }
+
+    private static void addCount(TreeMap<LocalDateTime, Integer> counts, LocalDateTime time, int delta) {
+        counts.merge(time, delta, (count, added) -> count + added == 0 ? null : count + added);
+    }
+
+    // Промежуток с самым поздним началом строго раньше time
+    private static Node lower(Node node, LocalDateTime time) {
+        Node found = null;
+
+        while (node != null) {
+            if (node.start.isBefore(time)) {
+                found = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+
+        return found;
+    }
+
+    // Промежуток с самым ранним началом строго позже time
+    private static Node higher(Node node, LocalDateTime time) {
+        Node found = null;
+
+        while (node != null) {
+            if (node.start.isAfter(time)) {
+                found = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+
+        return found;
+    }
+
+    private static Node floor(Node node, LocalDateTime time) {
+        Node found = null;
+
+        while (node != null) {
+            if (node.start.isAfter(time)) {
+                node = node.left;
+            } else {
+                found = node;
+                node = node.right;
+            }
+        }
+
+        return found;
+    }
+
+    // Самый левый промежуток, начинающийся строго после after, длиной не меньше duration.
+    // Поддеревья, где нет достаточно длинных промежутков, пропускаются по maxLength
+    private static Node findFirstFitting(Node node, LocalDateTime after, Duration duration) {
+        if (node == null || node.maxLength.compareTo(duration) < 0) {
+            return null;
+        }
+
+        if (!node.start.isAfter(after)) {
+            return findFirstFitting(node.right, after, duration);
+        }
+
+        Node found = findFirstFitting(node.left, after, duration);
+
+        if (found != null) {
+            return found;
+        }
+
+        if (node.length.compareTo(duration) >= 0) {
+            return node;
+        }
+
+        return findFirstFitting(node.right, after, duration);
+    }
+
+    // Делит дерево на узлы с началом раньше key и остальные
+    private static Node[] split(Node node, LocalDateTime key) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+
+        if (node.start.isBefore(key)) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            node.update();
+
+            return new Node[]{node, parts[1]};
+        }
+
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        node.update();
+
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        right.update();
+
+        return right;
+    }
+
+    private static Node remove(Node node, LocalDateTime start) {
+        if (node == null) {
+            return null;
+        }
+
+        int comparison = start.compareTo(node.start);
+
+        if (comparison == 0) {
+            return merge(node.left, node.right);
+        }
+
+        if (comparison < 0) {
+            node.left = remove(node.left, start);
+        } else {
+            node.right = remove(node.right, start);
+        }
+
+        node.update();
+
+        return node;
+    }
+
+    private static class Node {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final Duration length;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Duration maxLength;
+        private Node left;
+        private Node right;
+
+        Node(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+            this.length = Duration.between(start, end);
+            this.maxLength = length;
+        }
+
+        void update() {
+            maxLength = length;
+
+            if (left != null && left.maxLength.compareTo(maxLength) > 0) {
+                maxLength = left.maxLength;
+            }
+
+            if (right != null && right.maxLength.compareTo(maxLength) > 0) {
+                maxLength = right.maxLength;
+            }
+        }
+    }
+}
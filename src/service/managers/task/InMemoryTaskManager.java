@@ -6,8 +6,20 @@ import model.Epic;
 import model.Subtask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
+import service.managers.event.DomainEventBus;
+import service.managers.event.EpicStatusChanged;
+import service.managers.event.SubtaskMoved;
+import service.managers.event.TaskCreated;
+import service.managers.event.TaskDeleted;
+import service.managers.event.TaskUpdated;
+import service.managers.feed.ChangeFeed;
+import service.managers.feed.ChangeKind;
 import service.managers.history.HistoryManager;
+import service.metrics.event.EpicRecalculationEvent;
+import service.metrics.event.OverlapValidationEvent;
 
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -23,9 +35,24 @@ public class InMemoryTaskManager implements TaskManager {
     protected final Map<Integer, Epic> epics = new HashMap<>();
     protected TreeSet<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime).thenComparing(Task::getId));
     protected final HistoryManager historyManager;
+    protected final ChangeFeed changeFeed;
+    protected final DomainEventBus eventBus;
+    private final TimeIndex timeIndex = new TimeIndex();
+    private final GapIndex gapIndex = new GapIndex();
+    private final DependencyGraph dependencyGraph;
 
     public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new ChangeFeed(), new DomainEventBus(), new DependencyGraph());
+    }
+
+    // Лента изменений, шина событий и граф зависимостей могут быть общими для нескольких менеджеров,
+    // как у шардов ShardedTaskManager
+    protected InMemoryTaskManager(HistoryManager historyManager, ChangeFeed changeFeed, DomainEventBus eventBus,
+                                  DependencyGraph dependencyGraph) {
         this.historyManager = historyManager;
+        this.changeFeed = changeFeed;
+        this.eventBus = eventBus;
+        this.dependencyGraph = dependencyGraph;
     }
 
     @Override
@@ -43,12 +70,48 @@ public class InMemoryTaskManager implements TaskManager {
         return epics.values().stream().toList();
     }
 
+    @Override
+    public TaskPage<Task> getTasks(TaskQuery query) {
+        return getPage(tasks.values(), query);
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasks(TaskQuery query) {
+        if (query.getEpicId() == null) {
+            return getPage(subtasks.values(), query);
+        }
+
+        Epic epic = epics.get(query.getEpicId());
+
+        if (epic == null) {
+            return new TaskPage<>(List.of(), 0, null);
+        }
+
+        return getPage(epic.getSubtasksIds().stream().map(subtasks::get).toList(), query);
+    }
+
+    @Override
+    public TaskPage<Epic> getEpics(TaskQuery query) {
+        return getPage(epics.values(), query);
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    @Override
+    public DomainEventBus getEventBus() {
+        return eventBus;
+    }
 
     @Override
     public void removeAllTasks() {
         tasks.forEach((id, task) -> {
             historyManager.remove(id);
-            prioritizedTasks.remove(task);
+            removeFromSchedule(task);
+            dependencyGraph.remove(id);
+            publish(ChangeKind.DELETED, TaskType.TASK, id);
         });
 
         tasks.clear();
@@ -58,7 +121,9 @@ public class InMemoryTaskManager implements TaskManager {
     public void removeAllSubtasks() {
         subtasks.forEach((id, task) -> {
             historyManager.remove(id);
-            prioritizedTasks.remove(task);
+            removeFromSchedule(task);
+            dependencyGraph.remove(id);
+            publish(ChangeKind.DELETED, TaskType.SUBTASK, id);
         });
 
         subtasks.clear();
@@ -66,6 +131,7 @@ public class InMemoryTaskManager implements TaskManager {
         epics.forEach((id, epic) -> {
             epic.getSubtasksIds().clear();
             calculateEpicState(epic);
+            publish(ChangeKind.UPDATED, TaskType.EPIC, id);
         });
     }
 
@@ -73,10 +139,15 @@ public class InMemoryTaskManager implements TaskManager {
     public void removeAllEpics() {
         subtasks.forEach((id, task) -> {
             historyManager.remove(id);
-            prioritizedTasks.remove(task);
+            removeFromSchedule(task);
+            dependencyGraph.remove(id);
+            publish(ChangeKind.DELETED, TaskType.SUBTASK, id);
         });
 
-        epics.forEach((id, task) -> historyManager.remove(id));
+        epics.forEach((id, task) -> {
+            historyManager.remove(id);
+            publish(ChangeKind.DELETED, TaskType.EPIC, id);
+        });
         subtasks.clear();
         epics.clear();
     }
@@ -115,7 +186,8 @@ public class InMemoryTaskManager implements TaskManager {
         applyEmptyIndicatorStartTimeAndDurationIfMissing(newTask);
         validateTimeOverlap(newTask);
         tasks.put(newTask.getId(), newTask);
-        prioritizedTasks.add(newTask);
+        addToSchedule(newTask);
+        publish(ChangeKind.CREATED, TaskType.TASK, newTask.getId());
 
         return newTask;
     }
@@ -137,8 +209,10 @@ public class InMemoryTaskManager implements TaskManager {
         subtaskEpic.addSubtask(newSubtask.getId());
 
         subtasks.put(newSubtask.getId(), newSubtask);
-        prioritizedTasks.add(newSubtask);
+        addToSchedule(newSubtask);
         calculateEpicState(subtaskEpic);
+        publish(ChangeKind.CREATED, TaskType.SUBTASK, newSubtask.getId());
+        publish(ChangeKind.UPDATED, TaskType.EPIC, subtaskEpicId);
 
         return newSubtask;
     }
@@ -153,8 +227,11 @@ public class InMemoryTaskManager implements TaskManager {
 
         applyEmptyIndicatorStartTimeAndDurationIfMissing(newEpic);
 
+        // Статус эпика всегда вычисляется по подзадачам, переданный не считается прежним
+        newEpic.setStatus(null);
         epics.put(newEpic.getId(), newEpic);
         calculateEpicState(newEpic);
+        publish(ChangeKind.CREATED, TaskType.EPIC, newEpic.getId());
 
         return newEpic;
     }
@@ -176,8 +253,9 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         tasks.put(newTask.getId(), newTask);
-        prioritizedTasks.remove(oldTask);
-        prioritizedTasks.add(newTask);
+        removeFromSchedule(oldTask);
+        addToSchedule(newTask);
+        publish(ChangeKind.UPDATED, TaskType.TASK, id);
 
         return newTask;
     }
@@ -207,12 +285,16 @@ public class InMemoryTaskManager implements TaskManager {
             oldSubtaskEpic.removeSubtask(id);
             newSubtaskEpic.addSubtask(id);
             calculateEpicState(oldSubtaskEpic);
+            publish(ChangeKind.UPDATED, TaskType.EPIC, oldSubtaskEpicId);
+            eventBus.publish(new SubtaskMoved(id, oldSubtaskEpicId, newSubtaskEpicId));
         }
 
         subtasks.put(id, newSubtask);
-        prioritizedTasks.remove(oldSubtask);
-        prioritizedTasks.add(newSubtask);
+        removeFromSchedule(oldSubtask);
+        addToSchedule(newSubtask);
         calculateEpicState(newSubtaskEpic);
+        publish(ChangeKind.UPDATED, TaskType.SUBTASK, id);
+        publish(ChangeKind.UPDATED, TaskType.EPIC, newSubtaskEpicId);
 
         return newSubtask;
     }
@@ -228,6 +310,7 @@ public class InMemoryTaskManager implements TaskManager {
 
         oldEpic.setName(newEpic.getName());
         oldEpic.setDescription(newEpic.getDescription());
+        publish(ChangeKind.UPDATED, TaskType.EPIC, id);
 
         return oldEpic;
     }
@@ -243,7 +326,9 @@ public class InMemoryTaskManager implements TaskManager {
 
         tasks.remove(id);
         historyManager.remove(id);
-        prioritizedTasks.remove(task);
+        removeFromSchedule(task);
+        dependencyGraph.remove(id);
+        publish(ChangeKind.DELETED, TaskType.TASK, id);
     }
 
     @Override
@@ -261,7 +346,10 @@ public class InMemoryTaskManager implements TaskManager {
 
         subtasks.remove(id);
         historyManager.remove(id);
-        prioritizedTasks.remove(subtask);
+        removeFromSchedule(subtask);
+        dependencyGraph.remove(id);
+        publish(ChangeKind.DELETED, TaskType.SUBTASK, id);
+        publish(ChangeKind.UPDATED, TaskType.EPIC, subtaskEpic.getId());
     }
 
     @Override
@@ -274,12 +362,15 @@ public class InMemoryTaskManager implements TaskManager {
 
         epic.getSubtasksIds().forEach(historyManager::remove);
         epic.getSubtasksIds().forEach(subtaskId -> {
-            prioritizedTasks.remove(subtasks.get(subtaskId));
+            removeFromSchedule(subtasks.get(subtaskId));
+            dependencyGraph.remove(subtaskId);
             subtasks.remove(subtaskId);
+            publish(ChangeKind.DELETED, TaskType.SUBTASK, subtaskId);
         });
 
         epics.remove(id);
         historyManager.remove(id);
+        publish(ChangeKind.DELETED, TaskType.EPIC, id);
     }
 
 
@@ -303,21 +394,387 @@ public class InMemoryTaskManager implements TaskManager {
         return new ArrayList<>(prioritizedTasks);
     }
 
-    private void validateTimeOverlap(final Task checkedTask) {
+    @Override
+    public List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Window start should be before its end");
+        }
+
+        return timeIndex.getInWindow(from, to);
+    }
+
+    @Override
+    public List<Task> getTasksRunningAt(LocalDateTime instant) {
+        if (instant == null) {
+            throw new IllegalArgumentException("Instant should not be null");
+        }
+
+        return timeIndex.getInWindow(instant, instant.plusNanos(1));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        validateSlotRequest(after, duration);
+        LocalDateTime slotStart = gapIndex.findEarliest(after, duration);
+
+        if (slotStart == null) {
+            throw new IllegalArgumentException("There is no free slot of " + duration + " after " + after);
+        }
+
+        return slotStart;
+    }
+
+    // Задачи и подзадачи без времени начала по порядку id занимают самые ранние свободные промежутки после after.
+    // Состояние эпиков пересчитывается один раз в конце, а не после каждой подзадачи
+    @Override
+    public List<Task> scheduleUnscheduledTasks(LocalDateTime after, Duration duration) {
+        validateSlotRequest(after, duration);
+        List<Task> unscheduled = new ArrayList<>();
+
+        for (Task task : prioritizedTasks.descendingSet()) {
+            if (!isDefaultStartTime(task)) {
+                break;
+            }
+
+            unscheduled.add(task);
+        }
+
+        for (Task task : unscheduled.reversed()) {
+            LocalDateTime slotStart = findFreeSlot(after, duration);
+
+            removeFromSchedule(task);
+            task.setStartTime(slotStart);
+            task.setDuration(duration);
+            addToSchedule(task);
+        }
+
+        publishRescheduled(unscheduled.reversed());
+
+        return unscheduled.reversed();
+    }
+
+    @Override
+    public List<Subtask> shiftEpic(int epicId, Duration offset) {
+        Epic epic = (Epic) getNotNullValue(epics.get(epicId), epicId);
+
+        return shift(getEpicSubtasks(epic.getId()), offset);
+    }
+
+    @Override
+    public List<Task> shiftTasks(TaskQuery query, Duration offset) {
+        List<Task> matching = new ArrayList<>();
+
+        for (Task task : prioritizedTasks) {
+            if (isDefaultStartTime(task)) {
+                break;
+            }
+
+            if (query.matches(task)) {
+                matching.add(task);
+            }
+        }
+
+        return shift(matching, offset);
+    }
+
+    // Новое время начала вычисляется и проверяется для всех задач до изменения индексов, поэтому выход за пределы
+    // LocalDateTime ничего не меняет. Затем сдвигаемые задачи убираются из расписания, и каждая проверяется только
+    // на пересечение с остальными: между собой после одинакового сдвига они пересекаться не могут. При любой ошибке
+    // все возвращается на прежнее место. Состояние каждого затронутого эпика пересчитывается один раз
+    private <T extends Task> List<T> shift(List<T> candidates, Duration offset) {
+        if (offset == null) {
+            throw new IllegalArgumentException("Offset should not be null");
+        }
+
+        List<T> moved = candidates.stream()
+                .filter(task -> !isDefaultStartTime(task))
+                .toList();
+        List<LocalDateTime> previousStarts = moved.stream().map(Task::getStartTime).toList();
+        List<LocalDateTime> shiftedStarts = moved.stream().map(task -> shiftedStartTime(task, offset)).toList();
+
+        moved.forEach(this::removeFromSchedule);
+
+        try {
+            for (int i = 0; i < moved.size(); i++) {
+                moved.get(i).setStartTime(shiftedStarts.get(i));
+            }
+
+            moved.forEach(this::validateTimeOverlap);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < moved.size(); i++) {
+                moved.get(i).setStartTime(previousStarts.get(i));
+                addToSchedule(moved.get(i));
+            }
+
+            throw e;
+        }
+
+        moved.forEach(this::addToSchedule);
+        publishRescheduled(moved);
+
+        return moved;
+    }
+
+    // Сдвинутая задача должна целиком остаться в пределах LocalDateTime и не совпасть с признаком задачи без времени
+    static LocalDateTime shiftedStartTime(Task task, Duration offset) {
+        try {
+            LocalDateTime start = task.getStartTime().plus(offset);
+            start.plus(task.getDuration());
+
+            if (!start.equals(EMPTY_START_TIME_INDICATOR)) {
+                return start;
+            }
+        } catch (DateTimeException | ArithmeticException ignored) {
+        }
+
+        throw new IllegalArgumentException("Offset " + offset + " moves task " + task.getId() + " out of the supported time range");
+    }
+
+    @Override
+    public TaskDependencies getDependencies(int id) {
+        return dependencyGraph.describe(getTaskOrSubtask(id));
+    }
+
+    @Override
+    public TaskDependencies addDependency(int taskId, int blockerId) {
+        Task task = getTaskOrSubtask(taskId);
+        dependencyGraph.addDependency(task, getTaskOrSubtask(blockerId));
+        publish(ChangeKind.UPDATED, task.getType(), taskId);
+
+        return dependencyGraph.describe(task);
+    }
+
+    @Override
+    public TaskDependencies removeDependency(int taskId, int blockerId) {
+        Task task = getTaskOrSubtask(taskId);
+        dependencyGraph.removeDependency(taskId, blockerId);
+        publish(ChangeKind.UPDATED, task.getType(), taskId);
+
+        return dependencyGraph.describe(task);
+    }
+
+    // Задача по типу и id без записи в историю, например для слушателей ленты изменений. null, если задачи нет
+    public Task peekTask(TaskType type, int id) {
+        return switch (type) {
+            case TASK -> tasks.get(id);
+            case SUBTASK -> subtasks.get(id);
+            case EPIC -> epics.get(id);
+        };
+    }
+
+    // Методы restore записывают задачу в том виде, в каком она уже была сохранена раньше, например в снимке
+    // или журнале репликации: без проверки пересечений и с сохранением id. Изменения публикуются как обычно
+    protected void restoreTask(Task task) {
+        applyEmptyIndicatorStartTimeAndDurationIfMissing(task);
+        Task oldTask = tasks.put(task.getId(), task);
+
+        if (oldTask != null) {
+            removeFromSchedule(oldTask);
+        }
+
+        addToSchedule(task);
+        seq = Math.max(seq, task.getId());
+        publish(oldTask == null ? ChangeKind.CREATED : ChangeKind.UPDATED, TaskType.TASK, task.getId());
+    }
+
+    // Эпик подзадачи должен быть восстановлен раньше нее
+    protected void restoreSubtask(Subtask subtask) {
+        applyEmptyIndicatorStartTimeAndDurationIfMissing(subtask);
+        Subtask oldSubtask = subtasks.put(subtask.getId(), subtask);
+
+        if (oldSubtask != null) {
+            removeFromSchedule(oldSubtask);
+
+            if (!oldSubtask.getEpicId().equals(subtask.getEpicId()) && epics.containsKey(oldSubtask.getEpicId())) {
+                Epic oldEpic = epics.get(oldSubtask.getEpicId());
+                oldEpic.removeSubtask(subtask.getId());
+                calculateEpicState(oldEpic);
+                publish(ChangeKind.UPDATED, TaskType.EPIC, oldEpic.getId());
+                eventBus.publish(new SubtaskMoved(subtask.getId(), oldEpic.getId(), subtask.getEpicId()));
+            }
+        }
+
+        addToSchedule(subtask);
+        Epic epic = epics.get(subtask.getEpicId());
+
+        if (epic != null) {
+            epic.addSubtask(subtask.getId());
+            calculateEpicState(epic);
+        }
+
+        seq = Math.max(seq, subtask.getId());
+        publish(oldSubtask == null ? ChangeKind.CREATED : ChangeKind.UPDATED, TaskType.SUBTASK, subtask.getId());
+
+        if (epic != null) {
+            publish(ChangeKind.UPDATED, TaskType.EPIC, epic.getId());
+        }
+    }
+
+    // Состояние эпика вычисляется по подзадачам, поэтому у существующего эпика меняются только имя и описание
+    protected void restoreEpic(Epic newEpic) {
+        Epic epic = epics.get(newEpic.getId());
+
+        if (epic != null) {
+            epic.setName(newEpic.getName());
+            epic.setDescription(newEpic.getDescription());
+            publish(ChangeKind.UPDATED, TaskType.EPIC, epic.getId());
+            return;
+        }
+
+        // Подзадачи эпика восстанавливаются отдельно
+        newEpic.getSubtasksIds().clear();
+        epics.put(newEpic.getId(), newEpic);
+        calculateEpicState(newEpic);
+        seq = Math.max(seq, newEpic.getId());
+        publish(ChangeKind.CREATED, TaskType.EPIC, newEpic.getId());
+    }
+
+    // Блокирующие задачи должны существовать
+    protected void restoreBlockers(int taskId, List<Integer> blockedBy) {
+        Task task = getTaskOrSubtask(taskId);
+        List<Integer> current = dependencyGraph.describe(task).getBlockedBy();
+        boolean changed = false;
+
+        for (int blockerId : current) {
+            if (!blockedBy.contains(blockerId)) {
+                dependencyGraph.removeDependency(taskId, blockerId);
+                changed = true;
+            }
+        }
+
+        for (int blockerId : blockedBy) {
+            if (!current.contains(blockerId)) {
+                dependencyGraph.addDependency(task, getTaskOrSubtask(blockerId));
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            publish(ChangeKind.UPDATED, task.getType(), taskId);
+        }
+    }
+
+    // Публикует изменение перенесенных задач и один раз пересчитывает каждый затронутый эпик
+    protected void publishRescheduled(List<? extends Task> rescheduled) {
+        Set<Epic> changedEpics = new LinkedHashSet<>();
+
+        for (Task task : rescheduled) {
+            if (task instanceof Subtask subtask) {
+                changedEpics.add(epics.get(subtask.getEpicId()));
+                publish(ChangeKind.UPDATED, TaskType.SUBTASK, subtask.getId());
+            } else {
+                publish(ChangeKind.UPDATED, TaskType.TASK, task.getId());
+            }
+        }
+
+        changedEpics.forEach(epic -> {
+            calculateEpicState(epic);
+            publish(ChangeKind.UPDATED, TaskType.EPIC, epic.getId());
+        });
+    }
+
+    // Блокирующие задачи для каждой задачи, у которой они есть
+    protected Map<Integer, Set<Integer>> getDependencyBlockers() {
+        return dependencyGraph.getBlockers();
+    }
+
+    // Изменение уходит и в ленту изменений, и шине доменных событий
+    protected void publish(ChangeKind kind, TaskType type, int id) {
+        changeFeed.publish(kind, type, id);
+        eventBus.publish(switch (kind) {
+            case CREATED -> new TaskCreated(type, id);
+            case UPDATED -> new TaskUpdated(type, id);
+            case DELETED -> new TaskDeleted(type, id);
+        });
+    }
+
+    // Задачи и подзадачи хранятся в prioritizedTasks, в индексе по дням и занимают время в индексе свободных промежутков
+    protected void addToSchedule(Task task) {
+        prioritizedTasks.add(task);
+        timeIndex.add(task);
+
+        if (!isDefaultStartTime(task)) {
+            gapIndex.occupy(task.getStartTime(), task.getEndTime());
+        }
+
+        dependencyGraph.refresh(task);
+    }
+
+    protected void removeFromSchedule(Task task) {
+        prioritizedTasks.remove(task);
+        timeIndex.remove(task);
+
+        if (!isDefaultStartTime(task)) {
+            gapIndex.release(task.getStartTime(), task.getEndTime());
+        }
+    }
+
+    static void validateSlotRequest(LocalDateTime after, Duration duration) {
+        if (after == null || duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Slot search needs a start instant and a positive duration");
+        }
+    }
+
+    // Фильтрация и подсчет идут одним проходом, а в памяти держится только куча из limit элементов страницы
+    private <T extends Task> TaskPage<T> getPage(Collection<T> source, TaskQuery query) {
+        Comparator<Task> comparator = query.getSort().getComparator();
+        int limit = query.getLimit() == null ? Integer.MAX_VALUE : query.getLimit();
+        PriorityQueue<T> page = new PriorityQueue<>(comparator.reversed());
+        int totalCount = 0;
+        boolean hasMore = false;
+
+        for (T task : source) {
+            if (!query.matches(task)) {
+                continue;
+            }
+
+            totalCount++;
+
+            if (!query.isAfterCursor(task)) {
+                continue;
+            }
+
+            if (page.size() < limit) {
+                page.add(task);
+                continue;
+            }
+
+            hasMore = true;
+
+            if (limit > 0 && comparator.compare(task, page.peek()) < 0) {
+                page.poll();
+                page.add(task);
+            }
+        }
+
+        List<T> items = new ArrayList<>(page);
+        items.sort(comparator);
+        String nextCursor = hasMore && !items.isEmpty() ? query.getSort().encodeCursor(items.getLast()) : null;
+
+        return new TaskPage<>(items, totalCount, nextCursor);
+    }
+
+    protected void validateTimeOverlap(final Task checkedTask) {
         if (isDefaultStartTime(checkedTask)) {
             return;
         }
 
+        OverlapValidationEvent event = new OverlapValidationEvent(checkedTask.getId());
+        event.begin();
         Task lower = prioritizedTasks.lower(checkedTask);
         Task upper = prioritizedTasks.higher(checkedTask);
 
-        Stream.of(lower, upper)
+        Optional<Task> overlapping = Stream.of(lower, upper)
                 .filter(Objects::nonNull)
                 .filter(neighbour -> isTimeOverlapping(neighbour, checkedTask))
-                .findAny()
-                .ifPresent(overlappingNeighbor -> {
-                    throw new OverlappingException(String.format("The execution interval of the added task overlapping with the existing tasks with id %d", overlappingNeighbor.getId()));
-                });
+                .findAny();
+
+        event.setOverlapping(overlapping.isPresent());
+        event.commit();
+
+        overlapping.ifPresent(overlappingNeighbor -> {
+            throw new OverlappingException(String.format("The execution interval of the added task overlapping with the existing tasks with id %d", overlappingNeighbor.getId()));
+        });
     }
 
     private boolean isTimeOverlapping(Task lower, Task upper) {
@@ -326,6 +783,9 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     protected void calculateEpicState(Epic epic) {
+        EpicRecalculationEvent event = new EpicRecalculationEvent(epic.getId());
+        event.begin();
+        TaskStatus oldStatus = epic.getStatus();
         List<Subtask> epicsSubtasks = getEpicSubtasks(epic.getId());
         Duration newDuration = EMPTY_DURATION_INDICATOR;
         LocalDateTime newStartTime = EMPTY_START_TIME_INDICATOR;
@@ -350,6 +810,12 @@ public class InMemoryTaskManager implements TaskManager {
         epic.setEndTime(newEndTime);
         epic.setDuration(newDuration);
         epic.setStatus(newStatus);
+        event.setSubtaskCount(epicsSubtasks.size());
+        event.commit();
+
+        if (oldStatus != null && oldStatus != newStatus) {
+            eventBus.publish(new EpicStatusChanged(epic.getId(), oldStatus, newStatus));
+        }
     }
 
     private LocalDateTime getUpdatedEpicStartTime(Subtask subtask, LocalDateTime startTime) {
@@ -364,11 +830,11 @@ public class InMemoryTaskManager implements TaskManager {
         return newEndTime.isAfter(endTime) ? newEndTime : endTime;
     }
 
-    private int getNextId() {
+    protected int getNextId() {
         return ++seq;
     }
 
-    private boolean isDefaultStartTime(Task task) {
+    protected boolean isDefaultStartTime(Task task) {
         return task.getStartTime().equals(EMPTY_START_TIME_INDICATOR);
     }
 
@@ -378,7 +844,7 @@ public class InMemoryTaskManager implements TaskManager {
 
     }
 
-    private void applyEmptyIndicatorStartTimeAndDurationIfMissing(Task task) {
+    protected void applyEmptyIndicatorStartTimeAndDurationIfMissing(Task task) {
         if (task.getStartTime() == null || task.getDuration() == null) {
             task.setStartTime(EMPTY_START_TIME_INDICATOR);
             task.setDuration(EMPTY_DURATION_INDICATOR);
@@ -393,9 +859,16 @@ public class InMemoryTaskManager implements TaskManager {
         }
     }
 
+    // Зависимости бывают только между задачами и подзадачами, идентификаторы у них общие
+    private Task getTaskOrSubtask(int id) {
+        Task task = tasks.get(id);
+
+        return getNotNullValue(task == null ? subtasks.get(id) : task, id);
+    }
+
     private Task getNotNullValue(Task task, int id) {
         if (task == null) {
-            throw new NotFoundException(String.format("Task with id %d not found", id));
+            throw new NotFoundException(id);
         }
 
         return task;
@@ -0,0 +1,226 @@
+package service.managers.task;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import service.managers.event.DomainEventBus;
+import service.managers.feed.ChangeFeed;
+import service.metrics.MetricsRegistry;
+import service.metrics.event.TaskOperationEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+public class InstrumentedTaskManager implements TaskManager {
+    private final TaskManager taskManager;
+    private final MetricsRegistry metricsRegistry;
+
+    public InstrumentedTaskManager(TaskManager taskManager, MetricsRegistry metricsRegistry) {
+        this.taskManager = taskManager;
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return timed("getAllTasks", taskManager::getAllTasks);
+    }
+
+    @Override
+    public List<Subtask> getAllSubTasks() {
+        return timed("getAllSubTasks", taskManager::getAllSubTasks);
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return timed("getAllEpics", taskManager::getAllEpics);
+    }
+
+    @Override
+    public TaskPage<Task> getTasks(TaskQuery query) {
+        return timed("getTasks", () -> taskManager.getTasks(query));
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasks(TaskQuery query) {
+        return timed("getSubtasks", () -> taskManager.getSubtasks(query));
+    }
+
+    @Override
+    public TaskPage<Epic> getEpics(TaskQuery query) {
+        return timed("getEpics", () -> taskManager.getEpics(query));
+    }
+
+    @Override
+    public void removeAllTasks() {
+        timed("removeAllTasks", taskManager::removeAllTasks);
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        timed("removeAllSubtasks", taskManager::removeAllSubtasks);
+    }
+
+    @Override
+    public void removeAllEpics() {
+        timed("removeAllEpics", taskManager::removeAllEpics);
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return timed("getTask", () -> taskManager.getTask(id));
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return timed("getSubtask", () -> taskManager.getSubtask(id));
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return timed("getEpic", () -> taskManager.getEpic(id));
+    }
+
+    @Override
+    public Task createTask(Task newTask) {
+        return timed("createTask", () -> taskManager.createTask(newTask));
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask newSubtask) {
+        return timed("createSubtask", () -> taskManager.createSubtask(newSubtask));
+    }
+
+    @Override
+    public Epic createEpic(Epic newEpic) {
+        return timed("createEpic", () -> taskManager.createEpic(newEpic));
+    }
+
+    @Override
+    public Task updateTask(Task newTask) {
+        return timed("updateTask", () -> taskManager.updateTask(newTask));
+    }
+
+    @Override
+    public Subtask updateSubtask(Subtask newSubtask) {
+        return timed("updateSubtask", () -> taskManager.updateSubtask(newSubtask));
+    }
+
+    @Override
+    public Epic updateEpic(Epic newEpic) {
+        return timed("updateEpic", () -> taskManager.updateEpic(newEpic));
+    }
+
+    @Override
+    public void removeTask(int id) {
+        timed("removeTask", () -> taskManager.removeTask(id));
+    }
+
+    @Override
+    public void removeSubtask(int id) {
+        timed("removeSubtask", () -> taskManager.removeSubtask(id));
+    }
+
+    @Override
+    public void removeEpic(int id) {
+        timed("removeEpic", () -> taskManager.removeEpic(id));
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) {
+        return timed("getEpicSubtasks", () -> taskManager.getEpicSubtasks(id));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return timed("getPrioritizedTasks", taskManager::getPrioritizedTasks);
+    }
+
+    @Override
+    public List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) {
+        return timed("getTasksInWindow", () -> taskManager.getTasksInWindow(from, to));
+    }
+
+    @Override
+    public List<Task> getTasksRunningAt(LocalDateTime instant) {
+        return timed("getTasksRunningAt", () -> taskManager.getTasksRunningAt(instant));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        return timed("findFreeSlot", () -> taskManager.findFreeSlot(after, duration));
+    }
+
+    @Override
+    public List<Task> scheduleUnscheduledTasks(LocalDateTime after, Duration duration) {
+        return timed("scheduleUnscheduledTasks", () -> taskManager.scheduleUnscheduledTasks(after, duration));
+    }
+
+    @Override
+    public List<Subtask> shiftEpic(int epicId, Duration offset) {
+        return timed("shiftEpic", () -> taskManager.shiftEpic(epicId, offset));
+    }
+
+    @Override
+    public List<Task> shiftTasks(TaskQuery query, Duration offset) {
+        return timed("shiftTasks", () -> taskManager.shiftTasks(query, offset));
+    }
+
+    @Override
+    public TaskDependencies getDependencies(int id) {
+        return timed("getDependencies", () -> taskManager.getDependencies(id));
+    }
+
+    @Override
+    public TaskDependencies addDependency(int taskId, int blockerId) {
+        return timed("addDependency", () -> taskManager.addDependency(taskId, blockerId));
+    }
+
+    @Override
+    public TaskDependencies removeDependency(int taskId, int blockerId) {
+        return timed("removeDependency", () -> taskManager.removeDependency(taskId, blockerId));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return timed("getHistory", taskManager::getHistory);
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return taskManager.getChangeFeed();
+    }
+
+    @Override
+    public DomainEventBus getEventBus() {
+        return taskManager.getEventBus();
+    }
+
+    // Без активной записи JFR событие не фиксируется, и его накладные расходы почти нулевые
+    private <R> R timed(String operation, Supplier<R> action) {
+        TaskOperationEvent event = new TaskOperationEvent(operation);
+        event.begin();
+        long start = System.nanoTime();
+
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            if (event.isEnabled()) {
+                event.setException(e.getClass());
+            }
+
+            throw e;
+        } finally {
+            metricsRegistry.recordOperation(operation, System.nanoTime() - start);
+            event.commit();
+        }
+    }
+
+    private void timed(String operation, Runnable action) {
+        timed(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
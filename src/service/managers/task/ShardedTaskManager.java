@@ -0,0 +1,569 @@
+package service.managers.task;
+
+import exception.NotFoundException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import service.managers.event.DomainEventBus;
+import service.managers.event.SubtaskMoved;
+import service.managers.event.TaskUpdated;
+import service.managers.feed.ChangeFeed;
+import service.managers.feed.ChangeKind;
+import service.managers.history.HistoryManager;
+import service.managers.history.SynchronizedHistoryManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Менеджер, разделенный на шарды, каждый из которых меняется только своим потоком-писателем. Задача и эпик попадают
+// в шард по id, подзадача - в шард своего эпика. Операции разных шардов выполняются параллельно, поэтому менеджер
+// не нужно оборачивать в SynchronizedTaskManager. Списки по времени и страницы собираются слиянием списков шардов,
+// а пересечения по времени проверяются по общему расписанию TimeReservations
+public class ShardedTaskManager implements TaskManager, AutoCloseable {
+    public static final int DEFAULT_SHARD_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final Comparator<Task> BY_ID = Comparator.comparing(Task::getId);
+    private static final Comparator<Task> BY_START_TIME = Comparator.comparing(Task::getStartTime).thenComparing(Task::getId);
+
+    private final List<TaskShard> shards = new ArrayList<>();
+    private final Map<Integer, Integer> subtaskShards = new ConcurrentHashMap<>();
+    private final AtomicInteger seq = new AtomicInteger(-1);
+    private final HistoryManager historyManager;
+    private final ChangeFeed changeFeed = new ChangeFeed();
+    private final DomainEventBus eventBus = new DomainEventBus();
+    private final DependencyGraph dependencyGraph = new SynchronizedDependencyGraph();
+    private final TimeReservations reservations = new TimeReservations();
+
+    public ShardedTaskManager(HistoryManager historyManager, int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count should be positive");
+        }
+
+        this.historyManager = new SynchronizedHistoryManager(historyManager);
+
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new TaskShard(i, this.historyManager, changeFeed, eventBus, dependencyGraph, reservations));
+        }
+    }
+
+    public ShardedTaskManager(HistoryManager historyManager) {
+        this(historyManager, DEFAULT_SHARD_COUNT);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return mergeSorted(callAll(TaskShard::getAllTasks), BY_ID);
+    }
+
+    @Override
+    public List<Subtask> getAllSubTasks() {
+        return mergeSorted(callAll(TaskShard::getAllSubTasks), BY_ID);
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return mergeSorted(callAll(TaskShard::getAllEpics), BY_ID);
+    }
+
+    @Override
+    public TaskPage<Task> getTasks(TaskQuery query) {
+        return mergePages(callAll(shard -> shard.getTasks(query)), query);
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasks(TaskQuery query) {
+        if (query.getEpicId() != null) {
+            return call(getEpicShard(query.getEpicId()), shard -> shard.getSubtasks(query));
+        }
+
+        return mergePages(callAll(shard -> shard.getSubtasks(query)), query);
+    }
+
+    @Override
+    public TaskPage<Epic> getEpics(TaskQuery query) {
+        return mergePages(callAll(shard -> shard.getEpics(query)), query);
+    }
+
+    @Override
+    public void removeAllTasks() {
+        callAll(shard -> {
+            shard.removeAllTasks();
+            return null;
+        });
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        callAll(shard -> {
+            List<Integer> removedIds = shard.getSubtaskIds();
+            shard.removeAllSubtasks();
+
+            return removedIds;
+        }).forEach(removedIds -> removedIds.forEach(subtaskShards::remove));
+    }
+
+    @Override
+    public void removeAllEpics() {
+        callAll(shard -> {
+            List<Integer> removedIds = shard.getSubtaskIds();
+            shard.removeAllEpics();
+
+            return removedIds;
+        }).forEach(removedIds -> removedIds.forEach(subtaskShards::remove));
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return call(getShard(id), shard -> shard.getTask(id));
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return call(getShard(id), shard -> shard.getSubtask(id));
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return call(getEpicShard(id), shard -> shard.getEpic(id));
+    }
+
+    @Override
+    public Task createTask(Task newTask) {
+        if (newTask == null) {
+            throw new IllegalArgumentException("Task should not be null");
+        }
+
+        int id = seq.incrementAndGet();
+
+        return call(getShard(id), shard -> shard.createTask(newTask, id));
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask newSubtask) {
+        if (newSubtask == null) {
+            throw new IllegalArgumentException("Subtask should not be null");
+        }
+
+        int id = seq.incrementAndGet();
+        int shardIndex = getShardIndex(newSubtask.getEpicId());
+        Subtask created = call(shards.get(shardIndex), shard -> shard.createSubtask(newSubtask, id));
+        subtaskShards.put(id, shardIndex);
+
+        return created;
+    }
+
+    @Override
+    public Epic createEpic(Epic newEpic) {
+        if (newEpic == null) {
+            throw new IllegalArgumentException("Epic should not be null");
+        }
+
+        int id = seq.incrementAndGet();
+
+        return call(getEpicShard(id), shard -> shard.createEpic(newEpic, id));
+    }
+
+    @Override
+    public Task updateTask(Task newTask) {
+        if (newTask == null) {
+            throw new IllegalArgumentException("Task should not be null");
+        }
+
+        return call(getShard(newTask.getId()), shard -> shard.updateTask(newTask));
+    }
+
+    @Override
+    public Subtask updateSubtask(Subtask newSubtask) {
+        if (newSubtask == null) {
+            throw new IllegalArgumentException("Subtask should not be null");
+        }
+
+        int id = newSubtask.getId();
+        int epicId = newSubtask.getEpicId();
+        TaskShard subtaskShard = getShard(id);
+        TaskShard epicShard = getEpicShard(epicId);
+
+        if (subtaskShard != epicShard) {
+            if (call(subtaskShard, shard -> shard.getSubtaskEpicId(id)) == null) {
+                throw new NotFoundException(id);
+            }
+
+            if (!call(epicShard, shard -> shard.containsEpic(epicId))) {
+                throw new NotFoundException(epicId);
+            }
+
+            return moveSubtask(newSubtask, subtaskShard, epicShard);
+        }
+
+        return call(subtaskShard, shard -> shard.updateSubtask(newSubtask));
+    }
+
+    @Override
+    public Epic updateEpic(Epic newEpic) {
+        if (newEpic == null) {
+            throw new IllegalArgumentException("Epic should not be null");
+        }
+
+        return call(getEpicShard(newEpic.getId()), shard -> shard.updateEpic(newEpic));
+    }
+
+    @Override
+    public void removeTask(int id) {
+        call(getShard(id), shard -> {
+            shard.removeTask(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void removeSubtask(int id) {
+        call(getShard(id), shard -> {
+            shard.removeSubtask(id);
+            return null;
+        });
+        subtaskShards.remove(id);
+    }
+
+    @Override
+    public void removeEpic(int id) {
+        List<Integer> removedIds = call(getEpicShard(id), shard -> {
+            List<Integer> subtaskIds = shard.containsEpic(id)
+                    ? shard.getEpicSubtasks(id).stream().map(Task::getId).toList()
+                    : List.of();
+            shard.removeEpic(id);
+
+            return subtaskIds;
+        });
+
+        removedIds.forEach(subtaskShards::remove);
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) {
+        return call(getEpicShard(id), shard -> shard.getEpicSubtasks(id));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return mergeSorted(callAll(TaskShard::getPrioritizedTasks), BY_START_TIME);
+    }
+
+    @Override
+    public List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) {
+        return mergeSorted(callAll(shard -> shard.getTasksInWindow(from, to)), BY_START_TIME);
+    }
+
+    @Override
+    public List<Task> getTasksRunningAt(LocalDateTime instant) {
+        return mergeSorted(callAll(shard -> shard.getTasksRunningAt(instant)), BY_START_TIME);
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        InMemoryTaskManager.validateSlotRequest(after, duration);
+        LocalDateTime slotStart = reservations.findFreeSlot(after, duration);
+
+        if (slotStart == null) {
+            throw new IllegalArgumentException("There is no free slot of " + duration + " after " + after);
+        }
+
+        return slotStart;
+    }
+
+    // Время сначала занимается в общем расписании сразу для всех задач по порядку id, и только потом шарды
+    // переносят свои задачи. Поэтому одновременные изменения в других шардах не могут занять то же время
+    @Override
+    public List<Task> scheduleUnscheduledTasks(LocalDateTime after, Duration duration) {
+        InMemoryTaskManager.validateSlotRequest(after, duration);
+        List<Integer> unscheduledIds = callAll(TaskShard::getUnscheduledIds).stream()
+                .flatMap(List::stream)
+                .sorted()
+                .toList();
+        Map<Integer, LocalDateTime> starts = reservations.allocate(unscheduledIds, after, duration);
+
+        return mergeSorted(applyReservedStarts(starts, duration), BY_ID);
+    }
+
+    @Override
+    public List<Subtask> shiftEpic(int epicId, Duration offset) {
+        validateOffset(offset);
+        TaskShard epicShard = getEpicShard(epicId);
+        List<Integer> subtaskIds = call(epicShard, shard -> shard.getScheduledEpicSubtaskIds(epicId));
+        Map<Integer, LocalDateTime> starts = reservations.shift(subtaskIds, offset);
+
+        return call(epicShard, shard -> shard.applyReservedStarts(starts, null)).stream()
+                .map(Subtask.class::cast)
+                .toList();
+    }
+
+    // Задачи разных шардов сдвигаются вместе: общее расписание проверяет и переносит все интервалы атомарно
+    @Override
+    public List<Task> shiftTasks(TaskQuery query, Duration offset) {
+        validateOffset(offset);
+        List<Integer> matchingIds = callAll(shard -> shard.getScheduledIds(query)).stream()
+                .flatMap(List::stream)
+                .toList();
+        Map<Integer, LocalDateTime> starts = reservations.shift(matchingIds, offset);
+
+        return mergeSorted(applyReservedStarts(starts, null), BY_START_TIME);
+    }
+
+    @Override
+    public TaskDependencies getDependencies(int id) {
+        return dependencyGraph.describe(getTaskOrSubtask(id));
+    }
+
+    // Граф зависимостей общий для всех шардов, поэтому зависеть друг от друга могут задачи из разных шардов
+    @Override
+    public TaskDependencies addDependency(int taskId, int blockerId) {
+        Task task = getTaskOrSubtask(taskId);
+        dependencyGraph.addDependency(task, getTaskOrSubtask(blockerId));
+        publishUpdated(task);
+
+        return dependencyGraph.describe(task);
+    }
+
+    @Override
+    public TaskDependencies removeDependency(int taskId, int blockerId) {
+        Task task = getTaskOrSubtask(taskId);
+        dependencyGraph.removeDependency(taskId, blockerId);
+        publishUpdated(task);
+
+        return dependencyGraph.describe(task);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    @Override
+    public DomainEventBus getEventBus() {
+        return eventBus;
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(TaskShard::shutdown);
+    }
+
+    // Пока подзадача переносится между шардами, она не видна ни в одном из них
+    private Subtask moveSubtask(Subtask newSubtask, TaskShard source, TaskShard target) {
+        int id = newSubtask.getId();
+        Subtask previous = call(source, shard -> shard.detachSubtask(id));
+
+        try {
+            Subtask moved = call(target, shard -> shard.attachSubtask(newSubtask));
+            subtaskShards.put(id, shards.indexOf(target));
+            eventBus.publish(new SubtaskMoved(id, previous.getEpicId(), moved.getEpicId()));
+
+            return moved;
+        } catch (RuntimeException e) {
+            call(source, shard -> shard.attachSubtask(previous));
+            throw e;
+        }
+    }
+
+    private void publishUpdated(Task task) {
+        changeFeed.publish(ChangeKind.UPDATED, task.getType(), task.getId());
+        eventBus.publish(new TaskUpdated(task.getType(), task.getId()));
+    }
+
+    private Task getTaskOrSubtask(int id) {
+        Task task = call(getShard(id), shard -> shard.findTaskOrSubtask(id));
+
+        if (task == null) {
+            throw new NotFoundException(id);
+        }
+
+        return task;
+    }
+
+    // Каждый шард переносит свои задачи в порядке starts, результаты возвращаются по шардам
+    private List<List<Task>> applyReservedStarts(Map<Integer, LocalDateTime> starts, Duration duration) {
+        Map<TaskShard, Map<Integer, LocalDateTime>> startsByShard = new LinkedHashMap<>();
+        starts.forEach((id, start) -> startsByShard.computeIfAbsent(getShard(id), shard -> new LinkedHashMap<>()).put(id, start));
+
+        List<CompletableFuture<List<Task>>> futures = startsByShard.entrySet().stream()
+                .map(entry -> entry.getKey().submit(() -> entry.getKey().applyReservedStarts(entry.getValue(), duration)))
+                .toList();
+
+        return joinAll(futures);
+    }
+
+    private TaskShard getShard(int id) {
+        Integer shardIndex = subtaskShards.get(id);
+
+        return shards.get(shardIndex == null ? getShardIndex(id) : shardIndex);
+    }
+
+    private TaskShard getEpicShard(int epicId) {
+        return shards.get(getShardIndex(epicId));
+    }
+
+    private int getShardIndex(int id) {
+        return Math.floorMod(id, shards.size());
+    }
+
+    private <R> R call(TaskShard shard, Function<TaskShard, R> operation) {
+        return join(shard.submit(() -> operation.apply(shard)));
+    }
+
+    // Операция отправляется во все шарды сразу, а результаты ожидаются после
+    private <R> List<R> callAll(Function<TaskShard, R> operation) {
+        return joinAll(shards.stream()
+                .map(shard -> shard.submit(() -> operation.apply(shard)))
+                .toList());
+    }
+
+    private static <R> List<R> joinAll(List<CompletableFuture<R>> futures) {
+        List<R> results = new ArrayList<>(futures.size());
+        RuntimeException failure = null;
+
+        for (CompletableFuture<R> future : futures) {
+            try {
+                results.add(join(future));
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        return results;
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+
+            throw e;
+        }
+    }
+
+    private static void validateOffset(Duration offset) {
+        if (offset == null) {
+            throw new IllegalArgumentException("Offset should not be null");
+        }
+    }
+
+    // Слияние уже отсортированных списков шардов кучей из их голов
+    private static <T extends Task> List<T> mergeSorted(List<List<T>> sortedLists, Comparator<? super T> comparator) {
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>((first, second) -> comparator.compare(first.value, second.value));
+        int size = 0;
+
+        for (List<T> list : sortedLists) {
+            size += list.size();
+            Iterator<T> iterator = list.iterator();
+
+            if (iterator.hasNext()) {
+                heads.add(new Head<>(iterator.next(), iterator));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(size);
+
+        while (!heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            merged.add(head.value);
+
+            if (head.rest.hasNext()) {
+                heads.add(new Head<>(head.rest.next(), head.rest));
+            }
+        }
+
+        return merged;
+    }
+
+    // Каждый шард вернул не больше limit первых элементов после курсора, поэтому первые limit из их слияния
+    // и есть страница всего менеджера
+    private static <T extends Task> TaskPage<T> mergePages(List<TaskPage<T>> pages, TaskQuery query) {
+        int limit = query.getLimit() == null ? Integer.MAX_VALUE : query.getLimit();
+        List<T> merged = mergeSorted(pages.stream().map(TaskPage::getItems).toList(), query.getSort().getComparator());
+        List<T> items = merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+        boolean hasMore = merged.size() > limit || pages.stream().anyMatch(page -> page.getNextCursor() != null);
+        int totalCount = pages.stream().mapToInt(TaskPage::getTotalCount).sum();
+        String nextCursor = hasMore && !items.isEmpty() ? query.getSort().encodeCursor(items.getLast()) : null;
+
+        return new TaskPage<>(items, totalCount, nextCursor);
+    }
+
+    private static class Head<T> {
+        private final T value;
+        private final Iterator<T> rest;
+
+        Head(T value, Iterator<T> rest) {
+            this.value = value;
+            this.rest = rest;
+        }
+    }
+
+    // Граф меняют потоки всех шардов, поэтому каждое обращение к нему выполняется под монитором
+    private static class SynchronizedDependencyGraph extends DependencyGraph {
+        @Override
+        synchronized void addDependency(Task task, Task blocker) {
+            super.addDependency(task, blocker);
+        }
+
+        @Override
+        synchronized void removeDependency(int taskId, int blockerId) {
+            super.removeDependency(taskId, blockerId);
+        }
+
+        @Override
+        synchronized void refresh(Task task) {
+            super.refresh(task);
+        }
+
+        @Override
+        synchronized void remove(int taskId) {
+            super.remove(taskId);
+        }
+
+        @Override
+        synchronized void clear() {
+            super.clear();
+        }
+
+        @Override
+        synchronized Map<Integer, Set<Integer>> getBlockers() {
+            return super.getBlockers();
+        }
+
+        @Override
+        synchronized TaskDependencies describe(Task task) {
+            return super.describe(task);
+        }
+    }
+}
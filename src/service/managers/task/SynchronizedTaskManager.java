@@ -0,0 +1,236 @@
+package service.managers.task;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import service.managers.event.DomainEventBus;
+import service.managers.feed.ChangeFeed;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Делает менеджер безопасным для многопоточного сервера. Получение одной задачи меняет историю,
+// поэтому выполняется под блокировкой записи
+public class SynchronizedTaskManager implements TaskManager {
+    private final TaskManager taskManager;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SynchronizedTaskManager(TaskManager taskManager) {
+        this.taskManager = taskManager;
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return read(taskManager::getAllTasks);
+    }
+
+    @Override
+    public List<Subtask> getAllSubTasks() {
+        return read(taskManager::getAllSubTasks);
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return read(taskManager::getAllEpics);
+    }
+
+    @Override
+    public TaskPage<Task> getTasks(TaskQuery query) {
+        return read(() -> taskManager.getTasks(query));
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasks(TaskQuery query) {
+        return read(() -> taskManager.getSubtasks(query));
+    }
+
+    @Override
+    public TaskPage<Epic> getEpics(TaskQuery query) {
+        return read(() -> taskManager.getEpics(query));
+    }
+
+    @Override
+    public void removeAllTasks() {
+        write(taskManager::removeAllTasks);
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        write(taskManager::removeAllSubtasks);
+    }
+
+    @Override
+    public void removeAllEpics() {
+        write(taskManager::removeAllEpics);
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return write(() -> taskManager.getTask(id));
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return write(() -> taskManager.getSubtask(id));
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return write(() -> taskManager.getEpic(id));
+    }
+
+    @Override
+    public Task createTask(Task newTask) {
+        return write(() -> taskManager.createTask(newTask));
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask newSubtask) {
+        return write(() -> taskManager.createSubtask(newSubtask));
+    }
+
+    @Override
+    public Epic createEpic(Epic newEpic) {
+        return write(() -> taskManager.createEpic(newEpic));
+    }
+
+    @Override
+    public Task updateTask(Task newTask) {
+        return write(() -> taskManager.updateTask(newTask));
+    }
+
+    @Override
+    public Subtask updateSubtask(Subtask newSubtask) {
+        return write(() -> taskManager.updateSubtask(newSubtask));
+    }
+
+    @Override
+    public Epic updateEpic(Epic newEpic) {
+        return write(() -> taskManager.updateEpic(newEpic));
+    }
+
+    @Override
+    public void removeTask(int id) {
+        write(() -> taskManager.removeTask(id));
+    }
+
+    @Override
+    public void removeSubtask(int id) {
+        write(() -> taskManager.removeSubtask(id));
+    }
+
+    @Override
+    public void removeEpic(int id) {
+        write(() -> taskManager.removeEpic(id));
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) {
+        return read(() -> taskManager.getEpicSubtasks(id));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(taskManager::getPrioritizedTasks);
+    }
+
+    @Override
+    public List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to) {
+        return read(() -> taskManager.getTasksInWindow(from, to));
+    }
+
+    @Override
+    public List<Task> getTasksRunningAt(LocalDateTime instant) {
+        return read(() -> taskManager.getTasksRunningAt(instant));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        return read(() -> taskManager.findFreeSlot(after, duration));
+    }
+
+    @Override
+    public List<Task> scheduleUnscheduledTasks(LocalDateTime after, Duration duration) {
+        return write(() -> taskManager.scheduleUnscheduledTasks(after, duration));
+    }
+
+    @Override
+    public List<Subtask> shiftEpic(int epicId, Duration offset) {
+        return write(() -> taskManager.shiftEpic(epicId, offset));
+    }
+
+    @Override
+    public List<Task> shiftTasks(TaskQuery query, Duration offset) {
+        return write(() -> taskManager.shiftTasks(query, offset));
+    }
+
+    @Override
+    public TaskDependencies getDependencies(int id) {
+        return read(() -> taskManager.getDependencies(id));
+    }
+
+    @Override
+    public TaskDependencies addDependency(int taskId, int blockerId) {
+        return write(() -> taskManager.addDependency(taskId, blockerId));
+    }
+
+    @Override
+    public TaskDependencies removeDependency(int taskId, int blockerId) {
+        return write(() -> taskManager.removeDependency(taskId, blockerId));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return read(taskManager::getHistory);
+    }
+
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return taskManager.getChangeFeed();
+    }
+
+    @Override
+    public DomainEventBus getEventBus() {
+        return taskManager.getEventBus();
+    }
+
+    // Для наследников, которые меняют обернутый менеджер в обход интерфейса
+    protected void runExclusively(Runnable operation) {
+        write(operation);
+    }
+
+    protected <R> R callExclusively(Supplier<R> operation) {
+        return write(operation);
+    }
+
+    private <R> R read(Supplier<R> operation) {
+        lock.readLock().lock();
+
+        try {
+            return operation.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <R> R write(Supplier<R> operation) {
+        lock.writeLock().lock();
+
+        try {
+            return operation.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(Runnable operation) {
+        write(() -> {
+            operation.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package service.managers.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Зависимости задачи и рассчитанные по ним сроки. Раннее начало и окончание отсутствуют,
+// если ни у задачи, ни у блокирующих ее задач нет времени начала
+public class TaskDependencies {
+    private final int taskId;
+    private final List<Integer> blockedBy;
+    private final List<Integer> blocks;
+    private final LocalDateTime earliestStart;
+    private final LocalDateTime earliestFinish;
+    private final List<Integer> criticalPath;
+    private final Duration criticalPathDuration;
+
+    public TaskDependencies(int taskId, List<Integer> blockedBy, List<Integer> blocks, LocalDateTime earliestStart,
+                            LocalDateTime earliestFinish, List<Integer> criticalPath, Duration criticalPathDuration) {
+        this.taskId = taskId;
+        this.blockedBy = blockedBy;
+        this.blocks = blocks;
+        this.earliestStart = earliestStart;
+        this.earliestFinish = earliestFinish;
+        this.criticalPath = criticalPath;
+        this.criticalPathDuration = criticalPathDuration;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public List<Integer> getBlockedBy() {
+        return blockedBy;
+    }
+
+    public List<Integer> getBlocks() {
+        return blocks;
+    }
+
+    public LocalDateTime getEarliestStart() {
+        return earliestStart;
+    }
+
+    public LocalDateTime getEarliestFinish() {
+        return earliestFinish;
+    }
+
+    // Идентификаторы от начала самой длинной цепочки блокирующих задач до самой задачи
+    public List<Integer> getCriticalPath() {
+        return criticalPath;
+    }
+
+    public Duration getCriticalPathDuration() {
+        return criticalPathDuration;
+    }
+}
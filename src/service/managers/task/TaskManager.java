@@ -3,7 +3,11 @@ package service.managers.task;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import service.managers.event.DomainEventBus;
+import service.managers.feed.ChangeFeed;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TaskManager {
@@ -13,6 +17,12 @@ public interface TaskManager {
 
     List<Epic> getAllEpics();
 
+    TaskPage<Task> getTasks(TaskQuery query);
+
+    TaskPage<Subtask> getSubtasks(TaskQuery query);
+
+    TaskPage<Epic> getEpics(TaskQuery query);
+
     void removeAllTasks();
 
     void removeAllSubtasks();
@@ -47,5 +57,27 @@ public interface TaskManager {
 
     List<Task> getPrioritizedTasks();
 
+    List<Task> getTasksInWindow(LocalDateTime from, LocalDateTime to);
+
+    List<Task> getTasksRunningAt(LocalDateTime instant);
+
+    LocalDateTime findFreeSlot(LocalDateTime after, Duration duration);
+
+    List<Task> scheduleUnscheduledTasks(LocalDateTime after, Duration duration);
+
+    List<Subtask> shiftEpic(int epicId, Duration offset);
+
+    List<Task> shiftTasks(TaskQuery query, Duration offset);
+
+    TaskDependencies getDependencies(int id);
+
+    TaskDependencies addDependency(int taskId, int blockerId);
+
+    TaskDependencies removeDependency(int taskId, int blockerId);
+
     List<Task> getHistory();
+
+    ChangeFeed getChangeFeed();
+
+    DomainEventBus getEventBus();
 }
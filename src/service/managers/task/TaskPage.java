@@ -0,0 +1,29 @@
+package service.managers.task;
+
+import model.Task;
+
+import java.util.List;
+
+public class TaskPage<T extends Task> {
+    private final List<T> items;
+    private final int totalCount;
+    private final String nextCursor;
+
+    public TaskPage(List<T> items, int totalCount, String nextCursor) {
+        this.items = items;
+        this.totalCount = totalCount;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,72 @@
+package service.managers.task;
+
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+
+import java.time.LocalDateTime;
+
+public class TaskQuery {
+    public static final TaskQuery ALL = new TaskQuery(null, null, null, TaskSort.ID, null, null);
+
+    private final TaskStatus status;
+    private final Integer epicId;
+    private final LocalDateTime startAfter;
+    private final TaskSort sort;
+    private final Integer limit;
+    private final Task cursor;
+
+    public TaskQuery(TaskStatus status, Integer epicId, LocalDateTime startAfter, TaskSort sort, Integer limit, String cursor) {
+        if (limit != null && limit < 0) {
+            throw new IllegalArgumentException("Limit should not be negative");
+        }
+
+        this.status = status;
+        this.epicId = epicId;
+        this.startAfter = startAfter;
+        this.sort = sort == null ? TaskSort.ID : sort;
+        this.limit = limit;
+        this.cursor = cursor == null ? null : this.sort.decodeCursor(cursor);
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public Integer getEpicId() {
+        return epicId;
+    }
+
+    public LocalDateTime getStartAfter() {
+        return startAfter;
+    }
+
+    public TaskSort getSort() {
+        return sort;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public Task getCursor() {
+        return cursor;
+    }
+
+    public boolean matches(Task task) {
+        if (status != null && task.getStatus() != status) {
+            return false;
+        }
+
+        if (epicId != null && !(task instanceof Subtask subtask && epicId.equals(subtask.getEpicId()))) {
+            return false;
+        }
+
+        return startAfter == null
+                || (!task.getStartTime().equals(InMemoryTaskManager.EMPTY_START_TIME_INDICATOR) && task.getStartTime().isAfter(startAfter));
+    }
+
+    public boolean isAfterCursor(Task task) {
+        return cursor == null || sort.getComparator().compare(task, cursor) > 0;
+    }
+}
@@ -0,0 +1,280 @@
+package service.managers.task;
+
+import exception.DomainException;
+import exception.NotFoundException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import service.managers.event.DomainEventBus;
+import service.managers.feed.ChangeFeed;
+import service.managers.feed.ChangeKind;
+import service.managers.history.HistoryManager;
+import service.metrics.event.OverlapValidationEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Шард ShardedTaskManager: обычный InMemoryTaskManager, который читается и меняется только из своего потока-писателя.
+// Идентификаторы выдает ShardedTaskManager, а пересечения по времени проверяются по общему расписанию всех шардов.
+// Новое время занимается в общем расписании при проверке пересечений, а освобождается после операции
+class TaskShard extends InMemoryTaskManager {
+    private final ExecutorService writer;
+    private final TimeReservations reservations;
+    private final Set<Integer> touched = new LinkedHashSet<>();
+    private int assignedId;
+
+    TaskShard(int index, HistoryManager historyManager, ChangeFeed changeFeed, DomainEventBus eventBus,
+              DependencyGraph dependencyGraph, TimeReservations reservations) {
+        super(historyManager, changeFeed, eventBus, dependencyGraph);
+        this.reservations = reservations;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-shard-" + index);
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    // Операции одного шарда выполняются строго по очереди, операции разных шардов - параллельно.
+    // Поток шарда собирает стек доменных исключений, если его собирает вызывающий поток
+    <R> CompletableFuture<R> submit(Supplier<R> operation) {
+        boolean captureStackTrace = DomainException.isCaptureStackTraceInThread();
+
+        return CompletableFuture.supplyAsync(() -> {
+            boolean previousCapture = DomainException.setCaptureStackTraceInThread(captureStackTrace);
+
+            try {
+                R result = operation.get();
+                releaseVacated();
+
+                return result;
+            } catch (RuntimeException e) {
+                restoreReservations();
+                throw e;
+            } finally {
+                touched.clear();
+                DomainException.setCaptureStackTraceInThread(previousCapture);
+            }
+        }, writer);
+    }
+
+    void shutdown() {
+        writer.shutdown();
+    }
+
+    Task createTask(Task newTask, int id) {
+        assignedId = id;
+
+        return createTask(newTask);
+    }
+
+    Subtask createSubtask(Subtask newSubtask, int id) {
+        assignedId = id;
+
+        return createSubtask(newSubtask);
+    }
+
+    Epic createEpic(Epic newEpic, int id) {
+        assignedId = id;
+
+        return createEpic(newEpic);
+    }
+
+    // Первая половина переноса подзадачи в эпик другого шарда. Время подзадачи остается занятым в общем расписании,
+    // а зависимости и история общие для всех шардов и от переноса не меняются
+    Subtask detachSubtask(int id) {
+        Subtask subtask = subtasks.get(id);
+
+        if (subtask == null) {
+            throw new NotFoundException(id);
+        }
+
+        Epic epic = epics.get(subtask.getEpicId());
+        epic.removeSubtask(id);
+        subtasks.remove(id);
+        super.removeFromSchedule(subtask);
+        calculateEpicState(epic);
+        publish(ChangeKind.UPDATED, TaskType.EPIC, epic.getId());
+
+        return subtask;
+    }
+
+    // Вторая половина переноса, а при ошибке - возврат подзадачи в прежний шард
+    Subtask attachSubtask(Subtask subtask) {
+        applyEmptyIndicatorStartTimeAndDurationIfMissing(subtask);
+        validateTimeOverlap(subtask);
+
+        int epicId = subtask.getEpicId();
+        Epic epic = epics.get(epicId);
+
+        if (epic == null) {
+            throw new NotFoundException(epicId);
+        }
+
+        epic.addSubtask(subtask.getId());
+        subtasks.put(subtask.getId(), subtask);
+        addToSchedule(subtask);
+        calculateEpicState(epic);
+        publish(ChangeKind.UPDATED, TaskType.SUBTASK, subtask.getId());
+        publish(ChangeKind.UPDATED, TaskType.EPIC, epicId);
+
+        return subtask;
+    }
+
+    boolean containsEpic(int id) {
+        return epics.containsKey(id);
+    }
+
+    Integer getSubtaskEpicId(int id) {
+        Subtask subtask = subtasks.get(id);
+
+        return subtask == null ? null : subtask.getEpicId();
+    }
+
+    Task findTaskOrSubtask(int id) {
+        Task task = tasks.get(id);
+
+        return task == null ? subtasks.get(id) : task;
+    }
+
+    List<Integer> getSubtaskIds() {
+        return new ArrayList<>(subtasks.keySet());
+    }
+
+    List<Integer> getUnscheduledIds() {
+        List<Integer> ids = new ArrayList<>();
+
+        for (Task task : prioritizedTasks.descendingSet()) {
+            if (!isDefaultStartTime(task)) {
+                break;
+            }
+
+            ids.add(task.getId());
+        }
+
+        return ids;
+    }
+
+    List<Integer> getScheduledIds(TaskQuery query) {
+        List<Integer> ids = new ArrayList<>();
+
+        for (Task task : prioritizedTasks) {
+            if (isDefaultStartTime(task)) {
+                break;
+            }
+
+            if (query.matches(task)) {
+                ids.add(task.getId());
+            }
+        }
+
+        return ids;
+    }
+
+    List<Integer> getScheduledEpicSubtaskIds(int epicId) {
+        return getEpicSubtasks(epicId).stream()
+                .filter(subtask -> !isDefaultStartTime(subtask))
+                .map(Task::getId)
+                .toList();
+    }
+
+    // Переносит задачи на время, уже занятое для них в общем расписании. Задача пропускается, если ее удалили
+    // или если другая операция этого шарда успела снова изменить ее время после резервирования
+    List<Task> applyReservedStarts(Map<Integer, LocalDateTime> starts, Duration duration) {
+        List<Task> rescheduled = new ArrayList<>();
+
+        starts.forEach((id, start) -> {
+            touched.add(id);
+            Task task = findTaskOrSubtask(id);
+
+            if (task == null || !reservations.isReservedAt(id, start)) {
+                return;
+            }
+
+            removeFromSchedule(task);
+            task.setStartTime(start);
+
+            if (duration != null) {
+                task.setDuration(duration);
+            }
+
+            addToSchedule(task);
+            rescheduled.add(task);
+        });
+
+        publishRescheduled(rescheduled);
+
+        return rescheduled;
+    }
+
+    @Override
+    protected int getNextId() {
+        return assignedId;
+    }
+
+    @Override
+    protected void validateTimeOverlap(Task checkedTask) {
+        if (isDefaultStartTime(checkedTask)) {
+            return;
+        }
+
+        OverlapValidationEvent event = new OverlapValidationEvent(checkedTask.getId());
+        event.begin();
+        touched.add(checkedTask.getId());
+
+        try {
+            reservations.reserve(checkedTask);
+        } catch (RuntimeException e) {
+            event.setOverlapping(true);
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Override
+    protected void addToSchedule(Task task) {
+        super.addToSchedule(task);
+        touched.add(task.getId());
+    }
+
+    @Override
+    protected void removeFromSchedule(Task task) {
+        super.removeFromSchedule(task);
+        touched.add(task.getId());
+    }
+
+    // Удаленные задачи и задачи, у которых убрали время начала, больше ничего не занимают
+    private void releaseVacated() {
+        touched.forEach(id -> {
+            Task task = findTaskOrSubtask(id);
+
+            if (task == null || isDefaultStartTime(task)) {
+                reservations.release(id);
+            }
+        });
+    }
+
+    // Операция могла занять новое время и упасть позже, поэтому расписание возвращается к задачам шарда
+    private void restoreReservations() {
+        touched.forEach(id -> {
+            Task task = findTaskOrSubtask(id);
+
+            if (task == null) {
+                reservations.release(id);
+            } else {
+                reservations.put(task);
+            }
+        });
+    }
+}
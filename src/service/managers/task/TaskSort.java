@@ -0,0 +1,62 @@
+package service.managers.task;
+
+import model.Task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+
+public enum TaskSort {
+    ID("id", Comparator.comparing(Task::getId)),
+    START_TIME("startTime", Comparator.comparing(Task::getStartTime).thenComparing(Task::getId));
+
+    private static final String CURSOR_DELIMITER = ":";
+    private final String parameterName;
+    private final Comparator<Task> comparator;
+
+    TaskSort(String parameterName, Comparator<Task> comparator) {
+        this.parameterName = parameterName;
+        this.comparator = comparator;
+    }
+
+    public static TaskSort fromParameter(String parameterName) {
+        for (TaskSort sort : values()) {
+            if (sort.parameterName.equals(parameterName)) {
+                return sort;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown sort: " + parameterName);
+    }
+
+    public Comparator<Task> getComparator() {
+        return comparator;
+    }
+
+    // Курсор хранит ключ сортировки последнего элемента страницы, поэтому переживает удаление самого элемента
+    public String encodeCursor(Task last) {
+        return switch (this) {
+            case ID -> String.valueOf(last.getId());
+            case START_TIME -> String.join(CURSOR_DELIMITER,
+                    String.valueOf(last.getStartTime().toEpochSecond(ZoneOffset.UTC)),
+                    String.valueOf(last.getStartTime().getNano()),
+                    String.valueOf(last.getId()));
+        };
+    }
+
+    public Task decodeCursor(String cursor) {
+        try {
+            return switch (this) {
+                case ID -> new Task(Integer.parseInt(cursor), null, null, null, null, null);
+                case START_TIME -> {
+                    String[] parts = cursor.split(CURSOR_DELIMITER);
+                    LocalDateTime startTime = LocalDateTime.ofEpochSecond(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), ZoneOffset.UTC);
+
+                    yield new Task(Integer.parseInt(parts[2]), null, null, null, startTime, null);
+                }
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+    }
+}
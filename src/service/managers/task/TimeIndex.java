@@ -0,0 +1,113 @@
+package service.managers.task;
+
+import model.Task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Индекс задач по дням: задача лежит в корзине каждого дня, который захватывает ее интервал [начало, окончание).
+// Поэтому запрос окна находит и задачи, начавшиеся раньше окна, но еще идущие в нем.
+// Задачи длиннее MAX_BUCKETED_DAYS дней не раскладываются по корзинам, а проверяются при каждом запросе.
+// Задачи без времени начала не индексируются
+class TimeIndex {
+    private static final int MAX_BUCKETED_DAYS = 31;
+    private static final Comparator<Task> BY_START_TIME = Comparator.comparing(Task::getStartTime).thenComparing(Task::getId);
+
+    private final TreeMap<LocalDate, Map<Integer, Task>> buckets = new TreeMap<>();
+    private final Map<Integer, Task> longTasks = new HashMap<>();
+
+    void add(Task task) {
+        if (isUnscheduled(task)) {
+            return;
+        }
+
+        LocalDate firstDay = task.getStartTime().toLocalDate();
+        LocalDate lastDay = getLastDay(task);
+
+        if (ChronoUnit.DAYS.between(firstDay, lastDay) >= MAX_BUCKETED_DAYS) {
+            longTasks.put(task.getId(), task);
+            return;
+        }
+
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            buckets.computeIfAbsent(day, d -> new HashMap<>()).put(task.getId(), task);
+        }
+    }
+
+    void remove(Task task) {
+        if (isUnscheduled(task)) {
+            return;
+        }
+
+        if (longTasks.remove(task.getId()) != null) {
+            return;
+        }
+
+        LocalDate lastDay = getLastDay(task);
+
+        for (LocalDate day = task.getStartTime().toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            Map<Integer, Task> bucket = buckets.get(day);
+
+            if (bucket != null) {
+                bucket.remove(task.getId());
+
+                if (bucket.isEmpty()) {
+                    buckets.remove(day);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        buckets.clear();
+        longTasks.clear();
+    }
+
+    // Задачи, пересекающие окно [from, to), по возрастанию времени начала
+    List<Task> getInWindow(LocalDateTime from, LocalDateTime to) {
+        Map<Integer, Task> found = new HashMap<>();
+        LocalDate lastDay = to.minusNanos(1).toLocalDate();
+
+        for (Map<Integer, Task> bucket : buckets.subMap(from.toLocalDate(), true, lastDay, true).values()) {
+            collectIntersecting(bucket, from, to, found);
+        }
+
+        collectIntersecting(longTasks, from, to, found);
+
+        List<Task> result = new ArrayList<>(found.values());
+        result.sort(BY_START_TIME);
+
+        return result;
+    }
+
+    private void collectIntersecting(Map<Integer, Task> candidates, LocalDateTime from, LocalDateTime to, Map<Integer, Task> found) {
+        for (Task task : candidates.values()) {
+            if (isIntersecting(task, from, to)) {
+                found.put(task.getId(), task);
+            }
+        }
+    }
+
+    // Задача нулевой длительности считается моментом и попадает в окно, если ее начало лежит в нем
+    private static boolean isIntersecting(Task task, LocalDateTime from, LocalDateTime to) {
+        return task.getStartTime().isBefore(to)
+                && (task.getEndTime().isAfter(from) || !task.getStartTime().isBefore(from));
+    }
+
+    private static LocalDate getLastDay(Task task) {
+        LocalDateTime endTime = task.getEndTime();
+
+        return endTime.isAfter(task.getStartTime()) ? endTime.minusNanos(1).toLocalDate() : endTime.toLocalDate();
+    }
+
+    private static boolean isUnscheduled(Task task) {
+        return task.getStartTime().equals(InMemoryTaskManager.EMPTY_START_TIME_INDICATOR);
+    }
+}
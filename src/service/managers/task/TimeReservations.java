@@ -0,0 +1,201 @@
+package service.managers.task;
+
+import exception.OverlappingException;
+import model.Task;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+// Общее для всех шардов расписание: интервалы запланированных задач и подзадач по id. Пересечение проверяется
+// и интервал занимается атомарно, поэтому два шарда не могут одновременно занять одно и то же время.
+// Каждый метод держит монитор недолго, сами задачи меняются уже в потоках шардов
+class TimeReservations {
+    private static final Comparator<Slot> BY_START_TIME = Comparator.comparing((Slot slot) -> slot.start).thenComparing(slot -> slot.id);
+
+    private final Map<Integer, Slot> slots = new HashMap<>();
+    private final TreeSet<Slot> ordered = new TreeSet<>(BY_START_TIME);
+    private final GapIndex gapIndex = new GapIndex();
+
+    // Старый интервал той же задачи проверке не мешает. Задача без времени начала ничего не занимает,
+    // ее прежний интервал освобождается при синхронизации шарда
+    synchronized void reserve(Task task) {
+        if (isUnscheduled(task)) {
+            return;
+        }
+
+        Slot slot = new Slot(task.getId(), task.getStartTime(), task.getEndTime());
+        Slot previous = take(task.getId());
+        Slot overlapping = findOverlapping(slot);
+
+        if (overlapping != null) {
+            place(previous);
+            throw overlappingException(overlapping);
+        }
+
+        place(slot);
+    }
+
+    // Приводит расписание к состоянию задачи в шарде без проверки пересечений: задача уже проверена при reserve
+    synchronized void put(Task task) {
+        take(task.getId());
+
+        if (!isUnscheduled(task)) {
+            place(new Slot(task.getId(), task.getStartTime(), task.getEndTime()));
+        }
+    }
+
+    synchronized void release(int id) {
+        take(id);
+    }
+
+    synchronized void clear() {
+        slots.clear();
+        ordered.clear();
+        gapIndex.clear();
+    }
+
+    synchronized boolean isReservedAt(int id, LocalDateTime start) {
+        Slot slot = slots.get(id);
+
+        return slot != null && slot.start.equals(start);
+    }
+
+    synchronized LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        return gapIndex.findEarliest(after, duration);
+    }
+
+    // Сдвигает интервалы сразу всех задач: новые интервалы вычисляются до изменения расписания, затем старые
+    // освобождаются, и новые проверяются только на пересечение с остальными. При любой ошибке ничего не меняется.
+    // Возвращает новое время начала задач, которые еще запланированы
+    synchronized Map<Integer, LocalDateTime> shift(List<Integer> ids, Duration offset) {
+        List<Slot> previous = ids.stream()
+                .map(slots::get)
+                .filter(Objects::nonNull)
+                .toList();
+        List<Slot> shifted = previous.stream()
+                .map(slot -> shifted(slot, offset))
+                .toList();
+
+        previous.forEach(slot -> take(slot.id));
+
+        try {
+            for (Slot slot : shifted) {
+                Slot overlapping = findOverlapping(slot);
+
+                if (overlapping != null) {
+                    throw overlappingException(overlapping);
+                }
+            }
+        } catch (RuntimeException e) {
+            previous.forEach(this::place);
+            throw e;
+        }
+
+        Map<Integer, LocalDateTime> starts = new LinkedHashMap<>();
+
+        shifted.forEach(slot -> {
+            place(slot);
+            starts.put(slot.id, slot.start);
+        });
+
+        return starts;
+    }
+
+    // Задачи по порядку занимают самые ранние свободные промежутки после after. Уже запланированные пропускаются.
+    // Если места не хватило, занятые промежутки освобождаются
+    synchronized Map<Integer, LocalDateTime> allocate(List<Integer> ids, LocalDateTime after, Duration duration) {
+        Map<Integer, LocalDateTime> starts = new LinkedHashMap<>();
+
+        for (int id : ids) {
+            if (slots.containsKey(id)) {
+                continue;
+            }
+
+            LocalDateTime slotStart = gapIndex.findEarliest(after, duration);
+
+            if (slotStart == null) {
+                starts.keySet().forEach(this::take);
+                throw new IllegalArgumentException("There is no free slot of " + duration + " after " + after);
+            }
+
+            place(new Slot(id, slotStart, slotStart.plus(duration)));
+            starts.put(id, slotStart);
+        }
+
+        return starts;
+    }
+
+    // Как и в InMemoryTaskManager, проверяются только соседи по времени начала
+    private Slot findOverlapping(Slot checked) {
+        return Stream.of(ordered.lower(checked), ordered.higher(checked))
+                .filter(Objects::nonNull)
+                .filter(neighbour -> neighbour.start.isBefore(checked.end) && checked.start.isBefore(neighbour.end))
+                .findAny()
+                .orElse(null);
+    }
+
+    private Slot take(int id) {
+        Slot slot = slots.remove(id);
+
+        if (slot != null) {
+            ordered.remove(slot);
+            gapIndex.release(slot.start, slot.end);
+        }
+
+        return slot;
+    }
+
+    private void place(Slot slot) {
+        if (slot == null) {
+            return;
+        }
+
+        slots.put(slot.id, slot);
+        ordered.add(slot);
+        gapIndex.occupy(slot.start, slot.end);
+    }
+
+    // Как и в InMemoryTaskManager, сдвинутый интервал должен остаться в пределах LocalDateTime
+    private static Slot shifted(Slot slot, Duration offset) {
+        try {
+            LocalDateTime start = slot.start.plus(offset);
+
+            if (!start.equals(InMemoryTaskManager.EMPTY_START_TIME_INDICATOR)) {
+                return new Slot(slot.id, start, slot.end.plus(offset));
+            }
+        } catch (DateTimeException | ArithmeticException ignored) {
+        }
+
+        throw new IllegalArgumentException("Offset " + offset + " moves task " + slot.id + " out of the supported time range");
+    }
+
+    private static OverlappingException overlappingException(Slot overlapping) {
+        return new OverlappingException(String.format("The execution interval of the added task overlapping with the existing tasks with id %d", overlapping.id));
+    }
+
+    private static boolean isUnscheduled(Task task) {
+        return task.getStartTime().equals(InMemoryTaskManager.EMPTY_START_TIME_INDICATOR);
+    }
+
+    private static class Slot {
+        private final int id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Slot(int id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package service.managers.task;
+
+import exception.NotFoundException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import service.managers.feed.ChangeEvent;
+import service.managers.history.HistoryManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Менеджер с версиями доски. Изменения выполняет обычный InMemoryTaskManager под блокировкой записи, а после каждого
+// изменения задачи, о которых он сообщил в ленту изменений, копируются в новую версию BoardSnapshot за O(log n) на задачу.
+// Списки задач, расписание и снимок читаются из последней версии без блокировок. Последние undoLimit изменений можно
+// отменить и повторить: в менеджер возвращаются задачи и зависимости из нужной версии
+public class VersionedTaskManager extends SynchronizedTaskManager {
+    public static final int DEFAULT_UNDO_LIMIT = 100;
+
+    private final InMemoryTaskManager engine;
+    private final int undoLimit;
+    private final Deque<Step> undoSteps = new ArrayDeque<>();
+    private final Deque<Step> redoSteps = new ArrayDeque<>();
+    private final Map<Integer, TaskType> changed = new LinkedHashMap<>();
+    private volatile BoardSnapshot current = BoardSnapshot.empty();
+    private long lastVersion;
+    private boolean restoring;
+
+    public VersionedTaskManager(HistoryManager historyManager, int undoLimit) {
+        this(new InMemoryTaskManager(historyManager), undoLimit);
+    }
+
+    public VersionedTaskManager(HistoryManager historyManager) {
+        this(historyManager, DEFAULT_UNDO_LIMIT);
+    }
+
+    private VersionedTaskManager(InMemoryTaskManager engine, int undoLimit) {
+        super(engine);
+
+        if (undoLimit < 0) {
+            throw new IllegalArgumentException("Undo limit should not be negative");
+        }
+
+        this.engine = engine;
+        this.undoLimit = undoLimit;
+        // Слушатель вызывается в потоке изменения, то есть под блокировкой записи
+        engine.getChangeFeed().addListener(this::onChange);
+    }
+
+    // Состояние доски на текущий момент. Версия не меняется, поэтому подходит, например, для экспорта
+    public BoardSnapshot snapshot() {
+        return current;
+    }
+
+    public long getVersion() {
+        return current.getVersion();
+    }
+
+    public int getUndoDepth() {
+        return callExclusively(undoSteps::size);
+    }
+
+    public int getRedoDepth() {
+        return callExclusively(redoSteps::size);
+    }
+
+    // Отменяет последнее изменение. false, если отменять нечего
+    public boolean undo() {
+        return callExclusively(() -> {
+            Step step = undoSteps.poll();
+
+            if (step == null) {
+                return false;
+            }
+
+            moveTo(step.before, step);
+            redoSteps.push(step);
+
+            return true;
+        });
+    }
+
+    // Повторяет последнее отмененное изменение. После нового изменения повторять нечего
+    public boolean redo() {
+        return callExclusively(() -> {
+            Step step = redoSteps.poll();
+
+            if (step == null) {
+                return false;
+            }
+
+            moveTo(step.after, step);
+            undoSteps.push(step);
+
+            return true;
+        });
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return current.getAllTasks();
+    }
+
+    @Override
+    public List<Subtask> getAllSubTasks() {
+        return current.getAllSubTasks();
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return current.getAllEpics();
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) {
+        List<Subtask> epicSubtasks = current.getEpicSubtasks(id);
+
+        if (epicSubtasks == null) {
+            throw new NotFoundException(id);
+        }
+
+        return epicSubtasks;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return current.getPrioritizedTasks();
+    }
+
+    @Override
+    public void removeAllTasks() {
+        commit(super::removeAllTasks);
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        commit(super::removeAllSubtasks);
+    }
+
+    @Override
+    public void removeAllEpics() {
+        commit(super::removeAllEpics);
+    }
+
+    @Override
+    public Task createTask(Task newTask) {
+        return commit(() -> super.createTask(newTask));
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask newSubtask) {
+        return commit(() -> super.createSubtask(newSubtask));
+    }
+
+    @Override
+    public Epic createEpic(Epic newEpic) {
+        return commit(() -> super.createEpic(newEpic));
+    }
+
+    @Override
+    public Task updateTask(Task newTask) {
+        return commit(() -> super.updateTask(newTask));
+    }
+
+    @Override
+    public Subtask updateSubtask(Subtask newSubtask) {
+        return commit(() -> super.updateSubtask(newSubtask));
+    }
+
+    @Override
+    public Epic updateEpic(Epic newEpic) {
+        return commit(() -> super.updateEpic(newEpic));
+    }
+
+    @Override
+    public void removeTask(int id) {
+        commit(() -> super.removeTask(id));
+    }
+
+    @Override
+    public void removeSubtask(int id) {
+        commit(() -> super.removeSubtask(id));
+    }
+
+    @Override
+    public void removeEpic(int id) {
+        commit(() -> super.removeEpic(id));
+    }
+
+    @Override
+    public List<Task> scheduleUnscheduledTasks(LocalDateTime after, Duration duration) {
+        return commit(() -> super.scheduleUnscheduledTasks(after, duration));
+    }
+
+    @Override
+    public List<Subtask> shiftEpic(int epicId, Duration offset) {
+        return commit(() -> super.shiftEpic(epicId, offset));
+    }
+
+    @Override
+    public List<Task> shiftTasks(TaskQuery query, Duration offset) {
+        return commit(() -> super.shiftTasks(query, offset));
+    }
+
+    @Override
+    public TaskDependencies addDependency(int taskId, int blockerId) {
+        return commit(() -> super.addDependency(taskId, blockerId));
+    }
+
+    @Override
+    public TaskDependencies removeDependency(int taskId, int blockerId) {
+        return commit(() -> super.removeDependency(taskId, blockerId));
+    }
+
+    private void onChange(ChangeEvent event) {
+        if (!restoring) {
+            changed.put(event.getId(), event.getType());
+        }
+    }
+
+    // Версия создается и после изменения, прерванного исключением, если менеджер успел что-то поменять
+    private <R> R commit(Supplier<R> operation) {
+        return callExclusively(() -> {
+            try {
+                return operation.get();
+            } finally {
+                commitChanged();
+            }
+        });
+    }
+
+    private void commit(Runnable operation) {
+        commit(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private void commitChanged() {
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        BoardSnapshot before = current;
+        BoardSnapshot.Builder builder = before.toBuilder();
+        Set<Integer> dependencyIds = new LinkedHashSet<>();
+
+        changed.forEach((id, type) -> {
+            Task task = engine.peekTask(type, id);
+
+            if (task == null) {
+                builder.remove(type, id);
+            } else {
+                builder.put(task.copy());
+            }
+
+            // Связь меняется у обеих задач, поэтому пересобираются и соседи по графу до и после изменения
+            if (type != TaskType.EPIC) {
+                dependencyIds.add(id);
+                dependencyIds.addAll(before.getBlockedBy(id));
+                dependencyIds.addAll(before.getBlocks(id));
+
+                if (task != null) {
+                    TaskDependencies dependencies = engine.getDependencies(id);
+                    dependencyIds.addAll(dependencies.getBlockedBy());
+                    dependencyIds.addAll(dependencies.getBlocks());
+                }
+            }
+        });
+
+        for (int id : dependencyIds) {
+            if (engine.tasks.containsKey(id) || engine.subtasks.containsKey(id)) {
+                TaskDependencies dependencies = engine.getDependencies(id);
+                builder.putDependencies(id, dependencies.getBlockedBy(), dependencies.getBlocks());
+            } else {
+                builder.putDependencies(id, List.of(), List.of());
+            }
+        }
+
+        BoardSnapshot after = builder.build(++lastVersion);
+        undoSteps.push(new Step(before, after, new LinkedHashMap<>(changed), dependencyIds));
+
+        if (undoSteps.size() > undoLimit) {
+            undoSteps.removeLast();
+        }
+
+        redoSteps.clear();
+        changed.clear();
+        current = after;
+    }
+
+    // Возвращает в менеджер задачи шага в том виде, в каком они были в target. Эпики восстанавливаются раньше
+    // своих подзадач, а удаляются после них. Зависимости восстанавливаются последними, когда все задачи уже на месте
+    private void moveTo(BoardSnapshot target, Step step) {
+        restoring = true;
+
+        try {
+            for (TaskType type : List.of(TaskType.EPIC, TaskType.TASK, TaskType.SUBTASK)) {
+                step.changed.forEach((id, changedType) -> {
+                    Task task = target.find(changedType, id);
+
+                    if (changedType == type && task != null) {
+                        restore(task.copy());
+                    }
+                });
+            }
+
+            for (TaskType type : List.of(TaskType.SUBTASK, TaskType.TASK, TaskType.EPIC)) {
+                step.changed.forEach((id, changedType) -> {
+                    if (changedType == type && target.find(changedType, id) == null && engine.peekTask(changedType, id) != null) {
+                        remove(changedType, id);
+                    }
+                });
+            }
+
+            for (int id : step.dependencyIds) {
+                if (engine.tasks.containsKey(id) || engine.subtasks.containsKey(id)) {
+                    engine.restoreBlockers(id, target.getBlockedBy(id));
+                }
+            }
+        } finally {
+            restoring = false;
+        }
+
+        current = target;
+    }
+
+    private void restore(Task task) {
+        switch (task.getType()) {
+            case TASK -> engine.restoreTask(task);
+            case SUBTASK -> engine.restoreSubtask((Subtask) task);
+            case EPIC -> engine.restoreEpic((Epic) task);
+        }
+    }
+
+    private void remove(TaskType type, int id) {
+        switch (type) {
+            case TASK -> engine.removeTask(id);
+            case SUBTASK -> engine.removeSubtask(id);
+            case EPIC -> engine.removeEpic(id);
+        }
+    }
+
+    // Изменение между соседними версиями: какие задачи менялись и у каких задач пересобраны зависимости
+    private static class Step {
+        private final BoardSnapshot before;
+        private final BoardSnapshot after;
+        private final Map<Integer, TaskType> changed;
+        private final Set<Integer> dependencyIds;
+
+        Step(BoardSnapshot before, BoardSnapshot after, Map<Integer, TaskType> changed, Set<Integer> dependencyIds) {
+            this.before = before;
+            this.after = after;
+            this.changed = changed;
+            this.dependencyIds = dependencyIds;
+        }
+    }
+}
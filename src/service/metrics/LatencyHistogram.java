@@ -0,0 +1,113 @@
+package service.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Гистограмма в стиле HdrHistogram: значения раскладываются по степеням двойки, каждая из которых
+// делится на SUB_BUCKET_COUNT линейных подкорзин, поэтому относительная погрешность не больше 1/SUB_BUCKET_COUNT.
+// Запись - одно атомарное увеличение счетчика без блокировок
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+
+    public void record(long value) {
+        long normalizedValue = Math.max(0, value);
+        counts.incrementAndGet(indexOf(normalizedValue));
+        totalCount.increment();
+        totalSum.add(normalizedValue);
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getSum() {
+        return totalSum.sum();
+    }
+
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = snapshot();
+        long total = 0;
+
+        for (long count : snapshot) {
+            total += count;
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long targetCount = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long cumulativeCount = 0;
+
+        for (int i = 0; i < snapshot.length; i++) {
+            cumulativeCount += snapshot[i];
+
+            if (cumulativeCount >= targetCount) {
+                return highestEquivalentValue(i);
+            }
+        }
+
+        return highestEquivalentValue(snapshot.length - 1);
+    }
+
+    // Накопленные количества для границ bounds (по возрастанию): значение попадает в первую границу,
+    // не меньшую верхнего края его корзины
+    public long[] getCumulativeCounts(long[] bounds) {
+        long[] snapshot = snapshot();
+        long[] cumulativeCounts = new long[bounds.length];
+        int boundIndex = 0;
+        long cumulativeCount = 0;
+
+        for (int i = 0; i < snapshot.length && boundIndex < bounds.length; i++) {
+            while (boundIndex < bounds.length && highestEquivalentValue(i) > bounds[boundIndex]) {
+                cumulativeCounts[boundIndex++] = cumulativeCount;
+            }
+
+            cumulativeCount += snapshot[i];
+        }
+
+        while (boundIndex < bounds.length) {
+            cumulativeCounts[boundIndex++] = cumulativeCount;
+        }
+
+        return cumulativeCounts;
+    }
+
+    private long[] snapshot() {
+        long[] snapshot = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+        }
+
+        return snapshot;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long upperBound = (SUB_BUCKET_COUNT + subBucket + 1) << shift;
+
+        return upperBound <= 0 ? Long.MAX_VALUE : upperBound - 1;
+    }
+}
@@ -0,0 +1,108 @@
+package service.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+public class MetricsRegistry {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final long[] LATENCY_BOUNDS_NANOS = {
+            100_000, 250_000, 500_000,
+            1_000_000, 2_500_000, 5_000_000,
+            10_000_000, 25_000_000, 50_000_000,
+            100_000_000, 250_000_000, 500_000_000,
+            1_000_000_000, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L,
+            Long.MAX_VALUE
+    };
+    private final Map<String, RouteMetrics> routes = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> operations = new ConcurrentSkipListMap<>();
+    private final Map<String, SampledMetric> sampledMetrics = new ConcurrentSkipListMap<>();
+
+    public void recordRequest(String route, int statusCode, long latencyNanos, long responseBytes) {
+        routes.computeIfAbsent(route, r -> new RouteMetrics()).record(statusCode, latencyNanos, responseBytes);
+    }
+
+    public void recordOperation(String operation, long latencyNanos) {
+        operations.computeIfAbsent(operation, o -> new LatencyHistogram()).record(latencyNanos);
+    }
+
+    public void registerCounter(String name, String help, LongSupplier value) {
+        sampledMetrics.put(name, new SampledMetric("counter", help, value));
+    }
+
+    public void registerGauge(String name, String help, LongSupplier value) {
+        sampledMetrics.put(name, new SampledMetric("gauge", help, value));
+    }
+
+    public RouteMetrics getRouteMetrics(String route) {
+        return routes.get(route);
+    }
+
+    public LatencyHistogram getOperationLatency(String operation) {
+        return operations.get(operation);
+    }
+
+    // Текстовый формат экспозиции Prometheus 0.0.4
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+
+        appendHeader(text, "kanban_http_request_duration_seconds", "histogram", "HTTP request latency by route");
+        routes.forEach((route, metrics) -> appendHistogram(text, "kanban_http_request_duration_seconds", "route", route, metrics.getLatency()));
+
+        appendHeader(text, "kanban_http_requests_total", "counter", "HTTP requests by route and status code");
+        routes.forEach((route, metrics) -> metrics.getStatusCounts().forEach((status, count) ->
+                text.append("kanban_http_requests_total{route=\"").append(escape(route))
+                        .append("\",status=\"").append(status).append("\"} ").append(count.sum()).append('\n')));
+
+        appendHeader(text, "kanban_http_response_bytes_total", "counter", "HTTP response body bytes by route");
+        routes.forEach((route, metrics) ->
+                text.append("kanban_http_response_bytes_total{route=\"").append(escape(route)).append("\"} ")
+                        .append(metrics.getResponseBytes()).append('\n'));
+
+        appendHeader(text, "kanban_manager_operation_duration_seconds", "histogram", "TaskManager operation latency");
+        operations.forEach((operation, histogram) -> appendHistogram(text, "kanban_manager_operation_duration_seconds", "operation", operation, histogram));
+
+        sampledMetrics.forEach((name, metric) -> {
+            appendHeader(text, name, metric.type, metric.help);
+            text.append(name).append(' ').append(metric.value.getAsLong()).append('\n');
+        });
+
+        return text.toString();
+    }
+
+    private void appendHeader(StringBuilder text, String name, String type, String help) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private void appendHistogram(StringBuilder text, String name, String labelName, String labelValue, LatencyHistogram histogram) {
+        String label = labelName + "=\"" + escape(labelValue) + "\"";
+        long[] cumulativeCounts = histogram.getCumulativeCounts(LATENCY_BOUNDS_NANOS);
+        long count = cumulativeCounts[cumulativeCounts.length - 1];
+
+        for (int i = 0; i < LATENCY_BOUNDS_NANOS.length - 1; i++) {
+            text.append(name).append("_bucket{").append(label).append(",le=\"")
+                    .append(LATENCY_BOUNDS_NANOS[i] / NANOS_PER_SECOND).append("\"} ").append(cumulativeCounts[i]).append('\n');
+        }
+
+        text.append(name).append("_bucket{").append(label).append(",le=\"+Inf\"} ").append(count).append('\n');
+        text.append(name).append("_sum{").append(label).append("} ").append(histogram.getSum() / NANOS_PER_SECOND).append('\n');
+        text.append(name).append("_count{").append(label).append("} ").append(count).append('\n');
+    }
+
+    private String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static class SampledMetric {
+        private final String type;
+        private final String help;
+        private final LongSupplier value;
+
+        SampledMetric(String type, String help, LongSupplier value) {
+            this.type = type;
+            this.help = help;
+            this.value = value;
+        }
+    }
+}
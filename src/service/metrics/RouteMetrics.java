@@ -0,0 +1,29 @@
+package service.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RouteMetrics {
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder responseBytes = new LongAdder();
+
+    public void record(int statusCode, long latencyNanos, long bytes) {
+        latency.record(latencyNanos);
+        statusCounts.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+        responseBytes.add(bytes);
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public Map<Integer, LongAdder> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public long getResponseBytes() {
+        return responseBytes.sum();
+    }
+}
@@ -0,0 +1,30 @@
+package service.metrics.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+// Пересчет проходит по всем подзадачам эпика при каждом их изменении, по умолчанию записываются только долгие
+@Name("kanban.EpicRecalculation")
+@Label("Epic State Recalculation")
+@Category({"Kanban", "Task Manager"})
+@Description("Пересчет статуса и времени эпика по его подзадачам")
+@Threshold("1 ms")
+public class EpicRecalculationEvent extends Event {
+    @Label("Epic Id")
+    private int epicId;
+
+    @Label("Subtask Count")
+    private int subtaskCount;
+
+    public EpicRecalculationEvent(int epicId) {
+        this.epicId = epicId;
+    }
+
+    public void setSubtaskCount(int subtaskCount) {
+        this.subtaskCount = subtaskCount;
+    }
+}
@@ -0,0 +1,31 @@
+package service.metrics.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("kanban.HttpRequest")
+@Label("HTTP Request")
+@Category({"Kanban", "HTTP"})
+@Description("Обработка запроса обработчиком API, включая отправку ответа")
+public class HttpRequestEvent extends Event {
+    @Label("Method")
+    private String method;
+
+    @Label("Path")
+    private String path;
+
+    @Label("Status")
+    private int status;
+
+    public void setRequest(String method, String path) {
+        this.method = method;
+        this.path = path;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+}
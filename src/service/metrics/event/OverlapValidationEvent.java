@@ -0,0 +1,30 @@
+package service.metrics.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+// Проверка выполняется при каждом изменении времени задачи, поэтому по умолчанию записываются только долгие
+@Name("kanban.OverlapValidation")
+@Label("Time Overlap Validation")
+@Category({"Kanban", "Task Manager"})
+@Description("Проверка пересечения интервала задачи с соседними по времени")
+@Threshold("1 ms")
+public class OverlapValidationEvent extends Event {
+    @Label("Task Id")
+    private int taskId;
+
+    @Label("Overlapping")
+    private boolean overlapping;
+
+    public OverlapValidationEvent(int taskId) {
+        this.taskId = taskId;
+    }
+
+    public void setOverlapping(boolean overlapping) {
+        this.overlapping = overlapping;
+    }
+}
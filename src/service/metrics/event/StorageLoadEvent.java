@@ -0,0 +1,44 @@
+package service.metrics.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("kanban.StorageLoad")
+@Label("Storage Load")
+@Category({"Kanban", "Storage"})
+@Description("Чтение всех задач из CSV-файла")
+public class StorageLoadEvent extends Event {
+    @Label("File")
+    private String file;
+
+    @Label("Bytes Read")
+    @DataAmount
+    private long bytesRead;
+
+    @Label("Task Count")
+    private int taskCount;
+
+    @Label("Subtask Count")
+    private int subtaskCount;
+
+    @Label("Epic Count")
+    private int epicCount;
+
+    public StorageLoadEvent(String file) {
+        this.file = file;
+    }
+
+    public void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    public void setCounts(int taskCount, int subtaskCount, int epicCount) {
+        this.taskCount = taskCount;
+        this.subtaskCount = subtaskCount;
+        this.epicCount = epicCount;
+    }
+}
@@ -0,0 +1,44 @@
+package service.metrics.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("kanban.StorageSave")
+@Label("Storage Save")
+@Category({"Kanban", "Storage"})
+@Description("Запись всех задач в CSV-файл")
+public class StorageSaveEvent extends Event {
+    @Label("File")
+    private String file;
+
+    @Label("Bytes Written")
+    @DataAmount
+    private long bytesWritten;
+
+    @Label("Task Count")
+    private int taskCount;
+
+    @Label("Subtask Count")
+    private int subtaskCount;
+
+    @Label("Epic Count")
+    private int epicCount;
+
+    public StorageSaveEvent(String file) {
+        this.file = file;
+    }
+
+    public void setBytesWritten(long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+
+    public void setCounts(int taskCount, int subtaskCount, int epicCount) {
+        this.taskCount = taskCount;
+        this.subtaskCount = subtaskCount;
+        this.epicCount = epicCount;
+    }
+}
@@ -0,0 +1,28 @@
+package service.metrics.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("kanban.TaskOperation")
+@Label("Task Manager Operation")
+@Category({"Kanban", "Task Manager"})
+@Description("Вызов метода TaskManager")
+public class TaskOperationEvent extends Event {
+    @Label("Operation")
+    private String operation;
+
+    @Label("Exception")
+    @Description("Класс исключения, если операция завершилась ошибкой")
+    private String exception;
+
+    public TaskOperationEvent(String operation) {
+        this.operation = operation;
+    }
+
+    public void setException(Class<? extends Throwable> exception) {
+        this.exception = exception.getName();
+    }
+}
@@ -0,0 +1,218 @@
+package service.replication;
+
+import com.google.gson.Gson;
+import exception.ReadOnlyReplicaException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import service.managers.history.HistoryManager;
+import service.managers.task.InMemoryTaskManager;
+import service.managers.task.SynchronizedTaskManager;
+import service.managers.task.TaskDependencies;
+import service.managers.task.TaskQuery;
+import service.server.HttpTaskServer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Менеджер ведомого. Задачи в нем меняет только ReplicationFollower, записи журнала применяются под той же
+// блокировкой, что и запросы, поэтому читатели не видят задачу наполовину примененной. Запросы на изменение
+// отклоняются, пока ведомого не назначат лидером
+public class ReplicaTaskManager extends SynchronizedTaskManager {
+    private final Replica replica;
+    private final Gson gson = HttpTaskServer.getGson();
+
+    public ReplicaTaskManager(HistoryManager historyManager) {
+        this(new Replica(historyManager));
+    }
+
+    private ReplicaTaskManager(Replica replica) {
+        super(replica);
+        this.replica = replica;
+    }
+
+    public boolean isReadOnly() {
+        return replica.readOnly;
+    }
+
+    // После назначения лидером принимает изменения, новые id продолжаются с наибольшего полученного
+    public void promote() {
+        runExclusively(() -> replica.readOnly = false);
+    }
+
+    void applyUpsert(ReplicationRecord record, boolean withDependencies) {
+        runExclusively(() -> {
+            Class<? extends Task> taskClass = switch (record.getType()) {
+                case TASK -> Task.class;
+                case SUBTASK -> Subtask.class;
+                case EPIC -> Epic.class;
+            };
+            replica.upsert(record.getType(), gson.fromJson(record.getTask(), taskClass));
+
+            if (withDependencies && record.getType() != TaskType.EPIC) {
+                replica.setBlockers(record.getId(), record.getBlockedBy());
+            }
+        });
+    }
+
+    void applyDelete(TaskType type, int id) {
+        runExclusively(() -> replica.delete(type, id));
+    }
+
+    // Зависимости из снимка применяются после всех задач: блокирующая задача может идти в снимке позже
+    void applyDependencies(Map<Integer, List<Integer>> blockers) {
+        runExclusively(() -> blockers.forEach(replica::setBlockers));
+    }
+
+    void reset() {
+        runExclusively(replica::reset);
+    }
+
+    private static class Replica extends InMemoryTaskManager {
+        private volatile boolean readOnly = true;
+
+        Replica(HistoryManager historyManager) {
+            super(historyManager);
+        }
+
+        void upsert(TaskType type, Task task) {
+            switch (type) {
+                case TASK -> restoreTask(task);
+                case SUBTASK -> restoreSubtask((Subtask) task);
+                case EPIC -> restoreEpic((Epic) task);
+            }
+        }
+
+        void setBlockers(int taskId, List<Integer> blockedBy) {
+            restoreBlockers(taskId, blockedBy);
+        }
+
+        void delete(TaskType type, int id) {
+            if (peekTask(type, id) == null) {
+                return;
+            }
+
+            switch (type) {
+                case TASK -> super.removeTask(id);
+                case SUBTASK -> super.removeSubtask(id);
+                case EPIC -> super.removeEpic(id);
+            }
+        }
+
+        void reset() {
+            super.removeAllEpics();
+            super.removeAllTasks();
+        }
+
+        @Override
+        public Task createTask(Task newTask) {
+            checkWritable();
+            return super.createTask(newTask);
+        }
+
+        @Override
+        public Subtask createSubtask(Subtask newSubtask) {
+            checkWritable();
+            return super.createSubtask(newSubtask);
+        }
+
+        @Override
+        public Epic createEpic(Epic newEpic) {
+            checkWritable();
+            return super.createEpic(newEpic);
+        }
+
+        @Override
+        public Task updateTask(Task newTask) {
+            checkWritable();
+            return super.updateTask(newTask);
+        }
+
+        @Override
+        public Subtask updateSubtask(Subtask newSubtask) {
+            checkWritable();
+            return super.updateSubtask(newSubtask);
+        }
+
+        @Override
+        public Epic updateEpic(Epic newEpic) {
+            checkWritable();
+            return super.updateEpic(newEpic);
+        }
+
+        @Override
+        public void removeTask(int id) {
+            checkWritable();
+            super.removeTask(id);
+        }
+
+        @Override
+        public void removeSubtask(int id) {
+            checkWritable();
+            super.removeSubtask(id);
+        }
+
+        @Override
+        public void removeEpic(int id) {
+            checkWritable();
+            super.removeEpic(id);
+        }
+
+        @Override
+        public void removeAllTasks() {
+            checkWritable();
+            super.removeAllTasks();
+        }
+
+        @Override
+        public void removeAllSubtasks() {
+            checkWritable();
+            super.removeAllSubtasks();
+        }
+
+        @Override
+        public void removeAllEpics() {
+            checkWritable();
+            super.removeAllEpics();
+        }
+
+        @Override
+        public List<Task> scheduleUnscheduledTasks(LocalDateTime after, Duration duration) {
+            checkWritable();
+            return super.scheduleUnscheduledTasks(after, duration);
+        }
+
+        @Override
+        public List<Subtask> shiftEpic(int epicId, Duration offset) {
+            checkWritable();
+            return super.shiftEpic(epicId, offset);
+        }
+
+        @Override
+        public List<Task> shiftTasks(TaskQuery query, Duration offset) {
+            checkWritable();
+            return super.shiftTasks(query, offset);
+        }
+
+        @Override
+        public TaskDependencies addDependency(int taskId, int blockerId) {
+            checkWritable();
+            return super.addDependency(taskId, blockerId);
+        }
+
+        @Override
+        public TaskDependencies removeDependency(int taskId, int blockerId) {
+            checkWritable();
+            return super.removeDependency(taskId, blockerId);
+        }
+
+        private void checkWritable() {
+            if (readOnly) {
+                throw new ReadOnlyReplicaException();
+            }
+        }
+    }
+}
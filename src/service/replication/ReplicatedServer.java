@@ -0,0 +1,89 @@
+package service.replication;
+
+import service.managers.Managers;
+import service.managers.task.InMemoryTaskManager;
+import service.metrics.MetricsRegistry;
+import service.server.HttpTaskServer;
+import service.server.ServerConfig;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+// Запуск лидера и ведомых отдельными процессами на одной машине:
+// java service.replication.ReplicatedServer --role=leader --port=8080 --replication-port=7070
+// java service.replication.ReplicatedServer --role=follower --port=8081 --leader=localhost:7070
+// Ведомый отвечает на чтения, а изменения отклоняет с 405. Отставание видно в /metrics ведомого.
+// Лидер принимает ведомых только на loopback-адресе. Для ведомых на других машинах адрес задается через
+// --replication-bind, а число ведомых - через --max-followers
+public class ReplicatedServer {
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        ServerConfig config = new ServerConfig();
+        config.setPort(Integer.parseInt(options.getOrDefault("port", "8080")));
+
+        switch (options.getOrDefault("role", "leader")) {
+            case "leader" -> startLeader(config, options);
+            case "follower" -> startFollower(config, options.getOrDefault("leader", "localhost:7070"));
+            default -> throw new IllegalArgumentException("Unknown role: " + options.get("role"));
+        }
+    }
+
+    private static void startLeader(ServerConfig config, Map<String, String> options) throws IOException {
+        String bindAddress = options.get("replication-bind");
+        InMemoryTaskManager taskManager = new InMemoryTaskManager(Managers.getDefaultHistory());
+        ReplicationLog log = new ReplicationLog(taskManager);
+        ReplicationLeader leader = new ReplicationLeader(log,
+                bindAddress == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bindAddress),
+                Integer.parseInt(options.getOrDefault("replication-port", "7070")), ReplicationLeader.DEFAULT_HEARTBEAT_MILLIS,
+                Integer.parseInt(options.getOrDefault("max-followers", String.valueOf(ReplicationLeader.DEFAULT_MAX_FOLLOWERS))));
+        HttpTaskServer server = new HttpTaskServer(taskManager, config);
+        MetricsRegistry metricsRegistry = server.getMetricsRegistry();
+        metricsRegistry.registerGauge("kanban_replication_followers", "Followers connected to this leader", leader::getFollowerCount);
+        metricsRegistry.registerCounter("kanban_replication_log_seq", "Last record of the replication log", log::getLastSeq);
+        leader.start();
+        server.start();
+    }
+
+    private static void startFollower(ServerConfig config, String leaderAddress) {
+        int delimiterIndex = leaderAddress.lastIndexOf(':');
+
+        if (delimiterIndex < 0) {
+            throw new IllegalArgumentException("Expected host:port but got " + leaderAddress);
+        }
+
+        ReplicaTaskManager taskManager = new ReplicaTaskManager(Managers.getDefaultHistory());
+        ReplicationFollower follower = new ReplicationFollower(taskManager, leaderAddress.substring(0, delimiterIndex),
+                Integer.parseInt(leaderAddress.substring(delimiterIndex + 1)));
+        HttpTaskServer server = new HttpTaskServer(taskManager, config);
+        registerMetrics(server.getMetricsRegistry(), follower);
+        follower.start();
+        server.start();
+    }
+
+    static void registerMetrics(MetricsRegistry metricsRegistry, ReplicationFollower follower) {
+        metricsRegistry.registerGauge("kanban_replication_lag_records", "Leader records not yet applied", follower::getLagRecords);
+        metricsRegistry.registerGauge("kanban_replication_lag_millis", "Delay between a change on the leader and its apply",
+                follower::getLagMillis);
+        metricsRegistry.registerGauge("kanban_replication_applied_seq", "Last applied record of the leader log",
+                follower::getAppliedSeq);
+        metricsRegistry.registerGauge("kanban_replication_connected", "Whether the follower is connected to the leader",
+                () -> follower.isConnected() ? 1 : 0);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+
+            int delimiterIndex = arg.indexOf('=');
+            options.put(arg.substring(2, delimiterIndex), arg.substring(delimiterIndex + 1));
+        }
+
+        return options;
+    }
+}
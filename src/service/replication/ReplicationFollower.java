@@ -0,0 +1,200 @@
+package service.replication;
+
+import com.google.gson.JsonObject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Получает журнал лидера и применяет его к ReplicaTaskManager. При обрыве соединения переподключается и продолжает
+// с последней примененной записи. Отставание считается в записях (последний известный номер лидера минус примененный)
+// и в миллисекундах (от записи изменения на лидере до применения здесь, ноль, когда ведомый догнал лидера)
+public class ReplicationFollower implements AutoCloseable {
+    public static final long DEFAULT_RECONNECT_MILLIS = 1_000;
+
+    private final ReplicaTaskManager replica;
+    private final String host;
+    private final int port;
+    private final long reconnectMillis;
+    private final Object progress = new Object();
+    private volatile String epoch;
+    private volatile long appliedSeq;
+    private volatile long leaderSeq;
+    private volatile long lagMillis;
+    private volatile boolean connected;
+    private volatile boolean closed;
+    private volatile Socket socket;
+    private Thread thread;
+
+    public ReplicationFollower(ReplicaTaskManager replica, String host, int port, long reconnectMillis) {
+        this.replica = replica;
+        this.host = host;
+        this.port = port;
+        this.reconnectMillis = reconnectMillis;
+    }
+
+    public ReplicationFollower(ReplicaTaskManager replica, String host, int port) {
+        this(replica, host, port, DEFAULT_RECONNECT_MILLIS);
+    }
+
+    public void start() {
+        thread = Thread.ofPlatform().daemon().name("replication-follower").start(this::follow);
+    }
+
+    public long getAppliedSeq() {
+        return appliedSeq;
+    }
+
+    public long getLagRecords() {
+        return Math.max(0, leaderSeq - appliedSeq);
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    // Ждет, пока будет применена запись seq. false, если за timeoutMillis этого не случилось
+    public boolean awaitSeq(long seq, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        synchronized (progress) {
+            while (appliedSeq < seq) {
+                long remaining = deadline - System.currentTimeMillis();
+
+                if (remaining <= 0) {
+                    return false;
+                }
+
+                progress.wait(remaining);
+            }
+        }
+
+        return true;
+    }
+
+    // Отключается от лидера и начинает принимать изменения сам
+    public void promote() {
+        close();
+        replica.promote();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Socket current = socket;
+
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void follow() {
+        while (!closed) {
+            try (Socket current = new Socket(host, port)) {
+                socket = current;
+                replicate(current);
+            } catch (IOException e) {
+                // Лидер недоступен, попробуем позже
+            } catch (RuntimeException e) {
+                // Запись не применилась, при переподключении состояние придет снимком
+                epoch = null;
+            } finally {
+                connected = false;
+            }
+
+            try {
+                Thread.sleep(reconnectMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void replicate(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        JsonObject position = new JsonObject();
+
+        if (epoch != null) {
+            position.addProperty("epoch", epoch);
+        }
+
+        position.addProperty("seq", appliedSeq);
+        writer.write(position.toString());
+        writer.newLine();
+        writer.flush();
+
+        Map<Integer, List<Integer>> snapshotBlockers = null;
+        String line;
+
+        while (!closed && (line = reader.readLine()) != null) {
+            ReplicationRecord record = ReplicationRecord.parse(line);
+
+            switch (record.getOp()) {
+                case HELLO -> {
+                    connected = true;
+                    leaderSeq = record.getSeq();
+                }
+                case SNAPSHOT_BEGIN -> {
+                    replica.reset();
+                    snapshotBlockers = new HashMap<>();
+                }
+                case SNAPSHOT_END -> {
+                    replica.applyDependencies(snapshotBlockers);
+                    snapshotBlockers = null;
+                    epoch = record.getEpoch();
+                    applied(record.getSeq(), record.getTimestamp());
+                }
+                case UPSERT -> {
+                    replica.applyUpsert(record, snapshotBlockers == null);
+
+                    if (snapshotBlockers == null) {
+                        applied(record.getSeq(), record.getTimestamp());
+                    } else if (!record.getBlockedBy().isEmpty()) {
+                        snapshotBlockers.put(record.getId(), record.getBlockedBy());
+                    }
+                }
+                case DELETE -> {
+                    replica.applyDelete(record.getType(), record.getId());
+                    applied(record.getSeq(), record.getTimestamp());
+                }
+                case HEARTBEAT -> {
+                    leaderSeq = Math.max(leaderSeq, record.getSeq());
+
+                    if (appliedSeq >= leaderSeq) {
+                        lagMillis = 0;
+                    }
+                }
+            }
+        }
+    }
+
+    private void applied(long seq, long timestamp) {
+        leaderSeq = Math.max(leaderSeq, seq);
+        lagMillis = Math.max(0, System.currentTimeMillis() - timestamp);
+
+        synchronized (progress) {
+            appliedSeq = seq;
+            progress.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package service.replication;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Отдает журнал лидера ведомым по TCP, по одной JSON-строке на запись. Ведомый начинает с эпохи и номера последней
+// примененной записи, лидер отвечает HELLO со своими эпохой и номером. Если ведомый пришел от прошлого запуска лидера
+// или его записи уже вытеснены из журнала, сначала отправляется снимок между SNAPSHOT_BEGIN и SNAPSHOT_END.
+// Пока изменений нет, раз в heartbeatMillis уходит HEARTBEAT, по нему ведомый считает отставание.
+// Журнал отдается без аутентификации, поэтому по умолчанию порт слушается только на loopback-адресе.
+// Каждому ведомому нужен свой поток и полный снимок, поэтому соединения сверх maxFollowers сразу закрываются
+public class ReplicationLeader implements AutoCloseable {
+    public static final long DEFAULT_HEARTBEAT_MILLIS = 1_000;
+    public static final int DEFAULT_MAX_FOLLOWERS = 8;
+
+    private final ReplicationLog log;
+    private final ServerSocket serverSocket;
+    private final long heartbeatMillis;
+    private final int maxFollowers;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean closed;
+
+    public ReplicationLeader(ReplicationLog log, InetAddress bindAddress, int port, long heartbeatMillis, int maxFollowers)
+            throws IOException {
+        if (heartbeatMillis <= 0) {
+            throw new IllegalArgumentException("Heartbeat interval should be positive");
+        }
+
+        if (maxFollowers <= 0) {
+            throw new IllegalArgumentException("Follower limit should be positive");
+        }
+
+        this.log = log;
+        this.heartbeatMillis = heartbeatMillis;
+        this.maxFollowers = maxFollowers;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(bindAddress, port));
+    }
+
+    public ReplicationLeader(ReplicationLog log, int port, long heartbeatMillis) throws IOException {
+        this(log, InetAddress.getLoopbackAddress(), port, heartbeatMillis, DEFAULT_MAX_FOLLOWERS);
+    }
+
+    public ReplicationLeader(ReplicationLog log, int port) throws IOException {
+        this(log, port, DEFAULT_HEARTBEAT_MILLIS);
+    }
+
+    public void start() {
+        executor.execute(this::acceptFollowers);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+
+        followers.forEach(ReplicationLeader::closeQuietly);
+        executor.shutdownNow();
+    }
+
+    private void acceptFollowers() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+
+                // Ведомые удаляются только из своих потоков, поэтому проверка и добавление здесь не гоняются
+                if (followers.size() >= maxFollowers) {
+                    closeQuietly(socket);
+                    continue;
+                }
+
+                followers.add(socket);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            String line = reader.readLine();
+
+            if (line == null) {
+                return;
+            }
+
+            long cursor = readCursor(line);
+            send(writer, ReplicationRecord.control(ReplicationOp.HELLO, log.getLastSeq(), log.getEpoch()));
+            writer.flush();
+
+            while (!closed) {
+                List<ReplicationRecord> records = cursor < 0 ? null : log.readAfter(cursor, heartbeatMillis);
+
+                if (records == null) {
+                    cursor = sendSnapshot(writer);
+                } else if (records.isEmpty()) {
+                    send(writer, ReplicationRecord.control(ReplicationOp.HEARTBEAT, log.getLastSeq(), null));
+                } else {
+                    for (ReplicationRecord record : records) {
+                        send(writer, record);
+                    }
+
+                    cursor = records.getLast().getSeq();
+                }
+
+                writer.flush();
+            }
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            // Ведомый отключился или прислал не то, при переподключении он начнет заново
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(socket);
+        }
+    }
+
+    // Позиция ведомого {"epoch": ..., "seq": ...}: при чужой эпохе он начинает со снимка,
+    // а без числового seq приветствие считается некорректным и соединение закрывается
+    private long readCursor(String handshake) {
+        JsonObject position = JsonParser.parseString(handshake).getAsJsonObject();
+        JsonElement epoch = position.get("epoch");
+
+        if (epoch == null || !epoch.isJsonPrimitive() || !log.getEpoch().equals(epoch.getAsString())) {
+            return -1;
+        }
+
+        JsonElement seq = position.get("seq");
+
+        if (seq == null || !seq.isJsonPrimitive() || !seq.getAsJsonPrimitive().isNumber()) {
+            throw new JsonParseException("Handshake without a numeric seq: " + handshake);
+        }
+
+        return seq.getAsLong();
+    }
+
+    private long sendSnapshot(BufferedWriter writer) throws IOException {
+        ReplicationLog.Snapshot snapshot = log.snapshot();
+        send(writer, ReplicationRecord.control(ReplicationOp.SNAPSHOT_BEGIN, snapshot.getSeq(), log.getEpoch()));
+
+        for (ReplicationRecord record : snapshot.getRecords()) {
+            send(writer, record);
+        }
+
+        send(writer, ReplicationRecord.control(ReplicationOp.SNAPSHOT_END, snapshot.getSeq(), log.getEpoch()));
+
+        return snapshot.getSeq();
+    }
+
+    private static void send(BufferedWriter writer, ReplicationRecord record) throws IOException {
+        writer.write(record.toJson());
+        writer.newLine();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package service.replication;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import model.Task;
+import model.TaskType;
+import service.managers.feed.ChangeEvent;
+import service.managers.feed.ChangeKind;
+import service.managers.task.InMemoryTaskManager;
+import service.server.HttpTaskServer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Журнал изменений лидера. Заполняется из ленты изменений менеджера: слушатель вызывается в потоке, изменившем задачу,
+// поэтому состояние задачи читается сразу и целиком попадает в запись. Последние capacity записей хранятся
+// в кольцевом буфере для догоняющих ведомых, а последняя запись по каждой задаче - для снимка состояния
+// тем, кто отстал сильнее или подключается впервые. Эпоха меняется при каждом запуске лидера
+public class ReplicationLog {
+    public static final int DEFAULT_CAPACITY = 10_000;
+    private static final int MAX_BATCH_SIZE = 1_000;
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final InMemoryTaskManager taskManager;
+    private final Gson gson = HttpTaskServer.getGson();
+    private final ReplicationRecord[] buffer;
+    private final Map<Integer, ReplicationRecord> latest = new HashMap<>();
+    private long lastSeq;
+
+    // Подключается к менеджеру до того, как его начнут менять, и сразу записывает уже существующие задачи
+    public ReplicationLog(InMemoryTaskManager taskManager, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity should be positive");
+        }
+
+        this.taskManager = taskManager;
+        this.buffer = new ReplicationRecord[capacity];
+
+        taskManager.getAllEpics().forEach(epic -> appendUpsert(TaskType.EPIC, epic));
+        taskManager.getAllTasks().forEach(task -> appendUpsert(TaskType.TASK, task));
+        taskManager.getAllSubTasks().forEach(subtask -> appendUpsert(TaskType.SUBTASK, subtask));
+        taskManager.getChangeFeed().addListener(this::onChange);
+    }
+
+    public ReplicationLog(InMemoryTaskManager taskManager) {
+        this(taskManager, DEFAULT_CAPACITY);
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    // Записи после seq, не больше MAX_BATCH_SIZE. Если новых записей нет, ждет их не дольше timeoutMillis.
+    // Возвращает null, если записи после seq уже вытеснены из буфера или seq из будущего - тогда нужен снимок
+    public synchronized List<ReplicationRecord> readAfter(long seq, long timeoutMillis) throws InterruptedException {
+        if (seq > lastSeq || seq < lastSeq - buffer.length) {
+            return null;
+        }
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+
+        while (seq == lastSeq && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+
+        if (seq < lastSeq - buffer.length) {
+            return null;
+        }
+
+        List<ReplicationRecord> records = new ArrayList<>();
+
+        for (long next = seq + 1; next <= lastSeq && records.size() < MAX_BATCH_SIZE; next++) {
+            records.add(buffer[(int) (next % buffer.length)]);
+        }
+
+        return records;
+    }
+
+    // Последние записи всех существующих задач: сначала эпики, затем задачи и подзадачи по возрастанию id,
+    // чтобы эпик подзадачи был применен раньше нее. Номер снимка - последняя вошедшая в него запись журнала
+    public synchronized Snapshot snapshot() {
+        List<ReplicationRecord> records = new ArrayList<>(latest.values());
+        records.sort(Comparator.comparing((ReplicationRecord record) -> record.getType() != TaskType.EPIC)
+                .thenComparing(ReplicationRecord::getId));
+
+        return new Snapshot(lastSeq, records);
+    }
+
+    private void onChange(ChangeEvent event) {
+        if (event.getKind() == ChangeKind.DELETED) {
+            append(ReplicationOp.DELETE, event.getType(), event.getId(), null, List.of());
+            return;
+        }
+
+        Task task = taskManager.peekTask(event.getType(), event.getId());
+
+        // Задачу могли удалить дальше в той же операции, запись об удалении придет следующей
+        if (task != null) {
+            appendUpsert(event.getType(), task);
+        }
+    }
+
+    private void appendUpsert(TaskType type, Task task) {
+        List<Integer> blockedBy = type == TaskType.EPIC ? List.of() : taskManager.getDependencies(task.getId()).getBlockedBy();
+        append(ReplicationOp.UPSERT, type, task.getId(), gson.toJsonTree(task, task.getClass()), blockedBy);
+    }
+
+    private synchronized void append(ReplicationOp op, TaskType type, int id, JsonElement task, List<Integer> blockedBy) {
+        ReplicationRecord record = new ReplicationRecord(++lastSeq, op, type, id, task, blockedBy, System.currentTimeMillis(), null);
+        buffer[(int) (lastSeq % buffer.length)] = record;
+
+        if (op == ReplicationOp.DELETE) {
+            latest.remove(id);
+        } else {
+            latest.put(id, record);
+        }
+
+        notifyAll();
+    }
+
+    public static class Snapshot {
+        private final long seq;
+        private final List<ReplicationRecord> records;
+
+        Snapshot(long seq, List<ReplicationRecord> records) {
+            this.seq = seq;
+            this.records = records;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public List<ReplicationRecord> getRecords() {
+            return records;
+        }
+    }
+}
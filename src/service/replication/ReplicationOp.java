@@ -0,0 +1,13 @@
+package service.replication;
+
+public enum ReplicationOp {
+    // Начало соединения: эпоха лидера и номер последней записи его журнала
+    HELLO,
+    // Полное состояние вместо журнала: ведомый сбрасывает свои задачи и применяет записи до SNAPSHOT_END
+    SNAPSHOT_BEGIN,
+    SNAPSHOT_END,
+    UPSERT,
+    DELETE,
+    // Лидер жив, а ведомый знает номер последней записи, даже если изменений нет
+    HEARTBEAT
+}
@@ -0,0 +1,120 @@
+package service.replication;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import model.TaskType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Запись журнала репликации. UPSERT несет состояние задачи целиком на момент изменения, поэтому ведомому
+// не нужно повторять операции лидера, а повторное применение записи ничего не меняет.
+// По сети записи передаются по одной JSON-строке
+public class ReplicationRecord {
+    private final long seq;
+    private final ReplicationOp op;
+    private final TaskType type;
+    private final int id;
+    private final JsonElement task;
+    private final List<Integer> blockedBy;
+    private final long timestamp;
+    private final String epoch;
+
+    public ReplicationRecord(long seq, ReplicationOp op, TaskType type, int id, JsonElement task, List<Integer> blockedBy,
+                             long timestamp, String epoch) {
+        this.seq = seq;
+        this.op = op;
+        this.type = type;
+        this.id = id;
+        this.task = task;
+        this.blockedBy = blockedBy;
+        this.timestamp = timestamp;
+        this.epoch = epoch;
+    }
+
+    public static ReplicationRecord control(ReplicationOp op, long seq, String epoch) {
+        return new ReplicationRecord(seq, op, null, 0, null, List.of(), System.currentTimeMillis(), epoch);
+    }
+
+    public static ReplicationRecord parse(String line) {
+        JsonObject json = JsonParser.parseString(line).getAsJsonObject();
+        List<Integer> blockedBy = new ArrayList<>();
+
+        if (json.has("blockedBy")) {
+            json.getAsJsonArray("blockedBy").forEach(blockerId -> blockedBy.add(blockerId.getAsInt()));
+        }
+
+        return new ReplicationRecord(
+                json.get("seq").getAsLong(),
+                ReplicationOp.valueOf(json.get("op").getAsString()),
+                json.has("type") ? TaskType.valueOf(json.get("type").getAsString()) : null,
+                json.has("id") ? json.get("id").getAsInt() : 0,
+                json.get("task"),
+                blockedBy,
+                json.get("timestamp").getAsLong(),
+                json.has("epoch") ? json.get("epoch").getAsString() : null);
+    }
+
+    public String toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("seq", seq);
+        json.addProperty("op", op.name());
+
+        if (type != null) {
+            json.addProperty("type", type.name());
+            json.addProperty("id", id);
+        }
+
+        if (task != null) {
+            json.add("task", task);
+        }
+
+        if (!blockedBy.isEmpty()) {
+            JsonArray blockers = new JsonArray();
+            blockedBy.forEach(blockers::add);
+            json.add("blockedBy", blockers);
+        }
+
+        json.addProperty("timestamp", timestamp);
+
+        if (epoch != null) {
+            json.addProperty("epoch", epoch);
+        }
+
+        return json.toString();
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public ReplicationOp getOp() {
+        return op;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public JsonElement getTask() {
+        return task;
+    }
+
+    public List<Integer> getBlockedBy() {
+        return blockedBy;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+}
@@ -2,43 +2,132 @@ package service.server;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
 import converter.DurationAdapter;
+import converter.EpicAdapter;
 import converter.LocalDateTimeAdapter;
+import converter.SubtaskAdapter;
+import converter.TaskAdapter;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
 import service.managers.Managers;
+import service.metrics.MetricsRegistry;
+import service.managers.task.InstrumentedTaskManager;
+import service.managers.task.ShardedTaskManager;
+import service.managers.task.SynchronizedTaskManager;
 import service.managers.task.TaskManager;
+import service.managers.task.VersionedTaskManager;
+import service.server.filter.AdaptiveConcurrencyLimit;
+import service.server.filter.AdmissionFilter;
+import service.server.filter.ClientKeyResolver;
+import service.server.filter.IdempotencyFilter;
+import service.server.filter.IdempotencyStore;
+import service.server.filter.MetricsFilter;
+import service.server.filter.ResponseCache;
+import service.server.filter.RateLimitFilter;
+import service.server.filter.ResponseCacheFilter;
+import service.server.filter.TokenBucketRateLimiter;
 import service.server.handler.*;
+import service.server.transport.HttpTransport;
+import service.server.transport.JdkHttpTransport;
+import service.server.transport.NioHttpTransport;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class HttpTaskServer {
-    private final int port = 8080;
-    private final HttpServer httpServer;
+    private final HttpTransport transport;
     private final TaskManager taskManager;
     private final ExceptionHandler exceptionHandler;
+    private final EventsHandler eventsHandler;
+    private final ResponseCache responseCache;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final AdmissionFilter admissionFilter;
+    private final MetricsRegistry metricsRegistry;
+    private final MetricsFilter metricsFilter;
+    private final TokenBucketRateLimiter readRateLimiter;
+    private final TokenBucketRateLimiter writeRateLimiter;
+    private final ClientKeyResolver clientKeyResolver;
+    private final RateLimitFilter rateLimitFilter;
+    private final IdempotencyStore idempotencyStore;
     private final Gson gson;
 
-    public HttpTaskServer(TaskManager taskManager) {
-        this.taskManager = taskManager;
+    public HttpTaskServer(TaskManager taskManager, ServerConfig config) {
+        this.metricsRegistry = new MetricsRegistry();
+        this.metricsFilter = new MetricsFilter(metricsRegistry);
+        TaskManager instrumentedTaskManager = new InstrumentedTaskManager(taskManager, metricsRegistry);
+        // Шардированный менеджер сам разводит операции по потокам шардов, общая блокировка свела бы это на нет.
+        // Уже синхронизированный менеджер вторая блокировка ничем не защитит
+        this.taskManager = taskManager instanceof ShardedTaskManager || taskManager instanceof SynchronizedTaskManager
+                ? instrumentedTaskManager
+                : new SynchronizedTaskManager(instrumentedTaskManager);
         this.gson = HttpTaskServer.getGson();
-        this.exceptionHandler = new ExceptionHandler(gson);
+        this.exceptionHandler = new ExceptionHandler(gson, config.isDebug(), config.getRetryAfterSeconds());
+        this.eventsHandler = new EventsHandler(gson, taskManager.getChangeFeed(), config.getMaxEventSubscribers(),
+                config.getRetryAfterSeconds());
+        this.responseCache = new ResponseCache(taskManager.getChangeFeed());
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(config.getMinConcurrency(), config.getInitialConcurrency(),
+                config.getMaxConcurrency(), config.getMaxQueueSize(), config.getQueueTimeoutMillis());
+        this.admissionFilter = new AdmissionFilter(concurrencyLimit, config.getRetryAfterSeconds());
+        this.readRateLimiter = new TokenBucketRateLimiter(config.getReadRateLimit(), config.getReadBurst());
+        this.writeRateLimiter = new TokenBucketRateLimiter(config.getWriteRateLimit(), config.getWriteBurst());
+        this.clientKeyResolver = new ClientKeyResolver(config.getApiKeyHeader(), config.getApiKeys());
+        this.rateLimitFilter = new RateLimitFilter(readRateLimiter, writeRateLimiter, clientKeyResolver);
+        this.idempotencyStore = new IdempotencyStore(config.getMaxIdempotencyKeys(), config.getIdempotencyTtlSeconds(), TimeUnit.SECONDS);
+        registerServerMetrics();
+
+        // Потоков столько, сколько запросов может одновременно выполняться и ждать в очереди лимита. Но поток бывает
+        // занят и без разрешения лимита: ответ из кэша, 429, /metrics, дописывание ответа после освобождения разрешения.
+        // Поэтому пул может быть полон и при свободной очереди. Тогда запрос не выполняется в потоке диспетчера,
+        // а сразу получает 503 с Retry-After. Пул создает и останавливает сам движок
+        int maxWorkers = config.getMaxConcurrency() + config.getMaxQueueSize();
 
         try {
-            this.httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+            InetSocketAddress address = new InetSocketAddress(config.getPort());
+            this.transport = switch (config.getTransport()) {
+                case JDK -> new JdkHttpTransport(address, maxWorkers, config.getRetryAfterSeconds());
+                case NIO -> new NioHttpTransport(address, maxWorkers, config.getMaxRequestBodySize(), config.getRetryAfterSeconds());
+            };
+
+            createContext("/tasks", new TaskHandler(exceptionHandler, gson, this.taskManager, config.getMaxRequestBodySize()),
+                    new IdempotencyFilter(idempotencyStore, clientKeyResolver), new ResponseCacheFilter(responseCache, "/tasks", EnumSet.of(TaskType.TASK)));
+            createContext("/subtasks", new SubtaskHandler(exceptionHandler, gson, this.taskManager, config.getMaxRequestBodySize()),
+                    new IdempotencyFilter(idempotencyStore, clientKeyResolver), new ResponseCacheFilter(responseCache, "/subtasks", EnumSet.of(TaskType.SUBTASK)));
+            createContext("/epics", new EpicHandler(exceptionHandler, gson, this.taskManager, config.getMaxRequestBodySize()),
+                    new IdempotencyFilter(idempotencyStore, clientKeyResolver), new ResponseCacheFilter(responseCache, "/epics", EnumSet.of(TaskType.EPIC)));
+            createContext("/history", new HistoryHandler(exceptionHandler, gson, this.taskManager));
+            createContext("/prioritized", new PrioritizedHandler(exceptionHandler, gson, this.taskManager),
+                    new ResponseCacheFilter(responseCache, "/prioritized", EnumSet.of(TaskType.TASK, TaskType.SUBTASK)));
+            createContext("/timeline", new TimelineHandler(exceptionHandler, gson, this.taskManager),
+                    new ResponseCacheFilter(responseCache, "/timeline", EnumSet.of(TaskType.TASK, TaskType.SUBTASK)));
+            createContext("/schedule", new ScheduleHandler(exceptionHandler, gson, this.taskManager));
 
-            httpServer.createContext("/tasks", new TaskHandler(exceptionHandler, gson, taskManager));
-            httpServer.createContext("/subtasks", new SubtaskHandler(exceptionHandler, gson, taskManager));
-            httpServer.createContext("/epics", new EpicHandler(exceptionHandler, gson, taskManager));
-            httpServer.createContext("/history", new HistoryHandler(exceptionHandler, gson, taskManager));
-            httpServer.createContext("/prioritized", new PrioritizedHandler(exceptionHandler, gson, taskManager));
+            if (taskManager instanceof VersionedTaskManager versionedTaskManager) {
+                createContext("/versions", new VersionHandler(exceptionHandler, gson, this.taskManager, versionedTaskManager));
+            }
+
+            // Поток событий не проходит через лимит параллельности: соединение держится долго, а подписчиков ограничивает сам обработчик
+            transport.createContext("/events", eventsHandler, List.of(metricsFilter, rateLimitFilter));
+            transport.createContext("/metrics", new MetricsHandler(exceptionHandler, gson, this.taskManager, metricsRegistry),
+                    List.of(metricsFilter));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    public HttpTaskServer(TaskManager taskManager) {
+        this(taskManager, new ServerConfig());
+    }
+
     public HttpTaskServer() {
         this(Managers.getDefault());
     }
@@ -50,16 +139,59 @@ public class HttpTaskServer {
 
     public static Gson getGson() {
         return new GsonBuilder()
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter().nullSafe())
+                .registerTypeAdapter(Duration.class, new DurationAdapter().nullSafe())
+                .registerTypeAdapter(Task.class, new TaskAdapter())
+                .registerTypeAdapter(Subtask.class, new SubtaskAdapter())
+                .registerTypeAdapter(Epic.class, new EpicAdapter())
                 .create();
     }
 
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
     public void start() {
-        httpServer.start();
+        transport.start();
     }
 
     public void stop() {
-        httpServer.stop(0);
+        eventsHandler.close();
+        transport.stop(0);
+    }
+
+    private void createContext(String path, HttpHandler handler, Filter... filters) {
+        List<Filter> contextFilters = new ArrayList<>();
+        contextFilters.add(metricsFilter);
+        contextFilters.add(rateLimitFilter);
+        contextFilters.addAll(List.of(filters));
+        contextFilters.add(admissionFilter);
+        transport.createContext(path, handler, contextFilters);
+    }
+
+    private void registerServerMetrics() {
+        metricsRegistry.registerCounter("kanban_response_cache_hits_total", "Response cache hits", responseCache::getHits);
+        metricsRegistry.registerCounter("kanban_response_cache_misses_total", "Response cache misses", responseCache::getMisses);
+        metricsRegistry.registerCounter("kanban_response_cache_invalidations_total", "Response cache invalidations", responseCache::getInvalidations);
+        metricsRegistry.registerGauge("kanban_response_cache_entries", "Responses currently cached", responseCache::size);
+        metricsRegistry.registerGauge("kanban_admission_limit", "Current adaptive concurrency limit", concurrencyLimit::getLimit);
+        metricsRegistry.registerGauge("kanban_admission_in_flight", "Requests currently executing", concurrencyLimit::getInFlight);
+        metricsRegistry.registerGauge("kanban_admission_queued", "Requests waiting for admission", concurrencyLimit::getWaiting);
+        metricsRegistry.registerCounter("kanban_admission_rejected_total", "Requests rejected with 503", concurrencyLimit::getRejected);
+        metricsRegistry.registerCounter("kanban_rate_limited_reads_total", "Read requests rejected with 429", readRateLimiter::getRejected);
+        metricsRegistry.registerCounter("kanban_rate_limited_writes_total", "Write requests rejected with 429", writeRateLimiter::getRejected);
+        metricsRegistry.registerCounter("kanban_idempotent_replays_total", "POST requests answered from the idempotency store", idempotencyStore::getReplays);
+        metricsRegistry.registerGauge("kanban_idempotency_keys", "Idempotency keys currently stored", idempotencyStore::size);
+        metricsRegistry.registerGauge("kanban_event_subscribers", "Open Server-Sent Events streams", eventsHandler::getSubscriberCount);
+        metricsRegistry.registerGauge("kanban_rate_limit_clients", "Clients with a tracked token bucket",
+                () -> readRateLimiter.size() + writeRateLimiter.size());
     }
 }
@@ -0,0 +1,181 @@
+package service.server;
+
+import exception.DomainException;
+import service.server.transport.TransportType;
+
+import java.util.Set;
+
+public class ServerConfig {
+    private int port = 8080;
+    private TransportType transport = TransportType.JDK;
+    private int minConcurrency = 4;
+    private int initialConcurrency = 16;
+    private int maxConcurrency = 64;
+    private int maxQueueSize = 64;
+    private long queueTimeoutMillis = 1_000;
+    private int retryAfterSeconds = 1;
+    private long maxRequestBodySize = 1024 * 1024;
+    private double readRateLimit = 200;
+    private int readBurst = 400;
+    private double writeRateLimit = 50;
+    private int writeBurst = 100;
+    private String apiKeyHeader = "X-API-Key";
+    private Set<String> apiKeys = Set.of();
+    private int maxIdempotencyKeys = 10_000;
+    private long idempotencyTtlSeconds = 24 * 60 * 60;
+    private int maxEventSubscribers = 256;
+    private boolean debug = Boolean.getBoolean(DomainException.DEBUG_PROPERTY);
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public TransportType getTransport() {
+        return transport;
+    }
+
+    public void setTransport(TransportType transport) {
+        this.transport = transport;
+    }
+
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    public void setMinConcurrency(int minConcurrency) {
+        this.minConcurrency = minConcurrency;
+    }
+
+    public int getInitialConcurrency() {
+        return initialConcurrency;
+    }
+
+    public void setInitialConcurrency(int initialConcurrency) {
+        this.initialConcurrency = initialConcurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public void setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    public long getQueueTimeoutMillis() {
+        return queueTimeoutMillis;
+    }
+
+    public void setQueueTimeoutMillis(long queueTimeoutMillis) {
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getMaxRequestBodySize() {
+        return maxRequestBodySize;
+    }
+
+    public void setMaxRequestBodySize(long maxRequestBodySize) {
+        this.maxRequestBodySize = maxRequestBodySize;
+    }
+
+    public double getReadRateLimit() {
+        return readRateLimit;
+    }
+
+    public void setReadRateLimit(double readRateLimit) {
+        this.readRateLimit = readRateLimit;
+    }
+
+    public int getReadBurst() {
+        return readBurst;
+    }
+
+    public void setReadBurst(int readBurst) {
+        this.readBurst = readBurst;
+    }
+
+    public double getWriteRateLimit() {
+        return writeRateLimit;
+    }
+
+    public void setWriteRateLimit(double writeRateLimit) {
+        this.writeRateLimit = writeRateLimit;
+    }
+
+    public int getWriteBurst() {
+        return writeBurst;
+    }
+
+    public void setWriteBurst(int writeBurst) {
+        this.writeBurst = writeBurst;
+    }
+
+    public String getApiKeyHeader() {
+        return apiKeyHeader;
+    }
+
+    public void setApiKeyHeader(String apiKeyHeader) {
+        this.apiKeyHeader = apiKeyHeader;
+    }
+
+    // Ключи API, которые получают собственный лимит. С неизвестным ключом клиент ограничивается по IP-адресу
+    public Set<String> getApiKeys() {
+        return apiKeys;
+    }
+
+    public void setApiKeys(Set<String> apiKeys) {
+        this.apiKeys = apiKeys;
+    }
+
+    public int getMaxIdempotencyKeys() {
+        return maxIdempotencyKeys;
+    }
+
+    public void setMaxIdempotencyKeys(int maxIdempotencyKeys) {
+        this.maxIdempotencyKeys = maxIdempotencyKeys;
+    }
+
+    public long getIdempotencyTtlSeconds() {
+        return idempotencyTtlSeconds;
+    }
+
+    public void setIdempotencyTtlSeconds(long idempotencyTtlSeconds) {
+        this.idempotencyTtlSeconds = idempotencyTtlSeconds;
+    }
+
+    public int getMaxEventSubscribers() {
+        return maxEventSubscribers;
+    }
+
+    public void setMaxEventSubscribers(int maxEventSubscribers) {
+        this.maxEventSubscribers = maxEventSubscribers;
+    }
+
+    public boolean isDebug() {
+        return debug;
+    }
+
+    public void setDebug(boolean debug) {
+        this.debug = debug;
+    }
+}
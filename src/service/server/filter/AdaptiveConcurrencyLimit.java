@@ -0,0 +1,141 @@
+package service.server.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Лимит одновременных запросов подстраивается по задержкам (градиентный алгоритм):
+// пока задержка близка к минимальной, лимит растет на sqrt(limit), при росте задержки уменьшается пропорционально
+// отношению minRtt / rtt. Запросы сверх лимита ждут в ограниченной очереди, при ее переполнении сразу отклоняются
+public class AdaptiveConcurrencyLimit {
+    private static final double RTT_TOLERANCE = 2.0;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int MIN_RTT_RESET_SAMPLES = 1_000;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueSize;
+    private final long queueTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long samples;
+    private long rejected;
+
+    public AdaptiveConcurrencyLimit(int minLimit, int initialLimit, int maxLimit, int maxQueueSize, long queueTimeoutMillis) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits should satisfy 0 < min <= initial <= max");
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.maxQueueSize = maxQueueSize;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+    }
+
+    public boolean tryAcquire() throws InterruptedException {
+        lock.lock();
+
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+
+            if (waiting >= maxQueueSize) {
+                rejected++;
+                return false;
+            }
+
+            waiting++;
+
+            try {
+                long remainingNanos = queueTimeoutNanos;
+
+                while (inFlight >= (int) limit) {
+                    if (remainingNanos <= 0) {
+                        rejected++;
+                        return false;
+                    }
+
+                    remainingNanos = permitReleased.awaitNanos(remainingNanos);
+                }
+
+                inFlight++;
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long latencyNanos) {
+        lock.lock();
+
+        try {
+            inFlight--;
+            updateLimit(Math.max(1, latencyNanos));
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        lock.lock();
+
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateLimit(long rttNanos) {
+        // Периодически сбрасываем минимальную задержку, чтобы лимит мог подстроиться под изменившуюся нагрузку
+        if (++samples % MIN_RTT_RESET_SAMPLES == 0 || rttNanos < minRttNanos) {
+            minRttNanos = rttNanos;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * minRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+}
@@ -0,0 +1,49 @@
+package service.server.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+public class AdmissionFilter extends Filter {
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final int retryAfterSeconds;
+
+    public AdmissionFilter(AdaptiveConcurrencyLimit concurrencyLimit, int retryAfterSeconds) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        boolean admitted;
+
+        try {
+            admitted = concurrencyLimit.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+
+        if (!admitted) {
+            try (exchange) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                exchange.sendResponseHeaders(503, -1);
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            concurrencyLimit.release(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Rejects requests with 503 when the adaptive concurrency limit and its queue are exhausted";
+    }
+}
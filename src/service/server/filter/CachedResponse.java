@@ -0,0 +1,68 @@
+package service.server.filter;
+
+import model.TaskType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+public class CachedResponse {
+    private final int statusCode;
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+    private final Set<TaskType> dependencies;
+    private final long[] generations;
+    private volatile byte[] gzippedBody;
+
+    public CachedResponse(int statusCode, Map<String, List<String>> headers, byte[] body, Set<TaskType> dependencies, long[] generations) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+        this.dependencies = dependencies;
+        this.generations = generations;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public Set<TaskType> getDependencies() {
+        return dependencies;
+    }
+
+    public long[] getGenerations() {
+        return generations;
+    }
+
+    // Сжатая версия строится один раз при первом запросе с Accept-Encoding: gzip
+    public byte[] getGzippedBody() {
+        byte[] gzipped = gzippedBody;
+
+        if (gzipped == null) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 32);
+
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            gzipped = compressed.toByteArray();
+            gzippedBody = gzipped;
+        }
+
+        return gzipped;
+    }
+}
@@ -0,0 +1,57 @@
+package service.server.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+// Пропускает тело ответа клиенту и одновременно сохраняет его копию. Копия передается onComplete до закрытия
+// исходного потока, то есть до того, как клиент получит ответ целиком и сможет отправить следующий запрос.
+// Поэтому промежуточные flush не передаются дальше: тело уходит клиенту при закрытии
+class CapturingOutputStream extends FilterOutputStream {
+    private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+    private final Consumer<byte[]> onComplete;
+    private boolean closed;
+
+    CapturingOutputStream(OutputStream out, Consumer<byte[]> onComplete) {
+        super(out);
+        this.onComplete = onComplete;
+    }
+
+    CapturingOutputStream(OutputStream out) {
+        this(out, body -> {
+        });
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        captured.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        captured.write(b, off, len);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        onComplete.accept(captured.toByteArray());
+        out.close();
+    }
+
+    byte[] toByteArray() {
+        return captured.toByteArray();
+    }
+}
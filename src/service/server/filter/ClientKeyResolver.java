@@ -0,0 +1,31 @@
+package service.server.filter;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+
+// Определяет клиента запроса по заголовку с ключом API, если этот ключ известен серверу, иначе - по IP-адресу.
+// Произвольному ключу доверять нельзя: меняя его в каждом запросе, клиент получал бы новое ведро лимита
+// или чужие сохраненные ответы
+public class ClientKeyResolver {
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+
+    public ClientKeyResolver(String apiKeyHeader, Set<String> apiKeys) {
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKeys = Set.copyOf(apiKeys);
+    }
+
+    public String resolve(HttpExchange exchange) {
+        String apiKey = apiKeyHeader == null ? null : exchange.getRequestHeaders().getFirst(apiKeyHeader);
+
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+
+        InetSocketAddress remoteAddress = exchange.getRemoteAddress();
+
+        return remoteAddress == null ? "ip:unknown" : "ip:" + remoteAddress.getAddress().getHostAddress();
+    }
+}
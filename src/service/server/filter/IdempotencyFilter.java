@@ -0,0 +1,135 @@
+package service.server.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Повторный POST с тем же заголовком Idempotency-Key получает сохраненный результат первого запроса,
+// не обращаясь к менеджеру. Ключ действует в пределах клиента и пути запроса, а вместе с результатом хранится
+// хеш тела запроса: повтор ключа с другим телом получает 422, а не чужой результат
+public class IdempotencyFilter extends Filter {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final List<String> STORED_HEADERS = List.of("Content-Type", "X-Task-Id");
+    private final IdempotencyStore store;
+    private final ClientKeyResolver clientKeyResolver;
+
+    public IdempotencyFilter(IdempotencyStore store, ClientKeyResolver clientKeyResolver) {
+        this.store = store;
+        this.clientKeyResolver = clientKeyResolver;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        String idempotencyKey = exchange.getRequestHeaders().getFirst(IDEMPOTENCY_KEY_HEADER);
+
+        if (idempotencyKey == null || !"POST".equals(exchange.getRequestMethod())) {
+            chain.doFilter(exchange);
+            return;
+        }
+
+        String key = clientKeyResolver.resolve(exchange) + " " + exchange.getRequestURI().getPath() + " " + idempotencyKey;
+        IdempotencyStore.Entry entry = store.begin(key);
+
+        if (entry != null) {
+            respondWithStoredEntry(exchange, entry);
+            return;
+        }
+
+        // Тело хешируется по мере чтения обработчиком, поэтому потоковая загрузка NDJSON не буферизуется.
+        // Результат сохраняется до завершения обмена, чтобы сразу отправленный повтор уже получил его, а не 409
+        DigestInputStream requestBody = new DigestInputStream(exchange.getRequestBody(), newDigest());
+        AtomicBoolean completed = new AtomicBoolean();
+        exchange.setStreams(requestBody, new CapturingOutputStream(exchange.getResponseBody(), body -> {
+            int statusCode = exchange.getResponseCode();
+
+            if (statusCode > 0 && statusCode < 500 && statusCode != 413 && statusCode != 429) {
+                store.complete(key, new IdempotencyStore.Outcome(statusCode, copyStoredHeaders(exchange.getResponseHeaders()),
+                        body, digestRemaining(requestBody)));
+                completed.set(true);
+            }
+        }));
+
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            if (!completed.get()) {
+                store.abandon(key);
+            }
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Replays the stored outcome of a POST retried with the same Idempotency-Key";
+    }
+
+    private void respondWithStoredEntry(HttpExchange exchange, IdempotencyStore.Entry entry) throws IOException {
+        try (exchange) {
+            // Первый запрос с этим ключом еще выполняется
+            if (entry.isInProgress()) {
+                exchange.sendResponseHeaders(409, -1);
+                return;
+            }
+
+            IdempotencyStore.Outcome outcome = entry.getOutcome();
+            byte[] requestHash = digestRemaining(new DigestInputStream(exchange.getRequestBody(), newDigest()));
+
+            if (!MessageDigest.isEqual(outcome.getRequestHash(), requestHash)) {
+                exchange.sendResponseHeaders(422, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().putAll(outcome.getHeaders());
+            exchange.getResponseHeaders().set("Idempotent-Replayed", "true");
+            byte[] body = outcome.getBody();
+            exchange.sendResponseHeaders(outcome.getStatusCode(), body.length == 0 ? -1 : body.length);
+
+            if (body.length > 0) {
+                exchange.getResponseBody().write(body);
+            }
+        }
+    }
+
+    // Обработчик мог прочитать тело не до конца, например при ошибке разбора, поэтому остаток дочитывается в хеш
+    private static byte[] digestRemaining(DigestInputStream requestBody) {
+        try {
+            requestBody.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException ignored) {
+        }
+
+        return requestBody.getMessageDigest().digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Map<String, List<String>> copyStoredHeaders(Headers headers) {
+        Map<String, List<String>> copy = new HashMap<>();
+
+        for (String name : STORED_HEADERS) {
+            List<String> values = headers.get(name);
+
+            if (values != null) {
+                copy.put(name, new ArrayList<>(values));
+            }
+        }
+
+        return copy;
+    }
+}
@@ -0,0 +1,122 @@
+package service.server.filter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Результаты запросов по ключам идемпотентности. Хранится ограниченное число ключей: при переполнении
+// вытесняется самый старый, а по истечении срока хранения ключ считается неизвестным
+public class IdempotencyStore {
+    public static final int DEFAULT_MAX_KEYS = 10_000;
+    private final Map<String, Entry> entries;
+    private final long ttlNanos;
+    private final AtomicLong replays = new AtomicLong();
+
+    public IdempotencyStore(int maxKeys, long ttl, TimeUnit unit) {
+        this.ttlNanos = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    // Регистрирует ключ для нового запроса. Если по ключу уже есть сохраненный результат или выполняющийся запрос,
+    // возвращает его запись и ничего не меняет, иначе - null
+    public synchronized Entry begin(String key) {
+        return begin(key, System.nanoTime());
+    }
+
+    synchronized Entry begin(String key, long nowNanos) {
+        Entry entry = entries.get(key);
+
+        if (entry != null && (entry.isInProgress() || nowNanos - entry.createdNanos < ttlNanos)) {
+            if (!entry.isInProgress()) {
+                replays.incrementAndGet();
+            }
+
+            return entry;
+        }
+
+        entries.remove(key);
+        entries.put(key, new Entry(nowNanos, null));
+
+        return null;
+    }
+
+    public synchronized void complete(String key, Outcome outcome) {
+        Entry entry = entries.get(key);
+
+        if (entry != null && entry.isInProgress()) {
+            entries.put(key, new Entry(entry.createdNanos, outcome));
+        }
+    }
+
+    // Запрос завершился ошибкой сервера: повтор с тем же ключом должен выполниться заново
+    public synchronized void abandon(String key) {
+        Entry entry = entries.get(key);
+
+        if (entry != null && entry.isInProgress()) {
+            entries.remove(key);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getReplays() {
+        return replays.get();
+    }
+
+    public static class Entry {
+        private final long createdNanos;
+        private final Outcome outcome;
+
+        private Entry(long createdNanos, Outcome outcome) {
+            this.createdNanos = createdNanos;
+            this.outcome = outcome;
+        }
+
+        public boolean isInProgress() {
+            return outcome == null;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+    }
+
+    public static class Outcome {
+        private final int statusCode;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+        private final byte[] requestHash;
+
+        public Outcome(int statusCode, Map<String, List<String>> headers, byte[] body, byte[] requestHash) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+            this.requestHash = requestHash;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public Map<String, List<String>> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public byte[] getRequestHash() {
+            return requestHash;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package service.server.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import service.metrics.MetricsRegistry;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class MetricsFilter extends Filter {
+    public static final String ROUTE_ATTRIBUTE = "route";
+    private static final String UNMATCHED_ROUTE = "unmatched";
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsFilter(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    // Запрос записывается при закрытии тела ответа, то есть до того, как клиент получит ответ целиком:
+    // иначе следующий запрос того же клиента, например к /metrics, мог бы его еще не увидеть.
+    // Если тело так и не было закрыто, запрос записывается после цепочки
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream countingStream = new CountingOutputStream(exchange.getResponseBody(), exchange, start);
+        exchange.setStreams(null, countingStream);
+
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            countingStream.record();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Records latency, status code and response size per route";
+    }
+
+    private class CountingOutputStream extends FilterOutputStream {
+        private final HttpExchange exchange;
+        private final long start;
+        private long count;
+        private boolean recorded;
+
+        CountingOutputStream(OutputStream out, HttpExchange exchange, long start) {
+            super(out);
+            this.exchange = exchange;
+            this.start = start;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            record();
+            super.close();
+        }
+
+        synchronized void record() {
+            if (recorded) {
+                return;
+            }
+
+            recorded = true;
+            Object route = exchange.getAttribute(ROUTE_ATTRIBUTE);
+            metricsRegistry.recordRequest(route == null ? UNMATCHED_ROUTE : route.toString(),
+                    exchange.getResponseCode(), System.nanoTime() - start, count);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package service.server.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Ограничивает частоту запросов каждого клиента отдельно для чтения и изменения данных
+public class RateLimitFilter extends Filter {
+    private final TokenBucketRateLimiter readLimiter;
+    private final TokenBucketRateLimiter writeLimiter;
+    private final ClientKeyResolver clientKeyResolver;
+
+    public RateLimitFilter(TokenBucketRateLimiter readLimiter, TokenBucketRateLimiter writeLimiter,
+                           ClientKeyResolver clientKeyResolver) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.clientKeyResolver = clientKeyResolver;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        String method = exchange.getRequestMethod();
+        TokenBucketRateLimiter limiter = "GET".equals(method) || "HEAD".equals(method) ? readLimiter : writeLimiter;
+        long waitNanos = limiter.tryAcquire(clientKeyResolver.resolve(exchange));
+
+        if (waitNanos > 0) {
+            try (exchange) {
+                long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                exchange.sendResponseHeaders(429, -1);
+            }
+            return;
+        }
+
+        chain.doFilter(exchange);
+    }
+
+    @Override
+    public String description() {
+        return "Rejects requests with 429 when the client exceeds its token bucket rate";
+    }
+}
@@ -0,0 +1,110 @@
+package service.server.filter;
+
+import model.TaskType;
+import service.managers.feed.ChangeFeed;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Каждый тип задач имеет счетчик поколений, который увеличивается при любом его изменении.
+// Ответ запоминает поколения своих зависимостей на момент начала построения и считается устаревшим,
+// если хотя бы одно из них сменилось, поэтому запись, начатая до изменения, не может пережить инвалидацию.
+// Ключи с курсором и fields уникальны, поэтому при заполнении кэша вытесняется ответ, к которому дольше всего не обращались
+public class ResponseCache {
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    private final LinkedHashMap<String, CachedResponse> entries;
+    private final AtomicLongArray generations = new AtomicLongArray(TaskType.values().length);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final int maxEntries;
+
+    public ResponseCache(ChangeFeed changeFeed, int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+        changeFeed.addListener(event -> invalidate(event.getType()));
+    }
+
+    public ResponseCache(ChangeFeed changeFeed) {
+        this(changeFeed, DEFAULT_MAX_ENTRIES);
+    }
+
+    public synchronized CachedResponse get(String key) {
+        CachedResponse cached = entries.get(key);
+
+        if (cached == null || !isActual(cached)) {
+            if (cached != null) {
+                entries.remove(key);
+            }
+
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return cached;
+    }
+
+    public long[] snapshotGenerations() {
+        long[] snapshot = new long[generations.length()];
+
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = generations.get(i);
+        }
+
+        return snapshot;
+    }
+
+    public synchronized void put(String key, CachedResponse response) {
+        if (maxEntries <= 0 || !isActual(response)) {
+            return;
+        }
+
+        entries.put(key, response);
+    }
+
+    public void invalidate(TaskType type) {
+        generations.incrementAndGet(type.ordinal());
+        invalidations.incrementAndGet();
+
+        synchronized (this) {
+            entries.values().removeIf(cached -> cached.getDependencies().contains(type));
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private boolean isActual(CachedResponse cached) {
+        Set<TaskType> dependencies = cached.getDependencies();
+
+        for (TaskType type : dependencies) {
+            if (cached.getGenerations()[type.ordinal()] != generations.get(type.ordinal())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
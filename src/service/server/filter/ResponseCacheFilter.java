@@ -0,0 +1,115 @@
+package service.server.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import converter.TaskBinaryCodec;
+import model.TaskType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Кэширует закодированные ответы на GET списков контекста. Одиночные задачи не кэшируются,
+// так как их получение меняет историю
+public class ResponseCacheFilter extends Filter {
+    private static final List<String> CACHED_HEADERS = List.of("Content-Type", "X-Total-Count", "X-Next-Cursor");
+    private final ResponseCache responseCache;
+    private final String listPath;
+    private final Set<TaskType> dependencies;
+
+    public ResponseCacheFilter(ResponseCache responseCache, String listPath, Set<TaskType> dependencies) {
+        this.responseCache = responseCache;
+        this.listPath = listPath;
+        this.dependencies = dependencies;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (!isCacheable(exchange)) {
+            chain.doFilter(exchange);
+            return;
+        }
+
+        String key = getCacheKey(exchange);
+        CachedResponse cached = responseCache.get(key);
+
+        if (cached != null) {
+            exchange.setAttribute(MetricsFilter.ROUTE_ATTRIBUTE, "GET " + listPath);
+            sendCached(exchange, cached);
+            return;
+        }
+
+        // Ответ сохраняется до завершения обмена, чтобы повторный запрос клиента уже попал в кэш
+        long[] generations = responseCache.snapshotGenerations();
+        exchange.setStreams(null, new CapturingOutputStream(exchange.getResponseBody(), body -> {
+            if (exchange.getResponseCode() == 200) {
+                responseCache.put(key, new CachedResponse(200, copyCachedHeaders(exchange.getResponseHeaders()),
+                        body, dependencies, generations));
+            }
+        }));
+        exchange.getResponseHeaders().set("X-Cache", "MISS");
+        exchange.getResponseHeaders().set("Vary", "Accept, Accept-Encoding");
+
+        chain.doFilter(exchange);
+    }
+
+    @Override
+    public String description() {
+        return "Caches encoded list responses until the listed task types change";
+    }
+
+    private boolean isCacheable(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+
+        return "GET".equals(exchange.getRequestMethod())
+                && (path.equals(listPath) || path.equals(listPath + "/"));
+    }
+
+    private String getCacheKey(HttpExchange exchange) {
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        String key = rawQuery == null ? listPath : listPath + "?" + rawQuery;
+
+        // Json и двоичный ответ на один и тот же запрос хранятся раздельно
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+
+        return accept != null && accept.contains(TaskBinaryCodec.MEDIA_TYPE) ? key + "#binary" : key;
+    }
+
+    private void sendCached(HttpExchange exchange, CachedResponse cached) throws IOException {
+        try (exchange) {
+            Headers responseHeaders = exchange.getResponseHeaders();
+            responseHeaders.putAll(cached.getHeaders());
+            responseHeaders.set("X-Cache", "HIT");
+            responseHeaders.set("Vary", "Accept, Accept-Encoding");
+
+            byte[] body = cached.getBody();
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = cached.getGzippedBody();
+                responseHeaders.set("Content-Encoding", "gzip");
+            }
+
+            exchange.sendResponseHeaders(cached.getStatusCode(), body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private Map<String, List<String>> copyCachedHeaders(Headers headers) {
+        Map<String, List<String>> copy = new HashMap<>();
+
+        for (String name : CACHED_HEADERS) {
+            List<String> values = headers.get(name);
+
+            if (values != null) {
+                copy.put(name, new ArrayList<>(values));
+            }
+        }
+
+        return copy;
+    }
+}
@@ -0,0 +1,150 @@
+package service.server.filter;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ведро токенов на каждого клиента. Токены доливаются лениво, при обращении клиента, без фоновых потоков.
+// Ведра лежат в ConcurrentHashMap, поэтому обращение известного клиента не проходит через общий монитор.
+// Когда карта заполнена, новый клиент вытесняет ведро, которое успело наполниться: оно ничем не отличается от нового.
+// Такое ведро ищется приближенно, как стрелкой часов (CLOCK): обход карты продолжается с места прошлой остановки
+// и проверяет не больше EVICTION_SAMPLE ведер. Если наполнившегося не нашлось, новые клиенты делят одно общее ведро.
+// Предел числа клиентов тоже приближенный: параллельные новые клиенты могут ненадолго превысить его на число потоков.
+// Частота 0 или меньше отключает ограничение
+public class TokenBucketRateLimiter {
+    public static final int DEFAULT_MAX_CLIENTS = 10_000;
+    private static final int EVICTION_SAMPLE = 8;
+    private final double permitsPerNano;
+    private final double burst;
+    private final int maxClients;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private final Object evictionLock = new Object();
+    private Iterator<Map.Entry<String, TokenBucket>> evictionCursor;
+    private volatile TokenBucket overflowBucket;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, int maxClients) {
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.maxClients = maxClients;
+    }
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, DEFAULT_MAX_CLIENTS);
+    }
+
+    // Возвращает 0, если запрос разрешен, иначе время в наносекундах до появления следующего токена
+    public long tryAcquire(String clientKey) {
+        return tryAcquire(clientKey, System.nanoTime());
+    }
+
+    long tryAcquire(String clientKey, long nowNanos) {
+        if (permitsPerNano <= 0) {
+            return 0;
+        }
+
+        long waitNanos = getBucket(clientKey, nowNanos).tryAcquire(nowNanos);
+
+        if (waitNanos > 0) {
+            rejected.incrementAndGet();
+        }
+
+        return waitNanos;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public int size() {
+        return buckets.size() + (overflowBucket == null ? 0 : 1);
+    }
+
+    private TokenBucket getBucket(String clientKey, long nowNanos) {
+        TokenBucket bucket = buckets.get(clientKey);
+
+        if (bucket != null) {
+            return bucket;
+        }
+
+        if (buckets.size() >= maxClients && !evictFullBucket(nowNanos)) {
+            return getOverflowBucket(nowNanos);
+        }
+
+        return buckets.computeIfAbsent(clientKey, key -> new TokenBucket(nowNanos));
+    }
+
+    // Монитор берется только новым клиентом при заполненной карте
+    private boolean evictFullBucket(long nowNanos) {
+        synchronized (evictionLock) {
+            for (int i = 0; i < EVICTION_SAMPLE; i++) {
+                if (evictionCursor == null || !evictionCursor.hasNext()) {
+                    evictionCursor = buckets.entrySet().iterator();
+
+                    if (!evictionCursor.hasNext()) {
+                        return true;
+                    }
+                }
+
+                Map.Entry<String, TokenBucket> entry = evictionCursor.next();
+
+                if (entry.getValue().isFull(nowNanos) && buckets.remove(entry.getKey(), entry.getValue())) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    private TokenBucket getOverflowBucket(long nowNanos) {
+        TokenBucket bucket = overflowBucket;
+
+        if (bucket == null) {
+            synchronized (evictionLock) {
+                if (overflowBucket == null) {
+                    overflowBucket = new TokenBucket(nowNanos);
+                }
+
+                bucket = overflowBucket;
+            }
+        }
+
+        return bucket;
+    }
+
+    private class TokenBucket {
+        private double tokens = burst;
+        private long lastRefillNanos;
+
+        TokenBucket(long nowNanos) {
+            this.lastRefillNanos = nowNanos;
+        }
+
+        synchronized long tryAcquire(long nowNanos) {
+            refill(nowNanos);
+
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+
+            return (long) Math.ceil((1 - tokens) / permitsPerNano);
+        }
+
+        synchronized boolean isFull(long nowNanos) {
+            refill(nowNanos);
+
+            return tokens >= burst;
+        }
+
+        private void refill(long nowNanos) {
+            if (nowNanos > lastRefillNanos) {
+                tokens = Math.min(burst, tokens + (nowNanos - lastRefillNanos) * permitsPerNano);
+                lastRefillNanos = nowNanos;
+            }
+        }
+    }
+}
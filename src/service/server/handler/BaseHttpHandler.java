@@ -1,20 +1,47 @@
 package service.server.handler;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import converter.TaskBinaryCodec;
+import converter.TaskField;
+import converter.TaskProjection;
+import exception.BadRequestException;
+import exception.BulkRequestException;
+import exception.DomainException;
+import exception.PayloadTooLargeException;
 import model.Task;
+import model.TaskStatus;
 import service.managers.task.TaskManager;
+import service.managers.task.TaskPage;
+import service.managers.task.TaskQuery;
+import service.managers.task.TaskSort;
+import service.metrics.event.HttpRequestEvent;
+import service.server.filter.MetricsFilter;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.StringReader;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -22,22 +49,38 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public abstract class BaseHttpHandler implements HttpHandler {
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
     protected ExceptionHandler exceptionHandler;
     protected Gson gson;
     protected TaskManager taskManager;
+    protected final long maxRequestBodySize;
     protected final Map<String, LinkedHashMap<String, EndpointHandler<HttpExchange, Map<String, String>>>> endPoints = new HashMap<>();
 
-    public BaseHttpHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager) {
+    public BaseHttpHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager, long maxRequestBodySize) {
         this.exceptionHandler = exceptionHandler;
         this.gson = gson;
         this.taskManager = taskManager;
+        this.maxRequestBodySize = maxRequestBodySize;
         setupRoutes();
     }
 
+    // Для обработчиков, которые не читают тело запроса
+    public BaseHttpHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager) {
+        this(exceptionHandler, gson, taskManager, Long.MAX_VALUE);
+    }
+
     protected abstract void setupRoutes();
 
     @Override
     public void handle(HttpExchange exchange) {
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.begin();
+
+        // Отладочный ответ содержит стек вызовов, поэтому доменные исключения этого запроса должны его собирать.
+        // Сбор включается только в потоке запроса, чтобы не затронуть другие серверы и менеджеры процесса
+        boolean previousCapture = DomainException.setCaptureStackTraceInThread(exceptionHandler.isDebug());
+
         try (exchange) {
             try {
                 dispatchRequest(exchange);
@@ -48,6 +91,16 @@ public abstract class BaseHttpHandler implements HttpHandler {
                     throw new RuntimeException(e);
                 }
             }
+        } finally {
+            DomainException.setCaptureStackTraceInThread(previousCapture);
+            event.end();
+
+            // Поля заполняются, только если событие будет записано: без записи JFR разбор пути на каждый запрос не нужен
+            if (event.shouldCommit()) {
+                event.setRequest(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+                event.setStatus(exchange.getResponseCode());
+                event.commit();
+            }
         }
     }
 
@@ -61,6 +114,47 @@ public abstract class BaseHttpHandler implements HttpHandler {
         }
     }
 
+    protected final void sendResponse(HttpExchange exchange, int statusCode, byte[] responseBody) throws IOException {
+        exchange.sendResponseHeaders(statusCode, responseBody.length);
+
+        try (var body = exchange.getResponseBody()) {
+            body.write(responseBody);
+        }
+    }
+
+    protected final void sendJson(HttpExchange exchange, int statusCode, Object body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        sendResponse(exchange, statusCode, 0, gson.toJson(body));
+    }
+
+    // Формат ответа выбирается по Accept, формат тела запроса - по Content-Type. По умолчанию - Json
+    private static boolean acceptsBinary(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+
+        return accept != null && accept.contains(TaskBinaryCodec.MEDIA_TYPE);
+    }
+
+    private static boolean hasBinaryBody(HttpExchange exchange) {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+
+        return contentType != null && contentType.startsWith(TaskBinaryCodec.MEDIA_TYPE);
+    }
+
+    private void sendTasks(HttpExchange exchange, Collection<? extends Task> tasks) throws IOException {
+        if (acceptsBinary(exchange)) {
+            exchange.getResponseHeaders().set("Content-Type", TaskBinaryCodec.MEDIA_TYPE);
+            sendResponse(exchange, 200, TaskBinaryCodec.encodeList(tasks));
+        } else {
+            exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+            sendResponse(exchange, 200, 0, TaskProjection.toJson(tasks, parseFields(exchange)));
+        }
+    }
+
+    // Набор полей ответа задается параметром fields=, по умолчанию - все поля. Двоичный формат всегда передает задачу целиком
+    private Set<TaskField> parseFields(HttpExchange exchange) {
+        return parseParameter("fields", parseQueryParameters(exchange.getRequestURI().getRawQuery()).get("fields"), TaskField::parse);
+    }
+
     private void dispatchRequest(HttpExchange exchange) throws IOException {
         String requestMethod = exchange.getRequestMethod();
         LinkedHashMap<String, EndpointHandler<HttpExchange, Map<String, String>>> methodHandlers = endPoints.get(requestMethod);
@@ -80,7 +174,7 @@ public abstract class BaseHttpHandler implements HttpHandler {
     }
 
     protected void handleEndpoints(HttpExchange exchange, Map<String, EndpointHandler<HttpExchange, Map<String, String>>> routes) throws IOException {
-        String path = exchange.getRequestURI().toString();
+        String path = exchange.getRequestURI().getPath();
 
         for (var entry : routes.entrySet()) {
             String pathTemplate = entry.getKey();
@@ -103,7 +197,8 @@ public abstract class BaseHttpHandler implements HttpHandler {
             Matcher matcher = Pattern.compile(pathTemplateToRegex + "/?$").matcher(path);
 
             if (matcher.matches()) {
-                Map<String, String> requestPathParameters = new HashMap<>();
+                exchange.setAttribute(MetricsFilter.ROUTE_ATTRIBUTE, exchange.getRequestMethod() + " " + pathTemplate);
+                Map<String, String> requestPathParameters = parseQueryParameters(exchange.getRequestURI().getRawQuery());
 
                 for (String groupName : matcher.namedGroups().keySet()) {
                     requestPathParameters.put(groupName, matcher.group(groupName));
@@ -117,35 +212,229 @@ public abstract class BaseHttpHandler implements HttpHandler {
         sendResponse(exchange, 404, -1, "");
     }
 
+    private Map<String, String> parseQueryParameters(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+
+        for (String pair : rawQuery.split("&")) {
+            int delimiterIndex = pair.indexOf('=');
+
+            if (delimiterIndex <= 0) {
+                continue;
+            }
+
+            parameters.put(URLDecoder.decode(pair.substring(0, delimiterIndex), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(delimiterIndex + 1), StandardCharsets.UTF_8));
+        }
+
+        return parameters;
+    }
+
+    protected TaskQuery parseTaskQuery(Map<String, String> params) {
+        String status = params.get("status");
+        String epicId = params.get("epic");
+        String startAfter = params.get("startAfter");
+        String sort = params.get("sort");
+        String limit = params.get("limit");
+
+        // Конструктор проверяет limit и разбирает курсор, а оба приходят от клиента
+        try {
+            return new TaskQuery(
+                    status == null ? null : parseParameter("status", status, TaskStatus::valueOf),
+                    epicId == null ? null : parseParameter("epic", epicId, Integer::valueOf),
+                    startAfter == null ? null : parseParameter("startAfter", startAfter, LocalDateTime::parse),
+                    sort == null ? TaskSort.ID : parseParameter("sort", sort, TaskSort::fromParameter),
+                    limit == null ? null : parseParameter("limit", limit, Integer::valueOf),
+                    params.get("cursor"));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    // Длительности в запросах, как и в Json задач, задаются в минутах
+    protected Duration parseMinutes(Map<String, String> params, String name) {
+        return parseParameter(name, requireParameter(params, name), minutes -> Duration.ofMinutes(Long.parseLong(minutes)));
+    }
+
+    protected int parseId(Map<String, String> params, String name) {
+        return parseParameter(name, params.get(name), Integer::parseInt);
+    }
+
+    protected static String requireParameter(Map<String, String> params, String name) {
+        String value = params.get(name);
+
+        if (value == null) {
+            throw new BadRequestException("Query parameter " + name + " is required");
+        }
+
+        return value;
+    }
+
+    // Менеджер отклоняет неподходящие аргументы через IllegalArgumentException. Здесь аргументы уже разобраны
+    // из запроса, поэтому такая ошибка - например, нет свободного места или сдвиг за пределы шкалы - ответ 400
+    protected static <T> T withCheckedArguments(Supplier<T> managerCall) {
+        try {
+            return managerCall.get();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    // Значения из пути и параметров приходят от клиента, поэтому ошибка их разбора - 400, а не 500
+    protected static <T> T parseParameter(String name, String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+            throw new BadRequestException("Invalid value of parameter " + name + ": " + value);
+        }
+    }
+
     // Наверное, подход с использованием нижеследующих обобщенных методов сильно затрудняет читабельность. Таким образом я хотел вынести общую логику обработки в одно место
     // До того, как я решил так сделать, логика обработки по каждому эндпойнту передавалась в лямбде handler в каждом отдельном хендлере, возможно, так и стоило оставить.
 
     protected <T extends Task> void respondWithATaskList(HttpExchange exchange,
                                                          Supplier<List<T>> tasksListSupplier) throws IOException {
-        String responseBody = gson.toJson(tasksListSupplier.get());
-        sendResponse(exchange, 200, 0, responseBody);
+        sendTasks(exchange, tasksListSupplier.get());
     }
 
     protected <T extends Task> void respondWithATaskList(HttpExchange exchange,
                                                          Integer containerId,
                                                          Function<Integer, List<T>> tasksListSupplier) throws IOException {
-        String responseBody = gson.toJson(tasksListSupplier.apply(containerId));
-        sendResponse(exchange, 200, 0, responseBody);
+        sendTasks(exchange, tasksListSupplier.apply(containerId));
+    }
+
+    protected <T extends Task> void respondWithATaskPage(HttpExchange exchange,
+                                                         Map<String, String> params,
+                                                         Function<TaskQuery, TaskPage<T>> taskPageSupplier) throws IOException {
+        TaskPage<T> page = taskPageSupplier.apply(parseTaskQuery(params));
+        exchange.getResponseHeaders().set("X-Total-Count", String.valueOf(page.getTotalCount()));
+
+        if (page.getNextCursor() != null) {
+            exchange.getResponseHeaders().set("X-Next-Cursor", page.getNextCursor());
+        }
+
+        sendTasks(exchange, page.getItems());
     }
 
     protected void respondWithATask(HttpExchange exchange,
                                     Integer taskId,
                                     Function<Integer, ? extends Task> taskSupplier) throws IOException {
-        String responseBody = gson.toJson(taskSupplier.apply(taskId));
-        sendResponse(exchange, 200, 0, responseBody);
+        // Поля разбираются до получения задачи, чтобы некорректный запрос не попал в историю
+        Set<TaskField> fields = parseFields(exchange);
+        Task task = taskSupplier.apply(taskId);
+
+        if (acceptsBinary(exchange)) {
+            exchange.getResponseHeaders().set("Content-Type", TaskBinaryCodec.MEDIA_TYPE);
+            sendResponse(exchange, 200, TaskBinaryCodec.encode(task));
+        } else {
+            exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+            sendResponse(exchange, 200, 0, TaskProjection.toJson(task, fields));
+        }
     }
 
     protected <T extends Task> void updateOrAddTask(HttpExchange exchange,
-                                                    TypeToken<T> taskToken,
+                                                    Class<T> taskType,
                                                     Function<T, T> taskUpdater,
                                                     Function<T, T> taskCreator) throws IOException {
-        String requestBody = new String(exchange.getRequestBody().readAllBytes());
-        T task = gson.fromJson(requestBody, taskToken);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+
+        if (contentType != null && contentType.startsWith(NDJSON_CONTENT_TYPE)) {
+            bulkUpdateOrAddTasks(exchange, taskType, taskUpdater, taskCreator);
+            return;
+        }
+
+        rejectIfContentLengthExceedsLimit(exchange);
+        LimitedInputStream requestBody = new LimitedInputStream(exchange.getRequestBody(), maxRequestBodySize);
+        T task;
+
+        if (hasBinaryBody(exchange)) {
+            task = decodeBinary(requestBody.readAllBytes(), taskType);
+        } else {
+            JsonReader reader = new JsonReader(new InputStreamReader(requestBody, StandardCharsets.UTF_8));
+            task = gson.fromJson(reader, taskType);
+
+            if (task != null && peek(reader) != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Request body contains more than one JSON value");
+            }
+        }
+
+        applyUpdateOrAdd(task, taskUpdater, taskCreator);
+
+        exchange.getResponseHeaders().set("X-Task-Id", String.valueOf(task.getId()));
+        sendResponse(exchange, 201, -1, "");
+    }
+
+    // Каждая строка NDJSON разбирается и сохраняется по мере чтения, поэтому в памяти находится только текущая задача,
+    // а лимит тела действует на каждую строку. NIO-движок читает тело целиком заранее, и там лимит - на все тело.
+    // Ответ - id сохраненных задач в порядке строк. Строки до ошибочной остаются сохраненными, и ответ с ошибкой
+    // называет их id и номер строки с ошибкой (пустые строки пропускаются, но считаются), чтобы клиент мог продолжить с нее
+    private <T extends Task> void bulkUpdateOrAddTasks(HttpExchange exchange,
+                                                       Class<T> taskType,
+                                                       Function<T, T> taskUpdater,
+                                                       Function<T, T> taskCreator) throws IOException {
+        LimitedInputStream requestBody = new LimitedInputStream(exchange.getRequestBody(), maxRequestBodySize);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(requestBody, StandardCharsets.UTF_8));
+        List<Integer> savedIds = new ArrayList<>();
+        int lineNumber = 0;
+
+        try {
+            while (true) {
+                lineNumber++;
+                String line = lines.readLine();
+
+                if (line == null) {
+                    break;
+                }
+
+                requestBody.resetCount();
+
+                if (!line.isBlank()) {
+                    savedIds.add(applyUpdateOrAdd(parseNdjsonLine(line, taskType), taskUpdater, taskCreator).getId());
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new BulkRequestException(lineNumber, savedIds, e);
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        sendResponse(exchange, 201, 0, gson.toJson(savedIds));
+    }
+
+    // Gson по умолчанию переводит читателя в нестрогий режим, и тот принял бы ключи без кавычек, одинарные кавычки
+    // и несколько объектов в строке. Строка NDJSON - ровно один объект по RFC 8259
+    private <T extends Task> T parseNdjsonLine(String line, Class<T> taskType) throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(line));
+        reader.setStrictness(Strictness.STRICT);
+
+        if (peek(reader) != JsonToken.BEGIN_OBJECT) {
+            throw new JsonSyntaxException("Each NDJSON line must be a JSON object");
+        }
+
+        T task = gson.fromJson(reader, taskType);
+
+        if (peek(reader) != JsonToken.END_DOCUMENT) {
+            throw new JsonSyntaxException("Each NDJSON line must contain exactly one JSON object");
+        }
+
+        return task;
+    }
+
+    // Кодек отклоняет некорректные данные через IllegalArgumentException, а данные здесь - тело запроса
+    private static <T extends Task> T decodeBinary(byte[] data, Class<T> taskType) {
+        try {
+            return TaskBinaryCodec.decode(data, taskType);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private <T extends Task> T applyUpdateOrAdd(T task, Function<T, T> taskUpdater, Function<T, T> taskCreator) {
+        if (task == null) {
+            throw new BadRequestException("Request body should not be empty");
+        }
 
         if (task.getId() == null) {
             taskCreator.apply(task);
@@ -153,7 +442,24 @@ public abstract class BaseHttpHandler implements HttpHandler {
             taskUpdater.apply(task);
         }
 
-        sendResponse(exchange, 201, -1, "");
+        return task;
+    }
+
+    private JsonToken peek(JsonReader reader) throws IOException {
+        try {
+            return reader.peek();
+        } catch (MalformedJsonException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    // Тело с заявленной длиной больше допустимой отклоняется до чтения
+    private void rejectIfContentLengthExceedsLimit(HttpExchange exchange) {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+
+        if (contentLength != null && parseParameter("Content-Length", contentLength, Long::parseLong) > maxRequestBodySize) {
+            throw new PayloadTooLargeException(maxRequestBodySize);
+        }
     }
 
     protected void deleteTask(HttpExchange exchange,
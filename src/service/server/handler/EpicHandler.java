@@ -1,37 +1,45 @@
 package service.server.handler;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import model.Epic;
+import model.Subtask;
 import service.managers.task.TaskManager;
 
+import java.time.Duration;
+import java.util.List;
+
 public class EpicHandler extends BaseHttpHandler {
-    public EpicHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager) {
-        super(exceptionHandler, gson, taskManager);
+    public EpicHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager, long maxRequestBodySize) {
+        super(exceptionHandler, gson, taskManager, maxRequestBodySize);
     }
 
     @Override
     protected void setupRoutes() {
         registerEndpoint("GET", "/epics/{id}/subtasks", (exchange, params) -> {
-            respondWithATaskList(exchange, Integer.parseInt(params.get("id")), taskManager::getEpicSubtasks);
+            respondWithATaskList(exchange, parseId(params, "id"), taskManager::getEpicSubtasks);
+        });
+
+        registerEndpoint("POST", "/epics/{id}/shift", (exchange, params) -> {
+            Duration offset = parseMinutes(params, "offset");
+            int epicId = parseId(params, "id");
+            List<Subtask> shifted = withCheckedArguments(() -> taskManager.shiftEpic(epicId, offset));
+            respondWithATaskList(exchange, () -> shifted);
         });
 
         registerEndpoint("GET", "/epics/{id}", (exchange, params) -> {
-            respondWithATask(exchange, Integer.parseInt(params.get("id")), taskManager::getEpic);
+            respondWithATask(exchange, parseId(params, "id"), taskManager::getEpic);
         });
 
         registerEndpoint("GET", "/epics", (exchange, params) -> {
-            respondWithATaskList(exchange, taskManager::getAllEpics);
+            respondWithATaskPage(exchange, params, taskManager::getEpics);
         });
 
         registerEndpoint("POST", "/epics", (exchange, params) -> {
-            TypeToken<Epic> typeToken = new TypeToken<>() {
-            };
-            updateOrAddTask(exchange, typeToken, taskManager::updateEpic, taskManager::createEpic);
+            updateOrAddTask(exchange, Epic.class, taskManager::updateEpic, taskManager::createEpic);
         });
 
         registerEndpoint("DELETE", "/epics/{id}", (exchange, params) -> {
-            deleteTask(exchange, Integer.parseInt(params.get("id")), taskManager::removeEpic);
+            deleteTask(exchange, parseId(params, "id"), taskManager::removeEpic);
         });
     }
 }
@@ -0,0 +1,130 @@
+package service.server.handler;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import exception.SlowConsumerException;
+import service.managers.feed.ChangeEvent;
+import service.managers.feed.ChangeFeed;
+import service.server.filter.MetricsFilter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Поток событий держит соединение открытым, поэтому отдается в отдельный пул и не занимает поток диспетчера сервера.
+// Каждый подписчик держит поток пула, поэтому их число ограничено: сверх лимита запрос получает 503 с Retry-After
+public class EventsHandler implements HttpHandler {
+    private static final long KEEP_ALIVE_INTERVAL_MILLIS = 15_000;
+    private static final String ROUTE = "GET /events";
+    private final Gson gson;
+    private final ChangeFeed changeFeed;
+    private final int maxSubscribers;
+    private final int retryAfterSeconds;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ExecutorService streamExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "events-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EventsHandler(Gson gson, ChangeFeed changeFeed, int maxSubscribers, int retryAfterSeconds) {
+        this.gson = gson;
+        this.changeFeed = changeFeed;
+        this.maxSubscribers = maxSubscribers;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        exchange.setAttribute(MetricsFilter.ROUTE_ATTRIBUTE, ROUTE);
+
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            try (exchange) {
+                exchange.getResponseHeaders().add("Allow", "GET");
+                exchange.sendResponseHeaders(405, -1);
+            }
+            return;
+        }
+
+        ChangeFeed.Subscription subscription;
+
+        try {
+            String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+            subscription = lastEventId == null ? changeFeed.subscribe() : changeFeed.subscribe(Long.parseLong(lastEventId));
+        } catch (NumberFormatException e) {
+            try (exchange) {
+                exchange.sendResponseHeaders(400, -1);
+            }
+            return;
+        }
+
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+
+            try (exchange) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                exchange.sendResponseHeaders(503, -1);
+            }
+            return;
+        }
+
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            streamExecutor.execute(() -> {
+                try {
+                    stream(exchange, subscription);
+                } finally {
+                    subscribers.decrementAndGet();
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            subscribers.decrementAndGet();
+            throw e;
+        }
+    }
+
+    public void close() {
+        streamExecutor.shutdownNow();
+    }
+
+    private void stream(HttpExchange exchange, ChangeFeed.Subscription subscription) {
+        try (exchange; Writer writer = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    List<ChangeEvent> events = subscription.poll(KEEP_ALIVE_INTERVAL_MILLIS);
+
+                    if (events.isEmpty()) {
+                        writer.write(": keep-alive\n\n");
+                    }
+
+                    for (ChangeEvent event : events) {
+                        writer.write("id: " + event.getVersion() + "\n");
+                        writer.write("event: " + event.getKind().name().toLowerCase() + "\n");
+                        writer.write("data: " + gson.toJson(event) + "\n\n");
+                    }
+
+                    writer.flush();
+                }
+            } catch (SlowConsumerException e) {
+                // Клиент не успевает за лентой: сообщаем, что нужно перечитать состояние целиком, и закрываем поток
+                writer.write("event: overflow\ndata: {\"version\":" + changeFeed.getVersion() + "}\n\n");
+            }
+        } catch (IOException e) {
+            // Клиент отключился
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,48 +5,162 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
+import exception.BadRequestException;
+import exception.BulkRequestException;
+import exception.DependencyCycleException;
 import exception.NotFoundException;
 import exception.OverlappingException;
+import exception.PayloadTooLargeException;
+import exception.ReadOnlyReplicaException;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.List;
 
 public class ExceptionHandler {
+    private static final byte[] MESSAGE_PREFIX = "{\"message\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MESSAGE_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL_MESSAGE_BODY = "{\"message\":null}".getBytes(StandardCharsets.UTF_8);
     Gson gson;
+    private final boolean debug;
+    private final int retryAfterSeconds;
 
-    public ExceptionHandler(Gson gson) {
+    public ExceptionHandler(Gson gson, boolean debug, int retryAfterSeconds) {
         this.gson = gson;
+        this.debug = debug;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public ExceptionHandler(Gson gson, boolean debug) {
+        this(gson, debug, 1);
+    }
+
+    public ExceptionHandler(Gson gson) {
+        this(gson, false);
+    }
+
+    public boolean isDebug() {
+        return debug;
     }
 
     public void handle(HttpExchange exchange, Exception exception) throws IOException {
-        switch (exception) {
-            case NotFoundException e -> exchange.sendResponseHeaders(404, 0);
-            case OverlappingException e -> exchange.sendResponseHeaders(406, 0);
-            case JsonParseException e -> exchange.sendResponseHeaders(400, 0);
-            default -> exchange.sendResponseHeaders(500, 0);
+        int statusCode = statusCode(exception);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+
+        // Реплика не принимает изменений, пока ее не повысят до лидера, клиенту стоит повторить позже или пойти к лидеру
+        if (exception instanceof ReadOnlyReplicaException) {
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
         }
 
-        sendExceptionData(exchange, exception);
+        if (exception instanceof BulkRequestException bulkException) {
+            sendBulkFailure(exchange, statusCode, bulkException);
+        } else if (debug) {
+            exchange.sendResponseHeaders(statusCode, 0);
+            sendExceptionData(exchange, exception);
+        } else {
+            byte[] body = encodeMessage(exception.getMessage());
+            exchange.sendResponseHeaders(statusCode, body.length);
+            exchange.getResponseBody().write(body);
+        }
     }
 
-    private void sendExceptionData(HttpExchange exchange, Exception e) {
-        String exceptionMessage = e.getMessage();
-        List<String> exceptionStackTrace = Arrays.stream(e.getStackTrace())
-                .map(StackTraceElement::toString)
-                .toList();
+    private int statusCode(Exception exception) {
+        return switch (exception) {
+            case NotFoundException e -> 404;
+            case OverlappingException e -> 406;
+            case DependencyCycleException e -> 409;
+            case ReadOnlyReplicaException e -> 503;
+            case PayloadTooLargeException e -> 413;
+            case BulkRequestException e -> statusCode(e.getFailure());
+            case BadRequestException e -> 400;
+            case JsonParseException e -> 400;
+            case DateTimeParseException e -> 400;
+            default -> 500;
+        };
+    }
 
+    private void sendBulkFailure(HttpExchange exchange, int statusCode, BulkRequestException e) throws IOException {
         JsonObject jsonExceptionData = new JsonObject();
-        JsonArray jsonStackTraceArray = gson.toJsonTree(exceptionStackTrace).getAsJsonArray();
+        jsonExceptionData.addProperty("message", e.getMessage());
+        jsonExceptionData.addProperty("line", e.getLine());
+        jsonExceptionData.add("savedIds", gson.toJsonTree(e.getSavedIds()));
 
-        jsonExceptionData.addProperty("message", exceptionMessage);
-        jsonExceptionData.add("stackTrace", jsonStackTraceArray);
+        if (debug) {
+            jsonExceptionData.add("stackTrace", stackTrace(e.getFailure()));
+        }
+
+        byte[] body = jsonExceptionData.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    // В рабочем режиме тело ответа - только сообщение, собранное из заранее закодированных частей без обхода стека и Gson
+    private byte[] encodeMessage(String message) {
+        if (message == null) {
+            return NULL_MESSAGE_BODY;
+        }
+
+        byte[] escapedMessage = escapeJson(message).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream body = new ByteArrayOutputStream(MESSAGE_PREFIX.length + escapedMessage.length + MESSAGE_SUFFIX.length);
+        body.writeBytes(MESSAGE_PREFIX);
+        body.writeBytes(escapedMessage);
+        body.writeBytes(MESSAGE_SUFFIX);
+
+        return body.toByteArray();
+    }
+
+    private String escapeJson(String value) {
+        StringBuilder escaped = null;
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '"' -> "\\\"";
+                case '\\' -> "\\\\";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                default -> c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+            };
+
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+
+        return escaped == null ? value : escaped.toString();
+    }
+
+    private void sendExceptionData(HttpExchange exchange, Exception e) {
+        JsonObject jsonExceptionData = new JsonObject();
+
+        jsonExceptionData.addProperty("message", e.getMessage());
+        jsonExceptionData.add("stackTrace", stackTrace(e));
 
         try (PrintWriter exceptionDataPrinter = new PrintWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
             exceptionDataPrinter.println(jsonExceptionData);
         }
     }
+
+    private JsonArray stackTrace(Throwable e) {
+        List<String> exceptionStackTrace = Arrays.stream(e.getStackTrace())
+                .map(StackTraceElement::toString)
+                .toList();
+
+        return gson.toJsonTree(exceptionStackTrace).getAsJsonArray();
+    }
 }
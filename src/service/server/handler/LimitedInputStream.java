@@ -0,0 +1,67 @@
+package service.server.handler;
+
+import exception.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Прерывает чтение тела запроса, как только прочитано больше допустимого, не дожидаясь конца потока
+class LimitedInputStream extends FilterInputStream {
+    private final long maxSize;
+    private long count;
+
+    LimitedInputStream(InputStream in, long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+
+        if (b != -1) {
+            count(1);
+        }
+
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+
+        if (read > 0) {
+            count(read);
+        }
+
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    // Для NDJSON ограничение действует на каждую запись отдельно. Из-за буферизации читателя
+    // граница записи определяется с точностью до размера буфера
+    void resetCount() {
+        count = 0;
+    }
+
+    private void count(long read) {
+        count += read;
+
+        if (count > maxSize) {
+            throw new PayloadTooLargeException(maxSize);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package service.server.handler;
+
+import com.google.gson.Gson;
+import service.managers.task.TaskManager;
+import service.metrics.MetricsRegistry;
+
+public class MetricsHandler extends BaseHttpHandler {
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager, MetricsRegistry metricsRegistry) {
+        super(exceptionHandler, gson, taskManager);
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    protected void setupRoutes() {
+        registerEndpoint("GET", "/metrics", (exchange, params) -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            sendResponse(exchange, 200, 0, metricsRegistry.toPrometheusText());
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package service.server.handler;
+
+import com.google.gson.Gson;
+import exception.BadRequestException;
+import model.Task;
+import service.managers.task.TaskManager;
+import service.managers.task.TaskQuery;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+// GET /schedule/free-slot?duration=30&after=... - начало самого раннего свободного промежутка,
+// POST /schedule?duration=30&after=... - размещение всех задач и подзадач без времени начала,
+// POST /schedule/shift?offset=-60&status=...&epic=...&startAfter=... - сдвиг подходящих под фильтр задач и подзадач.
+// Длительность, как и в задачах, задается в минутах, after по умолчанию - текущая минута
+public class ScheduleHandler extends BaseHttpHandler {
+    public ScheduleHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager) {
+        super(exceptionHandler, gson, taskManager);
+    }
+
+    @Override
+    protected void setupRoutes() {
+        registerEndpoint("GET", "/schedule/free-slot", (exchange, params) -> {
+            LocalDateTime after = parseAfter(params);
+            Duration duration = parseDuration(params);
+            LocalDateTime slotStart = withCheckedArguments(() -> taskManager.findFreeSlot(after, duration));
+            sendJson(exchange, 200, Map.of("startTime", slotStart));
+        });
+
+        registerEndpoint("POST", "/schedule", (exchange, params) -> {
+            LocalDateTime after = parseAfter(params);
+            Duration duration = parseDuration(params);
+            List<Task> scheduled = withCheckedArguments(() -> taskManager.scheduleUnscheduledTasks(after, duration));
+            respondWithATaskList(exchange, () -> scheduled);
+        });
+
+        registerEndpoint("POST", "/schedule/shift", (exchange, params) -> {
+            Duration offset = parseMinutes(params, "offset");
+            TaskQuery query = parseTaskQuery(params);
+            List<Task> shifted = withCheckedArguments(() -> taskManager.shiftTasks(query, offset));
+            respondWithATaskList(exchange, () -> shifted);
+        });
+    }
+
+    private LocalDateTime parseAfter(Map<String, String> params) {
+        String after = params.get("after");
+
+        return after == null ? LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES) : parseParameter("after", after, LocalDateTime::parse);
+    }
+
+    private Duration parseDuration(Map<String, String> params) {
+        Duration duration = parseMinutes(params, "duration");
+
+        if (duration.isNegative() || duration.isZero()) {
+            throw new BadRequestException("Query parameter duration should be positive");
+        }
+
+        return duration;
+    }
+}
@@ -1,33 +1,30 @@
 package service.server.handler;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import model.Subtask;
 import service.managers.task.TaskManager;
 
 public class SubtaskHandler extends BaseHttpHandler {
-    public SubtaskHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager) {
-        super(exceptionHandler, gson, taskManager);
+    public SubtaskHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager, long maxRequestBodySize) {
+        super(exceptionHandler, gson, taskManager, maxRequestBodySize);
     }
 
     @Override
     protected void setupRoutes() {
         registerEndpoint("GET", "/subtasks/{id}", (exchange, params) -> {
-            respondWithATask(exchange, Integer.parseInt(params.get("id")), taskManager::getSubtask);
+            respondWithATask(exchange, parseId(params, "id"), taskManager::getSubtask);
         });
 
         registerEndpoint("GET", "/subtasks", (exchange, params) -> {
-            respondWithATaskList(exchange, taskManager::getAllSubTasks);
+            respondWithATaskPage(exchange, params, taskManager::getSubtasks);
         });
 
         registerEndpoint("POST", "/subtasks", (exchange, params) -> {
-            TypeToken<Subtask> typeToken = new TypeToken<>() {
-            };
-            updateOrAddTask(exchange, typeToken, taskManager::updateSubtask, taskManager::createSubtask);
+            updateOrAddTask(exchange, Subtask.class, taskManager::updateSubtask, taskManager::createSubtask);
         });
 
         registerEndpoint("DELETE", "/subtasks/{id}", (exchange, params) -> {
-            deleteTask(exchange, Integer.parseInt(params.get("id")), taskManager::removeSubtask);
+            deleteTask(exchange, parseId(params, "id"), taskManager::removeSubtask);
         });
     }
 }
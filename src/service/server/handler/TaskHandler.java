@@ -1,33 +1,49 @@
 package service.server.handler;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import model.Task;
 import service.managers.task.TaskManager;
 
+import java.util.Map;
+
 public class TaskHandler extends BaseHttpHandler {
-    public TaskHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager) {
-        super(exceptionHandler, gson, taskManager);
+    public TaskHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager, long maxRequestBodySize) {
+        super(exceptionHandler, gson, taskManager, maxRequestBodySize);
     }
 
     @Override
     protected void setupRoutes() {
+        // Зависимости есть и у подзадач, а идентификаторы общие, поэтому id может быть и идентификатором подзадачи
+        registerEndpoint("GET", "/tasks/{id}/dependencies", (exchange, params) -> {
+            sendJson(exchange, 200, taskManager.getDependencies(parseId(params, "id")));
+        });
+
+        registerEndpoint("POST", "/tasks/{id}/dependencies", (exchange, params) -> {
+            sendJson(exchange, 200, taskManager.addDependency(parseId(params, "id"), parseBlockerId(params)));
+        });
+
+        registerEndpoint("DELETE", "/tasks/{id}/dependencies/{blockerId}", (exchange, params) -> {
+            sendJson(exchange, 200, taskManager.removeDependency(parseId(params, "id"), parseId(params, "blockerId")));
+        });
+
         registerEndpoint("GET", "/tasks/{id}", (exchange, params) -> {
-            respondWithATask(exchange, Integer.parseInt(params.get("id")), taskManager::getTask);
+            respondWithATask(exchange, parseId(params, "id"), taskManager::getTask);
         });
 
         registerEndpoint("GET", "/tasks", (exchange, params) -> {
-            respondWithATaskList(exchange, taskManager::getAllTasks);
+            respondWithATaskPage(exchange, params, taskManager::getTasks);
         });
 
         registerEndpoint("POST", "/tasks", (exchange, params) -> {
-            TypeToken<Task> typeToken = new TypeToken<>() {
-            };
-            updateOrAddTask(exchange, typeToken, taskManager::updateTask, taskManager::createTask);
+            updateOrAddTask(exchange, Task.class, taskManager::updateTask, taskManager::createTask);
         });
 
         registerEndpoint("DELETE", "/tasks/{id}", (exchange, params) -> {
-            deleteTask(exchange, Integer.parseInt(params.get("id")), taskManager::removeTask);
+            deleteTask(exchange, parseId(params, "id"), taskManager::removeTask);
         });
     }
+
+    private int parseBlockerId(Map<String, String> params) {
+        return parseParameter("blockedBy", requireParameter(params, "blockedBy"), Integer::parseInt);
+    }
 }
@@ -0,0 +1,40 @@
+package service.server.handler;
+
+import com.google.gson.Gson;
+import exception.BadRequestException;
+import service.managers.task.TaskManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// GET /timeline?from=...&to=... - задачи и подзадачи, пересекающие окно [from, to),
+// GET /timeline?at=... - выполняющиеся в указанный момент
+public class TimelineHandler extends BaseHttpHandler {
+    public TimelineHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager) {
+        super(exceptionHandler, gson, taskManager);
+    }
+
+    @Override
+    protected void setupRoutes() {
+        registerEndpoint("GET", "/timeline", (exchange, params) -> {
+            if (params.containsKey("at")) {
+                LocalDateTime instant = parseParameter("at", params.get("at"), LocalDateTime::parse);
+                respondWithATaskList(exchange, () -> taskManager.getTasksRunningAt(instant));
+                return;
+            }
+
+            LocalDateTime from = parseRequiredDateTime(params, "from");
+            LocalDateTime to = parseRequiredDateTime(params, "to");
+
+            if (!from.isBefore(to)) {
+                throw new BadRequestException("Window start should be before its end");
+            }
+
+            respondWithATaskList(exchange, () -> taskManager.getTasksInWindow(from, to));
+        });
+    }
+
+    private LocalDateTime parseRequiredDateTime(Map<String, String> params, String name) {
+        return parseParameter(name, requireParameter(params, name), LocalDateTime::parse);
+    }
+}
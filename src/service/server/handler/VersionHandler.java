@@ -0,0 +1,38 @@
+package service.server.handler;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import service.managers.task.TaskManager;
+import service.managers.task.VersionedTaskManager;
+
+import java.io.IOException;
+import java.util.Map;
+
+// GET /versions - текущая версия доски и сколько изменений можно отменить и повторить,
+// POST /versions/undo и POST /versions/redo - отмена и повтор, 409, если отменять или повторять нечего
+public class VersionHandler extends BaseHttpHandler {
+    private final VersionedTaskManager versionedTaskManager;
+
+    public VersionHandler(ExceptionHandler exceptionHandler, Gson gson, TaskManager taskManager, VersionedTaskManager versionedTaskManager) {
+        super(exceptionHandler, gson, taskManager);
+        this.versionedTaskManager = versionedTaskManager;
+    }
+
+    @Override
+    protected void setupRoutes() {
+        registerEndpoint("GET", "/versions", (exchange, params) -> sendVersion(exchange, 200));
+
+        registerEndpoint("POST", "/versions/undo", (exchange, params) -> {
+            sendVersion(exchange, versionedTaskManager.undo() ? 200 : 409);
+        });
+
+        registerEndpoint("POST", "/versions/redo", (exchange, params) -> {
+            sendVersion(exchange, versionedTaskManager.redo() ? 200 : 409);
+        });
+    }
+
+    private void sendVersion(HttpExchange exchange, int statusCode) throws IOException {
+        sendJson(exchange, statusCode, Map.of("version", versionedTaskManager.getVersion(),
+                "undo", versionedTaskManager.getUndoDepth(), "redo", versionedTaskManager.getRedoDepth()));
+    }
+}
@@ -0,0 +1,15 @@
+package service.server.transport;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.util.List;
+
+// Сетевой движок сервера. Обработчики и фильтры одни и те же для любой реализации
+public interface HttpTransport {
+    void createContext(String path, HttpHandler handler, List<Filter> filters);
+
+    void start();
+
+    void stop(int delaySeconds);
+}
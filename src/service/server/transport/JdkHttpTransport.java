@@ -0,0 +1,96 @@
+package service.server.transport;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Получив отказ пула, JDK-сервер закрывает соединение без ответа. Поэтому отклоненный обмен передается в отдельный поток,
+// где первый фильтр контекста сразу отвечает 503 с Retry-After, не запуская обработчик. Поток диспетчера сервера
+// ничего не выполняет сам, а если переполнена и очередь отказов, соединение просто закрывается
+public class JdkHttpTransport implements HttpTransport {
+    private static final int MAX_PENDING_REJECTIONS = 64;
+    private static final ThreadLocal<Boolean> REJECTED = ThreadLocal.withInitial(() -> false);
+
+    private final HttpServer httpServer;
+    private final ThreadPoolExecutor executor;
+    private final int retryAfterSeconds;
+    private final ThreadPoolExecutor rejectionExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_PENDING_REJECTIONS), runnable -> {
+        Thread thread = new Thread(runnable, "http-rejections");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.AbortPolicy());
+
+    public JdkHttpTransport(InetSocketAddress address, int maxWorkers, int retryAfterSeconds) throws IOException {
+        this.executor = new ThreadPoolExecutor(0, maxWorkers, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.httpServer = HttpServer.create(address, 0);
+        this.retryAfterSeconds = retryAfterSeconds;
+        httpServer.setExecutor(task -> {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                rejectionExecutor.execute(() -> runRejected(task));
+            }
+        });
+    }
+
+    @Override
+    public void createContext(String path, HttpHandler handler, List<Filter> filters) {
+        List<Filter> contextFilters = httpServer.createContext(path, handler).getFilters();
+        contextFilters.add(new RejectionFilter());
+        contextFilters.addAll(filters);
+    }
+
+    @Override
+    public void start() {
+        httpServer.start();
+    }
+
+    @Override
+    public void stop(int delaySeconds) {
+        httpServer.stop(delaySeconds);
+        executor.shutdownNow();
+        rejectionExecutor.shutdownNow();
+    }
+
+    private static void runRejected(Runnable task) {
+        REJECTED.set(true);
+
+        try {
+            task.run();
+        } finally {
+            REJECTED.set(false);
+        }
+    }
+
+    private class RejectionFilter extends Filter {
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            if (!REJECTED.get()) {
+                chain.doFilter(exchange);
+                return;
+            }
+
+            try (exchange) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                exchange.sendResponseHeaders(503, -1);
+            }
+        }
+
+        @Override
+        public String description() {
+            return "Answers requests rejected by the worker pool with 503";
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package service.server.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+// Соединение NIO-движка. Разбором запросов и очередью конвейера (pipelining) занимается только поток селектора,
+// ответы пишут рабочие потоки. Запросы соединения обрабатываются строго по одному, поэтому ответы уходят в порядке запросов
+class NioConnection {
+    private static final int MAX_PIPELINED_REQUESTS = 32;
+    private static final long MAX_OUTBOUND_BYTES = 1024 * 1024;
+    private static final byte[] HEAD_TERMINATOR = {'\r', '\n', '\r', '\n'};
+    private static final byte[] CONTINUE_RESPONSE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final NioHttpTransport transport;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final BufferPool bufferPool;
+    private final long maxRequestBodySize;
+
+    private final ArrayDeque<NioRequest> requests = new ArrayDeque<>();
+    private ByteBuffer readBuffer;
+    private NioRequest pendingRequest;
+    private int bodyFilled;
+    private boolean busy;
+    private boolean closing;
+    private boolean draining;
+    private long lastActivityNanos = System.nanoTime();
+
+    private final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();
+    private long outboundBytes;
+    private boolean closeWhenFlushed;
+    private volatile boolean closed;
+
+    NioConnection(NioHttpTransport transport, SocketChannel channel, SelectionKey key, BufferPool bufferPool, long maxRequestBodySize) {
+        this.transport = transport;
+        this.channel = channel;
+        this.key = key;
+        this.bufferPool = bufferPool;
+        this.maxRequestBodySize = maxRequestBodySize;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    void onReadable() {
+        if (readBuffer == null) {
+            readBuffer = bufferPool.acquire();
+        }
+
+        int read;
+
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            close();
+            return;
+        }
+
+        // Клиент закрыл соединение: незавершенные ответы ему уже не нужны
+        if (read == -1) {
+            close();
+            return;
+        }
+
+        lastActivityNanos = System.nanoTime();
+
+        if (draining) {
+            readBuffer.clear();
+            return;
+        }
+
+        parseRequests();
+        dispatchNext();
+        updateReadInterest();
+    }
+
+    void onWritable() {
+        synchronized (outbound) {
+            try {
+                while (!outbound.isEmpty()) {
+                    ByteBuffer buffer = outbound.peek();
+                    outboundBytes -= channel.write(buffer);
+
+                    if (buffer.hasRemaining()) {
+                        return;
+                    }
+
+                    bufferPool.release(outbound.poll());
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            } finally {
+                outbound.notifyAll();
+            }
+
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+
+            if (closeWhenFlushed) {
+                shutdown();
+            }
+        }
+    }
+
+    // Вызывается рабочим потоком по завершении обмена
+    void exchangeFinished(boolean keepAlive) {
+        transport.runOnSelector(() -> {
+            busy = false;
+            lastActivityNanos = System.nanoTime();
+
+            if (!keepAlive) {
+                closing = true;
+                requests.clear();
+            }
+
+            parseRequests();
+            dispatchNext();
+            updateReadInterest();
+        });
+    }
+
+    // Если ничего не ждет отправки, данные пишутся в сокет сразу из вызывающего потока, без перехода в поток селектора.
+    // Неотправленный остаток дописывает селектор, а писатель ждет, пока очередь не опустеет ниже порога
+    void write(ByteBuffer buffer) throws IOException {
+        synchronized (outbound) {
+            try {
+                while (outboundBytes > MAX_OUTBOUND_BYTES && !closed && !transport.isSelectorThread()) {
+                    outbound.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+
+            if (closed) {
+                bufferPool.release(buffer);
+                throw new IOException("Connection closed");
+            }
+
+            if (outbound.isEmpty()) {
+                try {
+                    channel.write(buffer);
+                } catch (IOException e) {
+                    bufferPool.release(buffer);
+                    transport.runOnSelector(this::close);
+                    throw e;
+                }
+
+                if (!buffer.hasRemaining()) {
+                    bufferPool.release(buffer);
+                    return;
+                }
+
+                transport.runOnSelector(this::enableWriteInterest);
+            }
+
+            outbound.add(buffer);
+            outboundBytes += buffer.remaining();
+        }
+    }
+
+    boolean isIdleLongerThan(long idleTimeoutNanos) {
+        synchronized (outbound) {
+            return !busy && requests.isEmpty() && outbound.isEmpty()
+                    && System.nanoTime() - lastActivityNanos > idleTimeoutNanos;
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        key.cancel();
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Соединение уже разорвано
+        }
+
+        synchronized (outbound) {
+            outbound.forEach(bufferPool::release);
+            outbound.clear();
+            outboundBytes = 0;
+            outbound.notifyAll();
+        }
+
+        if (readBuffer != null) {
+            bufferPool.release(readBuffer);
+            readBuffer = null;
+        }
+
+        requests.clear();
+        transport.connectionClosed(this);
+    }
+
+    private void parseRequests() {
+        if (readBuffer == null) {
+            return;
+        }
+
+        readBuffer.flip();
+
+        try {
+            while (!closing && requests.size() < MAX_PIPELINED_REQUESTS && readBuffer.hasRemaining()) {
+                if (pendingRequest == null && !parseHead()) {
+                    return;
+                }
+
+                byte[] body = pendingRequest.getBody();
+                int copied = Math.min(readBuffer.remaining(), body.length - bodyFilled);
+                readBuffer.get(body, bodyFilled, copied);
+                bodyFilled += copied;
+
+                if (bodyFilled < body.length) {
+                    return;
+                }
+
+                requests.add(pendingRequest);
+                pendingRequest = null;
+                bodyFilled = 0;
+            }
+        } finally {
+            readBuffer.compact();
+
+            if (readBuffer.position() == 0) {
+                bufferPool.release(readBuffer);
+                readBuffer = null;
+            }
+        }
+    }
+
+    private boolean parseHead() {
+        int headEnd = indexOfHeadTerminator(readBuffer);
+
+        if (headEnd < 0) {
+            // Заголовки не поместились в буфер целиком
+            if (readBuffer.position() == 0 && readBuffer.limit() == readBuffer.capacity()) {
+                failRequest(431);
+            }
+
+            return false;
+        }
+
+        byte[] head = new byte[headEnd - readBuffer.position()];
+        readBuffer.get(head);
+        readBuffer.position(readBuffer.position() + HEAD_TERMINATOR.length);
+
+        NioRequest request;
+
+        try {
+            request = NioRequest.parseHead(head);
+        } catch (IllegalArgumentException e) {
+            failRequest(400);
+            return false;
+        }
+
+        if (request.isChunked()) {
+            failRequest(411);
+            return false;
+        }
+
+        if (request.getContentLength() < 0) {
+            failRequest(400);
+            return false;
+        }
+
+        if (request.getContentLength() > maxRequestBodySize) {
+            failRequest(413);
+            return false;
+        }
+
+        request.setBody(new byte[(int) request.getContentLength()]);
+        pendingRequest = request;
+
+        // 100 Continue отправляется, только если соединение не занято ответом на предыдущий запрос
+        if (request.expectsContinue() && readBuffer.remaining() < request.getContentLength() && !busy && requests.isEmpty()) {
+            try {
+                write(ByteBuffer.wrap(CONTINUE_RESPONSE));
+            } catch (IOException e) {
+                close();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void failRequest(int status) {
+        requests.add(NioRequest.error(status));
+        pendingRequest = null;
+        closing = true;
+        draining = true;
+        readBuffer.position(readBuffer.limit());
+    }
+
+    private void dispatchNext() {
+        if (busy || closed) {
+            return;
+        }
+
+        NioRequest request = requests.poll();
+
+        if (request == null) {
+            if (closing) {
+                closeAfterFlush();
+            }
+
+            return;
+        }
+
+        busy = true;
+        transport.dispatch(this, request);
+    }
+
+    private void updateReadInterest() {
+        if (closed) {
+            return;
+        }
+
+        boolean reading = draining || !closing && requests.size() < MAX_PIPELINED_REQUESTS;
+        int interestOps = key.interestOps();
+        key.interestOps(reading ? interestOps | SelectionKey.OP_READ : interestOps & ~SelectionKey.OP_READ);
+    }
+
+    private void enableWriteInterest() {
+        if (!closed) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void closeAfterFlush() {
+        synchronized (outbound) {
+            if (outbound.isEmpty()) {
+                shutdown();
+            } else {
+                closeWhenFlushed = true;
+            }
+        }
+    }
+
+    // После ответа об ошибке клиент может еще досылать отклоненное тело. Закрытие сокета с непрочитанными данными
+    // отправляет RST, и клиент теряет уже отправленный ответ, поэтому закрывается только запись, а остаток дочитывается
+    // и отбрасывается до закрытия соединения клиентом или тайм-аута простоя
+    private void shutdown() {
+        if (!draining) {
+            close();
+            return;
+        }
+
+        try {
+            channel.shutdownOutput();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    private static int indexOfHeadTerminator(ByteBuffer buffer) {
+        for (int i = buffer.position(); i <= buffer.limit() - HEAD_TERMINATOR.length; i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n' && buffer.get(i + 2) == '\r' && buffer.get(i + 3) == '\n') {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,227 @@
+package service.server.transport;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// HttpExchange поверх соединения NIO-движка, чтобы существующие обработчики и фильтры работали без изменений
+class NioHttpExchange extends HttpExchange {
+    private final NioConnection connection;
+    private final NioRequest request;
+    private final URI requestUri;
+    private final HttpContext context;
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final NioResponseStream rawResponseBody;
+    private InputStream requestBody;
+    private OutputStream responseBody;
+    private int responseCode = -1;
+    private boolean keepAlive;
+    private boolean closed;
+
+    NioHttpExchange(NioConnection connection, NioRequest request, URI requestUri, HttpContext context, int bufferSize) {
+        this.connection = connection;
+        this.request = request;
+        this.requestUri = requestUri;
+        this.context = context;
+        this.keepAlive = request.isKeepAlive();
+        this.requestBody = new ByteArrayInputStream(request.getBody() == null ? new byte[0] : request.getBody());
+        this.rawResponseBody = new NioResponseStream(connection, bufferSize);
+        this.responseBody = rawResponseBody;
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return request.getHeaders();
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return requestUri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return request.getMethod();
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return context;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+            requestBody.close();
+
+            if (responseCode == -1) {
+                keepAlive = false;
+            } else {
+                responseBody.close();
+            }
+        } catch (IOException e) {
+            keepAlive = false;
+        }
+
+        connection.exchangeFinished(keepAlive && rawResponseBody.isComplete());
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public synchronized void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+        if (responseCode != -1) {
+            throw new IOException("Response headers have already been sent");
+        }
+
+        responseCode = rCode;
+        boolean noContent = rCode == 204 || rCode == 304 || "HEAD".equals(request.getMethod());
+        long length = noContent ? -1 : responseLength;
+        StringBuilder head = new StringBuilder(128)
+                .append("HTTP/1.1 ").append(rCode).append(' ').append(reasonPhrase(rCode)).append("\r\n");
+
+        for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            for (String value : header.getValue()) {
+                head.append(header.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+
+        if (length > 0) {
+            head.append("Content-Length: ").append(length).append("\r\n");
+        } else if (length == 0) {
+            head.append("Transfer-Encoding: chunked\r\n");
+        } else if (!noContent) {
+            head.append("Content-Length: 0\r\n");
+        }
+
+        if (!keepAlive) {
+            head.append("Connection: close\r\n");
+        }
+
+        rawResponseBody.start(head.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1), length);
+    }
+
+    // Заголовки, еще не ушедшие вместе с телом, отправляются, когда обработчик вернул управление, не закрыв обмен
+    // (например, SSE продолжает писать из другого потока)
+    void flushPendingHead() throws IOException {
+        if (responseCode != -1) {
+            rawResponseBody.flush();
+        }
+    }
+
+    boolean isResponseStarted() {
+        return responseCode != -1;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        try {
+            return (InetSocketAddress) connection.getChannel().getRemoteAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        try {
+            return (InetSocketAddress) connection.getChannel().getLocalAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String getProtocol() {
+        return request.getProtocol();
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        if (i != null) {
+            requestBody = i;
+        }
+
+        if (o != null) {
+            responseBody = o;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    private static String reasonPhrase(int code) {
+        return switch (code) {
+            case 100 -> "Continue";
+            case 200 -> "OK";
+            case 201 -> "Created";
+            case 204 -> "No Content";
+            case 304 -> "Not Modified";
+            case 400 -> "Bad Request";
+            case 404 -> "Not Found";
+            case 405 -> "Method Not Allowed";
+            case 406 -> "Not Acceptable";
+            case 409 -> "Conflict";
+            case 411 -> "Length Required";
+            case 413 -> "Content Too Large";
+            case 429 -> "Too Many Requests";
+            case 431 -> "Request Header Fields Too Large";
+            case 500 -> "Internal Server Error";
+            case 503 -> "Service Unavailable";
+            default -> "";
+        };
+    }
+}
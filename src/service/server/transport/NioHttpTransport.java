@@ -0,0 +1,318 @@
+package service.server.transport;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// HTTP/1.1-движок на селекторе java.nio: один поток принимает соединения и читает запросы без блокировки,
+// обработчики выполняются в собственном пуле движка. Поддерживаются keep-alive и конвейер запросов.
+// Тело запроса принимается только с Content-Length, chunked-запросы отклоняются с 411. Тело читается целиком до вызова
+// обработчика, поэтому maxRequestBodySize ограничивает весь запрос: загрузка NDJSON, которую JDK-движок передает
+// обработчику потоком с лимитом на каждую запись, здесь ограничена размером всего тела и больше него получает 413.
+// Код обработчиков никогда не выполняется в потоке селектора: если все потоки пула заняты, селектор сам отвечает 503
+// с Retry-After, иначе один медленный запрос остановил бы все соединения
+public class NioHttpTransport implements HttpTransport {
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 1024;
+    private static final int RESPONSE_BUFFER_SIZE = 8 * 1024;
+    private static final long SELECT_TIMEOUT_MILLIS = 1_000;
+    private static final long ACCEPT_BACKOFF_MILLIS = 100;
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final SelectionKey acceptKey;
+    private final ThreadPoolExecutor executor;
+    private final long maxRequestBodySize;
+    private final int retryAfterSeconds;
+    private final BufferPool bufferPool = new BufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private final List<NioHttpContext> contexts = new CopyOnWriteArrayList<>();
+    private final Set<NioConnection> connections = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final Thread selectorThread;
+    private volatile boolean running;
+    private long acceptResumeNanos;
+
+    public NioHttpTransport(InetSocketAddress address, int maxWorkers, long maxRequestBodySize, int retryAfterSeconds) throws IOException {
+        this.executor = new ThreadPoolExecutor(0, maxWorkers, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxRequestBodySize = maxRequestBodySize;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        this.acceptKey = serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.selectorThread = new Thread(this::runSelector, "nio-http-selector");
+    }
+
+    @Override
+    public void createContext(String path, HttpHandler handler, List<Filter> filters) {
+        NioHttpContext context = new NioHttpContext(path, handler);
+        context.getFilters().addAll(filters);
+        contexts.add(context);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        selectorThread.start();
+    }
+
+    @Override
+    public void stop(int delaySeconds) {
+        running = false;
+
+        if (!selectorThread.isAlive()) {
+            shutdown();
+            return;
+        }
+
+        selector.wakeup();
+
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(Math.max(delaySeconds, 1)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isSelectorThread() {
+        return Thread.currentThread() == selectorThread;
+    }
+
+    void runOnSelector(Runnable task) {
+        if (isSelectorThread()) {
+            task.run();
+        } else {
+            selectorTasks.add(task);
+            selector.wakeup();
+        }
+    }
+
+    void connectionClosed(NioConnection connection) {
+        connections.remove(connection);
+    }
+
+    void dispatch(NioConnection connection, NioRequest request) {
+        if (request.isError()) {
+            respondWithError(connection, request, request.getErrorStatus());
+            return;
+        }
+
+        try {
+            executor.execute(() -> handle(connection, request));
+        } catch (RejectedExecutionException e) {
+            respondWithOverload(connection, request);
+        }
+    }
+
+    private void handle(NioConnection connection, NioRequest request) {
+        URI requestUri;
+
+        try {
+            requestUri = new URI(request.getTarget());
+        } catch (URISyntaxException e) {
+            respondWithError(connection, request, 400);
+            return;
+        }
+
+        NioHttpContext context = findContext(requestUri.getPath());
+
+        if (context == null) {
+            respondWithError(connection, request, 404);
+            return;
+        }
+
+        NioHttpExchange exchange = new NioHttpExchange(connection, request, requestUri, context, RESPONSE_BUFFER_SIZE);
+
+        try {
+            new Filter.Chain(context.getFilters(), context.getHandler()).doFilter(exchange);
+            exchange.flushPendingHead();
+        } catch (Exception e) {
+            try {
+                if (!exchange.isResponseStarted()) {
+                    exchange.sendResponseHeaders(500, -1);
+                }
+            } catch (IOException ignored) {
+                // Соединение уже разорвано
+            }
+
+            exchange.close();
+        }
+    }
+
+    // Ответ пишется без ожидания: то, что не поместилось в сокет, селектор допишет сам
+    private void respondWithOverload(NioConnection connection, NioRequest request) {
+        try (NioHttpExchange exchange = new NioHttpExchange(connection, request, null, null, RESPONSE_BUFFER_SIZE)) {
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+            exchange.sendResponseHeaders(503, -1);
+        } catch (IOException e) {
+            runOnSelector(connection::close);
+        }
+    }
+
+    private void respondWithError(NioConnection connection, NioRequest request, int status) {
+        try (NioHttpExchange exchange = new NioHttpExchange(connection, request, null, null, RESPONSE_BUFFER_SIZE)) {
+            exchange.sendResponseHeaders(status, -1);
+        } catch (IOException e) {
+            runOnSelector(connection::close);
+        }
+    }
+
+    // Как и в JDK-сервере, выбирается контекст с самым длинным совпадающим префиксом пути
+    private NioHttpContext findContext(String path) {
+        NioHttpContext found = null;
+
+        for (NioHttpContext context : contexts) {
+            if (path != null && path.startsWith(context.getPath())
+                    && (found == null || context.getPath().length() > found.getPath().length())) {
+                found = context;
+            }
+        }
+
+        return found;
+    }
+
+    private void runSelector() {
+        long lastIdleCheck = System.nanoTime();
+
+        try {
+            while (running) {
+                selector.select(isAcceptPaused() ? ACCEPT_BACKOFF_MILLIS : SELECT_TIMEOUT_MILLIS);
+                resumeAcceptIfDue();
+                runSelectorTasks();
+
+                for (SelectionKey key : selector.selectedKeys()) {
+                    handleKey(key);
+                }
+
+                selector.selectedKeys().clear();
+
+                if (System.nanoTime() - lastIdleCheck > TimeUnit.MILLISECONDS.toNanos(SELECT_TIMEOUT_MILLIS)) {
+                    closeIdleConnections();
+                    lastIdleCheck = System.nanoTime();
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // Движок остановлен
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void runSelectorTasks() {
+        Runnable task;
+
+        while ((task = selectorTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void handleKey(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+
+        NioConnection connection = (NioConnection) key.attachment();
+
+        if (key.isWritable()) {
+            connection.onWritable();
+        }
+
+        if (key.isValid() && key.isReadable()) {
+            connection.onReadable();
+        }
+    }
+
+    // Ошибка приема (например, исчерпаны дескрипторы) не останавливает движок. Ожидающее соединение при этом остается
+    // в очереди, и OP_ACCEPT сразу снова готов, поэтому прием приостанавливается на ACCEPT_BACKOFF_MILLIS:
+    // иначе селектор крутился бы вхолостую, не давая закрыться простаивающим соединениям
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                acceptKey.interestOps(0);
+                acceptResumeNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ACCEPT_BACKOFF_MILLIS);
+                return;
+            }
+
+            if (channel == null) {
+                return;
+            }
+
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                NioConnection connection = new NioConnection(this, channel, key, bufferPool, maxRequestBodySize);
+                key.attach(connection);
+                connections.add(connection);
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Соединение уже закрыто
+                }
+            }
+        }
+    }
+
+    private boolean isAcceptPaused() {
+        return acceptKey.isValid() && acceptKey.interestOps() == 0;
+    }
+
+    private void resumeAcceptIfDue() {
+        if (isAcceptPaused() && System.nanoTime() - acceptResumeNanos >= 0) {
+            acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+        }
+    }
+
+    private void closeIdleConnections() {
+        for (NioConnection connection : connections) {
+            if (connection.isIdleLongerThan(IDLE_TIMEOUT_NANOS)) {
+                connection.close();
+            }
+        }
+    }
+
+    private void shutdown() {
+        executor.shutdownNow();
+        connections.forEach(NioConnection::close);
+
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            // Ресурсы уже освобождены
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package service.server.transport;
+
+import com.sun.net.httpserver.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+// Разобранный запрос: строка запроса, заголовки и тело целиком
+class NioRequest {
+    private final String method;
+    private final String target;
+    private final String protocol;
+    private final Headers headers;
+    private final long contentLength;
+    private final boolean keepAlive;
+    private final int errorStatus;
+    private byte[] body;
+
+    private NioRequest(String method, String target, String protocol, Headers headers, long contentLength, boolean keepAlive, int errorStatus) {
+        this.method = method;
+        this.target = target;
+        this.protocol = protocol;
+        this.headers = headers;
+        this.contentLength = contentLength;
+        this.keepAlive = keepAlive;
+        this.errorStatus = errorStatus;
+    }
+
+    // Ошибка разбора ставится в очередь как запрос, чтобы ответ на нее ушел после ответов на предыдущие запросы соединения
+    static NioRequest error(int status) {
+        return new NioRequest(null, null, "HTTP/1.1", new Headers(), 0, false, status);
+    }
+
+    static NioRequest parseHead(byte[] head) {
+        String[] lines = new String(head, StandardCharsets.ISO_8859_1).split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+
+        if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+            throw new IllegalArgumentException("Malformed request line: " + lines[0]);
+        }
+
+        Headers headers = new Headers();
+
+        for (int i = 1; i < lines.length; i++) {
+            int delimiterIndex = lines[i].indexOf(':');
+
+            if (delimiterIndex <= 0) {
+                throw new IllegalArgumentException("Malformed header: " + lines[i]);
+            }
+
+            headers.add(lines[i].substring(0, delimiterIndex).trim(), lines[i].substring(delimiterIndex + 1).trim());
+        }
+
+        String contentLength = headers.getFirst("Content-Length");
+        String connection = headers.getFirst("Connection");
+        boolean keepAlive = "HTTP/1.1".equals(requestLine[2])
+                ? !"close".equalsIgnoreCase(connection)
+                : "keep-alive".equalsIgnoreCase(connection);
+
+        return new NioRequest(requestLine[0], requestLine[1], requestLine[2], headers,
+                contentLength == null ? 0 : Long.parseLong(contentLength), keepAlive, 0);
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    String getTarget() {
+        return target;
+    }
+
+    String getProtocol() {
+        return protocol;
+    }
+
+    Headers getHeaders() {
+        return headers;
+    }
+
+    long getContentLength() {
+        return contentLength;
+    }
+
+    boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    boolean isError() {
+        return errorStatus != 0;
+    }
+
+    int getErrorStatus() {
+        return errorStatus;
+    }
+
+    boolean isChunked() {
+        return headers.containsKey("Transfer-Encoding");
+    }
+
+    boolean expectsContinue() {
+        return "100-continue".equalsIgnoreCase(headers.getFirst("Expect"));
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    void setBody(byte[] body) {
+        this.body = body;
+    }
+}
@@ -0,0 +1,142 @@
+package service.server.transport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Тело ответа NIO-движка. Заголовки ответа не отправляются отдельно, а уходят в сокет вместе с первой порцией тела,
+// поэтому небольшой ответ целиком укладывается в одну запись. Длина 0 означает chunked-кодирование, как и в JDK-сервере
+class NioResponseStream extends OutputStream {
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final NioConnection connection;
+    private final byte[] buffer;
+    private int count;
+    private byte[] head;
+    private boolean started;
+    private boolean chunked;
+    private boolean withoutBody;
+    private long remaining;
+    private boolean closed;
+
+    NioResponseStream(NioConnection connection, int bufferSize) {
+        this.connection = connection;
+        this.buffer = new byte[bufferSize];
+    }
+
+    synchronized void start(byte[] head, long length) {
+        this.head = head;
+        this.started = true;
+        this.chunked = length == 0;
+        this.withoutBody = length < 0;
+        this.remaining = length;
+    }
+
+    // Ответ передан полностью, и соединение можно использовать для следующего запроса
+    synchronized boolean isComplete() {
+        return closed && (chunked || withoutBody || remaining == 0);
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        ensureWritable(1);
+
+        if (count == buffer.length) {
+            sendFrame(false);
+        }
+
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        ensureWritable(len);
+
+        while (len > 0) {
+            if (count == buffer.length) {
+                sendFrame(false);
+            }
+
+            int copied = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, copied);
+            count += copied;
+            off += copied;
+            len -= copied;
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (started && !closed) {
+            sendFrame(false);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed || !started) {
+            return;
+        }
+
+        closed = true;
+        sendFrame(true);
+    }
+
+    private void ensureWritable(int length) throws IOException {
+        if (!started) {
+            throw new IOException("Response headers have not been sent");
+        }
+
+        if (closed) {
+            throw new IOException("Response stream is closed");
+        }
+
+        if (withoutBody && length > 0) {
+            throw new IOException("Response has no body");
+        }
+
+        if (!chunked && !withoutBody) {
+            if (length > remaining) {
+                throw new IOException("Response body exceeds declared Content-Length");
+            }
+
+            remaining -= length;
+        }
+    }
+
+    private void sendFrame(boolean last) throws IOException {
+        byte[] chunkHeader = chunked && count > 0
+                ? (Integer.toHexString(count) + "\r\n").getBytes(StandardCharsets.US_ASCII)
+                : null;
+        int frameSize = (head == null ? 0 : head.length)
+                + (chunkHeader == null ? count : chunkHeader.length + count + CRLF.length)
+                + (last && chunked ? LAST_CHUNK.length : 0);
+
+        if (frameSize == 0) {
+            return;
+        }
+
+        BufferPool bufferPool = connection.getBufferPool();
+        ByteBuffer frame = frameSize <= bufferPool.getBufferSize() ? bufferPool.acquire() : ByteBuffer.allocate(frameSize);
+
+        if (head != null) {
+            frame.put(head);
+            head = null;
+        }
+
+        if (chunkHeader != null) {
+            frame.put(chunkHeader).put(buffer, 0, count).put(CRLF);
+        } else {
+            frame.put(buffer, 0, count);
+        }
+
+        if (last && chunked) {
+            frame.put(LAST_CHUNK);
+        }
+
+        count = 0;
+        connection.write(frame.flip());
+    }
+}
@@ -0,0 +1,6 @@
+package service.server.transport;
+
+public enum TransportType {
+    JDK,
+    NIO
+}
@@ -0,0 +1,102 @@
+package converter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.server.HttpTaskServer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TaskAdapter")
+class TaskAdapterTest {
+    private final Gson gson = HttpTaskServer.getGson();
+    private final Gson reflectiveGson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .create();
+
+    @Test
+    @DisplayName("Потоковые адаптеры формируют тот же Json, что и рефлективный Gson")
+    void write_SameJsonAsReflectiveGson() {
+        //given
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Task task = new Task(0, TaskStatus.NEW, "task", "description", startTime, Duration.ofMinutes(30));
+        Subtask subtask = new Subtask(1, TaskStatus.DONE, "subtask", null, 2, startTime.plusHours(1), Duration.ofMinutes(15));
+        Epic epic = new Epic(2, TaskStatus.DONE, "epic", "description", startTime.plusHours(1), Duration.ofMinutes(15));
+        epic.addSubtask(1);
+        epic.setEndTime(startTime.plusHours(2));
+        List<Task> tasks = List.of(task, subtask, epic);
+
+        //when
+        String json = gson.toJson(tasks);
+
+        //then
+        assertEquals(reflectiveGson.toJson(tasks), json, "Json отличается от рефлективного");
+    }
+
+    @Test
+    @DisplayName("Epic восстанавливается из Json вместе со списком подзадач и временем окончания")
+    void read_EpicRestoredWithSubtasksAndEndTime() {
+        //given
+        Epic epic = new Epic(2, TaskStatus.IN_PROGRESS, "epic", "description", LocalDateTime.of(2024, 1, 1, 10, 0), Duration.ofHours(1));
+        epic.addSubtask(3);
+        epic.addSubtask(4);
+        epic.setEndTime(LocalDateTime.of(2024, 1, 1, 11, 0));
+
+        //when
+        Epic restoredEpic = gson.fromJson(gson.toJson(epic), Epic.class);
+
+        //then
+        assertAll(
+                () -> assertEquals(epic.getSubtasksIds(), restoredEpic.getSubtasksIds(), "Подзадачи эпика не восстановились"),
+                () -> assertEquals(epic.getEndTime(), restoredEpic.getEndTime(), "Время окончания эпика не восстановилось"),
+                () -> assertEquals(epic.getStatus(), restoredEpic.getStatus(), "Статус эпика не восстановился")
+        );
+    }
+
+    @Test
+    @DisplayName("Неизвестные поля пропускаются, а отсутствующие остаются пустыми")
+    void read_SkipsUnknownAndLeavesMissingFieldsEmpty() {
+        //given
+        String json = "{\"name\":\"task\",\"unknown\":{\"nested\":[1,2]},\"status\":\"NEW\"}";
+
+        //when
+        Task task = gson.fromJson(json, Task.class);
+
+        //then
+        assertAll(
+                () -> assertEquals("task", task.getName(), "Имя задачи не прочитано"),
+                () -> assertEquals(TaskStatus.NEW, task.getStatus(), "Статус задачи не прочитан"),
+                () -> assertNull(task.getId(), "id задачи заполнен без значения в Json"),
+                () -> assertNull(task.getStartTime(), "Время начала заполнено без значения в Json")
+        );
+    }
+
+    @Test
+    @DisplayName("Проекция со всеми полями совпадает с Json из Gson, а выборочная содержит только выбранные поля")
+    void toJson_writesOnlySelectedFields() {
+        //given
+        Epic epic = new Epic(2, TaskStatus.DONE, "epic", "description", LocalDateTime.of(2024, 1, 1, 10, 0), Duration.ofMinutes(15));
+        epic.addSubtask(1);
+        List<Task> tasks = List.of(new Task(0, TaskStatus.NEW, "task", "description", null, null), epic);
+
+        //when
+        String fullJson = TaskProjection.toJson(tasks, TaskField.ALL);
+        String projectedJson = TaskProjection.toJson(tasks, TaskField.parse("id, subtasksIds"));
+
+        //then
+        assertAll(
+                () -> assertEquals(gson.toJson(tasks), fullJson, "Полная проекция отличается от Json из Gson"),
+                () -> assertEquals("[{\"id\":0},{\"subtasksIds\":[1],\"id\":2}]", projectedJson, "Выборочная проекция не совпадает")
+        );
+    }
+}
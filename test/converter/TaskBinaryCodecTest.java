@@ -0,0 +1,116 @@
+package converter;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TaskBinaryCodec")
+class TaskBinaryCodecTest {
+
+    @Test
+    @DisplayName("Список задач разных типов восстанавливается без потери полей")
+    void encodeList_decodeList_restoresAllFields() {
+        //given
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 10, 0, 15, 500);
+        Task task = new Task(0, TaskStatus.NEW, "задача", null, startTime, Duration.ofMinutes(30));
+        Subtask subtask = new Subtask(1, TaskStatus.DONE, "subtask", "description", 2, null, null);
+        Epic epic = new Epic(2, TaskStatus.DONE, "epic", "description", startTime, Duration.ofMinutes(15));
+        epic.addSubtask(1);
+        epic.setEndTime(startTime.plusMinutes(15));
+
+        //when
+        List<Task> tasks = TaskBinaryCodec.decodeList(TaskBinaryCodec.encodeList(List.of(task, subtask, epic)));
+
+        //then
+        Task restoredTask = tasks.get(0);
+        Subtask restoredSubtask = (Subtask) tasks.get(1);
+        Epic restoredEpic = (Epic) tasks.get(2);
+        assertAll(
+                () -> assertEquals("задача", restoredTask.getName(), "Имя задачи не совпадает"),
+                () -> assertNull(restoredTask.getDescription(), "Пустое описание задачи заполнено"),
+                () -> assertEquals(startTime, restoredTask.getStartTime(), "Время начала задачи не совпадает"),
+                () -> assertEquals(Duration.ofMinutes(30), restoredTask.getDuration(), "Продолжительность задачи не совпадает"),
+                () -> assertEquals(2, restoredSubtask.getEpicId(), "Эпик подзадачи не совпадает"),
+                () -> assertNull(restoredSubtask.getStartTime(), "Пустое время начала подзадачи заполнено"),
+                () -> assertEquals(epic.getSubtasksIds(), restoredEpic.getSubtasksIds(), "Подзадачи эпика не совпадают"),
+                () -> assertEquals(epic.getEndTime(), restoredEpic.getEndTime(), "Время окончания эпика не совпадает")
+        );
+    }
+
+    @Test
+    @DisplayName("Усеченные данные и несовпадение типа задачи приводят к IllegalArgumentException")
+    void decode_throwsIllegalArgumentException_onMalformedData() {
+        //given
+        byte[] subtaskBytes = TaskBinaryCodec.encode(new Subtask(1, TaskStatus.NEW, "subtask", "description", 0, null, null));
+        byte[] truncatedBytes = Arrays.copyOf(subtaskBytes, subtaskBytes.length - 1);
+
+        //when
+        //then
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> TaskBinaryCodec.decode(truncatedBytes, Subtask.class), "Усеченные данные прочитаны"),
+                () -> assertThrows(IllegalArgumentException.class, () -> TaskBinaryCodec.decode(subtaskBytes, Task.class), "Подзадача прочитана как задача"),
+                () -> assertThrows(IllegalArgumentException.class, () -> TaskBinaryCodec.decodeList(new byte[]{(byte) 0x7F}), "Количество больше объема данных не отклонено")
+        );
+    }
+
+    @Test
+    @DisplayName("Отрицательное количество элементов из десятибайтового varint приводит к IllegalArgumentException")
+    void decode_throwsIllegalArgumentException_onNegativeCount() {
+        //given
+        byte[] negativeCount = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+        byte[] taskWithNegativeNameLength = new byte[negativeCount.length + 2];
+        taskWithNegativeNameLength[1] = 1 << 2;
+        System.arraycopy(negativeCount, 0, taskWithNegativeNameLength, 2, negativeCount.length);
+
+        //when
+        //then
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> TaskBinaryCodec.decodeList(negativeCount), "Отрицательное количество задач не отклонено"),
+                () -> assertThrows(IllegalArgumentException.class, () -> TaskBinaryCodec.decode(taskWithNegativeNameLength, Task.class), "Отрицательная длина строки не отклонена")
+        );
+    }
+
+    @Test
+    @DisplayName("Отрицательные id задачи, эпика и подзадачи эпика приводят к IllegalArgumentException")
+    void decode_throwsIllegalArgumentException_onNegativeIds() {
+        //given
+        byte[] taskWithNegativeId = TaskBinaryCodec.encode(new Task(-1, TaskStatus.NEW, "task", "description", null, null));
+        byte[] subtaskWithNegativeEpicId = TaskBinaryCodec.encode(new Subtask(1, TaskStatus.NEW, "subtask", "description", -2, null, null));
+        Epic epic = new Epic(1, TaskStatus.NEW, "epic", "description", null, null);
+        epic.addSubtask(-3);
+        byte[] epicWithNegativeSubtaskId = TaskBinaryCodec.encode(epic);
+
+        //when
+        //then
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> TaskBinaryCodec.decode(taskWithNegativeId, Task.class), "Отрицательный id задачи не отклонен"),
+                () -> assertThrows(IllegalArgumentException.class, () -> TaskBinaryCodec.decode(subtaskWithNegativeEpicId, Subtask.class), "Отрицательный id эпика не отклонен"),
+                () -> assertThrows(IllegalArgumentException.class, () -> TaskBinaryCodec.decode(epicWithNegativeSubtaskId, Epic.class), "Отрицательный id подзадачи эпика не отклонен")
+        );
+    }
+
+    @Test
+    @DisplayName("Целое меньше Integer.MIN_VALUE не усекается до int, а приводит к IllegalArgumentException")
+    void decode_throwsIllegalArgumentException_onIntegerBelowMinValue() {
+        //given
+        // Задача только со временем начала: эпоха 0, а наносекунды - varint от Long.MIN_VALUE, младшие 32 бита которого равны нулю
+        byte[] taskWithHugeNegativeNano = {0, 1 << 4, 0, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80,
+                (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01};
+
+        //when
+        //then
+        assertThrows(IllegalArgumentException.class, () -> TaskBinaryCodec.decode(taskWithHugeNegativeNano, Task.class),
+                "Значение меньше Integer.MIN_VALUE не отклонено");
+    }
+}
@@ -0,0 +1,173 @@
+package service.managers.event;
+
+import model.Epic;
+import model.Subtask;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.managers.Managers;
+import service.managers.task.InMemoryTaskManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DomainEventBus")
+class DomainEventBusTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private DomainEventBus eventBus;
+    private final List<DomainEvent> received = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+    private DomainEventBus.Subscription subscription;
+
+    @BeforeEach
+    void setUp() {
+        eventBus = new DomainEventBus(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Слушатель получает события в порядке публикации пачками в своем потоке")
+    void subscribe_DeliversEventsInOrderOnListenerThread() throws InterruptedException {
+        //given
+        subscription = eventBus.subscribe("test", this::record, 3);
+
+        //when
+        for (int i = 0; i < 7; i++) {
+            eventBus.publish(new TaskCreated(TaskType.TASK, i));
+        }
+
+        //then
+        awaitDelivered();
+        assertAll(
+                () -> assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), received.stream().map(DomainEvent::getId).toList(), "Порядок событий нарушен"),
+                () -> assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), received.stream().map(DomainEvent::getSequence).toList(), "Номера событий не совпадают с ожидаемыми"),
+                () -> assertTrue(batchSizes.stream().allMatch(size -> size <= 3), "Пачка больше заданного размера"),
+                () -> assertTrue(threadNames.stream().allMatch("domain-events-test"::equals), "События доставлены не в потоке слушателя"),
+                () -> assertEquals(0, subscription.getLag(), "Слушатель отстает после доставки всех событий")
+        );
+    }
+
+    @Test
+    @DisplayName("Занятый слушатель не задерживает публикацию, а вытесненные из буфера события считаются пропущенными")
+    void publish_DoesNotWaitForSlowListener() throws InterruptedException {
+        //given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        subscription = eventBus.subscribe("slow", events -> {
+            started.countDown();
+            await(release);
+            record(events);
+        }, 1);
+        eventBus.publish(new TaskCreated(TaskType.TASK, 0));
+        assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), "Слушатель не получил первое событие");
+
+        //when
+        for (int i = 1; i <= 20; i++) {
+            eventBus.publish(new TaskUpdated(TaskType.TASK, i));
+        }
+
+        release.countDown();
+
+        //then
+        awaitDelivered();
+        assertAll(
+                () -> assertEquals(21, eventBus.getPublished(), "Не все события опубликованы"),
+                () -> assertEquals(12, subscription.getDropped(), "Число пропущенных событий не совпадает с ожидаемым"),
+                () -> assertEquals(List.of(0, 13, 14, 15, 16, 17, 18, 19, 20), received.stream().map(DomainEvent::getId).toList(),
+                        "Слушатель получил не последние события буфера")
+        );
+    }
+
+    @Test
+    @DisplayName("Ошибка слушателя не останавливает доставку следующих событий")
+    void subscribe_KeepsDeliveringAfterListenerFailure() throws InterruptedException {
+        //given
+        subscription = eventBus.subscribe("failing", events -> {
+            if (events.getFirst().getId() == 0) {
+                throw new IllegalStateException();
+            }
+
+            record(events);
+        }, 1);
+
+        //when
+        eventBus.publish(new TaskCreated(TaskType.TASK, 0));
+        eventBus.publish(new TaskCreated(TaskType.TASK, 1));
+
+        //then
+        awaitDelivered();
+        assertAll(
+                () -> assertEquals(1, subscription.getFailedBatches(), "Ошибка слушателя не учтена"),
+                () -> assertEquals(List.of(1), received.stream().map(DomainEvent::getId).toList(), "Событие после ошибки не доставлено")
+        );
+    }
+
+    @Test
+    @DisplayName("Менеджер публикует события создания, переноса подзадачи, смены статуса эпика и удаления")
+    void taskManager_PublishesTypedEvents() throws InterruptedException {
+        //given
+        InMemoryTaskManager taskManager = new InMemoryTaskManager(Managers.getDefaultHistory());
+        eventBus = taskManager.getEventBus();
+        subscription = eventBus.subscribe("manager", this::record);
+        Epic source = taskManager.createEpic(new Epic("source", "description"));
+        Epic target = taskManager.createEpic(new Epic("target", "description"));
+        Subtask subtask = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "subtask", "description", source.getId()));
+
+        //when
+        taskManager.updateSubtask(new Subtask(subtask.getId(), TaskStatus.DONE, "subtask", "description", target.getId(), null, null));
+        taskManager.removeEpic(target.getId());
+
+        //then
+        awaitDelivered();
+        SubtaskMoved moved = (SubtaskMoved) received.stream().filter(SubtaskMoved.class::isInstance).findFirst().orElseThrow();
+        EpicStatusChanged statusChanged = (EpicStatusChanged) received.stream().filter(EpicStatusChanged.class::isInstance).findFirst().orElseThrow();
+        assertAll(
+                () -> assertEquals(3, received.stream().filter(TaskCreated.class::isInstance).count(), "Не все создания опубликованы"),
+                () -> assertEquals(source.getId(), moved.getFromEpicId(), "Неверный прежний эпик подзадачи"),
+                () -> assertEquals(target.getId(), moved.getToEpicId(), "Неверный новый эпик подзадачи"),
+                () -> assertEquals(target.getId(), statusChanged.getId(), "Статус сменился не у нового эпика"),
+                () -> assertEquals(TaskStatus.NEW, statusChanged.getOldStatus(), "Неверный прежний статус эпика"),
+                () -> assertEquals(TaskStatus.DONE, statusChanged.getNewStatus(), "Неверный новый статус эпика"),
+                () -> assertEquals(List.of(subtask.getId(), target.getId()), received.stream().filter(TaskDeleted.class::isInstance)
+                        .map(DomainEvent::getId).toList(), "Удаления опубликованы не в том порядке")
+        );
+    }
+
+    private void record(List<DomainEvent> events) {
+        batchSizes.add(events.size());
+        threadNames.add(Thread.currentThread().getName());
+        received.addAll(events);
+    }
+
+    private void awaitDelivered() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+
+        while (subscription.getCursor() < eventBus.getPublished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
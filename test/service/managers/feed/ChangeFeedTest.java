@@ -0,0 +1,71 @@
+package service.managers.feed;
+
+import exception.SlowConsumerException;
+import model.TaskType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ChangeFeed")
+class ChangeFeedTest {
+    private ChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        changeFeed = new ChangeFeed(4);
+    }
+
+    @Test
+    @DisplayName("Подписчик получает только события, опубликованные после подписки, в порядке версий")
+    void poll_ReturnsEventsPublishedAfterSubscription() throws InterruptedException {
+        //given
+        changeFeed.publish(ChangeKind.CREATED, TaskType.TASK, 0);
+        ChangeFeed.Subscription subscription = changeFeed.subscribe();
+        changeFeed.publish(ChangeKind.UPDATED, TaskType.TASK, 0);
+        changeFeed.publish(ChangeKind.DELETED, TaskType.TASK, 0);
+
+        //when
+        List<ChangeEvent> events = subscription.poll(0);
+
+        //then
+        assertAll(
+                () -> assertEquals(List.of(2L, 3L), events.stream().map(ChangeEvent::getVersion).toList(), "Версии событий не совпадают с ожидаемыми"),
+                () -> assertEquals(ChangeKind.DELETED, events.getLast().getKind(), "Порядок событий нарушен"),
+                () -> assertTrue(subscription.poll(0).isEmpty(), "Прочитанные события возвращаются повторно")
+        );
+    }
+
+    @Test
+    @DisplayName("При отставании подписчика больше чем на размер буфера выбрасывается SlowConsumerException")
+    void poll_ThrownSlowConsumerException_WhenSubscriberFellBehind() {
+        //given
+        ChangeFeed.Subscription subscription = changeFeed.subscribe();
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            changeFeed.publish(ChangeKind.CREATED, TaskType.TASK, i);
+        }
+
+        //then
+        assertThrows(SlowConsumerException.class, () -> subscription.poll(0));
+    }
+
+    @Test
+    @DisplayName("Подписку можно возобновить с последней полученной версии")
+    void subscribe_ResumesFromLastSeenVersion() throws InterruptedException {
+        //given
+        for (int i = 0; i < 3; i++) {
+            changeFeed.publish(ChangeKind.CREATED, TaskType.TASK, i);
+        }
+
+        //when
+        List<ChangeEvent> events = changeFeed.subscribe(1).poll(0);
+
+        //then
+        assertEquals(List.of(1, 2), events.stream().map(ChangeEvent::getId).toList(), "Подписка возобновилась не с той версии");
+    }
+}
@@ -1,6 +1,9 @@
 package service.managers.task;
 
 import exception.NotFoundException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import model.Epic;
 import model.Subtask;
 import model.Task;
@@ -11,6 +14,8 @@ import org.junit.jupiter.api.Test;
 import service.managers.Managers;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -387,4 +392,54 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
                         "Не все подзадачи удаленного эпика удаляются из csv")
         );
     }
+
+    @Test
+    @DisplayName("Каждое сохранение в файл фиксируется событием JFR с размером файла и числом задач")
+    void save_RecordsStorageSaveEvent() throws IOException {
+        //given
+        Path dump = Files.createTempFile("kanban-storage", ".jfr");
+        List<RecordedEvent> events;
+
+        //when
+        try (Recording recording = new Recording()) {
+            recording.enable("kanban.StorageSave");
+            recording.start();
+            taskManager.createTask(new Task(TaskStatus.NEW, "name", "description"));
+            taskManager.createEpic(new Epic("epic", "description"));
+            recording.stop();
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+
+        //then
+        RecordedEvent lastSave = events.getLast();
+        assertAll(
+                () -> assertEquals(2, events.size(), "Не каждое сохранение зафиксировано событием"),
+                () -> assertEquals(Files.size(Path.of(TEST_CSV)), lastSave.getLong("bytesWritten"), "Размер записанных данных не совпадает с размером файла"),
+                () -> assertEquals(1, lastSave.getInt("taskCount"), "Неверное число задач в событии"),
+                () -> assertEquals(1, lastSave.getInt("epicCount"), "Неверное число эпиков в событии")
+        );
+    }
+
+    @Test
+    @DisplayName("Зависимости между задачами восстанавливаются из файла csv")
+    void loadFromFile_DependenciesRestored() {
+        //given
+        Task first = taskManager.createTask(new Task(TaskStatus.NEW, "first", "description", LocalDateTime.of(2030, 1, 7, 9, 0), Duration.ofHours(1)));
+        Task second = taskManager.createTask(new Task(TaskStatus.NEW, "second", "description"));
+        taskManager.addDependency(second.getId(), first.getId());
+
+        //when
+        TaskManager restoredTaskManager = FileBackedTaskManager.loadFromFile(Managers.getDefaultHistory(), TEST_CSV);
+        TaskDependencies restored = restoredTaskManager.getDependencies(second.getId());
+
+        //then
+        assertAll(
+                () -> assertEquals(List.of(first.getId()), restored.getBlockedBy(), "Зависимость не восстановлена"),
+                () -> assertEquals(LocalDateTime.of(2030, 1, 7, 10, 0), restored.getEarliestStart(), "Раннее начало не пересчитано после загрузки"),
+                () -> assertEquals(2, restoredTaskManager.getAllTasks().size(), "Задачи не восстановлены")
+        );
+    }
 }
@@ -0,0 +1,167 @@
+package service.managers.task;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GapIndex")
+class GapIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    @DisplayName("Освобождение интервала объединяет соседние промежутки")
+    void release_MergesNeighbourGaps() {
+        //given
+        GapIndex gapIndex = new GapIndex();
+        gapIndex.occupy(START, START.plusHours(1));
+        gapIndex.occupy(START.plusHours(2), START.plusHours(3));
+        gapIndex.occupy(START.plusHours(4), START.plusHours(5));
+
+        //when
+        LocalDateTime beforeRelease = gapIndex.findEarliest(START, Duration.ofHours(3));
+        gapIndex.release(START.plusHours(2), START.plusHours(3));
+        LocalDateTime afterRelease = gapIndex.findEarliest(START, Duration.ofHours(3));
+
+        //then
+        assertAll(
+                () -> assertEquals(START.plusHours(5), beforeRelease, "Трехчасовой промежуток есть только после последнего интервала"),
+                () -> assertEquals(START.plusHours(1), afterRelease, "Промежутки вокруг освобожденного интервала не объединились")
+        );
+    }
+
+    @Test
+    @DisplayName("Результаты поиска совпадают с перебором всех промежутков при случайных занятиях и освобождениях")
+    void findEarliest_MatchesBruteForce() {
+        //given
+        Random random = new Random(44);
+        GapIndex gapIndex = new GapIndex();
+        TreeMap<LocalDateTime, LocalDateTime> busy = new TreeMap<>();
+
+        for (int step = 0; step < 2_000; step++) {
+            //when
+            LocalDateTime start = START.plusMinutes(random.nextInt(5_000));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(120));
+
+            if (busy.containsKey(start) && random.nextBoolean()) {
+                gapIndex.release(start, busy.remove(start));
+            } else if (isFree(busy, start, end)) {
+                gapIndex.occupy(start, end);
+                busy.put(start, end);
+            }
+
+            LocalDateTime after = START.plusMinutes(random.nextInt(5_000));
+            Duration duration = Duration.ofMinutes(1 + random.nextInt(180));
+
+            //then
+            assertEquals(findEarliestByBruteForce(busy, after, duration), gapIndex.findEarliest(after, duration),
+                    "Индекс нашел не самый ранний свободный промежуток на шаге " + step);
+        }
+    }
+
+    @Test
+    @DisplayName("Интервал нулевой длительности делит промежуток: через него слот не проходит, но может начаться в нем")
+    void occupy_ZeroLengthIntervalSplitsGap() {
+        //given
+        GapIndex gapIndex = new GapIndex();
+        LocalDateTime ten = START.plusHours(10);
+
+        //when
+        gapIndex.occupy(ten, ten);
+        LocalDateTime throughPoint = gapIndex.findEarliest(ten.minusMinutes(30), Duration.ofHours(1));
+        LocalDateTime beforePoint = gapIndex.findEarliest(ten.minusMinutes(30), Duration.ofMinutes(30));
+        gapIndex.release(ten, ten);
+        LocalDateTime afterRelease = gapIndex.findEarliest(ten.minusMinutes(30), Duration.ofHours(1));
+
+        //then
+        assertAll(
+                () -> assertEquals(ten, throughPoint, "Слот прошел через занятую точку"),
+                () -> assertEquals(ten.minusMinutes(30), beforePoint, "Слот, заканчивающийся в точке, должен подходить"),
+                () -> assertEquals(ten.minusMinutes(30), afterRelease, "Освобожденная точка продолжает делить промежуток")
+        );
+    }
+
+    @Test
+    @DisplayName("Результаты поиска совпадают с перебором при точках и пересекающихся интервалах")
+    void findEarliest_MatchesBruteForceWithPointsAndOverlaps() {
+        //given
+        Random random = new Random(45);
+        GapIndex gapIndex = new GapIndex();
+        List<LocalDateTime[]> busy = new ArrayList<>();
+
+        for (int step = 0; step < 1_000; step++) {
+            //when
+            if (!busy.isEmpty() && random.nextInt(3) == 0) {
+                LocalDateTime[] interval = busy.remove(random.nextInt(busy.size()));
+                gapIndex.release(interval[0], interval[1]);
+            } else {
+                LocalDateTime start = START.plusMinutes(random.nextInt(3_000));
+                LocalDateTime end = random.nextBoolean() ? start : start.plusMinutes(1 + random.nextInt(120));
+                gapIndex.occupy(start, end);
+                busy.add(new LocalDateTime[]{start, end});
+            }
+
+            LocalDateTime after = START.plusMinutes(random.nextInt(3_000));
+            Duration duration = Duration.ofMinutes(1 + random.nextInt(180));
+
+            //then
+            assertEquals(findEarliestByBruteForce(busy, after, duration), gapIndex.findEarliest(after, duration),
+                    "Индекс нашел не самый ранний свободный промежуток на шаге " + step);
+        }
+    }
+
+    private static boolean isFree(TreeMap<LocalDateTime, LocalDateTime> busy, LocalDateTime start, LocalDateTime end) {
+        return busy.entrySet().stream()
+                .noneMatch(interval -> interval.getKey().isBefore(end) && start.isBefore(interval.getValue()));
+    }
+
+    private static LocalDateTime findEarliestByBruteForce(TreeMap<LocalDateTime, LocalDateTime> busy, LocalDateTime after, Duration duration) {
+        LocalDateTime candidate = after;
+
+        for (Map.Entry<LocalDateTime, LocalDateTime> interval : busy.entrySet()) {
+            if (!interval.getValue().isAfter(candidate)) {
+                continue;
+            }
+
+            if (!candidate.plus(duration).isAfter(interval.getKey())) {
+                return candidate;
+            }
+
+            candidate = interval.getValue();
+        }
+
+        return candidate;
+    }
+
+    // Слот [candidate, candidate + duration) не должен пересекаться с интервалами и содержать внутри точки
+    private static LocalDateTime findEarliestByBruteForce(List<LocalDateTime[]> busy, LocalDateTime after, Duration duration) {
+        LocalDateTime candidate = after;
+        boolean moved = true;
+
+        while (moved) {
+            moved = false;
+
+            for (LocalDateTime[] interval : busy) {
+                LocalDateTime end = candidate.plus(duration);
+                boolean blocks = interval[0].equals(interval[1])
+                        ? candidate.isBefore(interval[0]) && interval[0].isBefore(end)
+                        : interval[0].isBefore(end) && candidate.isBefore(interval[1]);
+
+                if (blocks) {
+                    candidate = interval[1];
+                    moved = true;
+                }
+            }
+        }
+
+        return candidate;
+    }
+}
@@ -0,0 +1,66 @@
+package service.managers.task;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PersistentTreeMap")
+class PersistentTreeMapTest {
+
+    @Test
+    @DisplayName("После случайных вставок и удалений содержимое совпадает с TreeMap")
+    void putAndRemove_MatchTreeMap() {
+        //given
+        Random random = new Random(50);
+        PersistentTreeMap<Integer, Integer> map = PersistentTreeMap.empty(Comparator.naturalOrder());
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+        //when
+        for (int i = 0; i < 5_000; i++) {
+            int key = random.nextInt(500);
+
+            if (random.nextBoolean()) {
+                map = map.put(key, i);
+                expected.put(key, i);
+            } else {
+                map = map.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        PersistentTreeMap<Integer, Integer> result = map;
+
+        //then
+        assertAll(
+                () -> assertEquals(expected.size(), result.size(), "Размер не совпадает с ожидаемым"),
+                () -> assertEquals(new ArrayList<>(expected.values()), result.values(), "Значения или их порядок не совпадают с ожидаемыми"),
+                () -> assertEquals(expected.get(250), result.get(250), "Значение по ключу не совпадает с ожидаемым")
+        );
+    }
+
+    @Test
+    @DisplayName("Изменение не затрагивает предыдущие версии")
+    void put_KeepsPreviousVersionsUnchanged() {
+        //given
+        PersistentTreeMap<Integer, String> empty = PersistentTreeMap.empty(Comparator.naturalOrder());
+        PersistentTreeMap<Integer, String> first = empty.put(1, "one").put(2, "two").put(3, "three");
+
+        //when
+        PersistentTreeMap<Integer, String> second = first.put(2, "TWO").remove(3).put(4, "four");
+
+        //then
+        assertAll(
+                () -> assertEquals(0, empty.size(), "Пустая версия изменилась"),
+                () -> assertEquals(List.of("one", "two", "three"), first.values(), "Первая версия изменилась"),
+                () -> assertEquals(List.of("one", "TWO", "four"), second.values(), "Вторая версия не совпадает с ожидаемой"),
+                () -> assertSame(second, second.remove(10), "Удаление отсутствующего ключа создало новую версию")
+        );
+    }
+}
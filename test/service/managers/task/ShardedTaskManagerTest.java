@@ -0,0 +1,94 @@
+package service.managers.task;
+
+import exception.OverlappingException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.managers.Managers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShardedTaskManager")
+class ShardedTaskManagerTest extends TaskManagerTest<ShardedTaskManager> {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Override
+    void initTaskManager() {
+        taskManager = new ShardedTaskManager(Managers.getDefaultHistory(), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskManager.close();
+    }
+
+    @Test
+    @DisplayName("При одновременном создании задач из разных потоков каждый час занимает ровно одна задача")
+    void createTask_ConcurrentWritersNeverOverlap() throws InterruptedException {
+        //given
+        int slotCount = 50;
+        int writerCount = 8;
+        AtomicInteger rejected = new AtomicInteger();
+
+        //when
+        try (ExecutorService executor = Executors.newFixedThreadPool(writerCount)) {
+            for (int writer = 0; writer < writerCount; writer++) {
+                executor.execute(() -> {
+                    for (int slot = 0; slot < slotCount; slot++) {
+                        try {
+                            taskManager.createTask(new Task(TaskStatus.NEW, "", "", START.plusHours(slot), Duration.ofHours(1)));
+                        } catch (OverlappingException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+
+        //then
+        assertAll(
+                () -> assertEquals(slotCount, prioritized.size(), "Не каждый час занят ровно одной задачей"),
+                () -> assertEquals(slotCount * (writerCount - 1), rejected.get(), "Не все пересекающиеся задачи отклонены"),
+                () -> assertEquals(slotCount, taskManager.getAllTasks().stream().map(Task::getId).distinct().count(), "Идентификаторы задач повторяются"),
+                () -> assertEquals(START.plusHours(slotCount), taskManager.findFreeSlot(START, Duration.ofHours(1)), "Свободный промежуток найден внутри занятого времени")
+        );
+    }
+
+    @Test
+    @DisplayName("Если подзадача пересекается с задачей другого шарда, перенос в эпик третьего шарда откатывается")
+    void updateSubtask_ThrownOverlappingException_AndRollsBackMoveBetweenShards() {
+        //given
+        Epic source = taskManager.createEpic(new Epic("", ""));
+        Epic target = taskManager.createEpic(new Epic("", ""));
+        Subtask subtask = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "", "", source.getId(), START, Duration.ofHours(1)));
+        taskManager.createTask(new Task(TaskStatus.NEW, "", "", START.plusHours(1), Duration.ofHours(1)));
+
+        Subtask moved = new Subtask(subtask.getId(), TaskStatus.NEW, "", "", target.getId(), START.plusMinutes(30), Duration.ofHours(1));
+
+        //when
+        assertThrows(OverlappingException.class, () -> taskManager.updateSubtask(moved), "Исключение не выброшено");
+
+        //then
+        assertAll(
+                () -> assertEquals(source.getId(), taskManager.getSubtask(subtask.getId()).getEpicId(), "Подзадача не вернулась в прежний эпик"),
+                () -> assertTrue(source.getSubtasksIds().contains(subtask.getId()), "Подзадача пропала из прежнего эпика"),
+                () -> assertTrue(target.getSubtasksIds().isEmpty(), "Подзадача осталась в новом эпике"),
+                () -> assertThrows(OverlappingException.class,
+                        () -> taskManager.createTask(new Task(TaskStatus.NEW, "", "", START, Duration.ofHours(1))),
+                        "Время подзадачи освободилось после отката")
+        );
+    }
+}
@@ -1,5 +1,6 @@
 package service.managers.task;
 
+import exception.DependencyCycleException;
 import exception.OverlappingException;
 import exception.NotFoundException;
 import model.Epic;
@@ -9,6 +10,9 @@ import model.TaskStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import service.managers.feed.ChangeEvent;
+import service.managers.feed.ChangeFeed;
+import service.managers.feed.ChangeKind;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -1497,5 +1501,346 @@ abstract class TaskManagerTest<T extends TaskManager> {
         );
     }
 
+    @Test
+    @DisplayName("Выборка Task фильтруется по статусу, а общее количество считается по всем подходящим задачам")
+    void getTasks_FilteredByStatusWithTotalCount() {
+        //given
+        taskManager.createTask(new Task(TaskStatus.NEW, "", ""));
+        taskManager.createTask(new Task(TaskStatus.DONE, "", ""));
+        taskManager.createTask(new Task(TaskStatus.NEW, "", ""));
+        taskManager.createTask(new Task(TaskStatus.NEW, "", ""));
+
+        //when
+        TaskPage<Task> page = taskManager.getTasks(new TaskQuery(TaskStatus.NEW, null, null, TaskSort.ID, 2, null));
+
+        //then
+        assertAll(
+                () -> assertEquals(3, page.getTotalCount(), "Общее количество подходящих задач не верное"),
+                () -> assertEquals(List.of(0, 2), page.getItems().stream().map(Task::getId).toList(), "Страница содержит не те задачи"),
+                () -> assertNotNull(page.getNextCursor(), "Для неполной выборки не возвращается курсор")
+        );
+    }
 
+    @Test
+    @DisplayName("По курсору возвращается следующая страница выборки")
+    void getTasks_NextPageReturnedByCursor() {
+        //given
+        for (int i = 0; i < 5; i++) {
+            taskManager.createTask(new Task(TaskStatus.NEW, "", "", LocalDateTime.now().plusDays(5 - i), Duration.ofHours(1)));
+        }
+
+        TaskPage<Task> firstPage = taskManager.getTasks(new TaskQuery(null, null, null, TaskSort.START_TIME, 3, null));
+
+        //when
+        TaskPage<Task> secondPage = taskManager.getTasks(new TaskQuery(null, null, null, TaskSort.START_TIME, 3, firstPage.getNextCursor()));
+
+        //then
+        assertAll(
+                () -> assertEquals(List.of(4, 3, 2), firstPage.getItems().stream().map(Task::getId).toList(), "Первая страница не отсортирована по времени начала"),
+                () -> assertEquals(List.of(1, 0), secondPage.getItems().stream().map(Task::getId).toList(), "Вторая страница не продолжает первую"),
+                () -> assertNull(secondPage.getNextCursor(), "Для последней страницы возвращается курсор")
+        );
+    }
+
+    @Test
+    @DisplayName("Выборка Subtask фильтруется по эпику и времени начала")
+    void getSubtasks_FilteredByEpicAndStartTime() {
+        //given
+        LocalDateTime now = LocalDateTime.now();
+        taskManager.createEpic(new Epic("", ""));
+        taskManager.createEpic(new Epic("", ""));
+        taskManager.createSubtask(new Subtask(TaskStatus.NEW, "", "", 0, now.minusDays(1), Duration.ofHours(1)));
+        taskManager.createSubtask(new Subtask(TaskStatus.NEW, "", "", 0, now.plusDays(1), Duration.ofHours(1)));
+        taskManager.createSubtask(new Subtask(TaskStatus.NEW, "", "", 0));
+        taskManager.createSubtask(new Subtask(TaskStatus.NEW, "", "", 1, now.plusDays(2), Duration.ofHours(1)));
+
+        //when
+        TaskPage<Subtask> page = taskManager.getSubtasks(new TaskQuery(null, 0, now, TaskSort.ID, null, null));
+
+        //then
+        assertAll(
+                () -> assertEquals(1, page.getTotalCount(), "Общее количество подходящих подзадач не верное"),
+                () -> assertEquals(3, page.getItems().getFirst().getId(), "В выборку попала не та подзадача")
+        );
+    }
+
+    @Test
+    @DisplayName("При создании, обновлении и удалении задачи в ленту изменений публикуются события")
+    void changeFeed_PublishesEventsOnMutations() throws InterruptedException {
+        //given
+        ChangeFeed.Subscription subscription = taskManager.getChangeFeed().subscribe();
+        Task task = taskManager.createTask(new Task(TaskStatus.NEW, "", ""));
+
+        //when
+        taskManager.updateTask(new Task(task.getId(), TaskStatus.DONE, "", "", null, null));
+        taskManager.removeTask(task.getId());
+        List<ChangeEvent> events = subscription.poll(0);
+
+        //then
+        assertEquals(List.of(ChangeKind.CREATED, ChangeKind.UPDATED, ChangeKind.DELETED),
+                events.stream().map(ChangeEvent::getKind).toList(),
+                "События изменений не соответствуют выполненным операциям");
+    }
+
+    @Test
+    @DisplayName("Окно включает задачи, начавшиеся до него и еще выполняющиеся, и не включает закончившиеся к его началу")
+    void getTasksInWindow_ReturnsTasksIntersectingWindow() {
+        //given
+        LocalDateTime monday = LocalDateTime.of(2030, 1, 7, 0, 0);
+        Task longRunning = taskManager.createTask(new Task(TaskStatus.NEW, "long", "descr", monday.minusDays(3), Duration.ofDays(4)));
+        Task finishedBefore = taskManager.createTask(new Task(TaskStatus.NEW, "before", "descr", monday.minusDays(5), Duration.ofDays(1)));
+        Task inside = taskManager.createTask(new Task(TaskStatus.NEW, "inside", "descr", monday.plusDays(2), Duration.ofHours(2)));
+        Task startsAtEnd = taskManager.createTask(new Task(TaskStatus.NEW, "after", "descr", monday.plusDays(5), Duration.ofHours(1)));
+        Task veryLong = taskManager.createTask(new Task(TaskStatus.NEW, "quarter", "descr", monday.minusDays(60), Duration.ofDays(50)));
+        taskManager.createTask(new Task(TaskStatus.NEW, "unscheduled", "descr"));
+
+        //when
+        List<Task> window = taskManager.getTasksInWindow(monday, monday.plusDays(5));
+
+        //then
+        assertAll(
+                () -> assertEquals(List.of(longRunning, inside), window, "В окно попали не те задачи или они не упорядочены по времени начала"),
+                () -> assertFalse(window.contains(finishedBefore), "В окно попала задача, закончившаяся до его начала"),
+                () -> assertFalse(window.contains(startsAtEnd), "Конец окна не должен включаться"),
+                () -> assertEquals(List.of(veryLong), taskManager.getTasksInWindow(monday.minusDays(30), monday.minusDays(29)), "Не найдена задача длиннее месяца")
+        );
+    }
+
+    @Test
+    @DisplayName("Окно и список выполняющихся задач учитывают изменение и удаление задач")
+    void getTasksRunningAt_ReflectsUpdatesAndRemovals() {
+        //given
+        LocalDateTime start = LocalDateTime.of(2030, 1, 7, 23, 0);
+        Task task = taskManager.createTask(new Task(TaskStatus.NEW, "night", "descr", start, Duration.ofHours(2)));
+        Epic epic = taskManager.createEpic(new Epic("epic", "descr"));
+        Subtask subtask = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "sub", "descr", epic.getId(), start.plusHours(3), Duration.ofHours(1)));
+
+        //when
+        List<Task> runningAfterMidnight = taskManager.getTasksRunningAt(start.plusMinutes(90));
+        taskManager.updateTask(new Task(task.getId(), TaskStatus.NEW, "night", "descr", start.plusDays(1), Duration.ofHours(2)));
+        List<Task> runningAfterMove = taskManager.getTasksRunningAt(start.plusMinutes(90));
+        taskManager.removeEpic(epic.getId());
+
+        //then
+        assertAll(
+                () -> assertEquals(List.of(task), runningAfterMidnight, "Не найдена задача, переходящая через полночь"),
+                () -> assertTrue(runningAfterMove.isEmpty(), "Перенесенная задача осталась на прежнем месте"),
+                () -> assertTrue(taskManager.getTasksRunningAt(subtask.getStartTime()).isEmpty(), "Подзадача удаленного эпика осталась в индексе"),
+                () -> assertThrows(IllegalArgumentException.class, () -> taskManager.getTasksInWindow(start, start), "Пустое окно должно отклоняться")
+        );
+    }
+
+    @Test
+    @DisplayName("Свободный промежуток ищется между задачами, если он достаточно длинный, иначе - после них")
+    void findFreeSlot_ReturnsEarliestGapOfRequestedLength() {
+        //given
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 7, 9, 0);
+        taskManager.createTask(new Task(TaskStatus.NEW, "first", "descr", nine, Duration.ofHours(1)));
+        taskManager.createTask(new Task(TaskStatus.NEW, "second", "descr", nine.plusMinutes(90), Duration.ofHours(1)));
+        Epic epic = taskManager.createEpic(new Epic("epic", "descr"));
+        taskManager.createSubtask(new Subtask(TaskStatus.NEW, "third", "descr", epic.getId(), nine.plusHours(4), Duration.ofHours(1)));
+
+        //when
+        LocalDateTime halfHourSlot = taskManager.findFreeSlot(nine, Duration.ofMinutes(30));
+        LocalDateTime hourSlot = taskManager.findFreeSlot(nine, Duration.ofHours(1));
+        LocalDateTime longSlot = taskManager.findFreeSlot(nine, Duration.ofHours(3));
+        LocalDateTime insideGapSlot = taskManager.findFreeSlot(nine.plusMinutes(160), Duration.ofMinutes(30));
+
+        //then
+        assertAll(
+                () -> assertEquals(nine.plusHours(1), halfHourSlot, "Не найден промежуток между первыми задачами"),
+                () -> assertEquals(nine.plusMinutes(150), hourSlot, "Не найден промежуток перед подзадачей"),
+                () -> assertEquals(nine.plusHours(5), longSlot, "Длинный промежуток должен начинаться после последней задачи"),
+                () -> assertEquals(nine.plusMinutes(160), insideGapSlot, "Свободное время внутри промежутка должно возвращаться как есть"),
+                () -> assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlot(nine, Duration.ZERO), "Нулевая длительность должна отклоняться")
+        );
+    }
+
+    @Test
+    @DisplayName("Задачи без времени начала по порядку id размещаются в самых ранних свободных промежутках, время эпика пересчитывается")
+    void scheduleUnscheduledTasks_FillsEarliestGaps() {
+        //given
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 7, 9, 0);
+        taskManager.createTask(new Task(TaskStatus.NEW, "busy", "descr", nine.plusHours(1), Duration.ofHours(1)));
+        Task first = taskManager.createTask(new Task(TaskStatus.NEW, "first", "descr"));
+        Epic epic = taskManager.createEpic(new Epic("epic", "descr"));
+        Subtask second = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "second", "descr", epic.getId()));
+        Task third = taskManager.createTask(new Task(TaskStatus.NEW, "third", "descr"));
+
+        //when
+        List<Task> scheduled = taskManager.scheduleUnscheduledTasks(nine, Duration.ofMinutes(30));
+
+        //then
+        assertAll(
+                () -> assertEquals(List.of(first, second, third), scheduled, "Размещены не те задачи или не в порядке id"),
+                () -> assertEquals(nine, taskManager.getTask(first.getId()).getStartTime(), "Первая задача должна занять начало свободного промежутка"),
+                () -> assertEquals(nine.plusMinutes(30), taskManager.getSubtask(second.getId()).getStartTime(), "Подзадача должна занять остаток промежутка"),
+                () -> assertEquals(nine.plusHours(2), taskManager.getTask(third.getId()).getStartTime(), "Третья задача должна разместиться после занятого часа"),
+                () -> assertEquals(nine.plusMinutes(30), taskManager.getEpic(epic.getId()).getStartTime(), "Время эпика не пересчитано"),
+                () -> assertEquals(List.of(first, second), taskManager.getTasksInWindow(nine, nine.plusHours(1)), "Размещенные задачи не попали в индекс по дням")
+        );
+    }
+
+    @Test
+    @DisplayName("Поиск и размещение не проходят через задачу нулевой длительности, как и проверка пересечений")
+    void scheduleUnscheduledTasks_SkipsZeroDurationTask() {
+        //given
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 7, 9, 0);
+        LocalDateTime ten = nine.plusHours(1);
+        taskManager.createTask(new Task(TaskStatus.NEW, "milestone", "descr", ten, Duration.ZERO));
+        Task unscheduled = taskManager.createTask(new Task(TaskStatus.NEW, "unscheduled", "descr"));
+
+        //when
+        LocalDateTime slot = taskManager.findFreeSlot(nine.plusMinutes(30), Duration.ofHours(1));
+        taskManager.scheduleUnscheduledTasks(nine.plusMinutes(30), Duration.ofHours(1));
+
+        //then
+        assertAll(
+                () -> assertEquals(ten, slot, "Найденный промежуток проходит через задачу нулевой длительности"),
+                () -> assertEquals(ten, taskManager.getTask(unscheduled.getId()).getStartTime(), "Задача размещена поверх задачи нулевой длительности"),
+                () -> assertThrows(OverlappingException.class, () -> taskManager.createTask(new Task(TaskStatus.NEW, "overlapping", "descr",
+                        nine.plusMinutes(30), Duration.ofHours(1))), "Проверка пересечений должна отклонять такой интервал")
+        );
+    }
+
+    @Test
+    @DisplayName("Сдвиг эпика переносит все его подзадачи и время эпика, подзадачи без времени начала не трогаются")
+    void shiftEpic_MovesAllSubtasks() {
+        //given
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 7, 9, 0);
+        Epic epic = taskManager.createEpic(new Epic("epic", "descr"));
+        Subtask first = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "first", "descr", epic.getId(), nine, Duration.ofHours(1)));
+        Subtask second = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "second", "descr", epic.getId(), nine.plusHours(1), Duration.ofHours(1)));
+        Subtask unscheduled = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "unscheduled", "descr", epic.getId()));
+
+        //when
+        List<Subtask> shifted = taskManager.shiftEpic(epic.getId(), Duration.ofMinutes(90));
+
+        //then
+        assertAll(
+                () -> assertEquals(List.of(first, second), shifted, "Сдвинуты не те подзадачи"),
+                () -> assertEquals(nine.plusMinutes(90), taskManager.getSubtask(first.getId()).getStartTime(), "Первая подзадача не сдвинута"),
+                () -> assertEquals(nine.plusMinutes(150), taskManager.getSubtask(second.getId()).getStartTime(), "Вторая подзадача не сдвинута"),
+                () -> assertEquals(InMemoryTaskManager.EMPTY_START_TIME_INDICATOR, taskManager.getSubtask(unscheduled.getId()).getStartTime(), "Подзадача без времени начала не должна сдвигаться"),
+                () -> assertEquals(nine.plusMinutes(90), taskManager.getEpic(epic.getId()).getStartTime(), "Время начала эпика не пересчитано"),
+                () -> assertEquals(List.of(first, second), taskManager.getTasksInWindow(nine.plusMinutes(90), nine.plusHours(4)), "Индекс по дням не обновлен")
+        );
+    }
+
+    @Test
+    @DisplayName("Если после сдвига подзадача пересекается с другой задачей, выбрасывается OverlappingException и ничего не сдвигается")
+    void shiftEpic_ThrownOverlappingException_AndRollsBack() {
+        //given
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 7, 9, 0);
+        Epic epic = taskManager.createEpic(new Epic("epic", "descr"));
+        Subtask first = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "first", "descr", epic.getId(), nine, Duration.ofHours(1)));
+        Subtask second = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "second", "descr", epic.getId(), nine.plusHours(2), Duration.ofHours(1)));
+        taskManager.createTask(new Task(TaskStatus.NEW, "blocker", "descr", nine.plusHours(4), Duration.ofHours(1)));
+
+        //when
+        //then
+        assertAll(
+                () -> assertThrows(OverlappingException.class, () -> taskManager.shiftEpic(epic.getId(), Duration.ofHours(2))),
+                () -> assertEquals(nine, taskManager.getSubtask(first.getId()).getStartTime(), "Первая подзадача не возвращена на место"),
+                () -> assertEquals(nine.plusHours(2), taskManager.getSubtask(second.getId()).getStartTime(), "Вторая подзадача не возвращена на место"),
+                () -> assertEquals(nine.plusHours(1), taskManager.findFreeSlot(nine, Duration.ofHours(1)), "Индекс свободных промежутков не восстановлен")
+        );
+    }
+
+    @Test
+    @DisplayName("Сдвиг по фильтру переносит только подходящие задачи и подзадачи")
+    void shiftTasks_MovesOnlyMatchingTasks() {
+        //given
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 7, 9, 0);
+        Task done = taskManager.createTask(new Task(TaskStatus.DONE, "done", "descr", nine, Duration.ofHours(1)));
+        Task inProgress = taskManager.createTask(new Task(TaskStatus.IN_PROGRESS, "inProgress", "descr", nine.plusHours(2), Duration.ofHours(1)));
+        TaskQuery query = new TaskQuery(TaskStatus.IN_PROGRESS, null, null, TaskSort.ID, null, null);
+
+        //when
+        List<Task> shifted = taskManager.shiftTasks(query, Duration.ofMinutes(-60));
+
+        //then
+        assertAll(
+                () -> assertThrows(OverlappingException.class, () -> taskManager.shiftTasks(new TaskQuery(TaskStatus.DONE, null, null, TaskSort.ID, null, null), Duration.ofMinutes(30))),
+                () -> assertEquals(List.of(inProgress), shifted, "Сдвинуты не те задачи"),
+                () -> assertEquals(nine.plusHours(1), taskManager.getTask(inProgress.getId()).getStartTime(), "Задача не сдвинута"),
+                () -> assertEquals(nine, taskManager.getTask(done.getId()).getStartTime(), "Не подходящая под фильтр задача сдвинута")
+        );
+    }
+
+    @Test
+    @DisplayName("Сдвиг за пределы LocalDateTime выбрасывает IllegalArgumentException и оставляет расписание без изменений")
+    void shiftEpic_ThrowsIllegalArgumentException_AndKeepsScheduleOnOverflow() {
+        //given
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 7, 9, 0);
+        Epic epic = taskManager.createEpic(new Epic("epic", "descr"));
+        taskManager.createSubtask(new Subtask(TaskStatus.NEW, "first", "descr", epic.getId(), nine, Duration.ofHours(1)));
+        taskManager.createSubtask(new Subtask(TaskStatus.NEW, "second", "descr", epic.getId(), nine.plusHours(2), Duration.ofHours(1)));
+        Duration offset = Duration.ofMinutes(600_000_000_000_000L);
+
+        //when
+        //then
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> taskManager.shiftEpic(epic.getId(), offset)),
+                () -> assertThrows(IllegalArgumentException.class, () -> taskManager.shiftTasks(TaskQuery.ALL, offset)),
+                () -> assertEquals(2, taskManager.getPrioritizedTasks().size(), "Подзадачи выпали из расписания"),
+                () -> assertThrows(OverlappingException.class,
+                        () -> taskManager.createTask(new Task(TaskStatus.NEW, "same time", "descr", nine, Duration.ofHours(1))),
+                        "Задача на занятое время принята"),
+                () -> assertEquals(nine.plusHours(1), taskManager.findFreeSlot(nine, Duration.ofHours(1)), "Индекс свободных промежутков не восстановлен")
+        );
+    }
+
+    @Test
+    @DisplayName("Раннее начало и критический путь учитывают блокирующие задачи и пересчитываются при изменении длительности")
+    void addDependency_ComputesEarliestStartAndCriticalPath() {
+        //given
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 7, 9, 0);
+        Task design = taskManager.createTask(new Task(TaskStatus.NEW, "design", "descr", nine, Duration.ofHours(2)));
+        Task review = taskManager.createTask(new Task(TaskStatus.NEW, "review", "descr", nine.plusHours(2), Duration.ofMinutes(30)));
+        Epic epic = taskManager.createEpic(new Epic("epic", "descr"));
+        Subtask build = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "build", "descr", epic.getId()));
+        Task release = taskManager.createTask(new Task(TaskStatus.NEW, "release", "descr", nine.plusDays(1), Duration.ofHours(1)));
+
+        //when
+        taskManager.addDependency(build.getId(), design.getId());
+        taskManager.addDependency(release.getId(), build.getId());
+        taskManager.addDependency(release.getId(), review.getId());
+        TaskDependencies before = taskManager.getDependencies(release.getId());
+        taskManager.updateSubtask(new Subtask(build.getId(), TaskStatus.NEW, "build", "descr", epic.getId(), nine.plusDays(2), Duration.ofHours(3)));
+        TaskDependencies after = taskManager.getDependencies(release.getId());
+
+        //then
+        assertAll(
+                () -> assertEquals(List.of(build.getId(), review.getId()), before.getBlockedBy(), "Неверный список блокирующих задач"),
+                () -> assertEquals(nine.plusDays(1), before.getEarliestStart(), "Без времени у подзадачи раннее начало определяется временем самой задачи"),
+                () -> assertEquals(List.of(design.getId(), build.getId(), release.getId()), before.getCriticalPath(), "Неверный критический путь"),
+                () -> assertEquals(Duration.ofHours(3), before.getCriticalPathDuration(), "Неверная длительность критического пути"),
+                () -> assertEquals(nine.plusDays(2).plusHours(3), after.getEarliestStart(), "Раннее начало не пересчитано после изменения блокирующей подзадачи"),
+                () -> assertEquals(Duration.ofHours(6), after.getCriticalPathDuration(), "Длительность критического пути не пересчитана")
+        );
+    }
+
+    @Test
+    @DisplayName("Зависимость, образующая цикл, отклоняется, а удаление задачи убирает ее из зависимостей")
+    void addDependency_ThrownDependencyCycleException_WhenCycleFormed() {
+        //given
+        Task first = taskManager.createTask(new Task(TaskStatus.NEW, "first", "descr"));
+        Task second = taskManager.createTask(new Task(TaskStatus.NEW, "second", "descr"));
+        Task third = taskManager.createTask(new Task(TaskStatus.NEW, "third", "descr"));
+        taskManager.addDependency(second.getId(), first.getId());
+        taskManager.addDependency(third.getId(), second.getId());
+
+        //when
+        //then
+        assertAll(
+                () -> assertThrows(DependencyCycleException.class, () -> taskManager.addDependency(first.getId(), third.getId())),
+                () -> assertThrows(DependencyCycleException.class, () -> taskManager.addDependency(first.getId(), first.getId())),
+                () -> assertThrows(NotFoundException.class, () -> taskManager.addDependency(first.getId(), Integer.MAX_VALUE)),
+                () -> {
+                    taskManager.removeTask(second.getId());
+                    assertTrue(taskManager.getDependencies(third.getId()).getBlockedBy().isEmpty(), "Удаленная задача осталась в зависимостях");
+                }
+        );
+    }
 }
@@ -0,0 +1,139 @@
+package service.managers.task;
+
+import com.google.gson.Gson;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.managers.Managers;
+import service.server.HttpTaskServer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("VersionedTaskManager")
+class VersionedTaskManagerTest extends TaskManagerTest<VersionedTaskManager> {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private final Gson gson = HttpTaskServer.getGson();
+
+    @Override
+    void initTaskManager() {
+        taskManager = new VersionedTaskManager(Managers.getDefaultHistory(), 3);
+    }
+
+    @Test
+    @DisplayName("Отмена по шагам возвращает каждое предыдущее состояние, а повтор - последующее")
+    void undoAndRedo_RestorePreviousAndNextStates() {
+        //given
+        Epic epic = taskManager.createEpic(new Epic("epic", "description"));
+        List<Consumer<VersionedTaskManager>> changes = List.of(
+                manager -> manager.createSubtask(new Subtask(TaskStatus.DONE, "subtask", "description", epic.getId(), START, Duration.ofHours(1))),
+                manager -> manager.shiftEpic(epic.getId(), Duration.ofHours(2)),
+                manager -> manager.removeEpic(epic.getId())
+        );
+        List<String> states = new ArrayList<>(List.of(describeState()));
+
+        for (Consumer<VersionedTaskManager> change : changes) {
+            change.accept(taskManager);
+            states.add(describeState());
+        }
+
+        //when
+        List<String> undone = new ArrayList<>();
+
+        while (taskManager.undo()) {
+            undone.add(describeState());
+        }
+
+        List<String> redone = new ArrayList<>();
+
+        while (taskManager.redo()) {
+            redone.add(describeState());
+        }
+
+        //then
+        assertAll(
+                () -> assertEquals(List.of(states.get(2), states.get(1), states.get(0)), undone, "Отмена вернула не предыдущие состояния"),
+                () -> assertEquals(List.of(states.get(1), states.get(2), states.get(3)), redone, "Повтор вернул не последующие состояния"),
+                () -> assertTrue(taskManager.getAllEpics().isEmpty(), "Эпик не удален после повтора")
+        );
+    }
+
+    @Test
+    @DisplayName("Отмена удаления блокирующей задачи возвращает и ее зависимости")
+    void undo_RestoresDependenciesOfRemovedTask() {
+        //given
+        Task blocker = taskManager.createTask(new Task(TaskStatus.NEW, "blocker", "description", START, Duration.ofHours(1)));
+        Task task = taskManager.createTask(new Task(TaskStatus.NEW, "task", "description", START.plusHours(1), Duration.ofHours(1)));
+        taskManager.addDependency(task.getId(), blocker.getId());
+        taskManager.removeTask(blocker.getId());
+
+        //when
+        boolean undone = taskManager.undo();
+
+        //then
+        assertAll(
+                () -> assertTrue(undone, "Удаление не отменено"),
+                () -> assertEquals(List.of(blocker.getId()), taskManager.getDependencies(task.getId()).getBlockedBy(), "Зависимость не восстановлена"),
+                () -> assertEquals(List.of(task.getId()), taskManager.getDependencies(blocker.getId()).getBlocks(), "Задача не блокирует зависимую"),
+                () -> assertEquals(List.of(blocker.getId(), task.getId()), taskManager.getPrioritizedTasks().stream().map(Task::getId).toList(),
+                        "Задача не вернулась в расписание")
+        );
+    }
+
+    @Test
+    @DisplayName("Снимок не меняется после следующих изменений и отмен")
+    void snapshot_StaysUnchangedAfterLaterChanges() {
+        //given
+        Task task = taskManager.createTask(new Task(TaskStatus.NEW, "task", "description", START, Duration.ofHours(1)));
+        BoardSnapshot snapshot = taskManager.snapshot();
+
+        //when
+        taskManager.updateTask(new Task(task.getId(), TaskStatus.DONE, "renamed", "description", START.plusHours(5), Duration.ofHours(1)));
+        taskManager.createTask(new Task(TaskStatus.NEW, "other", "description"));
+        taskManager.undo();
+        snapshot.getAllTasks().getFirst().setName("changed by reader");
+
+        //then
+        assertAll(
+                () -> assertEquals(1, snapshot.getAllTasks().size(), "В снимке появились новые задачи"),
+                () -> assertEquals("task", snapshot.getTask(TaskType.TASK, task.getId()).getName(), "Задача в снимке изменилась"),
+                () -> assertEquals(START, snapshot.getPrioritizedTasks().getFirst().getStartTime(), "Расписание в снимке изменилось"),
+                () -> assertTrue(taskManager.getVersion() > snapshot.getVersion(), "Версия менеджера не выросла")
+        );
+    }
+
+    @Test
+    @DisplayName("Отменить можно только последние изменения в пределах лимита, а новое изменение сбрасывает повтор")
+    void undo_KeepsOnlyLimitedStepsAndNewChangeClearsRedo() {
+        //given
+        for (int i = 0; i < 5; i++) {
+            taskManager.createTask(new Task(TaskStatus.NEW, "task " + i, "description"));
+        }
+
+        //when
+        int undoDepth = taskManager.getUndoDepth();
+        taskManager.undo();
+        taskManager.createTask(new Task(TaskStatus.NEW, "new", "description"));
+
+        //then
+        assertAll(
+                () -> assertEquals(3, undoDepth, "Хранится не заданное число шагов"),
+                () -> assertFalse(taskManager.redo(), "Повтор доступен после нового изменения"),
+                () -> assertEquals(5, taskManager.getAllTasks().size(), "Число задач не совпадает с ожидаемым")
+        );
+    }
+
+    private String describeState() {
+        return gson.toJson(List.of(taskManager.getAllTasks(), taskManager.getAllSubTasks(), taskManager.getAllEpics(),
+                taskManager.getPrioritizedTasks()));
+    }
+}
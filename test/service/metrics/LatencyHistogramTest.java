@@ -0,0 +1,45 @@
+package service.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LatencyHistogram")
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Перцентили вычисляются с относительной погрешностью не больше размера подкорзины")
+    void getValueAtPercentile_WithinRelativeError() {
+        //given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        //when
+        for (int value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1_000L);
+        }
+
+        //then
+        assertAll(
+                () -> assertEquals(10_000, histogram.getCount(), "Количество записанных значений не совпадает"),
+                () -> assertEquals(5_000_000, histogram.getValueAtPercentile(50), 5_000_000 / 16.0, "Медиана вне допустимой погрешности"),
+                () -> assertEquals(9_900_000, histogram.getValueAtPercentile(99), 9_900_000 / 16.0, "99-й перцентиль вне допустимой погрешности")
+        );
+    }
+
+    @Test
+    @DisplayName("Накопленные количества по границам не убывают и в последней границе равны общему количеству")
+    void getCumulativeCounts_MonotonicUpToTotal() {
+        //given
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5);
+        histogram.record(1_000);
+        histogram.record(1_000_000);
+
+        //when
+        long[] cumulativeCounts = histogram.getCumulativeCounts(new long[]{10, 10_000, Long.MAX_VALUE});
+
+        //then
+        assertArrayEquals(new long[]{1, 2, 3}, cumulativeCounts, "Накопленные количества не совпадают");
+    }
+}
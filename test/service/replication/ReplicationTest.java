@@ -0,0 +1,267 @@
+package service.replication;
+
+import com.google.gson.Gson;
+import exception.ReadOnlyReplicaException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.managers.Managers;
+import service.managers.task.InMemoryTaskManager;
+import service.managers.task.SynchronizedTaskManager;
+import service.managers.task.TaskManager;
+import service.server.HttpTaskServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Репликация")
+class ReplicationTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final long TIMEOUT_MILLIS = 5_000;
+    private static final int LOG_CAPACITY = 4;
+
+    private final Gson gson = HttpTaskServer.getGson();
+    private InMemoryTaskManager leaderManager;
+    private TaskManager taskManager;
+    private ReplicationLog log;
+    private ReplicationLeader leader;
+    private ReplicaTaskManager replica;
+    private ReplicationFollower follower;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        leaderManager = new InMemoryTaskManager(Managers.getDefaultHistory());
+        taskManager = new SynchronizedTaskManager(leaderManager);
+        log = new ReplicationLog(leaderManager, LOG_CAPACITY);
+        leader = new ReplicationLeader(log, 0, 50);
+        leader.start();
+        replica = new ReplicaTaskManager(Managers.getDefaultHistory());
+        follower = new ReplicationFollower(replica, "localhost", leader.getPort(), 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        follower.close();
+        leader.close();
+    }
+
+    @Test
+    @DisplayName("Ведомый, подключившийся позже, получает задачи, подзадачи и зависимости снимком")
+    void follower_ReceivesSnapshotOnConnect() throws InterruptedException {
+        //given
+        Epic epic = taskManager.createEpic(new Epic("epic", "description"));
+        Task blocker = taskManager.createTask(new Task(TaskStatus.NEW, "blocker", "description", START, Duration.ofHours(1)));
+        Subtask subtask = taskManager.createSubtask(new Subtask(TaskStatus.DONE, "subtask", "description", epic.getId(),
+                START.plusHours(1), Duration.ofHours(1)));
+        taskManager.createTask(new Task(TaskStatus.IN_PROGRESS, "unscheduled", "description"));
+        taskManager.addDependency(subtask.getId(), blocker.getId());
+
+        //when
+        follower.start();
+
+        //then
+        assertTrue(follower.awaitSeq(log.getLastSeq(), TIMEOUT_MILLIS), "Ведомый не догнал лидера");
+        assertReplicated();
+    }
+
+    @Test
+    @DisplayName("Изменения лидера после подключения ведомого доходят до него, включая удаления и зависимости")
+    void follower_AppliesStreamedChanges() throws InterruptedException {
+        //given
+        follower.start();
+        Epic epic = taskManager.createEpic(new Epic("epic", "description"));
+        Task task = taskManager.createTask(new Task(TaskStatus.NEW, "task", "description", START, Duration.ofHours(1)));
+        Subtask subtask = taskManager.createSubtask(new Subtask(TaskStatus.NEW, "subtask", "description", epic.getId()));
+        Task removed = taskManager.createTask(new Task(TaskStatus.NEW, "removed", "description"));
+
+        //when
+        taskManager.updateTask(new Task(task.getId(), TaskStatus.DONE, "renamed", "description", START.plusHours(2), Duration.ofHours(1)));
+        taskManager.updateSubtask(new Subtask(subtask.getId(), TaskStatus.DONE, "subtask", "description", epic.getId(),
+                START, Duration.ofMinutes(30)));
+        taskManager.addDependency(subtask.getId(), task.getId());
+        taskManager.removeTask(removed.getId());
+        taskManager.shiftEpic(epic.getId(), Duration.ofHours(1));
+
+        //then
+        assertTrue(follower.awaitSeq(log.getLastSeq(), TIMEOUT_MILLIS), "Ведомый не догнал лидера");
+        assertAll(
+                () -> assertReplicated(),
+                () -> assertNull(replica.getAllTasks().stream().filter(t -> t.getId() == removed.getId()).findAny().orElse(null),
+                        "Удаленная задача осталась у ведомого"),
+                () -> assertEquals(TaskStatus.DONE, replica.getEpic(epic.getId()).getStatus(), "Статус эпика не пересчитан у ведомого")
+        );
+    }
+
+    @Test
+    @DisplayName("Ведомый, чьи записи вытеснены из журнала, после переподключения получает снимок")
+    void follower_ReceivesSnapshotAfterFallingBehind() throws Exception {
+        //given
+        follower.start();
+        Task task = taskManager.createTask(new Task(TaskStatus.NEW, "task", "description"));
+        assertTrue(follower.awaitSeq(log.getLastSeq(), TIMEOUT_MILLIS), "Ведомый не догнал лидера");
+        int port = leader.getPort();
+        leader.close();
+
+        //when
+        for (int i = 0; i < LOG_CAPACITY * 2; i++) {
+            taskManager.createTask(new Task(TaskStatus.NEW, "task " + i, "description"));
+        }
+
+        taskManager.removeTask(task.getId());
+        leader = rebindLeader(port);
+        leader.start();
+
+        //then
+        assertTrue(follower.awaitSeq(log.getLastSeq(), TIMEOUT_MILLIS), "Ведомый не догнал лидера");
+        assertReplicated();
+    }
+
+    @Test
+    @DisplayName("Ведомый отклоняет изменения, а после назначения лидером продолжает нумерацию задач")
+    void replica_RejectsChangesUntilPromoted() throws InterruptedException {
+        //given
+        follower.start();
+        Task task = taskManager.createTask(new Task(TaskStatus.NEW, "task", "description"));
+        assertTrue(follower.awaitSeq(log.getLastSeq(), TIMEOUT_MILLIS), "Ведомый не догнал лидера");
+
+        //when
+        assertThrows(ReadOnlyReplicaException.class, () -> replica.createTask(new Task(TaskStatus.NEW, "", "")),
+                "Ведомый принял создание задачи");
+        assertThrows(ReadOnlyReplicaException.class, () -> replica.removeTask(task.getId()), "Ведомый принял удаление задачи");
+        follower.promote();
+        Task created = replica.createTask(new Task(TaskStatus.NEW, "new", "description"));
+
+        //then
+        assertAll(
+                () -> assertFalse(replica.isReadOnly(), "Ведомый не стал принимать изменения"),
+                () -> assertTrue(created.getId() > task.getId(), "Новая задача получила уже занятый id"),
+                () -> assertEquals(2, replica.getAllTasks().size(), "Задача не создана")
+        );
+    }
+
+    @Test
+    @DisplayName("Догнавший лидера ведомый не отстает ни на одну запись")
+    void follower_ReportsNoLagWhenCaughtUp() throws InterruptedException {
+        //given
+        follower.start();
+
+        //when
+        taskManager.createTask(new Task(TaskStatus.NEW, "task", "description"));
+        assertTrue(follower.awaitSeq(log.getLastSeq(), TIMEOUT_MILLIS), "Ведомый не догнал лидера");
+
+        //then
+        assertAll(
+                () -> assertTrue(follower.isConnected(), "Ведомый не подключен"),
+                () -> assertEquals(0, follower.getLagRecords(), "Ведомый отстает от лидера"),
+                () -> assertEquals(1, leader.getFollowerCount(), "Лидер не видит ведомого")
+        );
+    }
+
+    @Test
+    @DisplayName("Ведомый сверх лимита не подключается, пока место не освободится")
+    void leader_RejectsFollowersOverLimit() throws Exception {
+        //given
+        leader.close();
+        leader = new ReplicationLeader(log, InetAddress.getLoopbackAddress(), 0, 50, 1);
+        leader.start();
+        ReplicaTaskManager extraReplica = new ReplicaTaskManager(Managers.getDefaultHistory());
+
+        try (ReplicationFollower first = new ReplicationFollower(replica, "localhost", leader.getPort(), 50);
+             ReplicationFollower extra = new ReplicationFollower(extraReplica, "localhost", leader.getPort(), 50)) {
+            first.start();
+            taskManager.createTask(new Task(TaskStatus.NEW, "task", "description"));
+            assertTrue(first.awaitSeq(log.getLastSeq(), TIMEOUT_MILLIS), "Ведомый не догнал лидера");
+
+            //when
+            extra.start();
+            Thread.sleep(300);
+
+            //then
+            assertAll(
+                    () -> assertEquals(1, leader.getFollowerCount(), "Лидер принял ведомого сверх лимита"),
+                    () -> assertFalse(extra.isConnected(), "Ведомый сверх лимита подключен"),
+                    () -> assertTrue(extraReplica.getAllTasks().isEmpty(), "Ведомый сверх лимита получил снимок")
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("Приветствие без номера записи лидер считает некорректным и закрывает соединение без необработанной ошибки")
+    void leader_ClosesConnection_onHandshakeWithoutSeq() throws Exception {
+        //given
+        List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+        Thread.UncaughtExceptionHandler previousHandler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> uncaught.add(e));
+
+        try (Socket socket = new Socket("localhost", leader.getPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            socket.setSoTimeout((int) TIMEOUT_MILLIS);
+
+            //when
+            writer.write("{\"epoch\":\"" + log.getEpoch() + "\"}\n");
+            writer.flush();
+            String answer = reader.readLine();
+
+            //then
+            assertAll(
+                    () -> assertNull(answer, "Лидер ответил на некорректное приветствие"),
+                    () -> assertTrue(uncaught.isEmpty(), "Некорректное приветствие вызвало необработанную ошибку")
+            );
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previousHandler);
+        }
+    }
+
+    // Освободившийся порт был эфемерным, и переподключающийся ведомый изредка соединяется сам с собой на нем.
+    // Такое соединение рвется на первом же обмене, поэтому занятость порта здесь временная
+    private ReplicationLeader rebindLeader(int port) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+
+        while (true) {
+            try {
+                return new ReplicationLeader(log, port, 50);
+            } catch (BindException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private void assertReplicated() {
+        assertAll(
+                () -> assertEquals(gson.toJson(taskManager.getAllTasks()), gson.toJson(replica.getAllTasks()), "Задачи не совпадают"),
+                () -> assertEquals(gson.toJson(taskManager.getAllSubTasks()), gson.toJson(replica.getAllSubTasks()), "Подзадачи не совпадают"),
+                () -> assertEquals(gson.toJson(taskManager.getAllEpics()), gson.toJson(replica.getAllEpics()), "Эпики не совпадают"),
+                () -> assertEquals(ids(taskManager.getPrioritizedTasks()), ids(replica.getPrioritizedTasks()), "Расписание не совпадает"),
+                () -> taskManager.getAllSubTasks().forEach(subtask -> assertEquals(
+                        taskManager.getDependencies(subtask.getId()).getBlockedBy(),
+                        replica.getDependencies(subtask.getId()).getBlockedBy(), "Зависимости не совпадают"))
+        );
+    }
+
+    private static List<Integer> ids(List<? extends Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
+import converter.TaskBinaryCodec;
 import exception.NotFoundException;
 import exception.OverlappingException;
 import model.Epic;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import service.managers.Managers;
 import service.managers.task.InMemoryTaskManager;
 import service.managers.task.TaskManager;
+import service.replication.ReplicaTaskManager;
 
 import java.io.IOException;
 import java.net.URI;
@@ -25,6 +27,13 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,7 +48,7 @@ class HttpTaskServerTest {
     @BeforeEach
     void setUp() {
         taskManager = new InMemoryTaskManager(Managers.getDefaultHistory());
-        server = new HttpTaskServer(taskManager);
+        server = new HttpTaskServer(taskManager, createConfig());
         client = HttpClient.newHttpClient();
 
         server.start();
@@ -50,8 +59,12 @@ class HttpTaskServerTest {
 
     @AfterEach
     void tearDown() {
-        client.close();
         server.stop();
+        client.close();
+    }
+
+    protected ServerConfig createConfig() {
+        return new ServerConfig();
     }
 
     private HttpResponse<String> sendRequest(String method, String path, String body) {
@@ -738,4 +751,801 @@ class HttpTaskServerTest {
                 () -> assertEquals(201, response.statusCode(), "Код статуса должен быть 201")
         );
     }
+
+    @Test
+    @DisplayName("На запрос 'GET /tasks' с параметрами возвращается отфильтрованная страница и общее количество в заголовке X-Total-Count")
+    void GETtasksWithQuery_returnsFilteredPage_withTotalCountHeader() {
+        //given
+        taskManager.createTask(new Task(TaskStatus.NEW, "task1", "task1"));
+        taskManager.createTask(new Task(TaskStatus.DONE, "task2", "task2"));
+        taskManager.createTask(new Task(TaskStatus.DONE, "task3", "task3"));
+
+        //when
+        HttpResponse<String> response = sendRequest("GET", "/tasks?status=DONE&limit=1");
+
+        //then
+        assertAll(
+                () -> assertEquals(gson.toJson(List.of(taskManager.getTask(1))), response.body().trim(), "Возвращаемый ответ не совпадает с ожидаемым json"),
+                () -> assertEquals("2", response.headers().firstValue("X-Total-Count").orElse(null), "Заголовок X-Total-Count не совпадает с количеством подходящих задач"),
+                () -> assertTrue(response.headers().firstValue("X-Next-Cursor").isPresent(), "Для неполной выборки не возвращается курсор"),
+                () -> assertEquals(200, response.statusCode(), "Код статуса должен быть 200")
+        );
+    }
+
+    @Test
+    @DisplayName("На запрос 'GET /tasks' с некорректным значением параметра возвращается статус 400")
+    void GETtasksWithInvalidQuery_returns400Error() {
+        //given
+        //when
+        HttpResponse<String> response = sendRequest("GET", "/tasks?status=UNKNOWN");
+
+        //then
+        assertEquals(400, response.statusCode(), "Код статуса должен быть 400");
+    }
+
+    @Test
+    @DisplayName("На запрос 'GET /events' открывается поток Server-Sent Events с изменениями задач")
+    void GETevents_streamsChangeEvents() {
+        //given
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/events"))
+                .GET().build();
+
+        //when
+        String eventData = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+            taskManager.createTask(new Task(TaskStatus.NEW, "task1", "task1"));
+
+            return response.body()
+                    .filter(line -> line.startsWith("data: "))
+                    .findFirst()
+                    .orElseThrow()
+                    .substring("data: ".length());
+        });
+
+        //then
+        JsonObject event = gson.fromJson(eventData, JsonObject.class);
+        assertAll(
+                () -> assertEquals("CREATED", event.get("kind").getAsString(), "Тип изменения не совпадает"),
+                () -> assertEquals("TASK", event.get("type").getAsString(), "Тип задачи не совпадает"),
+                () -> assertEquals(0, event.get("id").getAsInt(), "id задачи не совпадает")
+        );
+    }
+
+    @Test
+    @DisplayName("Подписчик на 'GET /events' сверх лимита получает 503 с заголовком Retry-After")
+    void GETevents_returns503_whenSubscriberLimitReached() throws IOException, InterruptedException {
+        //given
+        ServerConfig config = createConfig();
+        config.setMaxEventSubscribers(1);
+        server.stop();
+        server = new HttpTaskServer(taskManager, config);
+        server.start();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/events"))
+                .GET().build();
+        HttpResponse<Stream<String>> openResponse = client.send(request, HttpResponse.BodyHandlers.ofLines());
+
+        //when
+        HttpResponse<String> rejectedResponse = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        //then
+        assertAll(
+                () -> assertEquals(200, openResponse.statusCode(), "Первый подписчик не получил поток событий"),
+                () -> assertEquals(503, rejectedResponse.statusCode(), "Код статуса должен быть 503"),
+                () -> assertEquals("1", rejectedResponse.headers().firstValue("Retry-After").orElse(null), "Retry-After не совпадает")
+        );
+        openResponse.body().close();
+    }
+
+    @Test
+    @DisplayName("Повторный запрос 'GET /tasks' без изменений отдается из кэша, а после изменения задач кэш сбрасывается")
+    void GETtasks_servedFromCache_untilTasksChange() {
+        //given
+        taskManager.createTask(new Task(TaskStatus.NEW, "task1", "task1"));
+        sendRequest("GET", "/tasks");
+
+        //when
+        HttpResponse<String> cachedResponse = sendRequest("GET", "/tasks");
+        taskManager.createTask(new Task(TaskStatus.NEW, "task2", "task2"));
+        HttpResponse<String> refreshedResponse = sendRequest("GET", "/tasks");
+
+        //then
+        assertAll(
+                () -> assertEquals("HIT", cachedResponse.headers().firstValue("X-Cache").orElse(null), "Повторный ответ не взят из кэша"),
+                () -> assertEquals("MISS", refreshedResponse.headers().firstValue("X-Cache").orElse(null), "Кэш не сброшен после изменения задач"),
+                () -> assertEquals(gson.toJson(taskManager.getAllTasks()), refreshedResponse.body().trim(), "Возвращаемый ответ не совпадает с ожидаемым json"),
+                () -> assertEquals(1, server.getResponseCache().getHits(), "Счетчик попаданий в кэш не совпадает")
+        );
+    }
+
+    @Test
+    @DisplayName("Изменение Epic не сбрасывает кэш ответа 'GET /tasks'")
+    void GETtasks_cacheNotInvalidated_byEpicChanges() {
+        //given
+        sendRequest("GET", "/tasks");
+
+        //when
+        taskManager.createEpic(new Epic("epic", "epic"));
+        HttpResponse<String> response = sendRequest("GET", "/tasks");
+
+        //then
+        assertEquals("HIT", response.headers().firstValue("X-Cache").orElse(null), "Кэш сброшен изменением задач другого типа");
+    }
+
+    @Test
+    @DisplayName("На запрос 'GET /metrics' возвращаются метрики маршрутов и операций менеджера в формате Prometheus")
+    void GETmetrics_returnsPrometheusText() {
+        //given
+        taskManager.createTask(new Task(TaskStatus.NEW, "task1", "task1"));
+        sendRequest("GET", "/tasks/0");
+
+        //when
+        HttpResponse<String> response = sendRequest("GET", "/metrics");
+
+        //then
+        assertAll(
+                () -> assertTrue(response.body().contains("kanban_http_requests_total{route=\"GET /tasks/{id}\",status=\"200\"} 1"), "Нет счетчика запросов маршрута"),
+                () -> assertTrue(response.body().contains("kanban_manager_operation_duration_seconds_count{operation=\"getTask\"} 1"), "Нет времени выполнения операции менеджера"),
+                () -> assertEquals(200, response.statusCode(), "Код статуса должен быть 200")
+        );
+    }
+
+    @Test
+    @DisplayName("В рабочем режиме ошибка возвращается только с сообщением, без стека вызовов")
+    void GETtaskNotFound_returnsMessageWithoutStackTrace_inProductionMode() {
+        //given
+        //when
+        HttpResponse<String> response = sendRequest("GET", "/tasks/42");
+        JsonObject exceptionJsonObject = gson.fromJson(response.body(), JsonObject.class);
+
+        //then
+        assertAll(
+                () -> assertEquals("Task with id 42 not found", exceptionJsonObject.get("message").getAsString(), "Сообщение об ошибке не совпадает"),
+                () -> assertFalse(exceptionJsonObject.has("stackTrace"), "В рабочем режиме возвращается стек вызовов"),
+                () -> assertEquals(404, response.statusCode(), "Код статуса должен быть 404")
+        );
+    }
+
+    @Test
+    @DisplayName("В режиме отладки ошибка предметной области возвращается с непустым стеком вызовов")
+    void GETtaskNotFound_returnsStackTrace_inDebugMode() {
+        //given
+        ServerConfig config = createConfig();
+        config.setDebug(true);
+        server.stop();
+        server = new HttpTaskServer(taskManager, config);
+        server.start();
+
+        //when
+        HttpResponse<String> response = sendRequest("GET", "/tasks/42");
+        JsonObject exceptionJsonObject = gson.fromJson(response.body(), JsonObject.class);
+
+        //then
+        assertAll(
+                () -> assertTrue(exceptionJsonObject.has("stackTrace"), "В режиме отладки нет стека вызовов"),
+                () -> assertFalse(exceptionJsonObject.getAsJsonArray("stackTrace").isEmpty(), "В режиме отладки стек вызовов пуст"),
+                () -> assertEquals(0, new NotFoundException("outside").getStackTrace().length,
+                        "Отладочный сервер включил сбор стека вне своих запросов"),
+                () -> assertEquals(404, response.statusCode(), "Код статуса должен быть 404")
+        );
+    }
+
+    @Test
+    @DisplayName("Идентификатор вне диапазона int в пути отклоняется с кодом 400, а не 500")
+    void GETtask_returns400_whenIdOverflows() {
+        //given
+        //when
+        HttpResponse<String> response = sendRequest("GET", "/tasks/99999999999");
+
+        //then
+        assertEquals(400, response.statusCode(), "Код статуса должен быть 400");
+    }
+
+    @Test
+    @DisplayName("IllegalArgumentException внутри сервера - внутренняя ошибка с кодом 500, а не ошибка клиента")
+    void GETtask_returns500_onInternalIllegalArgument() {
+        //given
+        TaskManager failingManager = new InMemoryTaskManager(Managers.getDefaultHistory()) {
+            @Override
+            public Task getTask(int id) {
+                throw new IllegalArgumentException("Broken invariant");
+            }
+        };
+        server.stop();
+        server = new HttpTaskServer(failingManager, createConfig());
+        server.start();
+
+        //when
+        HttpResponse<String> response = sendRequest("GET", "/tasks/1");
+
+        //then
+        assertEquals(500, response.statusCode(), "Код статуса должен быть 500");
+    }
+
+    @Test
+    @DisplayName("Изменение на реплике только для чтения - код 503 с заголовком Retry-After")
+    void POSTtask_returns503WithRetryAfter_onReadOnlyReplica() {
+        //given
+        server.stop();
+        server = new HttpTaskServer(new ReplicaTaskManager(Managers.getDefaultHistory()), createConfig());
+        server.start();
+        Task task = new Task(TaskStatus.NEW, "task", "description");
+
+        //when
+        HttpResponse<String> response = sendRequest("POST", "/tasks", gson.toJson(task));
+
+        //then
+        assertAll(
+                () -> assertEquals(503, response.statusCode(), "Код статуса должен быть 503"),
+                () -> assertTrue(response.headers().firstValue("Retry-After").isPresent(), "Нет заголовка Retry-After"),
+                () -> assertTrue(response.body().contains("read-only replica"), "В ответе нет причины отказа")
+        );
+    }
+
+    @Test
+    @DisplayName("При Accept двоичного формата 'GET /tasks' возвращает список задач в двоичном виде и кэшируется отдельно от Json")
+    void GETtasks_returnsBinaryList_whenBinaryAccepted() throws IOException, InterruptedException {
+        //given
+        taskManager.createTask(new Task(TaskStatus.NEW, "task1", "task1", LocalDateTime.of(2024, 1, 1, 10, 0), Duration.ofMinutes(30)));
+        sendRequest("GET", "/tasks");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/tasks"))
+                .header("Accept", TaskBinaryCodec.MEDIA_TYPE)
+                .GET().build();
+
+        //when
+        HttpResponse<List<Task>> response = client.send(request, TaskBinaryCodec.listBodyHandler());
+
+        //then
+        assertAll(
+                () -> assertEquals(taskManager.getAllTasks(), response.body(), "Список задач не совпадает"),
+                () -> assertEquals(taskManager.getAllTasks().getFirst().getStartTime(), response.body().getFirst().getStartTime(), "Время начала задачи не совпадает"),
+                () -> assertEquals(TaskBinaryCodec.MEDIA_TYPE, response.headers().firstValue("Content-Type").orElse(null), "Тип содержимого не совпадает"),
+                () -> assertEquals("MISS", response.headers().firstValue("X-Cache").orElse(null), "Двоичный ответ взят из кэша Json")
+        );
+    }
+
+    @Test
+    @DisplayName("Двоичное тело с отрицательной длиной строки отклоняется с кодом 400, а не 500")
+    void POSTtasks_returns400_whenBinaryBodyHasNegativeLength() throws IOException, InterruptedException {
+        //given
+        // Задача с одним полем name, длина которого - десятибайтовый varint со значением -1
+        byte[] body = {0, 1 << 2, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/tasks"))
+                .header("Content-Type", TaskBinaryCodec.MEDIA_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+
+        //when
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        //then
+        assertAll(
+                () -> assertEquals(400, response.statusCode(), "Код статуса должен быть 400"),
+                () -> assertTrue(taskManager.getAllTasks().isEmpty(), "Задача создана из некорректного тела")
+        );
+    }
+
+    @Test
+    @DisplayName("На запрос 'POST /subtasks' с двоичным телом создается Subtask")
+    void POSTsubtasks_createsSubtask_fromBinaryBody() throws IOException, InterruptedException {
+        //given
+        taskManager.createEpic(new Epic("epic", "epic"));
+        Subtask subtask = new Subtask(TaskStatus.NEW, "subtask", "subtask", 0);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/subtasks"))
+                .header("Content-Type", TaskBinaryCodec.MEDIA_TYPE)
+                .POST(TaskBinaryCodec.bodyPublisher(subtask)).build();
+
+        //when
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        //then
+        assertAll(
+                () -> assertEquals(201, response.statusCode(), "Код статуса должен быть 201"),
+                () -> assertEquals("subtask", taskManager.getSubtask(1).getName(), "Имя подзадачи не совпадает"),
+                () -> assertEquals(0, taskManager.getSubtask(1).getEpicId(), "Эпик подзадачи не совпадает")
+        );
+    }
+
+    @Test
+    @DisplayName("Тело запроса больше допустимого отклоняется с кодом 413 без создания задачи")
+    void POSTtasks_returns413_whenBodyTooLarge() {
+        //given
+        ServerConfig config = createConfig();
+        config.setMaxRequestBodySize(1024);
+        server.stop();
+        server = new HttpTaskServer(taskManager, config);
+        server.start();
+        String body = gson.toJson(new Task(TaskStatus.NEW, "task", "d".repeat(4 * 1024)));
+
+        //when
+        HttpResponse<String> response = sendRequest("POST", "/tasks", body);
+
+        //then
+        assertAll(
+                () -> assertEquals(413, response.statusCode(), "Код статуса должен быть 413"),
+                () -> assertTrue(taskManager.getAllTasks().isEmpty(), "Задача создана из слишком большого тела")
+        );
+    }
+
+    @Test
+    @DisplayName("На запрос 'POST /tasks' с телом NDJSON создаются все задачи, а в ответе возвращаются их id")
+    void POSTtasks_createsTasks_fromNdjsonBody() throws IOException, InterruptedException {
+        //given
+        String body = gson.toJson(new Task(TaskStatus.NEW, "task1", "task1")) + "\n"
+                + gson.toJson(new Task(TaskStatus.DONE, "task2", "task2")) + "\n";
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/tasks"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+
+        //when
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        //then
+        assertAll(
+                () -> assertEquals(201, response.statusCode(), "Код статуса должен быть 201"),
+                () -> assertEquals("[0,1]", response.body().trim(), "id созданных задач не совпадают"),
+                () -> assertEquals(2, taskManager.getAllTasks().size(), "Количество задач не совпадает"),
+                () -> assertEquals(TaskStatus.DONE, taskManager.getTask(1).getStatus(), "Статус задачи не совпадает")
+        );
+    }
+
+    @Test
+    @DisplayName("Лимит тела для NDJSON на JDK-движке действует на каждую строку, а не на все тело")
+    void POSTtasks_appliesBodyLimitPerNdjsonLine() throws IOException, InterruptedException {
+        //given
+        ServerConfig config = createConfig();
+        config.setMaxRequestBodySize(16 * 1024);
+        server.stop();
+        server = new HttpTaskServer(taskManager, config);
+        server.start();
+        StringBuilder body = new StringBuilder();
+
+        for (int i = 0; i < 200; i++) {
+            body.append(gson.toJson(new Task(TaskStatus.NEW, "task" + i, "d".repeat(64)))).append('\n');
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/tasks"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build();
+
+        //when
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        //then
+        assertAll(
+                () -> assertTrue(body.length() > 16 * 1024, "Тело должно быть больше лимита"),
+                () -> assertEquals(expectedStatusForNdjsonOverBodyLimit(), response.statusCode(), "Код статуса не совпадает")
+        );
+    }
+
+    // JDK-движок передает тело обработчику потоком
+    protected int expectedStatusForNdjsonOverBodyLimit() {
+        return 201;
+    }
+
+    @Test
+    @DisplayName("Ошибка в строке NDJSON возвращает номер строки и id задач, сохраненных до нее")
+    void POSTtasks_reportsSavedIdsAndFailedLine_whenNdjsonLineFails() throws IOException, InterruptedException {
+        //given
+        String body = gson.toJson(new Task(TaskStatus.NEW, "task1", "task1")) + "\n"
+                + gson.toJson(new Task(TaskStatus.NEW, "task2", "task2")) + "\n"
+                + "{\"status\":\"UNKNOWN\"}\n"
+                + gson.toJson(new Task(TaskStatus.NEW, "task4", "task4")) + "\n";
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/tasks"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+
+        //when
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonObject failure = gson.fromJson(response.body(), JsonObject.class);
+
+        //then
+        assertAll(
+                () -> assertEquals(400, response.statusCode(), "Код статуса должен быть 400"),
+                () -> assertEquals(3, failure.get("line").getAsInt(), "Номер строки с ошибкой не совпадает"),
+                () -> assertEquals("[0,1]", failure.get("savedIds").toString(), "id сохраненных задач не совпадают"),
+                () -> assertEquals(2, taskManager.getAllTasks().size(), "Строки после ошибочной не должны сохраняться")
+        );
+    }
+
+    @Test
+    @DisplayName("Строка NDJSON, пересекающаяся по времени с другой задачей, отклоняется с кодом 406 и номером строки")
+    void POSTtasks_keepsDomainStatus_whenNdjsonLineOverlaps() throws IOException, InterruptedException {
+        //given
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        String body = gson.toJson(new Task(TaskStatus.NEW, "task1", "task1", start, Duration.ofMinutes(30))) + "\n"
+                + gson.toJson(new Task(TaskStatus.NEW, "task2", "task2", start, Duration.ofMinutes(30))) + "\n";
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/tasks"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+
+        //when
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonObject failure = gson.fromJson(response.body(), JsonObject.class);
+
+        //then
+        assertAll(
+                () -> assertEquals(406, response.statusCode(), "Код статуса должен быть 406"),
+                () -> assertEquals(2, failure.get("line").getAsInt(), "Номер строки с ошибкой не совпадает"),
+                () -> assertEquals("[0]", failure.get("savedIds").toString(), "id сохраненных задач не совпадают")
+        );
+    }
+
+    @Test
+    @DisplayName("Два объекта в одной строке NDJSON отклоняются с кодом 400 и настоящим номером строки с учетом пустых")
+    void POSTtasks_rejectsSeveralObjectsOnOneNdjsonLine() throws IOException, InterruptedException {
+        //given
+        String task = gson.toJson(new Task(TaskStatus.NEW, "task", "task"));
+        String body = task + "\n\n" + task + task + "\n";
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/tasks"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+
+        //when
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonObject failure = gson.fromJson(response.body(), JsonObject.class);
+
+        //then
+        assertAll(
+                () -> assertEquals(400, response.statusCode(), "Код статуса должен быть 400"),
+                () -> assertEquals(3, failure.get("line").getAsInt(), "Номер строки с ошибкой не совпадает"),
+                () -> assertEquals("[0]", failure.get("savedIds").toString(), "id сохраненных задач не совпадают")
+        );
+    }
+
+    @Test
+    @DisplayName("Строка NDJSON с нестрогим Json - ключами без кавычек, одинарными кавычками или ';' - отклоняется с кодом 400")
+    void POSTtasks_rejectsLenientJsonInNdjsonLine() {
+        //given
+        List<String> lenientLines = List.of("{name:\"task\",description:\"task\"}",
+                "{'name':'task','description':'task'}",
+                "{\"name\":\"task\";\"description\":\"task\"}");
+
+        //when
+        List<Integer> statusCodes = lenientLines.stream()
+                .map(line -> {
+                    HttpRequest request = HttpRequest.newBuilder()
+                            .uri(URI.create(SERVER_URI_STRING + "/tasks"))
+                            .header("Content-Type", "application/x-ndjson")
+                            .POST(HttpRequest.BodyPublishers.ofString(line + "\n")).build();
+
+                    try {
+                        return client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode();
+                    } catch (IOException | InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .toList();
+
+        //then
+        assertAll(
+                () -> assertEquals(List.of(400, 400, 400), statusCodes, "Нестрогий Json принят"),
+                () -> assertTrue(taskManager.getAllTasks().isEmpty(), "Задачи из нестрогого Json сохранены")
+        );
+    }
+
+    @Test
+    @DisplayName("Тело с несколькими Json-значениями без NDJSON отклоняется с кодом 400")
+    void POSTtasks_returns400_whenBodyHasTrailingData() {
+        //given
+        String body = gson.toJson(new Task(TaskStatus.NEW, "task1", "task1")) + "{}";
+
+        //when
+        HttpResponse<String> response = sendRequest("POST", "/tasks", body);
+
+        //then
+        assertEquals(400, response.statusCode(), "Код статуса должен быть 400");
+    }
+
+    @Test
+    @DisplayName("На запрос 'GET /subtasks?fields=id,status,epicId' возвращаются только выбранные поля")
+    void GETsubtasks_returnsOnlySelectedFields() {
+        //given
+        taskManager.createEpic(new Epic("epic", "epic"));
+        taskManager.createSubtask(new Subtask(TaskStatus.NEW, "subtask", "subtask", 0, LocalDateTime.of(2024, 1, 1, 10, 0), Duration.ofMinutes(30)));
+
+        //when
+        HttpResponse<String> response = sendRequest("GET", "/subtasks?fields=id,status,epicId");
+
+        //then
+        assertAll(
+                () -> assertEquals(200, response.statusCode(), "Код статуса должен быть 200"),
+                () -> assertEquals("[{\"epicId\":0,\"id\":1,\"status\":\"NEW\"}]", response.body().trim(), "Возвращаемый ответ не совпадает с ожидаемым json")
+        );
+    }
+
+    @Test
+    @DisplayName("Неизвестное поле в параметре fields отклоняется с кодом 400, и задача не попадает в историю")
+    void GETtask_returns400_onUnknownField() {
+        //given
+        taskManager.createTask(new Task(TaskStatus.NEW, "task", "task"));
+
+        //when
+        HttpResponse<String> response = sendRequest("GET", "/tasks/0?fields=id,owner");
+
+        //then
+        assertAll(
+                () -> assertEquals(400, response.statusCode(), "Код статуса должен быть 400"),
+                () -> assertTrue(taskManager.getHistory().isEmpty(), "Задача попала в историю")
+        );
+    }
+
+    @Test
+    @DisplayName("Запросы на изменение сверх лимита клиента отклоняются с кодом 429 и заголовком Retry-After, а чтение остается доступным")
+    void POSTtasks_returns429_whenWriteRateExceeded() {
+        //given
+        ServerConfig config = createConfig();
+        config.setWriteRateLimit(0.1);
+        config.setWriteBurst(1);
+        server.stop();
+        server = new HttpTaskServer(taskManager, config);
+        server.start();
+        sendRequest("POST", "/tasks", gson.toJson(new Task(TaskStatus.NEW, "task1", "task1")));
+
+        //when
+        HttpResponse<String> rejectedResponse = sendRequest("POST", "/tasks", gson.toJson(new Task(TaskStatus.NEW, "task2", "task2")));
+        HttpResponse<String> readResponse = sendRequest("GET", "/tasks");
+
+        //then
+        assertAll(
+                () -> assertEquals(429, rejectedResponse.statusCode(), "Код статуса должен быть 429"),
+                () -> assertEquals("10", rejectedResponse.headers().firstValue("Retry-After").orElse(null), "Retry-After не совпадает"),
+                () -> assertEquals(200, readResponse.statusCode(), "Чтение ограничено лимитом изменений"),
+                () -> assertEquals(1, taskManager.getAllTasks().size(), "Отклоненная задача создана")
+        );
+    }
+
+    @Test
+    @DisplayName("Когда все потоки сервера заняты, запрос сразу получает 503 с заголовком Retry-After")
+    void GETtasks_returns503_whenAllWorkersBusy() throws Exception {
+        //given
+        ServerConfig config = createConfig();
+        config.setMinConcurrency(1);
+        config.setInitialConcurrency(1);
+        config.setMaxConcurrency(1);
+        config.setMaxQueueSize(0);
+        CountDownLatch historyEntered = new CountDownLatch(1);
+        CountDownLatch releaseHistory = new CountDownLatch(1);
+        TaskManager blockingManager = new InMemoryTaskManager(Managers.getDefaultHistory()) {
+            @Override
+            public List<Task> getHistory() {
+                historyEntered.countDown();
+
+                try {
+                    releaseHistory.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return super.getHistory();
+            }
+        };
+        server.stop();
+        server = new HttpTaskServer(blockingManager, config);
+        server.start();
+        CompletableFuture<HttpResponse<String>> blockedResponse = client.sendAsync(HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/history")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertTrue(historyEntered.await(5, TimeUnit.SECONDS), "Первый запрос не занял поток сервера");
+
+        //when
+        HttpResponse<String> rejectedResponse;
+
+        try {
+            rejectedResponse = sendRequest("GET", "/tasks");
+        } finally {
+            releaseHistory.countDown();
+        }
+
+        //then
+        assertAll(
+                () -> assertEquals(503, rejectedResponse.statusCode(), "Код статуса должен быть 503"),
+                () -> assertEquals("1", rejectedResponse.headers().firstValue("Retry-After").orElse(null), "Retry-After не совпадает"),
+                () -> assertEquals(0, server.getConcurrencyLimit().getRejected(), "Запрос должен отклонить пул потоков, а не лимит параллельности"),
+                () -> assertEquals(200, blockedResponse.get(5, TimeUnit.SECONDS).statusCode(), "Занявший поток запрос не выполнен")
+        );
+    }
+
+    @Test
+    @DisplayName("Неизвестный ключ API не дает отдельного лимита: клиент ограничивается по IP-адресу")
+    void POSTtasks_limitsByAddress_whenApiKeyUnknown() throws IOException, InterruptedException {
+        //given
+        ServerConfig config = createConfig();
+        config.setWriteRateLimit(0.1);
+        config.setWriteBurst(1);
+        config.setApiKeys(Set.of("known"));
+        server.stop();
+        server = new HttpTaskServer(taskManager, config);
+        server.start();
+
+        //when
+        List<Integer> statuses = new ArrayList<>();
+
+        for (String apiKey : List.of("random1", "random2", "known")) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(SERVER_URI_STRING + "/tasks"))
+                    .header("X-API-Key", apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(new Task(TaskStatus.NEW, apiKey, "task"))))
+                    .build();
+            statuses.add(client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+
+        //then
+        assertEquals(List.of(201, 429, 201), statuses, "Новый неизвестный ключ обошел лимит или известный ключ его не получил");
+    }
+
+    @Test
+    @DisplayName("Повторный 'POST /tasks' с тем же Idempotency-Key возвращает первый результат без создания дубликата")
+    void POSTtasks_replaysOutcome_forSameIdempotencyKey() throws IOException, InterruptedException {
+        //given
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/tasks"))
+                .header("Idempotency-Key", "c0ffee")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(new Task(TaskStatus.NEW, "task", "task")))).build();
+
+        //when
+        HttpResponse<String> firstResponse = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> retryResponse = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        //then
+        assertAll(
+                () -> assertEquals(201, retryResponse.statusCode(), "Код статуса должен быть 201"),
+                () -> assertEquals("0", firstResponse.headers().firstValue("X-Task-Id").orElse(null), "id созданной задачи не возвращен"),
+                () -> assertEquals("0", retryResponse.headers().firstValue("X-Task-Id").orElse(null), "Повтор вернул другой id"),
+                () -> assertEquals("true", retryResponse.headers().firstValue("Idempotent-Replayed").orElse(null), "Повтор не помечен"),
+                () -> assertEquals(1, taskManager.getAllTasks().size(), "Повтор создал дубликат задачи")
+        );
+    }
+
+    @Test
+    @DisplayName("Одинаковый Idempotency-Key разных клиентов не смешивается, а повтор ключа с другим телом получает 422")
+    void POSTtasks_scopesIdempotencyKeyByClientAndBody() throws IOException, InterruptedException {
+        //given
+        ServerConfig config = createConfig();
+        config.setApiKeys(Set.of("alice", "bob"));
+        server.stop();
+        server = new HttpTaskServer(taskManager, config);
+        server.start();
+
+        //when
+        HttpResponse<String> aliceResponse = client.send(idempotentPost("alice", "alice task"), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> bobResponse = client.send(idempotentPost("bob", "bob task"), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> changedRetryResponse = client.send(idempotentPost("alice", "other task"), HttpResponse.BodyHandlers.ofString());
+
+        //then
+        assertAll(
+                () -> assertEquals("0", aliceResponse.headers().firstValue("X-Task-Id").orElse(null), "id первой задачи не совпадает"),
+                () -> assertEquals(201, bobResponse.statusCode(), "Код статуса должен быть 201"),
+                () -> assertEquals("1", bobResponse.headers().firstValue("X-Task-Id").orElse(null), "Другой клиент получил чужой результат"),
+                () -> assertEquals(422, changedRetryResponse.statusCode(), "Код статуса должен быть 422"),
+                () -> assertEquals(2, taskManager.getAllTasks().size(), "Количество задач не совпадает")
+        );
+    }
+
+    private HttpRequest idempotentPost(String apiKey, String taskName) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(SERVER_URI_STRING + "/tasks"))
+                .header("X-API-Key", apiKey)
+                .header("Idempotency-Key", "1")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(new Task(TaskStatus.NEW, taskName, "task")))).build();
+    }
+
+    @Test
+    @DisplayName("На запрос 'GET /timeline' с окном from-to возвращаются пересекающие его задачи, а без параметров - статус 400")
+    void GETtimeline_returnsTasksInWindow() {
+        //given
+        LocalDateTime monday = LocalDateTime.of(2030, 1, 7, 9, 0);
+        taskManager.createTask(new Task(TaskStatus.NEW, "task1", "task1", monday.minusDays(1), Duration.ofDays(2)));
+        taskManager.createTask(new Task(TaskStatus.NEW, "task2", "task2", monday.plusDays(10), Duration.ofHours(1)));
+
+        //when
+        HttpResponse<String> response = sendRequest("GET", "/timeline?from=2030-01-07T00:00&to=2030-01-12T00:00");
+        HttpResponse<String> runningResponse = sendRequest("GET", "/timeline?at=2030-01-17T09:30");
+        HttpResponse<String> badResponse = sendRequest("GET", "/timeline");
+
+        //then
+        assertAll(
+                () -> assertEquals(200, response.statusCode(), "Код статуса должен быть 200"),
+                () -> assertEquals(gson.toJson(List.of(taskManager.getTask(0))), response.body().trim(), "В окно попали не те задачи"),
+                () -> assertEquals(gson.toJson(List.of(taskManager.getTask(1))), runningResponse.body().trim(), "Не найдена выполняющаяся задача"),
+                () -> assertEquals(400, badResponse.statusCode(), "Без границ окна код статуса должен быть 400")
+        );
+    }
+
+    @Test
+    @DisplayName("На запрос 'POST /schedule' задачи без времени начала размещаются, а 'GET /schedule/free-slot' возвращает следующий свободный промежуток")
+    void POSTschedule_assignsStartTimes() {
+        //given
+        taskManager.createTask(new Task(TaskStatus.NEW, "task1", "task1"));
+        taskManager.createTask(new Task(TaskStatus.NEW, "task2", "task2"));
+
+        //when
+        HttpResponse<String> response = sendRequest("POST", "/schedule?after=2030-01-07T09:00&duration=45");
+        HttpResponse<String> slotResponse = sendRequest("GET", "/schedule/free-slot?after=2030-01-07T09:00&duration=60");
+        HttpResponse<String> badResponse = sendRequest("GET", "/schedule/free-slot?duration=0");
+
+        //then
+        assertAll(
+                () -> assertEquals(200, response.statusCode(), "Код статуса должен быть 200"),
+                () -> assertEquals(gson.toJson(List.of(taskManager.getTask(0), taskManager.getTask(1))), response.body().trim(), "Возвращаемый ответ не совпадает с ожидаемым json"),
+                () -> assertEquals(LocalDateTime.of(2030, 1, 7, 9, 45), taskManager.getTask(1).getStartTime(), "Вторая задача должна начаться после первой"),
+                () -> assertEquals("{\"startTime\":\"2030-01-07T10:30:00\"}", slotResponse.body().trim(), "Неверный свободный промежуток"),
+                () -> assertEquals(400, badResponse.statusCode(), "Нулевая длительность должна отклоняться со статусом 400")
+        );
+    }
+
+    @Test
+    @DisplayName("На запрос 'POST /epics/{id}/shift' подзадачи эпика сдвигаются, а при пересечении возвращается статус 406")
+    void POSTepicShift_movesSubtasks() {
+        //given
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 7, 9, 0);
+        taskManager.createEpic(new Epic("epic", "epic"));
+        taskManager.createSubtask(new Subtask(TaskStatus.NEW, "subtask1", "subtask1", 0, nine, Duration.ofHours(1)));
+        taskManager.createTask(new Task(TaskStatus.NEW, "task1", "task1", nine.plusHours(3), Duration.ofHours(1)));
+
+        //when
+        HttpResponse<String> response = sendRequest("POST", "/epics/0/shift?offset=60");
+        HttpResponse<String> overlappingResponse = sendRequest("POST", "/epics/0/shift?offset=120");
+
+        //then
+        assertAll(
+                () -> assertEquals(200, response.statusCode(), "Код статуса должен быть 200"),
+                () -> assertEquals(gson.toJson(List.of(taskManager.getSubtask(1))), response.body().trim(), "Возвращаемый ответ не совпадает с ожидаемым json"),
+                () -> assertEquals(nine.plusHours(1), taskManager.getSubtask(1).getStartTime(), "Подзадача не сдвинута"),
+                () -> assertEquals(406, overlappingResponse.statusCode(), "При пересечении код статуса должен быть 406")
+        );
+    }
+
+    @Test
+    @DisplayName("Сдвиг за пределы допустимого времени отклоняется с кодом 400, и задачи остаются в расписании")
+    void POSTscheduleShift_returns400_onOverflow() {
+        //given
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 7, 9, 0);
+        taskManager.createEpic(new Epic("epic", "epic"));
+        taskManager.createSubtask(new Subtask(TaskStatus.NEW, "subtask1", "subtask1", 0, nine, Duration.ofHours(1)));
+        taskManager.createSubtask(new Subtask(TaskStatus.NEW, "subtask2", "subtask2", 0, nine.plusHours(2), Duration.ofHours(1)));
+
+        //when
+        HttpResponse<String> response = sendRequest("POST", "/schedule/shift?offset=600000000000000");
+        HttpResponse<String> epicResponse = sendRequest("POST", "/epics/0/shift?offset=600000000000000");
+
+        //then
+        assertAll(
+                () -> assertEquals(400, response.statusCode(), "Код статуса должен быть 400"),
+                () -> assertEquals(400, epicResponse.statusCode(), "Код статуса должен быть 400"),
+                () -> assertEquals(2, taskManager.getPrioritizedTasks().size(), "Подзадачи выпали из расписания")
+        );
+    }
+
+    @Test
+    @DisplayName("На запросы к '/tasks/{id}/dependencies' зависимости добавляются, возвращаются в формате Json, а цикл отклоняется со статусом 409")
+    void POSTtaskDependencies_addsDependency() {
+        //given
+        taskManager.createTask(new Task(TaskStatus.NEW, "task1", "task1", LocalDateTime.of(2030, 1, 7, 9, 0), Duration.ofHours(1)));
+        taskManager.createTask(new Task(TaskStatus.NEW, "task2", "task2"));
+
+        //when
+        HttpResponse<String> response = sendRequest("POST", "/tasks/1/dependencies?blockedBy=0");
+        HttpResponse<String> getResponse = sendRequest("GET", "/tasks/1/dependencies");
+        HttpResponse<String> cycleResponse = sendRequest("POST", "/tasks/0/dependencies?blockedBy=1");
+        HttpResponse<String> deleteResponse = sendRequest("DELETE", "/tasks/1/dependencies/0");
+
+        //then
+        assertAll(
+                () -> assertEquals(200, response.statusCode(), "Код статуса должен быть 200"),
+                () -> assertEquals(response.body(), getResponse.body(), "Ответ на GET не совпадает с ответом на добавление"),
+                () -> assertTrue(getResponse.body().contains("\"blockedBy\":[0]"), "В ответе нет блокирующей задачи"),
+                () -> assertTrue(getResponse.body().contains("\"earliestStart\":\"2030-01-07T10:00:00\""), "В ответе нет раннего начала"),
+                () -> assertEquals(409, cycleResponse.statusCode(), "При цикле код статуса должен быть 409"),
+                () -> assertTrue(deleteResponse.body().contains("\"blockedBy\":[]"), "Зависимость не удалена")
+        );
+    }
 }
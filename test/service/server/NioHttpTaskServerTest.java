@@ -0,0 +1,86 @@
+package service.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.server.transport.TransportType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Те же сценарии, что и для JDK-сервера, на NIO-движке, плюс проверки keep-alive и конвейера запросов
+@DisplayName("HttpTaskServer на NIO-движке")
+class NioHttpTaskServerTest extends HttpTaskServerTest {
+
+    @Override
+    protected ServerConfig createConfig() {
+        ServerConfig config = new ServerConfig();
+        config.setTransport(TransportType.NIO);
+        return config;
+    }
+
+    // NIO-движок читает тело целиком до вызова обработчика, поэтому лимит действует на весь запрос
+    @Override
+    protected int expectedStatusForNdjsonOverBodyLimit() {
+        return 413;
+    }
+
+    @Test
+    @DisplayName("Запросы, отправленные одним пакетом по одному соединению, получают ответы по порядку")
+    void pipelinedRequests_answeredInOrder_onOneConnection() throws IOException {
+        //given
+        String requests = "GET /tasks HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                + "POST /tasks HTTP/1.1\r\nHost: localhost\r\nContent-Length: 30\r\n\r\n{\"name\":\"task\",\"status\":\"NEW\"}"
+                + "GET /tasks/0 HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+
+        //when
+        String responses;
+
+        try (Socket socket = new Socket("localhost", 8080)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(requests.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            responses = readAll(socket.getInputStream());
+        }
+
+        //then
+        int listResponse = responses.indexOf("HTTP/1.1 200");
+        int createdResponse = responses.indexOf("HTTP/1.1 201");
+        int taskResponse = responses.indexOf("HTTP/1.1 200", createdResponse);
+        assertAll(
+                () -> assertTrue(listResponse >= 0 && listResponse < createdResponse, "Ответ на первый запрос не пришел первым"),
+                () -> assertTrue(taskResponse > createdResponse, "Ответ на третий запрос не пришел последним"),
+                () -> assertTrue(responses.substring(taskResponse).contains("\"name\":\"task\""), "Последний ответ не содержит созданную задачу"),
+                () -> assertTrue(responses.contains("Connection: close"), "Соединение не закрыто по запросу клиента")
+        );
+    }
+
+    @Test
+    @DisplayName("Тело запроса в chunked-кодировке отклоняется с кодом 411")
+    void chunkedRequestBody_rejectedWith411() throws IOException {
+        //given
+        String request = "POST /tasks HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: chunked\r\n\r\n2\r\n{}\r\n0\r\n\r\n";
+
+        //when
+        String response;
+
+        try (Socket socket = new Socket("localhost", 8080)) {
+            socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+            response = readAll(socket.getInputStream());
+        }
+
+        //then
+        assertTrue(response.startsWith("HTTP/1.1 411"), "Код статуса должен быть 411");
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        in.transferTo(bytes);
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
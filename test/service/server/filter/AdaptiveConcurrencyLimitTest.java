@@ -0,0 +1,80 @@
+package service.server.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AdaptiveConcurrencyLimit")
+class AdaptiveConcurrencyLimitTest {
+
+    @Test
+    @DisplayName("При заполненном лимите и пустой очереди запрос сразу отклоняется")
+    void tryAcquire_RejectsImmediately_WhenLimitReachedAndNoQueue() throws InterruptedException {
+        //given
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(1, 1, 1, 0, 1_000);
+        concurrencyLimit.tryAcquire();
+
+        //when
+        boolean admitted = concurrencyLimit.tryAcquire();
+
+        //then
+        assertAll(
+                () -> assertFalse(admitted, "Запрос сверх лимита был допущен"),
+                () -> assertEquals(1, concurrencyLimit.getRejected(), "Отклоненный запрос не учтен")
+        );
+    }
+
+    @Test
+    @DisplayName("Запрос в очереди допускается после освобождения места")
+    void tryAcquire_AdmitsQueuedRequest_AfterRelease() throws InterruptedException {
+        //given
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(1, 1, 1, 1, 5_000);
+        concurrencyLimit.tryAcquire();
+        Thread releaser = new Thread(() -> {
+            while (concurrencyLimit.getWaiting() == 0) {
+                Thread.onSpinWait();
+            }
+
+            concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(1));
+        });
+        releaser.start();
+
+        //when
+        boolean admitted = concurrencyLimit.tryAcquire();
+        releaser.join();
+
+        //then
+        assertTrue(admitted, "Ожидающий в очереди запрос не был допущен");
+    }
+
+    @Test
+    @DisplayName("Лимит растет при стабильной задержке и снижается при ее росте")
+    void release_AdjustsLimitByLatency() throws InterruptedException {
+        //given
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(2, 10, 100, 0, 0);
+
+        //when
+        for (int i = 0; i < 50; i++) {
+            concurrencyLimit.tryAcquire();
+            concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        int grownLimit = concurrencyLimit.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            concurrencyLimit.tryAcquire();
+            concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+
+        int reducedLimit = concurrencyLimit.getLimit();
+
+        //then
+        assertAll(
+                () -> assertTrue(grownLimit > 10, "Лимит не вырос при стабильной задержке"),
+                () -> assertTrue(reducedLimit < grownLimit, "Лимит не снизился при росте задержки")
+        );
+    }
+}
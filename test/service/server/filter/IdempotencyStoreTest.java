@@ -0,0 +1,62 @@
+package service.server.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IdempotencyStore")
+class IdempotencyStoreTest {
+    private static final IdempotencyStore.Outcome CREATED = new IdempotencyStore.Outcome(201, Map.of(), new byte[0], new byte[0]);
+
+    @Test
+    @DisplayName("Повтор с тем же ключом получает сохраненный результат, а выполняющийся запрос помечается как незавершенный")
+    void begin_returnsStoredOutcome_forRepeatedKey() {
+        //given
+        IdempotencyStore store = new IdempotencyStore(10, 1, TimeUnit.MINUTES);
+
+        //when
+        IdempotencyStore.Entry first = store.begin("key", 0);
+        IdempotencyStore.Entry concurrent = store.begin("key", 0);
+        store.complete("key", CREATED);
+        IdempotencyStore.Entry retry = store.begin("key", 0);
+
+        //then
+        assertAll(
+                () -> assertNull(first, "Для нового ключа найден результат"),
+                () -> assertTrue(concurrent.isInProgress(), "Выполняющийся запрос не помечен как незавершенный"),
+                () -> assertSame(CREATED, retry.getOutcome(), "Повтор не получил сохраненный результат"),
+                () -> assertEquals(1, store.getReplays(), "Счетчик повторов не совпадает")
+        );
+    }
+
+    @Test
+    @DisplayName("Ключ забывается по истечении срока хранения, после ошибки сервера и при вытеснении")
+    void begin_forgetsExpiredAbandonedAndEvictedKeys() {
+        //given
+        IdempotencyStore store = new IdempotencyStore(2, 1, TimeUnit.SECONDS);
+        store.begin("expired", 0);
+        store.complete("expired", CREATED);
+        store.begin("abandoned", 0);
+        store.abandon("abandoned");
+        store.begin("evicted", 0);
+        store.complete("evicted", CREATED);
+
+        //when
+        IdempotencyStore.Entry expired = store.begin("expired", TimeUnit.SECONDS.toNanos(2));
+        IdempotencyStore.Entry abandoned = store.begin("abandoned", 0);
+        store.begin("other", 0);
+        IdempotencyStore.Entry evicted = store.begin("evicted", 0);
+
+        //then
+        assertAll(
+                () -> assertNull(expired, "Устаревший результат возвращен"),
+                () -> assertNull(abandoned, "Ключ запроса с ошибкой сервера не освобожден"),
+                () -> assertNull(evicted, "Вытесненный ключ не забыт"),
+                () -> assertEquals(2, store.size(), "Хранится больше ключей, чем разрешено")
+        );
+    }
+}
@@ -0,0 +1,40 @@
+package service.server.filter;
+
+import model.TaskType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.managers.feed.ChangeFeed;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ResponseCache")
+class ResponseCacheTest {
+
+    @Test
+    @DisplayName("Заполненный кэш вытесняет ответ, к которому дольше всего не обращались, и продолжает кэшировать новые")
+    void put_evictsLeastRecentlyUsed_whenFull() {
+        //given
+        ResponseCache cache = new ResponseCache(new ChangeFeed(), 2);
+        cache.put("/tasks?cursor=1", response(cache));
+        cache.put("/tasks?cursor=2", response(cache));
+        cache.get("/tasks?cursor=1");
+
+        //when
+        cache.put("/tasks?cursor=3", response(cache));
+
+        //then
+        assertAll(
+                () -> assertEquals(2, cache.size(), "Кэш превысил предел"),
+                () -> assertNotNull(cache.get("/tasks?cursor=3"), "Новый ответ не закэширован"),
+                () -> assertNotNull(cache.get("/tasks?cursor=1"), "Вытеснен недавно прочитанный ответ"),
+                () -> assertNull(cache.get("/tasks?cursor=2"), "Давний ответ не вытеснен")
+        );
+    }
+
+    private static CachedResponse response(ResponseCache cache) {
+        return new CachedResponse(200, Map.of(), new byte[0], Set.of(TaskType.TASK), cache.snapshotGenerations());
+    }
+}
@@ -0,0 +1,118 @@
+package service.server.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenBucketRateLimiter")
+class TokenBucketRateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Разрешает запас запросов сразу, затем отказывает до пополнения ведра")
+    void tryAcquire_allowsBurstThenRejectsUntilRefill() {
+        //given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 2);
+
+        //when
+        long first = limiter.tryAcquire("client", 0);
+        long second = limiter.tryAcquire("client", 0);
+        long rejected = limiter.tryAcquire("client", 0);
+        long afterRefill = limiter.tryAcquire("client", SECOND / 2);
+
+        //then
+        assertAll(
+                () -> assertEquals(0, first, "Первый запрос отклонен"),
+                () -> assertEquals(0, second, "Второй запрос в пределах запаса отклонен"),
+                () -> assertEquals(SECOND / 2, rejected, "Время до следующего токена не совпадает"),
+                () -> assertEquals(0, afterRefill, "Запрос после пополнения отклонен"),
+                () -> assertEquals(1, limiter.getRejected(), "Счетчик отказов не совпадает")
+        );
+    }
+
+    @Test
+    @DisplayName("Клиенты ограничиваются независимо друг от друга")
+    void tryAcquire_limitsClientsIndependently() {
+        //given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1);
+        limiter.tryAcquire("client1", 0);
+
+        //when
+        long otherClient = limiter.tryAcquire("client2", 0);
+
+        //then
+        assertEquals(0, otherClient, "Запрос другого клиента отклонен");
+    }
+
+    @Test
+    @DisplayName("При переполнении удаляются только наполнившиеся ведра, а новые клиенты делят общее ведро")
+    void tryAcquire_evictsFullBuckets_andSharesOverflowBucket() {
+        //given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 2);
+        limiter.tryAcquire("idle", 0);
+        limiter.tryAcquire("active", 2 * SECOND);
+
+        //when
+        long newClient = limiter.tryAcquire("new1", 2 * SECOND);
+        long overflowClient = limiter.tryAcquire("new2", 2 * SECOND);
+        long secondOverflowClient = limiter.tryAcquire("new3", 2 * SECOND);
+
+        //then
+        assertAll(
+                () -> assertEquals(0, newClient, "Запрос нового клиента после вытеснения отклонен"),
+                () -> assertEquals(0, overflowClient, "Первый запрос из общего ведра отклонен"),
+                () -> assertTrue(secondOverflowClient > 0, "Общее ведро не ограничивает новых клиентов"),
+                () -> assertEquals(2, limiter.size() - 1, "Количество отслеживаемых клиентов превышает предел")
+        );
+    }
+
+    @Test
+    @DisplayName("При переполнении вытесняется наполнившееся ведро, а ведро активного клиента остается")
+    void tryAcquire_evictsFullBucket_andKeepsActiveOne() {
+        //given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 2);
+        limiter.tryAcquire("first", 0);
+        limiter.tryAcquire("second", 0);
+        limiter.tryAcquire("first", 2 * SECOND);
+
+        //when
+        long newClient = limiter.tryAcquire("new", 2 * SECOND);
+        long firstAgain = limiter.tryAcquire("first", 2 * SECOND);
+
+        //then
+        assertAll(
+                () -> assertEquals(0, newClient, "Запрос нового клиента отклонен"),
+                () -> assertTrue(firstAgain > 0, "Вытеснено недавно использованное ведро"),
+                () -> assertEquals(2, limiter.size(), "Общее ведро создано, хотя давнее ведро можно было вытеснить")
+        );
+    }
+
+    @Test
+    @DisplayName("При одновременных обращениях множества клиентов число ведер остается около предела")
+    void tryAcquire_keepsBucketCountNearLimit_underConcurrentClients() throws InterruptedException {
+        //given
+        int maxClients = 64;
+        int threadCount = 8;
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, maxClients);
+
+        //when
+        try (ExecutorService executor = Executors.newFixedThreadPool(threadCount)) {
+            for (int thread = 0; thread < threadCount; thread++) {
+                int offset = thread;
+                executor.execute(() -> {
+                    for (int client = 0; client < 1_000; client++) {
+                        limiter.tryAcquire("client" + (client * threadCount + offset), client * SECOND);
+                    }
+                });
+            }
+        }
+
+        //then
+        assertTrue(limiter.size() <= maxClients + threadCount + 1, "Количество ведер превысило предел: " + limiter.size());
+    }
+}